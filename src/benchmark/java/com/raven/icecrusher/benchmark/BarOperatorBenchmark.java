@@ -0,0 +1,112 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.icecrusher.benchmark;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.raven.common.struct.Column;
+import com.raven.icecrusher.ui.plot.BarOperator;
+import com.raven.icecrusher.ui.view.DataFrameColumnView.ColumnType;
+
+/**
+ * Benchmarks the computation of bar chart mappings in all operation modes.
+ * The cardinality of the x-axis column is limited to the number of distinct
+ * values a bar chart can show.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BarOperatorBenchmark {
+
+    public enum OperationMode {
+        SUM,
+        MINIMUM,
+        MAXIMUM,
+        AVERAGE,
+        SINGLE;
+    }
+
+    private static final int MAX_X_VALUES = 50;
+
+    @Param({"10000", "1000000"})
+    public int rows;
+
+    @Param({"0.0", "0.1"})
+    public double nullRatio;
+
+    @Param({"10", "50"})
+    public int cardinality;
+
+    @Param({"SUM", "MINIMUM", "MAXIMUM", "AVERAGE", "SINGLE"})
+    public OperationMode mode;
+
+    private Column colX;
+    private Column colY;
+
+    @Setup(Level.Trial)
+    public void setUp(){
+        this.colX = BenchmarkData.column(ColumnType.STRING, rows, nullRatio,
+                Math.min(cardinality, MAX_X_VALUES));
+
+        this.colY = BenchmarkData.column(ColumnType.DOUBLE, rows, nullRatio, rows);
+    }
+
+    @Benchmark
+    public Map<Object, Double> operate(){
+        final BarOperator operator;
+        switch(mode){
+        case SUM:
+            operator = BarOperator.sumMode(colX, colY);
+            break;
+        case MINIMUM:
+            operator = BarOperator.minimumMode(colX, colY);
+            break;
+        case MAXIMUM:
+            operator = BarOperator.maximumMode(colX, colY);
+            break;
+        case AVERAGE:
+            operator = BarOperator.averageMode(colX, colY);
+            break;
+        default:
+            operator = BarOperator.singleMode(colX, colY);
+            break;
+        }
+        for(int i=0; i<rows; ++i){
+            operator.operate(i);
+        }
+        return operator.finish();
+    }
+
+}
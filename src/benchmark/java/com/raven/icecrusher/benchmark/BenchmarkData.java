@@ -0,0 +1,220 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.icecrusher.benchmark;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import com.raven.common.struct.BinaryColumn;
+import com.raven.common.struct.BooleanColumn;
+import com.raven.common.struct.ByteColumn;
+import com.raven.common.struct.CharColumn;
+import com.raven.common.struct.Column;
+import com.raven.common.struct.DataFrame;
+import com.raven.common.struct.DefaultDataFrame;
+import com.raven.common.struct.DoubleColumn;
+import com.raven.common.struct.FloatColumn;
+import com.raven.common.struct.IntColumn;
+import com.raven.common.struct.LongColumn;
+import com.raven.common.struct.NullableBinaryColumn;
+import com.raven.common.struct.NullableBooleanColumn;
+import com.raven.common.struct.NullableByteColumn;
+import com.raven.common.struct.NullableCharColumn;
+import com.raven.common.struct.NullableDataFrame;
+import com.raven.common.struct.NullableDoubleColumn;
+import com.raven.common.struct.NullableFloatColumn;
+import com.raven.common.struct.NullableIntColumn;
+import com.raven.common.struct.NullableLongColumn;
+import com.raven.common.struct.NullableShortColumn;
+import com.raven.common.struct.NullableStringColumn;
+import com.raven.common.struct.ShortColumn;
+import com.raven.common.struct.StringColumn;
+import com.raven.icecrusher.ui.view.DataFrameColumnView.ColumnType;
+
+/**
+ * Creates the in-memory DataFrames benchmarks operate on.<br>
+ * All data is derived from a seeded random number generator, so that every run of a
+ * benchmark operates on the same data. Each value is derived from an integer in the
+ * range <code>[0, cardinality)</code>, which is rendered such that it can be converted
+ * between all numeric, string, char and boolean column types wherever the target type
+ * is able to represent it. Columns are nullable if and only if the null ratio is
+ * greater than zero.
+ *
+ */
+final class BenchmarkData {
+
+    /** The seed used by all benchmarks **/
+    static final long SEED = 0x1CEC5A5L;
+
+    private BenchmarkData(){ }
+
+    /**
+     * Creates a DataFrame with one column for each of the specified types
+     * 
+     * @param types The types of all columns
+     * @param rows The number of rows
+     * @param nullRatio The share of null values in each column, in the range [0, 1]
+     * @param cardinality The number of distinct non-null values in each column
+     * @return A <code>DataFrame</code> holding the generated data
+     */
+    static DataFrame frame(final ColumnType[] types, final int rows,
+            final double nullRatio, final int cardinality){
+
+        final Random random = new Random(SEED);
+        final Column[] cols = new Column[types.length];
+        for(int i=0; i<cols.length; ++i){
+            cols[i] = column(types[i], rows, nullRatio, cardinality, random);
+        }
+        final DataFrame df = ((nullRatio > 0.0)
+                ? new NullableDataFrame(cols)
+                : new DefaultDataFrame(cols));
+
+        final String[] names = new String[types.length];
+        for(int i=0; i<names.length; ++i){
+            names[i] = types[i].name().toLowerCase() + i;
+        }
+        df.setColumnNames(names);
+        return df;
+    }
+
+    /**
+     * Creates a column of the specified type
+     * 
+     * @param type The type of the column
+     * @param rows The number of rows
+     * @param nullRatio The share of null values, in the range [0, 1]
+     * @param cardinality The number of distinct non-null values
+     * @return A <code>Column</code> holding the generated data
+     */
+    static Column column(final ColumnType type, final int rows,
+            final double nullRatio, final int cardinality){
+
+        return column(type, rows, nullRatio, cardinality, new Random(SEED));
+    }
+
+    /**
+     * Renders the specified integer as a value of the specified column type
+     * 
+     * @param type The column type of the value
+     * @param v The integer to render
+     * @return The value of the specified type
+     */
+    static Object value(final ColumnType type, final int v){
+        switch(type){
+        case BYTE:
+            return (byte)(v % 100);
+        case SHORT:
+            return (short)(v % 30000);
+        case INT:
+            return v;
+        case LONG:
+            return (long)v;
+        case STRING:
+            return String.valueOf(v);
+        case FLOAT:
+            return (float)v;
+        case DOUBLE:
+            return (double)v;
+        case CHAR:
+            return (char)('0' + (v % 10));
+        case BOOLEAN:
+            return ((v % 2) == 0);
+        case BINARY:
+            return ByteBuffer.allocate(4).putInt(v).array();
+        default:
+            throw new IllegalArgumentException("Unknown type: " + type);
+        }
+    }
+
+    private static Column column(final ColumnType type, final int rows,
+            final double nullRatio, final int cardinality, final Random random){
+
+        final Column col = ((nullRatio > 0.0)
+                ? nullableColumnOf(type, rows)
+                : columnOf(type, rows));
+
+        for(int i=0; i<rows; ++i){
+            if((nullRatio > 0.0) && (random.nextDouble() < nullRatio)){
+                col.setValue(i, null);
+            }else{
+                col.setValue(i, value(type, random.nextInt(cardinality)));
+            }
+        }
+        return col;
+    }
+
+    /**
+     * Creates an empty non-nullable column of the specified type
+     */
+    static Column columnOf(final ColumnType type, final int rows){
+        switch(type){
+        case BYTE:
+            return new ByteColumn(rows);
+        case SHORT:
+            return new ShortColumn(rows);
+        case INT:
+            return new IntColumn(rows);
+        case LONG:
+            return new LongColumn(rows);
+        case STRING:
+            return new StringColumn(rows);
+        case FLOAT:
+            return new FloatColumn(rows);
+        case DOUBLE:
+            return new DoubleColumn(rows);
+        case CHAR:
+            return new CharColumn(rows);
+        case BOOLEAN:
+            return new BooleanColumn(rows);
+        case BINARY:
+            return new BinaryColumn(rows);
+        default:
+            throw new IllegalArgumentException("Unknown type: " + type);
+        }
+    }
+
+    /**
+     * Creates an empty nullable column of the specified type
+     */
+    static Column nullableColumnOf(final ColumnType type, final int rows){
+        switch(type){
+        case BYTE:
+            return new NullableByteColumn(rows);
+        case SHORT:
+            return new NullableShortColumn(rows);
+        case INT:
+            return new NullableIntColumn(rows);
+        case LONG:
+            return new NullableLongColumn(rows);
+        case STRING:
+            return new NullableStringColumn(rows);
+        case FLOAT:
+            return new NullableFloatColumn(rows);
+        case DOUBLE:
+            return new NullableDoubleColumn(rows);
+        case CHAR:
+            return new NullableCharColumn(rows);
+        case BOOLEAN:
+            return new NullableBooleanColumn(rows);
+        case BINARY:
+            return new NullableBinaryColumn(rows);
+        default:
+            throw new IllegalArgumentException("Unknown type: " + type);
+        }
+    }
+
+}
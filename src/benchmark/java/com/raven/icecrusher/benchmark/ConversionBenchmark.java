@@ -0,0 +1,96 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.icecrusher.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.raven.common.struct.Column;
+import com.raven.icecrusher.io.ConversionException;
+import com.raven.icecrusher.io.DataFrames;
+import com.raven.icecrusher.ui.view.DataFrameColumnView.ColumnType;
+
+/**
+ * Benchmarks the conversion of DataFrame columns for all pairs of source and
+ * target types. Pairs which cannot be converted, for example doubles to integers,
+ * measure the time until the first offending value is rejected.
+ *
+ * <p>By default, each pair is measured for one column size, null ratio and cardinality.
+ * Other values can be specified with the JMH option <code>-p</code>, for example
+ * <code>-p rows=10000,1000000 -p nullRatio=0.0,0.1 -p cardinality=10,100000</code>.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConversionBenchmark {
+
+    @Param({"1000000"})
+    public int rows;
+
+    @Param({"0.1"})
+    public double nullRatio;
+
+    @Param({"100000"})
+    public int cardinality;
+
+    @Param({"BYTE", "SHORT", "INT", "LONG", "STRING",
+            "FLOAT", "DOUBLE", "CHAR", "BOOLEAN", "BINARY"})
+    public ColumnType source;
+
+    //conversions to binary columns are not supported
+    @Param({"BYTE", "SHORT", "INT", "LONG", "STRING",
+            "FLOAT", "DOUBLE", "CHAR", "BOOLEAN"})
+    public ColumnType target;
+
+    private Column column;
+
+    @Setup(Level.Trial)
+    public void setUp(){
+        //chars and booleans only accept single digits
+        final int bound = (((target == ColumnType.CHAR) || (target == ColumnType.BOOLEAN))
+                ? 2
+                : cardinality);
+
+        this.column = BenchmarkData.column(source, rows, nullRatio, bound);
+    }
+
+    @Benchmark
+    public Object convertColumn(){
+        try{
+            return DataFrames.convertColumn(column, rows, target);
+        }catch(ConversionException ex){
+            return ex;
+        }
+    }
+
+}
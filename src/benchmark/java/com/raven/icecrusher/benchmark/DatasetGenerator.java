@@ -0,0 +1,508 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.icecrusher.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import com.raven.common.io.DataFrameSerializer;
+import com.raven.common.struct.Column;
+import com.raven.common.struct.DataFrame;
+import com.raven.common.struct.DefaultDataFrame;
+import com.raven.common.struct.NullableDataFrame;
+import com.raven.icecrusher.ui.view.DataFrameColumnView.ColumnType;
+
+/**
+ * Generates synthetic datasets for benchmarks and performance tests.<br>
+ * The generated data is fully determined by the seed and the configuration of a
+ * generator, so that the same dataset can be reproduced on any machine. Each column
+ * draws its values from its own random number generator, which makes the values
+ * of a column independent of the number and types of the other columns.
+ *
+ * <p>Each non-null value is derived from an integer in the range
+ * <code>[0, cardinality)</code>. Types which cannot represent that many distinct
+ * values, for example booleans and bytes, are limited to their own number of
+ * distinct values. With a sortedness of <code>s</code>, each value is taken from
+ * an ascending sequence over all rows with probability <code>s</code> and drawn
+ * at random otherwise. Dates are written as ISO-8601 strings within the configured
+ * date range.
+ *
+ * <p>CSV files are written row by row and can therefore be of any size. The .df
+ * format is written by the DataFrame serializer, which requires the entire
+ * DataFrame to be held in memory.
+ *
+ * <p>Example:<br>
+ * <code>new DatasetGenerator(42).rows(100000000L).types(Type.INT, Type.STRING, Type.DATE)
+ * .columns(12).nullRatio(0.05).writeCSV(file, ',');</code>
+ *
+ * <p>The generator can be run from the command line with arguments of the
+ * form <code>-name=value</code>, see {@link #main(String[])}.
+ *
+ */
+public final class DatasetGenerator {
+
+    /**
+     * The types of generated columns. All types except dates correspond
+     * to the column type of the same name.
+     *
+     */
+    public enum Type {
+        BYTE(ColumnType.BYTE, 128),
+        SHORT(ColumnType.SHORT, 32768),
+        INT(ColumnType.INT, Integer.MAX_VALUE),
+        LONG(ColumnType.LONG, Integer.MAX_VALUE),
+        STRING(ColumnType.STRING, Integer.MAX_VALUE),
+        FLOAT(ColumnType.FLOAT, Integer.MAX_VALUE),
+        DOUBLE(ColumnType.DOUBLE, Integer.MAX_VALUE),
+        CHAR(ColumnType.CHAR, 26),
+        BOOLEAN(ColumnType.BOOLEAN, 2),
+        BINARY(ColumnType.BINARY, Integer.MAX_VALUE),
+        DATE(ColumnType.STRING, Integer.MAX_VALUE);
+
+        private final ColumnType columnType;
+        private final int domain;
+
+        Type(final ColumnType columnType, final int domain){
+            this.columnType = columnType;
+            this.domain = domain;
+        }
+    }
+
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final long seed;
+    private long rows = 1000;
+    private int columns;
+    private Type[] types = Type.values();
+    private double nullRatio;
+    private int cardinality = 1000;
+    private double sortedness;
+    private LocalDate firstDate = LocalDate.of(2000, 1, 1);
+    private LocalDate lastDate = LocalDate.of(2020, 12, 31);
+
+    /**
+     * Constructs a new <code>DatasetGenerator</code> with the specified seed.
+     * By default, one column of each type with 1000 rows and no null values is generated
+     * 
+     * @param seed The seed of all generated values
+     */
+    public DatasetGenerator(final long seed){
+        this.seed = seed;
+        this.columns = types.length;
+    }
+
+    /**
+     * Sets the number of rows to generate
+     * 
+     * @param rows The number of rows. Must not be negative
+     * @return This <code>DatasetGenerator</code> instance
+     */
+    public DatasetGenerator rows(final long rows){
+        if(rows < 0){
+            throw new IllegalArgumentException("Row count must not be negative");
+        }
+        this.rows = rows;
+        return this;
+    }
+
+    /**
+     * Sets the number of columns to generate. The column types are assigned by
+     * cycling through the types set by {@link #types(Type...)}
+     * 
+     * @param columns The number of columns. Must be positive
+     * @return This <code>DatasetGenerator</code> instance
+     */
+    public DatasetGenerator columns(final int columns){
+        if(columns < 1){
+            throw new IllegalArgumentException("Column count must be positive");
+        }
+        this.columns = columns;
+        return this;
+    }
+
+    /**
+     * Sets the mix of column types to generate. A type may be specified
+     * more than once to increase its share of all columns
+     * 
+     * @param types The column types. Must not be empty
+     * @return This <code>DatasetGenerator</code> instance
+     */
+    public DatasetGenerator types(final Type... types){
+        if(types.length == 0){
+            throw new IllegalArgumentException("At least one type must be specified");
+        }
+        this.types = types.clone();
+        return this;
+    }
+
+    /**
+     * Sets the share of null values in each column
+     * 
+     * @param nullRatio The share of null values, in the range [0, 1]
+     * @return This <code>DatasetGenerator</code> instance
+     */
+    public DatasetGenerator nullRatio(final double nullRatio){
+        if((nullRatio < 0.0) || (nullRatio > 1.0)){
+            throw new IllegalArgumentException("Null ratio must be in the range [0, 1]");
+        }
+        this.nullRatio = nullRatio;
+        return this;
+    }
+
+    /**
+     * Sets the number of distinct non-null values in each column
+     * 
+     * @param cardinality The number of distinct values. Must be positive
+     * @return This <code>DatasetGenerator</code> instance
+     */
+    public DatasetGenerator cardinality(final int cardinality){
+        if(cardinality < 1){
+            throw new IllegalArgumentException("Cardinality must be positive");
+        }
+        this.cardinality = cardinality;
+        return this;
+    }
+
+    /**
+     * Sets the share of values which are in ascending order
+     * 
+     * @param sortedness The share of sorted values, in the range [0, 1]. A value of 1
+     *                   generates fully sorted columns, 0 generates random columns
+     * @return This <code>DatasetGenerator</code> instance
+     */
+    public DatasetGenerator sortedness(final double sortedness){
+        if((sortedness < 0.0) || (sortedness > 1.0)){
+            throw new IllegalArgumentException("Sortedness must be in the range [0, 1]");
+        }
+        this.sortedness = sortedness;
+        return this;
+    }
+
+    /**
+     * Sets the range of generated dates
+     * 
+     * @param first The first date, inclusive
+     * @param last The last date, inclusive. Must not be before the first date
+     * @return This <code>DatasetGenerator</code> instance
+     */
+    public DatasetGenerator dates(final LocalDate first, final LocalDate last){
+        if(last.isBefore(first)){
+            throw new IllegalArgumentException("Last date must not be before first date");
+        }
+        this.firstDate = first;
+        this.lastDate = last;
+        return this;
+    }
+
+    /**
+     * Writes the generated dataset to the specified CSV file with a header line.
+     * The file is written row by row, so that datasets of any size can be generated.
+     * Null values are written as empty fields
+     * 
+     * @param file The file to write
+     * @param separator The separator of all fields
+     * @throws IOException If an I/O error occurs
+     */
+    public void writeCSV(final File file, final char separator) throws IOException{
+        final Cursor[] cursors = cursors();
+        try(final Writer out = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(file), StandardCharsets.UTF_8), BUFFER_SIZE)){
+
+            for(int i=0; i<columns; ++i){
+                if(i > 0){
+                    out.write(separator);
+                }
+                out.write(nameOf(i));
+            }
+            out.write('\n');
+            final StringBuilder sb = new StringBuilder();
+            for(long row=0; row<rows; ++row){
+                sb.setLength(0);
+                for(int i=0; i<columns; ++i){
+                    if(i > 0){
+                        sb.append(separator);
+                    }
+                    final int v = cursors[i].next(row);
+                    if(v >= 0){
+                        render(sb, cursors[i].type, v);
+                    }
+                }
+                sb.append('\n');
+                out.append(sb);
+            }
+        }
+    }
+
+    /**
+     * Writes the generated dataset to the specified .df file
+     * 
+     * @param file The file to write
+     * @throws IOException If an I/O error occurs
+     */
+    public void writeDataFrame(final File file) throws IOException{
+        DataFrameSerializer.writeFile(file, toDataFrame());
+    }
+
+    /**
+     * Generates the dataset as a DataFrame. The DataFrame is nullable
+     * if and only if the null ratio is greater than zero
+     * 
+     * @return A <code>DataFrame</code> holding the generated dataset
+     */
+    public DataFrame toDataFrame(){
+        if(rows > Integer.MAX_VALUE){
+            throw new IllegalStateException("Too many rows for a DataFrame: " + rows);
+        }
+        final int size = (int) rows;
+        final boolean nullable = (nullRatio > 0.0);
+        final Cursor[] cursors = cursors();
+        final Column[] cols = new Column[columns];
+        final StringBuilder sb = new StringBuilder();
+        for(int i=0; i<columns; ++i){
+            final Type type = cursors[i].type;
+            cols[i] = (nullable
+                    ? BenchmarkData.nullableColumnOf(type.columnType, size)
+                    : BenchmarkData.columnOf(type.columnType, size));
+
+            for(int row=0; row<size; ++row){
+                final int v = cursors[i].next(row);
+                if(v < 0){
+                    cols[i].setValue(row, null);
+                }else if(type == Type.DATE){
+                    sb.setLength(0);
+                    render(sb, type, v);
+                    cols[i].setValue(row, sb.toString());
+                }else{
+                    cols[i].setValue(row, valueOf(type, v));
+                }
+            }
+        }
+        final DataFrame df = (nullable
+                ? new NullableDataFrame(cols)
+                : new DefaultDataFrame(cols));
+
+        final String[] names = new String[columns];
+        for(int i=0; i<columns; ++i){
+            names[i] = nameOf(i);
+        }
+        df.setColumnNames(names);
+        return df;
+    }
+
+    /**
+     * Generates a dataset as specified by the arguments. All arguments are optional
+     * and have the form <code>-name=value</code>:<br>
+     * <code>-out</code> The file to write. The format is determined by the file
+     * extension. Default: <i>dataset.csv</i><br>
+     * <code>-seed</code> The seed of the dataset. Default: <i>0</i><br>
+     * <code>-rows</code> The number of rows. Default: <i>1000</i><br>
+     * <code>-columns</code> The number of columns. Default: <i>one per type</i><br>
+     * <code>-types</code> The comma-separated column types, e.g. <i>int,string,date</i><br>
+     * <code>-nulls</code> The share of null values. Default: <i>0</i><br>
+     * <code>-cardinality</code> The number of distinct values. Default: <i>1000</i><br>
+     * <code>-sortedness</code> The share of sorted values. Default: <i>0</i><br>
+     * <code>-dates</code> The range of dates, e.g. <i>2000-01-01:2020-12-31</i><br>
+     * <code>-separator</code> The CSV separator. Default: <i>,</i>
+     * 
+     * @param args The arguments of the dataset to generate
+     * @throws IOException If an I/O error occurs
+     */
+    public static void main(final String[] args) throws IOException{
+        final Map<String, String> options = new HashMap<>();
+        for(final String arg : args){
+            final int i = arg.indexOf('=');
+            if(!arg.startsWith("-") || (i < 0)){
+                throw new IllegalArgumentException("Invalid argument: " + arg);
+            }
+            options.put(arg.substring(1, i), arg.substring(i + 1));
+        }
+        final File out = new File(options.getOrDefault("out", "dataset.csv"));
+        final char separator = options.getOrDefault("separator", ",").charAt(0);
+        final DatasetGenerator generator = new DatasetGenerator(
+                Long.valueOf(options.getOrDefault("seed", "0")));
+
+        for(final Map.Entry<String, String> option : options.entrySet()){
+            final String value = option.getValue();
+            switch(option.getKey()){
+            case "out":
+            case "seed":
+            case "separator":
+            case "columns":
+                break;
+            case "rows":
+                generator.rows(Long.valueOf(value));
+                break;
+            case "types":
+                final String[] names = value.split(",");
+                final Type[] types = new Type[names.length];
+                for(int i=0; i<names.length; ++i){
+                    types[i] = Type.valueOf(names[i].trim().toUpperCase(Locale.ROOT));
+                }
+                generator.types(types).columns(types.length);
+                break;
+            case "nulls":
+                generator.nullRatio(Double.valueOf(value));
+                break;
+            case "cardinality":
+                generator.cardinality(Integer.valueOf(value));
+                break;
+            case "sortedness":
+                generator.sortedness(Double.valueOf(value));
+                break;
+            case "dates":
+                final String[] range = value.split(":");
+                generator.dates(LocalDate.parse(range[0]), LocalDate.parse(range[1]));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown argument: -" + option.getKey());
+            }
+        }
+        if(options.containsKey("columns")){
+            generator.columns(Integer.valueOf(options.get("columns")));
+        }
+        final long start = System.nanoTime();
+        if(out.getName().endsWith(DataFrameSerializer.DF_FILE_EXTENSION)){
+            generator.writeDataFrame(out);
+        }else{
+            generator.writeCSV(out, separator);
+        }
+        System.out.println(String.format("Generated %s (%d rows, %d columns, %d bytes) in %d ms",
+                out, generator.rows, generator.columns, out.length(),
+                (System.nanoTime() - start) / 1000000));
+    }
+
+    private Cursor[] cursors(){
+        final Cursor[] cursors = new Cursor[columns];
+        for(int i=0; i<columns; ++i){
+            final Type type = types[i % types.length];
+            final int domain = ((type == Type.DATE)
+                    ? (int) Math.min(cardinality,
+                            lastDate.toEpochDay() - firstDate.toEpochDay() + 1)
+                    : Math.min(cardinality, type.domain));
+
+            cursors[i] = new Cursor(type, domain, seed + (i + 1) * GOLDEN_GAMMA);
+        }
+        return cursors;
+    }
+
+    private String nameOf(final int column){
+        return types[column % types.length].name().toLowerCase(Locale.ROOT) + column;
+    }
+
+    private Object valueOf(final Type type, final int v){
+        switch(type){
+        case BYTE:
+            return (byte) v;
+        case SHORT:
+            return (short) v;
+        case INT:
+            return v;
+        case LONG:
+            return (v * 1000003L);
+        case STRING:
+            return stringOf(v);
+        case FLOAT:
+            return (v / 100.0f);
+        case DOUBLE:
+            return (v / 100.0);
+        case CHAR:
+            return (char) ('a' + v);
+        case BOOLEAN:
+            return (v == 1);
+        case BINARY:
+            return new byte[]{(byte) (v >>> 24), (byte) (v >>> 16), (byte) (v >>> 8), (byte) v};
+        default:
+            throw new IllegalArgumentException("Unknown type: " + type);
+        }
+    }
+
+    private void render(final StringBuilder sb, final Type type, final int v){
+        switch(type){
+        case DATE:
+            sb.append(firstDate.plusDays(v).toString());
+            break;
+        case BINARY:
+            for(int shift=28; shift>=0; shift-=4){
+                sb.append(HEX[(v >>> shift) & 0xF]);
+            }
+            break;
+        case STRING:
+            sb.append(stringOf(v));
+            break;
+        default:
+            sb.append(valueOf(type, v));
+            break;
+        }
+    }
+
+    private static String stringOf(final int v){
+        //zero-padded so that the string order matches the numeric order
+        final String s = Integer.toString(v, 36);
+        return "item" + "000000".substring(Math.min(6, s.length())) + s;
+    }
+
+    /**
+     * Generates the value indices of one column
+     */
+    private final class Cursor {
+
+        private final Type type;
+        private final int domain;
+        private final SplittableRandom random;
+
+        Cursor(final Type type, final int domain, final long seed){
+            this.type = type;
+            this.domain = domain;
+            this.random = new SplittableRandom(seed);
+        }
+
+        /**
+         * Gets the value index of the specified row. Rows must be
+         * requested in ascending order
+         * 
+         * @param row The row to get the value index of
+         * @return The value index, or -1 if the value is null
+         */
+        int next(final long row){
+            //always draw all random numbers so that the sequence does not
+            //depend on the null ratio and sortedness
+            final double nullDraw = random.nextDouble();
+            final double sortDraw = random.nextDouble();
+            final int v = random.nextInt(domain);
+            if(nullDraw < nullRatio){
+                return -1;
+            }
+            if(sortDraw < sortedness){
+                return (int) ((double) row / rows * domain);
+            }
+            return v;
+        }
+    }
+
+}
@@ -0,0 +1,128 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.icecrusher.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.raven.common.io.CSVReader;
+import com.raven.common.io.CSVWriter;
+import com.raven.common.io.DataFrameSerializer;
+import com.raven.common.io.SerializationException;
+import com.raven.common.struct.DataFrame;
+import com.raven.icecrusher.io.DataFrames;
+import com.raven.icecrusher.benchmark.DatasetGenerator.Type;
+
+/**
+ * Benchmarks reading and writing of .df and CSV files. The files are read and
+ * written in the same way as by {@link com.raven.icecrusher.io.Files}, but on
+ * the calling thread, so that no JavaFX application thread is required.
+ * The data is created by a {@link DatasetGenerator}.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class FilesBenchmark {
+
+    private static final Type[] TYPES = new Type[]{
+            Type.INT, Type.LONG, Type.STRING, Type.DOUBLE,
+            Type.FLOAT, Type.CHAR, Type.BOOLEAN, Type.DATE};
+
+    @Param({"10000", "1000000"})
+    public int rows;
+
+    @Param({"0.0", "0.1"})
+    public double nullRatio;
+
+    @Param({"10", "100000"})
+    public int cardinality;
+
+    private File dir;
+    private File dfFile;
+    private File csvFile;
+    private File target;
+    private DataFrame df;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException{
+        this.dir = Files.createTempDirectory("icecrusher-bench").toFile();
+        this.dfFile = new File(dir, "data" + DataFrameSerializer.DF_FILE_EXTENSION);
+        this.csvFile = new File(dir, "data.csv");
+        this.target = new File(dir, "target");
+        final DatasetGenerator generator = new DatasetGenerator(BenchmarkData.SEED)
+                .rows(rows)
+                .types(TYPES)
+                .columns(TYPES.length)
+                .nullRatio(nullRatio)
+                .cardinality(cardinality);
+
+        this.df = generator.toDataFrame();
+        DataFrameSerializer.writeFile(dfFile, df);
+        generator.writeCSV(csvFile, ',');
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown(){
+        for(final File file : new File[]{dfFile, csvFile, target, dir}){
+            file.delete();
+        }
+    }
+
+    @Benchmark
+    public DataFrame readDataFrameFile() throws IOException, SerializationException{
+        return DataFrames.sanitize(DataFrameSerializer.readFile(dfFile));
+    }
+
+    @Benchmark
+    public void writeDataFrameFile() throws IOException{
+        DataFrameSerializer.writeFile(target, df);
+    }
+
+    @Benchmark
+    public DataFrame readCSVFile() throws IOException{
+        return DataFrames.sanitize(new CSVReader(csvFile)
+                .withHeader(true)
+                .useSeparator(',')
+                .read());
+    }
+
+    @Benchmark
+    public void writeCSVFile() throws IOException{
+        new CSVWriter(target).useSeparator(',').withHeader(true).write(df);
+    }
+
+}
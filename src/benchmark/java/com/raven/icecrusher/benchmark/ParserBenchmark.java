@@ -0,0 +1,183 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.icecrusher.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.raven.icecrusher.ui.view.Converters;
+import com.raven.icecrusher.ui.view.Converters.Converter;
+import com.raven.icecrusher.ui.view.DataFrameColumnView.ColumnType;
+import com.raven.icecrusher.ui.view.Filters;
+import com.raven.icecrusher.ui.view.Filters.Filter;
+import com.sun.javafx.application.PlatformImpl;
+
+import javafx.scene.control.TextField;
+import javafx.scene.control.TextFormatter;
+
+/**
+ * Benchmarks the parsing of cell input by the converters and filters of
+ * DataFrameViews. The input consists of the string representations of generated
+ * values, as produced by the converter of the respective type. Null values are
+ * represented by the string a converter produces for them.
+ *
+ * <p>Filters can only be applied to changes of a text input control. They are
+ * therefore measured through a <code>TextField</code> which requires the JavaFX
+ * toolkit to be available.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParserBenchmark {
+
+    private static final int INPUTS = 10000;
+
+    @Param({"0.0", "0.1"})
+    public double nullRatio;
+
+    @Param({"10", "100000"})
+    public int cardinality;
+
+    @Param({"BYTE", "SHORT", "INT", "LONG", "STRING",
+            "FLOAT", "DOUBLE", "CHAR", "BOOLEAN", "BINARY"})
+    public ColumnType type;
+
+    private Converter converter;
+    private String[] inputs;
+
+    @Setup(Level.Trial)
+    public void setUp(){
+        this.converter = converterOf(type);
+        final Random random = new Random(BenchmarkData.SEED);
+        this.inputs = new String[INPUTS];
+        for(int i=0; i<INPUTS; ++i){
+            inputs[i] = converter.toString((random.nextDouble() < nullRatio)
+                    ? null
+                    : BenchmarkData.value(type, random.nextInt(cardinality)));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INPUTS)
+    public void convert(final Blackhole blackhole){
+        for(final String input : inputs){
+            blackhole.consume(converter.fromString(input));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INPUTS)
+    public void filter(final FilterState state, final Blackhole blackhole){
+        final TextField field = state.field;
+        for(final String input : inputs){
+            field.replaceText(0, field.getLength(), input);
+            blackhole.consume(field.getLength());
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class FilterState {
+
+        private TextField field;
+
+        @Setup(Level.Trial)
+        public void setUp(final ParserBenchmark benchmark){
+            try{
+                PlatformImpl.startup(() -> { });
+            }catch(IllegalStateException ex){
+                //toolkit is already running
+            }
+            final boolean nullable = (benchmark.nullRatio > 0.0);
+            this.field = new TextField();
+            field.setTextFormatter(new TextFormatter<>(filterOf(benchmark.type, nullable)));
+        }
+    }
+
+    private static Converter converterOf(final ColumnType type){
+        switch(type){
+        case BYTE:
+            return Converters.byteConverter();
+        case SHORT:
+            return Converters.shortConverter();
+        case INT:
+            return Converters.intConverter();
+        case LONG:
+            return Converters.longConverter();
+        case STRING:
+            return Converters.stringConverter();
+        case FLOAT:
+            return Converters.floatConverter();
+        case DOUBLE:
+            return Converters.doubleConverter();
+        case CHAR:
+            return Converters.charConverter();
+        case BOOLEAN:
+            return Converters.booleanConverter();
+        case BINARY:
+            return Converters.binaryConverter();
+        default:
+            throw new IllegalArgumentException("Unknown type: " + type);
+        }
+    }
+
+    private static Filter filterOf(final ColumnType type, final boolean nullable){
+        switch(type){
+        case BYTE:
+            return Filters.byteFilter(nullable);
+        case SHORT:
+            return Filters.shortFilter(nullable);
+        case INT:
+            return Filters.intFilter(nullable);
+        case LONG:
+            return Filters.longFilter(nullable);
+        case STRING:
+            return Filters.stringFilter(nullable);
+        case FLOAT:
+            return Filters.floatFilter(nullable);
+        case DOUBLE:
+            return Filters.doubleFilter(nullable);
+        case CHAR:
+            return Filters.charFilter(nullable);
+        case BOOLEAN:
+            return Filters.booleanFilter(nullable);
+        case BINARY:
+            return Filters.binaryFilter(nullable);
+        default:
+            throw new IllegalArgumentException("Unknown type: " + type);
+        }
+    }
+
+}
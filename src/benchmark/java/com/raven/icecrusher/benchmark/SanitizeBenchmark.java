@@ -0,0 +1,95 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.icecrusher.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.raven.common.struct.CharColumn;
+import com.raven.common.struct.Column;
+import com.raven.common.struct.DataFrame;
+import com.raven.common.struct.NullableCharColumn;
+import com.raven.icecrusher.io.DataFrames;
+import com.raven.icecrusher.ui.view.DataFrameColumnView.ColumnType;
+
+/**
+ * Benchmarks the sanitization of DataFrames read from files. Every
+ * hundredth non-null entry of the char columns is a NULL character.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SanitizeBenchmark {
+
+    private static final int NULL_CHAR_INTERVAL = 100;
+
+    @Param({"10000", "1000000"})
+    public int rows;
+
+    @Param({"0.0", "0.1"})
+    public double nullRatio;
+
+    @Param({"10"})
+    public int cardinality;
+
+    private DataFrame df;
+
+    @Setup(Level.Trial)
+    public void setUp(){
+        this.df = BenchmarkData.frame(new ColumnType[]{
+                ColumnType.INT, ColumnType.CHAR, ColumnType.STRING, ColumnType.CHAR},
+                rows, nullRatio, cardinality);
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpInvocation(){
+        //restore the NULL characters replaced by the previous invocation
+        for(final Column col : df){
+            if((col.typeCode() == CharColumn.TYPE_CODE)
+                    || (col.typeCode() == NullableCharColumn.TYPE_CODE)){
+
+                for(int i=0; i<rows; i+=NULL_CHAR_INTERVAL){
+                    if(col.getValue(i) != null){
+                        col.setValue(i, '\u0000');
+                    }
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public DataFrame sanitize(){
+        return DataFrames.sanitize(df);
+    }
+
+}
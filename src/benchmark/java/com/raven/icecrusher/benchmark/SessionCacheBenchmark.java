@@ -0,0 +1,111 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.icecrusher.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.raven.icecrusher.application.SessionCache;
+
+/**
+ * Benchmarks single operations on a <code>SessionCache</code>. Keys are drawn from
+ * a skewed distribution over the specified number of distinct keys, so that a small
+ * set of keys is accessed frequently, as is the case for the entries of the
+ * application's session cache. A share of all puts are removals by means of
+ * null values, as specified by the null ratio.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SessionCacheBenchmark {
+
+    private static final int SEQUENCE_LENGTH = 1 << 16;
+
+    @Param({"1000", "100000"})
+    public int limit;
+
+    @Param({"0.0", "0.1"})
+    public double nullRatio;
+
+    @Param({"100", "100000"})
+    public int cardinality;
+
+    private SessionCache cache;
+    private String[] keys;
+    private String[] values;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp(){
+        final Random random = new Random(BenchmarkData.SEED);
+        this.keys = new String[SEQUENCE_LENGTH];
+        this.values = new String[SEQUENCE_LENGTH];
+        for(int i=0; i<SEQUENCE_LENGTH; ++i){
+            final double r = random.nextDouble();
+            keys[i] = "key" + (int) (r * r * r * cardinality);
+            values[i] = ((random.nextDouble() < nullRatio) ? null : ("value" + i));
+        }
+        this.cache = new SessionCache(limit, SessionCache.DEFAULT_WEIGHER);
+        for(int i=0; i<SEQUENCE_LENGTH; ++i){
+            cache.put(keys[i], values[i]);
+        }
+    }
+
+    @Benchmark
+    public Object get(){
+        return cache.get(keys[nextIndex()]);
+    }
+
+    @Benchmark
+    public Object put(){
+        final int i = nextIndex();
+        return cache.put(keys[i], values[i]);
+    }
+
+    @Benchmark
+    public Object readThrough(){
+        final int i = nextIndex();
+        final String value = cache.get(keys[i]);
+        if(value == null){
+            cache.put(keys[i], values[i]);
+        }
+        return value;
+    }
+
+    private int nextIndex(){
+        next = ((next + 1) & (SEQUENCE_LENGTH - 1));
+        return next;
+    }
+
+}
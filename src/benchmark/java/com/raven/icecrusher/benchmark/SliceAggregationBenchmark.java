@@ -0,0 +1,82 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.icecrusher.benchmark;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.raven.common.struct.Column;
+import com.raven.icecrusher.ui.plot.SliceAggregation;
+import com.raven.icecrusher.ui.view.DataFrameColumnView.ColumnType;
+
+/**
+ * Benchmarks the aggregation of pie chart slices, either by counting the
+ * occurrences of each key or by summing up the values of a numeric column.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SliceAggregationBenchmark {
+
+    private static final int SLICES = 10;
+
+    @Param({"10000", "1000000"})
+    public int rows;
+
+    @Param({"0.0", "0.1"})
+    public double nullRatio;
+
+    @Param({"10", "100000"})
+    public int cardinality;
+
+    @Param({"true", "false"})
+    public boolean counted;
+
+    private Column keys;
+    private Column values;
+
+    @Setup(Level.Trial)
+    public void setUp(){
+        this.keys = BenchmarkData.column(ColumnType.STRING, rows, nullRatio, cardinality);
+        this.values = (counted
+                ? null
+                : BenchmarkData.column(ColumnType.DOUBLE, rows, nullRatio, rows));
+    }
+
+    @Benchmark
+    public Map<String, Number> aggregate(){
+        return SliceAggregation.of(keys, values, rows, (done, total) -> { }).top(SLICES);
+    }
+
+}
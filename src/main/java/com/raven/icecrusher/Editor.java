@@ -18,10 +18,14 @@ package com.raven.icecrusher;
 
 import com.raven.common.util.ArgumentParseException;
 import com.raven.common.util.ArgumentParser;
+import com.raven.icecrusher.application.Layout;
 import com.raven.icecrusher.application.Resources;
+import com.raven.icecrusher.application.Scheduler;
 import com.raven.icecrusher.application.StackedApplication;
+import com.raven.icecrusher.application.StartupTrace;
 import com.raven.icecrusher.application.Controller.ArgumentBundle;
 import com.raven.icecrusher.base.Activity;
+import com.raven.icecrusher.base.Dialog;
 import com.raven.icecrusher.util.Const;
 import com.raven.icecrusher.util.EditorConfiguration;
 
@@ -45,6 +49,9 @@ public class Editor extends StackedApplication {
     public void onStart(Stage stage) throws Exception{
         stage.setTitle(Const.APPLICATION_NAME);
         stage.getIcons().add(Resources.image(IC_ICECRUSHER));
+        Scheduler.configure(config.integerOf(GLOBAL, CONFIG_SCHEDULER_IO_THREADS),
+                config.integerOf(GLOBAL, CONFIG_SCHEDULER_CPU_THREADS));
+
         if(wasUpdated){
             config.set(UPDATER, CONFIG_UPDATE_AVAILABLE, false);
             config.transferAll();
@@ -53,6 +60,22 @@ public class Editor extends StackedApplication {
         bundle.addArgument(BUNDLE_KEY_SCENE_WIDTH, config.doubleOf(WINDOW, CONFIG_WINDOW_WIDTH));
         bundle.addArgument(BUNDLE_KEY_SCENE_HEIGHT, config.doubleOf(WINDOW, CONFIG_WINDOW_HEIGHT));
         startActivity(Activity.MAIN, bundle);
+        runWhenIdle(Editor::preloadLayouts);
+    }
+
+    /**
+     * Preloads the layouts of all activities and dialogs which are
+     * not shown at startup so that they can be opened without delay
+     */
+    private static void preloadLayouts(){
+        for(final Activity activity : Activity.values()){
+            if(activity != Activity.MAIN){
+                Layout.of(activity).preload();
+            }
+        }
+        for(final Dialog dialog : Dialog.values()){
+            Layout.of(dialog).preload();
+        }
     }
 
     @Override
@@ -96,6 +119,7 @@ public class Editor extends StackedApplication {
 
     public static void main(String[] args){
         config = getConfiguration();
+        StartupTrace.get().mark(StartupTrace.Phase.CONFIG);
 
         final ArgumentParser ap = new ArgumentParser.Builder()
                 .optionalBooleanArg("-isNative")
@@ -21,13 +21,89 @@ import static com.raven.icecrusher.util.EditorConfiguration.Section.*;
 
 /**
  * Abstract class defining methods application caches must implement.
- * A Cache maps plain string keys to plain string values and may be size restricted.<br>
+ * A Cache maps plain string keys to values and may be size restricted. Values are
+ * either plain strings, e.g. user preferences, or arbitrary typed objects, e.g.
+ * computed artifacts. The size of a Cache is measured as the total weight of all
+ * entries as computed by a {@link Weigher}.<br>
+ * Artifacts computed from files can additionally be persisted across sessions
+ * in the {@link DiskCache} of the application.<br>
  * This class also provides access to application caches via static methods.
  *
  */
 public abstract class Cache {
+
+    /**
+     * Computes the weight of cache entries.
+     *
+     */
+    @FunctionalInterface
+    public interface Weigher {
+
+        /**
+         * Computes the weight of the specified entry
+         * 
+         * @param key The key of the entry
+         * @param value The value of the entry. Is not null
+         * @return The weight of the entry. Must not be negative
+         */
+        long weigh(String key, Object value);
+    }
+
+    /**
+     * Is notified when an entry is evicted from a cache.
+     *
+     */
+    @FunctionalInterface
+    public interface EvictionListener {
+
+        /**
+         * Called after the specified entry has been evicted. Is not called when
+         * an entry is removed or replaced explicitly. Implementations must not
+         * access the cache which evicted the entry
+         * 
+         * @param key The key of the evicted entry
+         * @param value The value of the evicted entry. Is not null
+         */
+        void onEvicted(String key, Object value);
+    }
+
+    /**
+     * Values which know their own approximate weight, for example
+     * their size in bytes.
+     *
+     */
+    public interface Weighted {
+
+        /**
+         * Gets the weight of this value
+         * 
+         * @return The weight of this value. Must not be negative
+         */
+        long weight();
+    }
+
+    /**
+     * The weight of values which are neither strings nor {@link Weighted}
+     */
+    public static final long DEFAULT_OBJECT_WEIGHT = 64;
     
+    /**
+     * The default <code>Weigher</code>. Weighs strings by their number of characters.
+     * Values implementing {@link Weighted} are weighed by their own weight and all other
+     * values by {@link #DEFAULT_OBJECT_WEIGHT}. The length of the key is always added
+     */
+    public static final Weigher DEFAULT_WEIGHER = (key, value) -> {
+        if(value instanceof String){
+            return key.length() + ((String) value).length();
+        }
+        if(value instanceof Weighted){
+            return key.length() + ((Weighted) value).weight();
+        }
+        return key.length() + DEFAULT_OBJECT_WEIGHT;
+    };
+
     private static SessionCache sessionCache;
+    private static DiskCache diskCache;
     
     /**
      * Gets the cache entry with the specified key
@@ -38,6 +114,17 @@ public abstract class Cache {
      */
     public abstract String get(final String key);
     
+    /**
+     * Gets the typed cache entry with the specified key
+     * 
+     * @param <T> The type of the cache entry
+     * @param key The key of the cache entry to get. Must not be null
+     * @param type The type of the cache entry
+     * @return The cache entry with the specified key, or null if the cache does not
+     *         have an entry with the specified key and type
+     */
+    public abstract <T> T get(final String key, final Class<T> type);
+    
     /**
      * Gets the cache entry with the specified key or returns the specified default value
      * 
@@ -59,6 +146,16 @@ public abstract class Cache {
      */
     public abstract String set(final String key, final String value);
     
+    /**
+     * Sets the typed cache entry with the specified key to the specified value.
+     * This method might overwrite a preexisting value
+     * 
+     * @param key The key of the cache entry to set. Must not be null
+     * @param value The value of the cache entry to set. Setting null removes the entry
+     * @return The previous cache value with the specified key. May be null
+     */
+    public abstract Object put(final String key, final Object value);
+    
     /**
      * Removes the cache entry with the specified key
      * 
@@ -80,16 +177,111 @@ public abstract class Cache {
      */
     public abstract void clear();
     
+    /**
+     * Gets the statistics of this cache
+     * 
+     * @return A snapshot of the current <code>Stats</code> of this cache
+     */
+    public abstract Stats stats();
+    
     /**
      * Gets a reference to the application session cache
      * 
      * @return The <code>SessionCache</code> of the application
      */
-    public static Cache session(){
+    public static synchronized Cache session(){
         if(sessionCache == null){
             final int size = getConfiguration().memoryOf(GLOBAL, CONFIG_CACHE_SESSION_SIZE);
             sessionCache = new SessionCache((size > 500) ? size : 2000000);
         }
         return sessionCache;
     }
+
+    /**
+     * Gets a reference to the application disk cache. The disk cache is compacted
+     * in the background when it is first accessed
+     * 
+     * @return The <code>DiskCache</code> of the application
+     */
+    public static synchronized DiskCache disk(){
+        if(diskCache == null){
+            final long size = getConfiguration().largeMemoryOf(GLOBAL, CONFIG_CACHE_DISK_SIZE);
+            diskCache = new DiskCache(getCacheDirectory(), (size > 0) ? size : 256000000L);
+            diskCache.compactInBackground();
+        }
+        return diskCache;
+    }
+
+    /**
+     * Immutable snapshot of the statistics of a Cache.
+     *
+     */
+    public static final class Stats {
+
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final long evictedWeight;
+
+        public Stats(final long hits, final long misses, final long evictions,
+                final long evictedWeight){
+
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.evictedWeight = evictedWeight;
+        }
+
+        /**
+         * Gets the number of lookups which found an entry
+         * 
+         * @return The number of cache hits
+         */
+        public long hits(){
+            return this.hits;
+        }
+
+        /**
+         * Gets the number of lookups which did not find an entry
+         * 
+         * @return The number of cache misses
+         */
+        public long misses(){
+            return this.misses;
+        }
+
+        /**
+         * Gets the number of entries removed to keep the cache within its limit
+         * 
+         * @return The number of evicted entries
+         */
+        public long evictions(){
+            return this.evictions;
+        }
+
+        /**
+         * Gets the total weight of all evicted entries
+         * 
+         * @return The weight of all evicted entries
+         */
+        public long evictedWeight(){
+            return this.evictedWeight;
+        }
+
+        /**
+         * Gets the ratio of hits to all lookups
+         * 
+         * @return The hit rate, or 1.0 if there were no lookups
+         */
+        public double hitRate(){
+            final long lookups = hits + misses;
+            return ((lookups == 0) ? 1.0 : ((double) hits / lookups));
+        }
+
+        @Override
+        public String toString(){
+            return String.format("Stats{hits=%d, misses=%d, evictions=%d, evictedWeight=%d}",
+                    hits, misses, evictions, evictedWeight);
+        }
+    }
 }
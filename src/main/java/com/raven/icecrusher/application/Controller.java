@@ -38,6 +38,8 @@ import javafx.stage.Stage;
  */
 public abstract class Controller {
 
+    private final Scheduler.Token token = new Scheduler.Token();
+
     /**
      * Called when the activity starts. If the parent activity passed any arguments
      * to the invoked activity, the latter can access them via the 
@@ -94,6 +96,28 @@ public abstract class Controller {
      */
     public void onWindowResized(double width, double height){ }
 
+    /**
+     * Called after this activity has finished and its layout has been removed from the
+     * scene graph. Subclasses of <code>Controller</code> may override this method to reset
+     * this activity to the state it had after its <code>initialize()</code> method was
+     * called. By returning <code>true</code> the activity signals that its layout can be
+     * reused the next time it is started, so that it does not have to be loaded again.<br>
+     * The default behaviour returns <code>false</code>, causing the layout to be discarded
+     * 
+     * @return True if this activity has been reset and its layout can be reused
+     */
+    public boolean onRecycle(){ return false; }
+
+    /**
+     * Gets the cancellation token of this activity. All work submitted to the
+     * {@link Scheduler} with this token is cancelled when this activity is finished
+     * 
+     * @return The <code>Scheduler.Token</code> of this activity
+     */
+    public final Scheduler.Token getCancellationToken(){
+        return this.token;
+    }
+
     /**
      * Gets the main stage of this application
      * 
@@ -196,6 +220,17 @@ public abstract class Controller {
         StackedApplication.finishActivity(args);
     }
 
+    /**
+     * Runs the specified task on the FX application thread when this application is idle.
+     * Tasks are not run before the first frame has been rendered, so they do not delay
+     * the startup of this application
+     * 
+     * @param task The task to run when idle
+     */
+    public final void runWhenIdle(final Runnable task){
+        StackedApplication.runWhenIdle(task);
+    }
+
     /**
      * A bundle holding arguments passed between activities.<br>
      * Each argument is represented by a key-value-pair and must be set and accessed that way.
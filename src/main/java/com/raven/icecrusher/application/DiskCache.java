@@ -0,0 +1,580 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.icecrusher.application;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Persistent second-level cache for artifacts computed from files, e.g. column
+ * statistics or chart aggregates. Artifacts are stored in binary cache files in
+ * a directory on the local filesystem, so they survive the end of a session.
+ *
+ * <p>All artifacts computed from the same source file are stored in one cache file whose
+ * header identifies the state of the source file by its path, size, time of last modification
+ * and a hash of its content. An artifact is only returned as long as the source file is in
+ * exactly that state. The content hash is computed from samples at the start, middle and end
+ * of the source file, so that large files do not have to be read completely.<br>
+ * Each artifact is identified by a name and encoded by a {@link Codec}. New artifacts are
+ * appended to the cache file of their source file.
+ *
+ * <p>The total size of all cache files is restricted. Cache files of source files which have
+ * changed or were deleted, superseded artifacts and, when the size exceeds its limit, the least
+ * recently used cache files are removed by a background compaction.
+ *
+ * <p>A DiskCache is a best effort cache. I/O errors are never propagated to the caller but
+ * are treated as cache misses. All methods of this class are thread-safe.
+ *
+ */
+public final class DiskCache {
+
+    /**
+     * Encodes and decodes cached artifacts of a specific type.
+     *
+     * @param <T> The type of the artifacts
+     */
+    public interface Codec<T> {
+
+        /**
+         * Writes the specified artifact to the specified output
+         * 
+         * @param out The <code>DataOutput</code> to write to
+         * @param value The artifact to encode
+         * @throws IOException If an I/O error occurs
+         */
+        void write(DataOutput out, T value) throws IOException;
+
+        /**
+         * Reads an artifact from the specified input
+         * 
+         * @param in The <code>DataInput</code> to read from
+         * @return The decoded artifact
+         * @throws IOException If an I/O error occurs or the data is malformed
+         */
+        T read(DataInput in) throws IOException;
+    }
+
+    /**
+     * File extension of all cache files
+     */
+    public static final String FILE_EXTENSION = ".dc";
+
+    /**
+     * The number of bytes read from each sampled region of a source file
+     */
+    static final int SAMPLE_SIZE = 65536;
+
+    private static final int MAGIC = 0x49434443;
+    private static final int VERSION = 1;
+
+    /**
+     * Compaction removes cache files until the total size is below this share of the limit
+     */
+    private static final double COMPACTION_TARGET = 0.75;
+
+    private final File directory;
+    private final long limit;
+    private final Map<String, Source> sources;
+    private long size;
+    private boolean compacting;
+
+    /**
+     * Constructs a new <code>DiskCache</code> storing its files in the specified
+     * directory. The directory is created if it does not exist
+     * 
+     * @param directory The directory to store all cache files in
+     * @param limit The maximum total size of all cache files, in bytes
+     */
+    public DiskCache(final File directory, final long limit){
+        if(limit < 1){
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        this.directory = directory;
+        this.limit = limit;
+        this.sources = new HashMap<>();
+        this.directory.mkdirs();
+        for(final File file : cacheFiles()){
+            this.size += file.length();
+        }
+    }
+
+    /**
+     * Gets the artifact with the specified name computed from the specified source file
+     * 
+     * @param <T> The type of the artifact
+     * @param source The file from which the artifact was computed
+     * @param name The name of the artifact
+     * @param codec The <code>Codec</code> to decode the artifact with
+     * @return The cached artifact, or null if no artifact with the specified name
+     *         is cached for the current state of the source file
+     */
+    public synchronized <T> T get(final File source, final String name, final Codec<T> codec){
+        final Source state = stateOf(source);
+        if(state == null){
+            return null;
+        }
+        final File file = cacheFileOf(state.path);
+        if(!file.exists()){
+            return null;
+        }
+        try{
+            final byte[] data = find(file, state, name);
+            if(data == null){
+                return null;
+            }
+            file.setLastModified(System.currentTimeMillis());
+            return codec.read(new DataInputStream(new ByteArrayInputStream(data)));
+        }catch(IOException ex){
+            delete(file);
+            return null;
+        }
+    }
+
+    /**
+     * Caches the specified artifact computed from the specified source file. Any artifact with
+     * the same name cached for the source file is replaced. If the source file has changed
+     * since the artifacts already cached for it were computed, then all those artifacts
+     * are removed
+     * 
+     * @param <T> The type of the artifact
+     * @param source The file from which the artifact was computed. It must not have
+     *               been changed since the computation of the artifact started
+     * @param name The name of the artifact
+     * @param value The artifact to cache
+     * @param codec The <code>Codec</code> to encode the artifact with
+     */
+    public synchronized <T> void put(final File source, final String name,
+            final T value, final Codec<T> codec){
+
+        final Source state = stateOf(source);
+        if(state == null){
+            return;
+        }
+        final File file = cacheFileOf(state.path);
+        try{
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            codec.write(new DataOutputStream(bytes), value);
+            final byte[] data = bytes.toByteArray();
+            if(data.length > limit){
+                return;
+            }
+            final boolean append = file.exists() && state.equals(readHeader(file));
+            final long before = (file.exists() ? file.length() : 0);
+            try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new FileOutputStream(file, append)))){
+
+                if(!append){
+                    writeHeader(out, state);
+                }
+                out.writeUTF(name);
+                out.writeInt(data.length);
+                out.write(data);
+            }
+            this.size += (file.length() - before);
+        }catch(IOException ex){
+            delete(file);
+            return;
+        }
+        if(size > limit){
+            compactInBackground();
+        }
+    }
+
+    /**
+     * Gets the total size of all cache files
+     * 
+     * @return The size of this cache, in bytes
+     */
+    public synchronized long size(){
+        return this.size;
+    }
+
+    /**
+     * Gets the maximum total size of all cache files
+     * 
+     * @return The limit of this cache, in bytes
+     */
+    public long limit(){
+        return this.limit;
+    }
+
+    /**
+     * Removes all cache files
+     */
+    public synchronized void clear(){
+        for(final File file : cacheFiles()){
+            delete(file);
+        }
+        this.sources.clear();
+        this.size = 0;
+    }
+
+    /**
+     * Starts a compaction of this cache in the background, unless
+     * a compaction is already running
+     */
+    public synchronized void compactInBackground(){
+        if(compacting){
+            return;
+        }
+        this.compacting = true;
+        try{
+            Scheduler.submit(Scheduler.Pool.IO, Scheduler.Priority.BACKGROUND, () -> {
+                try{
+                    compact();
+                }finally{
+                    synchronized(this){
+                        this.compacting = false;
+                    }
+                }
+            });
+        }catch(RejectedExecutionException ex){//application is stopping
+            this.compacting = false;
+        }
+    }
+
+    /**
+     * Compacts this cache. Removes all cache files of source files which have changed or
+     * were deleted, rewrites cache files holding superseded artifacts and removes the least
+     * recently used cache files until the total size is sufficiently below the limit.<br>
+     * Cache files are read and rewritten without holding the lock of this cache, so that
+     * a compaction does not block concurrent lookups. The lock is only taken to replace
+     * or delete a cache file, which is skipped if the file was changed in the meantime
+     */
+    public void compact(){
+        for(final File file : cacheFiles()){
+            final long length = file.length();
+            try{
+                final Source header = readHeader(file);
+                if((header == null) || !header.equals(stateOf(new File(header.path)))){
+                    deleteIfInvalid(file);
+                    continue;
+                }
+                final File tmp = rewrite(file, header);
+                if(tmp != null){
+                    replace(file, tmp, header, length);
+                }
+            }catch(IOException ex){
+                deleteIfInvalid(file);
+            }
+        }
+        final long target = (long) (limit * COMPACTION_TARGET);
+        if(size() > target){
+            //least recently used first
+            final File[] remaining = cacheFiles();
+            final long[] modified = new long[remaining.length];
+            for(int i=0; i<remaining.length; ++i){
+                modified[i] = remaining[i].lastModified();
+            }
+            final Integer[] order = new Integer[remaining.length];
+            for(int i=0; i<order.length; ++i){
+                order[i] = i;
+            }
+            Arrays.sort(order, Comparator.comparingLong((i) -> modified[i]));
+            for(int i=0; i<order.length; ++i){
+                synchronized(this){
+                    if(size <= target){
+                        break;
+                    }
+                    delete(remaining[order[i]]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes the hash of the content of the specified file from samples at the start,
+     * middle and end of the file
+     * 
+     * @param file The file to compute the hash for
+     * @return The sampled content hash of the specified file
+     * @throws IOException If an I/O error occurs
+     */
+    static long contentHash(final File file) throws IOException{
+        try(RandomAccessFile raf = new RandomAccessFile(file, "r")){
+            final long length = raf.length();
+            long hash = 0xCBF29CE484222325L ^ length;
+            final byte[] buffer = new byte[SAMPLE_SIZE];
+            final long[] offsets = new long[]{
+                    0, Math.max(0, (length - SAMPLE_SIZE) / 2), Math.max(0, length - SAMPLE_SIZE)};
+
+            for(final long offset : offsets){
+                raf.seek(offset);
+                final int n = raf.read(buffer, 0, (int) Math.min(SAMPLE_SIZE, length - offset));
+                for(int i=0; i<n; ++i){
+                    hash ^= (buffer[i] & 0xff);
+                    hash *= 0x100000001B3L;
+                }
+            }
+            return hash;
+        }
+    }
+
+    private Source stateOf(final File source){
+        if(source == null || !source.isFile()){
+            return null;
+        }
+        final String path = source.getAbsolutePath();
+        final long length = source.length();
+        final long modified = source.lastModified();
+        final Source known;
+        synchronized(this){
+            known = sources.get(path);
+        }
+        if((known != null) && (known.size == length) && (known.modified == modified)){
+            return known;
+        }
+        try{
+            final Source state = new Source(path, length, modified, contentHash(source));
+            synchronized(this){
+                sources.put(path, state);
+            }
+            return state;
+        }catch(IOException ex){
+            return null;
+        }
+    }
+
+    private File cacheFileOf(final String path){
+        final byte[] bytes = path.getBytes(StandardCharsets.UTF_8);
+        long hash = 0xCBF29CE484222325L;
+        for(final byte b : bytes){
+            hash ^= (b & 0xff);
+            hash *= 0x100000001B3L;
+        }
+        return new File(directory, String.format("%016x", hash) + FILE_EXTENSION);
+    }
+
+    private File[] cacheFiles(){
+        final File[] files = directory.listFiles(
+                (dir, name) -> name.endsWith(FILE_EXTENSION));
+
+        return ((files != null) ? files : new File[0]);
+    }
+
+    private void delete(final File file){
+        final long length = file.length();
+        if(file.delete()){
+            this.size = Math.max(0, size - length);
+        }
+    }
+
+    /**
+     * Deletes the specified cache file unless it has been replaced by a valid
+     * cache file in the meantime
+     */
+    private synchronized void deleteIfInvalid(final File file){
+        try{
+            final Source header = readHeader(file);
+            if((header != null) && header.equals(stateOf(new File(header.path)))){
+                return;
+            }
+        }catch(IOException ex){
+            //unreadable cache files are deleted
+        }
+        delete(file);
+    }
+
+    /**
+     * Replaces the specified cache file by its rewritten version, unless the cache
+     * file has been changed since it was read for the rewrite
+     */
+    private synchronized void replace(final File file, final File tmp,
+            final Source header, final long length){
+
+        try{
+            if(!file.exists() || (file.length() != length) || !header.equals(readHeader(file))){
+                tmp.delete();
+                return;
+            }
+        }catch(IOException ex){
+            tmp.delete();
+            return;
+        }
+        final long modified = file.lastModified();
+        if(!file.delete()){
+            tmp.delete();
+            return;
+        }
+        this.size = Math.max(0, size - length);
+        if(tmp.renameTo(file)){
+            file.setLastModified(modified);
+            this.size += file.length();
+        }else{
+            tmp.delete();
+        }
+    }
+
+    private static byte[] find(final File file, final Source state, final String name)
+            throws IOException{
+
+        try(DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file)))){
+
+            if(!state.equals(readHeader(in))){
+                return null;
+            }
+            byte[] found = null;
+            while(true){
+                final String record;
+                try{
+                    record = in.readUTF();
+                }catch(EOFException ex){
+                    return found;
+                }
+                final int length = in.readInt();
+                if(record.equals(name)){
+                    found = new byte[length];
+                    in.readFully(found);
+                }else{
+                    skip(in, length);
+                }
+            }
+        }
+    }
+
+    private static File rewrite(final File file, final Source header) throws IOException{
+        final Map<String, byte[]> records = new LinkedHashMap<>();
+        int count = 0;
+        try(DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file)))){
+
+            readHeader(in);
+            while(true){
+                final String name;
+                try{
+                    name = in.readUTF();
+                }catch(EOFException ex){
+                    break;
+                }
+                final byte[] data = new byte[in.readInt()];
+                in.readFully(data);
+                records.remove(name);
+                records.put(name, data);
+                ++count;
+            }
+        }
+        if(count == records.size()){//nothing superseded
+            return null;
+        }
+        final File tmp = new File(file.getPath() + ".tmp");
+        try(DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(tmp)))){
+
+            writeHeader(out, header);
+            for(final Map.Entry<String, byte[]> e : records.entrySet()){
+                out.writeUTF(e.getKey());
+                out.writeInt(e.getValue().length);
+                out.write(e.getValue());
+            }
+        }catch(IOException ex){
+            tmp.delete();
+            throw ex;
+        }
+        return tmp;
+    }
+
+    private static void skip(final DataInputStream in, final int length) throws IOException{
+        int remaining = length;
+        while(remaining > 0){
+            final int n = in.skipBytes(remaining);
+            if(n <= 0){
+                throw new EOFException();
+            }
+            remaining -= n;
+        }
+    }
+
+    private static Source readHeader(final File file) throws IOException{
+        try(DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file)))){
+
+            return readHeader(in);
+        }
+    }
+
+    private static Source readHeader(final DataInputStream in) throws IOException{
+        if((in.readInt() != MAGIC) || (in.readInt() != VERSION)){
+            return null;
+        }
+        return new Source(in.readUTF(), in.readLong(), in.readLong(), in.readLong());
+    }
+
+    private static void writeHeader(final DataOutputStream out, final Source state)
+            throws IOException{
+
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeUTF(state.path);
+        out.writeLong(state.size);
+        out.writeLong(state.modified);
+        out.writeLong(state.hash);
+    }
+
+    /**
+     * The state of a source file.
+     *
+     */
+    private static final class Source {
+
+        private final String path;
+        private final long size;
+        private final long modified;
+        private final long hash;
+
+        Source(final String path, final long size, final long modified, final long hash){
+            this.path = path;
+            this.size = size;
+            this.modified = modified;
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean equals(final Object obj){
+            if(!(obj instanceof Source)){
+                return false;
+            }
+            final Source other = (Source) obj;
+            return path.equals(other.path) && (size == other.size)
+                    && (modified == other.modified) && (hash == other.hash);
+        }
+
+        @Override
+        public int hashCode(){
+            return path.hashCode() ^ Long.hashCode(hash);
+        }
+    }
+}
@@ -16,7 +16,22 @@
 
 package com.raven.icecrusher.application;
 
+import static com.raven.icecrusher.util.EditorConfiguration.getConfiguration;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import com.raven.icecrusher.base.Activity;
 import com.raven.icecrusher.base.Dialog;
@@ -26,7 +41,9 @@ import com.raven.icecrusher.util.ExceptionHandler;
 import javafx.animation.Interpolator;
 import javafx.animation.KeyFrame;
 import javafx.animation.KeyValue;
+import javafx.animation.PauseTransition;
 import javafx.animation.Timeline;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.util.Duration;
@@ -34,6 +51,18 @@ import javafx.util.Duration;
 /**
  * Class responsible for handling and loading layouts from resource FXML files.
  *
+ * <p>Layouts can be preloaded by means of {@link #preload()}. The FXML resource of a
+ * preloaded layout is read and the classes of its controller are loaded by a background
+ * thread. A spare instance of the layout is then built on the FX thread while the
+ * application is idle. Loading a preloaded layout takes that spare instance, so no FXML
+ * has to be parsed at that time, and builds a new spare instance later. Spare instances
+ * are discarded when the configuration was modified after they have been built, as
+ * controllers may initialize themselves from configuration values.<br>
+ * Controllers which can reset their state can return a loaded layout to the pool
+ * of spare instances by means of {@link #recycle(Parent, Object)}.
+ *
+ * <p>All methods of this class must be called on the FX thread, except where noted.
+ *
  */
 public class Layout {
 
@@ -50,7 +79,30 @@ public class Layout {
         private static final int ANIM_DURATION = 500;//millis
     }
 
-    private FXMLLoader fxmlLoader;
+    /**
+     * Delay in milliseconds before a spare instance is built after the previous one
+     * was taken, so that building it does not interfere with the layout transition
+     */
+    private static final int REPLENISH_DELAY = 3 * Transition.ANIM_DURATION;
+
+    /**
+     * Delay in milliseconds between building two spare instances,
+     * so that rendering is not stalled by many builds in a row
+     */
+    private static final int BUILD_INTERVAL = 50;
+
+    private static final Pattern CONTROLLER_ATTRIBUTE = Pattern.compile(
+            "fx:controller\\s*=\\s*\"([^\"]+)\"");
+
+    /** FXML content of all preloaded layouts. Is populated by background threads **/
+    private static final Map<String, byte[]> sources = new ConcurrentHashMap<>();
+
+    private static final Map<String, Instance> spares = new HashMap<>();
+    private static final Set<String> preloaded = new HashSet<>();
+    private static final Deque<String> pending = new ArrayDeque<>();
+    private static boolean building;
+
+    private Object controller;
     private String layout;
 
     /**
@@ -69,14 +121,20 @@ public class Layout {
      * @return The object hierarchy
      */
     public Parent load(){
-        this.fxmlLoader = new FXMLLoader(getClass().getResource(Const.DIR_LAYOUT+layout));
-        Parent parent = null;
-        try{
-            parent = fxmlLoader.load();
-        }catch(IOException ex){
-            ExceptionHandler.handle(ex);
+        final Instance spare = spares.remove(layout);
+        if(preloaded.contains(layout)){
+            replenishLater(layout);
+        }
+        if((spare != null) && (spare.modifications == getConfiguration().getModificationCount())){
+            this.controller = spare.controller;
+            return spare.parent;
         }
-        return parent;
+        final Instance instance = build(layout);
+        if(instance == null){
+            return null;
+        }
+        this.controller = instance.controller;
+        return instance.parent;
     }
 
     /**
@@ -84,8 +142,62 @@ public class Layout {
      * 
      * @return A reference of the controller loaded for this layout
      */
+    @SuppressWarnings("unchecked")
     public <T> T getController(){
-        return this.fxmlLoader.<T>getController();
+        return (T) this.controller;
+    }
+
+    /**
+     * Preloads this layout. The FXML resource is read and the controller class is
+     * loaded in the background, after which a spare instance is built on the FX thread.
+     * A new spare instance is built whenever the previous one has been taken.<br>
+     * This method may be called by any thread
+     */
+    public void preload(){
+        final String name = this.layout;
+        Scheduler.submit(Scheduler.Pool.IO, Scheduler.Priority.BACKGROUND, () -> {
+            try{
+                final byte[] source = read(name);
+                final Matcher matcher = CONTROLLER_ATTRIBUTE.matcher(
+                        new String(source, "UTF-8"));
+
+                if(matcher.find()){
+                    Class.forName(matcher.group(1), true, Layout.class.getClassLoader());
+                }
+                sources.put(name, source);
+            }catch(IOException | ClassNotFoundException ex){
+                ExceptionHandler.handle(ex);
+                return;
+            }
+            Platform.runLater(() -> {
+                preloaded.add(name);
+                enqueue(name);
+            });
+        });
+    }
+
+    /**
+     * Returns the specified loaded instance of this layout to the pool of spare
+     * instances. The controller must have reset its state so that the instance
+     * is indistinguishable from a newly loaded one
+     * 
+     * @param parent The object hierarchy of a loaded instance of this layout
+     * @param controller The controller of the specified object hierarchy
+     */
+    public void recycle(final Parent parent, final Object controller){
+        parent.setTranslateX(0);
+        parent.setTranslateY(0);
+        spares.put(layout, new Instance(parent, controller,
+                getConfiguration().getModificationCount()));
+    }
+
+    /**
+     * Gets the name of the FXML resource of this layout
+     * 
+     * @return The name of this layout
+     */
+    public String getName(){
+        return this.layout;
     }
 
     /**
@@ -110,6 +222,73 @@ public class Layout {
         return new Layout(dialog.fxml);
     }
 
+    private static Instance build(final String layout){
+        final URL location = Layout.class.getResource(Const.DIR_LAYOUT+layout);
+        final FXMLLoader loader = new FXMLLoader(location);
+        try{
+            final byte[] source = sources.get(layout);
+            final Parent parent = ((source != null)
+                    ? loader.load(new ByteArrayInputStream(source))
+                    : loader.load());
+
+            return new Instance(parent, loader.getController(),
+                    getConfiguration().getModificationCount());
+
+        }catch(IOException ex){
+            ExceptionHandler.handle(ex);
+        }
+        return null;
+    }
+
+    private static void replenishLater(final String layout){
+        final PauseTransition delay = new PauseTransition(Duration.millis(REPLENISH_DELAY));
+        delay.setOnFinished((e) -> enqueue(layout));
+        delay.play();
+    }
+
+    private static void enqueue(final String layout){
+        if(!pending.contains(layout)){
+            pending.add(layout);
+        }
+        if(!building){
+            buildNext();
+        }
+    }
+
+    private static void buildNext(){
+        final String layout = pending.poll();
+        if(layout == null){
+            building = false;
+            return;
+        }
+        building = true;
+        final Instance spare = spares.get(layout);
+        if((spare == null) || (spare.modifications != getConfiguration().getModificationCount())){
+            final Instance instance = build(layout);
+            if(instance != null){
+                spares.put(layout, instance);
+            }
+        }
+        final PauseTransition interval = new PauseTransition(Duration.millis(BUILD_INTERVAL));
+        interval.setOnFinished((e) -> buildNext());
+        interval.play();
+    }
+
+    private static byte[] read(final String layout) throws IOException{
+        try(InputStream in = Layout.class.getResourceAsStream(Const.DIR_LAYOUT+layout)){
+            if(in == null){
+                throw new IOException("Layout not found: " + layout);
+            }
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[8192];
+            int n;
+            while((n = in.read(buffer)) != -1){
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        }
+    }
+
     /**
      * Creates and returns a <code>Timeline</code> animation for a layout transition
      * 
@@ -177,4 +356,21 @@ public class Layout {
         return new Timeline(start, end);
     }
 
+    /**
+     * A loaded instance of a layout.
+     *
+     */
+    private static final class Instance {
+
+        private final Parent parent;
+        private final Object controller;
+        private final long modifications;
+
+        Instance(final Parent parent, final Object controller, final long modifications){
+            this.parent = parent;
+            this.controller = controller;
+            this.modifications = modifications;
+        }
+    }
+
 }
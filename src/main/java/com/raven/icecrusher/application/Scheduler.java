@@ -0,0 +1,341 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.icecrusher.application;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Application-wide scheduler for background work. All work which must not be executed
+ * on the FX thread is submitted to one of two bounded worker pools: the {@link Pool#IO}
+ * pool for work which mostly waits for the filesystem or the network, and the
+ * {@link Pool#CPU} pool for computations.
+ *
+ * <p>Queued work is executed in the order of its {@link Priority} and, within the same
+ * priority, in the order of submission. Work can be associated with a {@link Token}
+ * which is owned by a tab or an activity, so that all work of the owner can be cancelled
+ * at once when it goes away.
+ *
+ * <p>The size of both pools is specified by {@link #configure(int, int)} and may be
+ * changed at any time. All worker threads are daemon threads. The scheduler is shut down
+ * when the application stops.
+ *
+ */
+public final class Scheduler {
+
+    /**
+     * The worker pools of the scheduler.
+     *
+     */
+    public enum Pool {
+
+        /**
+         * Pool for work blocked by I/O, e.g. reading files or downloads
+         */
+        IO,
+
+        /**
+         * Pool for computations, e.g. sorting or preparing chart data
+         */
+        CPU
+    }
+
+    /**
+     * The priorities of scheduled work. Work with a higher priority is
+     * started before queued work with a lower priority.
+     *
+     */
+    public enum Priority {
+
+        /**
+         * Work the user is waiting for
+         */
+        INTERACTIVE,
+
+        /**
+         * Work whose result is needed but not immediately shown
+         */
+        NORMAL,
+
+        /**
+         * Work performed in advance or for housekeeping, e.g. prefetching
+         * or compaction
+         */
+        BACKGROUND
+    }
+
+    /**
+     * Cancellation token grouping all work of one owner, e.g. a tab or an activity.
+     * Cancelling a Token cancels all work submitted with it which has not completed
+     * yet. A Token stays usable after it has been cancelled, so its owner can submit
+     * new work afterwards.
+     *
+     */
+    public static final class Token {
+
+        private final Set<Future<?>> futures = Collections.newSetFromMap(
+                new ConcurrentHashMap<>());
+
+        /**
+         * Constructs a new <code>Token</code>
+         */
+        public Token(){ }
+
+        /**
+         * Cancels all work submitted with this Token which has not completed yet.
+         * Running work is interrupted
+         */
+        public void cancel(){
+            for(final Future<?> future : futures){
+                future.cancel(true);
+            }
+            futures.clear();
+        }
+
+        /**
+         * Indicates whether any work submitted with this Token has not completed yet
+         * 
+         * @return True if work of this Token is pending, false otherwise
+         */
+        public boolean hasPendingWork(){
+            return !futures.isEmpty();
+        }
+    }
+
+    /**
+     * The default number of threads of the I/O pool
+     */
+    public static final int DEFAULT_IO_THREADS = 4;
+
+    /**
+     * The default number of threads of the CPU pool
+     */
+    public static final int DEFAULT_CPU_THREADS = Math.max(
+            1, Runtime.getRuntime().availableProcessors() - 1);
+
+    /**
+     * The maximum number of threads of each pool
+     */
+    public static final int MAX_THREADS = 64;
+
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private static ThreadPoolExecutor io;
+    private static ThreadPoolExecutor cpu;
+    private static int ioThreads = DEFAULT_IO_THREADS;
+    private static int cpuThreads = DEFAULT_CPU_THREADS;
+    private static boolean isShutdown;
+
+    private Scheduler(){ }
+
+    /**
+     * Submits the specified work for execution
+     * 
+     * @param pool The <code>Pool</code> to execute the work in
+     * @param priority The <code>Priority</code> of the work
+     * @param work The work to execute. May be a <code>javafx.concurrent.Task</code>
+     * @return A <code>Future</code> representing the pending completion of the work
+     */
+    public static Future<?> submit(final Pool pool, final Priority priority,
+            final Runnable work){
+
+        return submit(pool, priority, null, work);
+    }
+
+    /**
+     * Submits the specified work for execution. The work is cancelled when the specified
+     * Token is cancelled before the work has completed. If the work itself is a
+     * <code>Future</code>, e.g. a <code>javafx.concurrent.Task</code>, then it is
+     * cancelled directly so that its state reflects the cancellation
+     * 
+     * @param pool The <code>Pool</code> to execute the work in
+     * @param priority The <code>Priority</code> of the work
+     * @param token The <code>Token</code> to associate the work with. May be null
+     * @param work The work to execute. May be a <code>javafx.concurrent.Task</code>
+     * @return A <code>Future</code> representing the pending completion of the work
+     * @throws RejectedExecutionException If the scheduler has been shut down
+     */
+    public static Future<?> submit(final Pool pool, final Priority priority,
+            final Token token, final Runnable work){
+
+        final ScheduledWork scheduled = new ScheduledWork(work, priority, token);
+        if(token != null){
+            token.futures.add(scheduled.cancellable);
+        }
+        executorOf(pool).execute(scheduled);
+        return scheduled;
+    }
+
+    /**
+     * Sets the number of threads of both pools. Pools which are already
+     * running are resized
+     * 
+     * @param ioThreads The number of threads of the I/O pool. Zero or a negative
+     *                  value selects {@link #DEFAULT_IO_THREADS}
+     * @param cpuThreads The number of threads of the CPU pool. Zero or a negative
+     *                   value selects {@link #DEFAULT_CPU_THREADS}
+     */
+    public static synchronized void configure(final int ioThreads, final int cpuThreads){
+        Scheduler.ioThreads = sizeOf(ioThreads, DEFAULT_IO_THREADS);
+        Scheduler.cpuThreads = sizeOf(cpuThreads, DEFAULT_CPU_THREADS);
+        resize(io, Scheduler.ioThreads);
+        resize(cpu, Scheduler.cpuThreads);
+    }
+
+    /**
+     * Gets the number of threads of the specified pool
+     * 
+     * @param pool The <code>Pool</code> to get the size of
+     * @return The maximum number of threads of the specified pool
+     */
+    public static synchronized int sizeOf(final Pool pool){
+        return ((pool == Pool.IO) ? ioThreads : cpuThreads);
+    }
+
+    /**
+     * Shuts down both pools. Queued work is discarded and running work is interrupted.
+     * This method waits for running work to terminate for at most the specified time
+     * 
+     * @param timeout The maximum time to wait, in milliseconds
+     */
+    public static void shutdown(final long timeout){
+        final ThreadPoolExecutor[] executors;
+        synchronized(Scheduler.class){
+            isShutdown = true;
+            executors = new ThreadPoolExecutor[]{io, cpu};
+        }
+        for(final ThreadPoolExecutor executor : executors){
+            if(executor != null){
+                for(final Runnable queued : executor.shutdownNow()){
+                    ((ScheduledWork) queued).cancel(false);
+                }
+            }
+        }
+        final long deadline = System.currentTimeMillis() + timeout;
+        try{
+            for(final ThreadPoolExecutor executor : executors){
+                if(executor != null){
+                    executor.awaitTermination(Math.max(0,
+                            deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+                }
+            }
+        }catch(InterruptedException ex){
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static synchronized ThreadPoolExecutor executorOf(final Pool pool){
+        if(isShutdown){
+            throw new RejectedExecutionException("Scheduler has been shut down");
+        }
+        if(pool == Pool.IO){
+            if(io == null){
+                io = newExecutor("io-worker-", ioThreads);
+            }
+            return io;
+        }
+        if(cpu == null){
+            cpu = newExecutor("cpu-worker-", cpuThreads);
+        }
+        return cpu;
+    }
+
+    private static ThreadPoolExecutor newExecutor(final String name, final int threads){
+        final AtomicInteger count = new AtomicInteger(1);
+        //the queue is unbounded, so the pool never grows beyond its core size
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                threads, threads, 30, TimeUnit.SECONDS, new PriorityBlockingQueue<>(),
+                (runnable) -> {
+                    final Thread thread = new Thread(runnable,
+                            name + count.getAndIncrement());
+
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static void resize(final ThreadPoolExecutor executor, final int threads){
+        if(executor == null){
+            return;
+        }
+        if(threads > executor.getMaximumPoolSize()){
+            executor.setMaximumPoolSize(threads);
+            executor.setCorePoolSize(threads);
+        }else{
+            executor.setCorePoolSize(threads);
+            executor.setMaximumPoolSize(threads);
+        }
+    }
+
+    private static int sizeOf(final int threads, final int defaultThreads){
+        return ((threads > 0) ? Math.min(threads, MAX_THREADS) : defaultThreads);
+    }
+
+    /**
+     * Work queued in a pool, ordered by priority and sequence number.
+     *
+     */
+    private static final class ScheduledWork extends FutureTask<Void>
+            implements Comparable<ScheduledWork> {
+
+        private final Priority priority;
+        private final long sequence;
+        private final Token token;
+        private final Future<?> cancellable;
+
+        ScheduledWork(final Runnable work, final Priority priority, final Token token){
+            super(work, null);
+            this.priority = priority;
+            this.sequence = SEQUENCE.getAndIncrement();
+            this.token = token;
+            this.cancellable = ((work instanceof Future) ? (Future<?>) work : this);
+        }
+
+        @Override
+        public boolean cancel(final boolean mayInterruptIfRunning){
+            if(cancellable != this){
+                cancellable.cancel(mayInterruptIfRunning);
+            }
+            return super.cancel(mayInterruptIfRunning);
+        }
+
+        @Override
+        protected void done(){
+            if(token != null){
+                token.futures.remove(cancellable);
+            }
+        }
+
+        @Override
+        public int compareTo(final ScheduledWork other){
+            final int cmp = priority.compareTo(other.priority);
+            return ((cmp != 0) ? cmp : Long.compare(sequence, other.sequence));
+        }
+    }
+}
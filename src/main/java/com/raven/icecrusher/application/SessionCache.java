@@ -20,28 +20,115 @@ import java.util.HashMap;
 import java.util.Map;
 
 /**
- * A cache storing user related preferences during a session.
+ * A bounded cache storing user related preferences and computed artifacts during
+ * a session. The total weight of all entries never exceeds the limit of the cache.
+ * When an entry does not fit, entries are evicted by recency and frequency:
+ *
+ * <p>New entries are added to a small admission window ordered by recency. Entries
+ * leaving the window become candidates for the main space, which is divided into a
+ * probationary and a protected segment. An entry accessed again while on probation is
+ * promoted to the protected segment. When the cache is full, a candidate is only admitted
+ * if it has been used more frequently than the least recently used entry on probation,
+ * otherwise the candidate itself is evicted. Frequencies are estimated by a small
+ * count-min sketch whose counters are halved periodically, so that entries which were
+ * popular a long time ago do not stay forever.
+ *
+ * <p>All methods of this class are thread-safe, so a SessionCache can be used by
+ * background workers as well as by the FX thread.
  *
  */
 public class SessionCache extends Cache {
-    
-    private Map<String, String> cache;
-    private int size;
-    private int limit;
+
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+
+    /**
+     * The share of the limit used by the admission window
+     */
+    private static final double WINDOW_RATIO = 0.01;
+
+    /**
+     * The share of the main space used by the protected segment
+     */
+    private static final double PROTECTED_RATIO = 0.8;
+
+    private final Map<String, Node> cache;
+    private final Node[] queues;
+    private final long[] weights;
+    private final long limit;
+    private final long windowLimit;
+    private final long protectedLimit;
+    private final Weigher weigher;
+    private final EvictionListener listener;
+    private final FrequencySketch sketch;
+    private int candidates;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long evictedWeight;
     
     /**
-     * Constructs a new <code>SessionCache</code> with the specified size restriction
+     * Constructs a new <code>SessionCache</code> with the specified size restriction.
+     * Entries are weighed by the {@link Cache#DEFAULT_WEIGHER}
      * 
      * @param limit The size restriction of the SessionCache to be constructed
      */
     public SessionCache(final int limit){
+        this(limit, DEFAULT_WEIGHER);
+    }
+
+    /**
+     * Constructs a new <code>SessionCache</code> with the specified weight restriction
+     * 
+     * @param limit The maximum total weight of all entries
+     * @param weigher The <code>Weigher</code> computing the weight of entries
+     */
+    public SessionCache(final long limit, final Weigher weigher){
+        this(limit, weigher, null);
+    }
+
+    /**
+     * Constructs a new <code>SessionCache</code> with the specified weight restriction
+     * notifying the specified listener of all evicted entries
+     * 
+     * @param limit The maximum total weight of all entries
+     * @param weigher The <code>Weigher</code> computing the weight of entries
+     * @param listener The <code>EvictionListener</code> to notify. May be null
+     */
+    public SessionCache(final long limit, final Weigher weigher,
+            final EvictionListener listener){
+
+        if(limit < 1){
+            throw new IllegalArgumentException("Limit must be positive");
+        }
         this.cache = new HashMap<>();
+        this.queues = new Node[]{new Node(), new Node(), new Node()};
+        this.weights = new long[3];
         this.limit = limit;
+        this.windowLimit = Math.max(1, (long) (limit * WINDOW_RATIO));
+        this.protectedLimit = (long) ((limit - windowLimit) * PROTECTED_RATIO);
+        this.weigher = weigher;
+        this.listener = listener;
+        this.sketch = new FrequencySketch(limit);
     }
 
     @Override
     public String get(final String key){
-        return this.cache.get(key);
+        return get(key, String.class);
+    }
+
+    @Override
+    public synchronized <T> T get(final String key, final Class<T> type){
+        sketch.increment(key.hashCode());
+        final Node node = this.cache.get(key);
+        if((node == null) || !type.isInstance(node.value)){
+            ++misses;
+            return null;
+        }
+        ++hits;
+        onAccess(node);
+        return type.cast(node.value);
     }
     
     @Override
@@ -52,61 +139,277 @@ public class SessionCache extends Cache {
 
     @Override
     public String set(final String key, final String value){
-        final String previous = this.cache.get(key);
-        if(previous != null){
-            this.size -= previous.length();
+        final Object previous = put(key, value);
+        return ((previous instanceof String) ? (String) previous : null);
+    }
+
+    @Override
+    public synchronized Object put(final String key, final Object value){
+        if(value == null){
+            return removeEntry(key);
         }
-        if(value != null){
-            if(previous == null){
-                this.size += key.length();
-            }
-            this.size += value.length();
-            if(size > limit){
-                clear();
-                this.size += key.length() + value.length();
-            }
+        sketch.increment(key.hashCode());
+        final long weight = weigher.weigh(key, value);
+        Node node = this.cache.get(key);
+        if(node != null){
+            final Object previous = node.value;
+            node.value = value;
+            weights[node.queue] += (weight - node.weight);
+            node.weight = weight;
+            onAccess(node);
+            evict();
+            return previous;
+        }
+        if(weight > limit){//can never fit
+            return null;
         }
-        this.cache.put(key, value);
-        return previous;
+        node = new Node(key, value, weight);
+        this.cache.put(key, node);
+        link(node, WINDOW);
+        evict();
+        return null;
     }
     
     @Override
-    public String remove(final String key){
-        this.size -= key.length();
-        final String previous = this.cache.remove(key);
-        if(previous != null){
-            this.size -= previous.length();
-        }
-        return previous;
+    public synchronized String remove(final String key){
+        final Object previous = removeEntry(key);
+        return ((previous instanceof String) ? (String) previous : null);
     }
 
     @Override
     public int size(){
-        return this.size;
+        return (int) Math.min(Integer.MAX_VALUE, weight());
+    }
+
+    /**
+     * Gets the total weight of all entries
+     * 
+     * @return The weight of this cache
+     */
+    public synchronized long weight(){
+        return weights[WINDOW] + weights[PROBATION] + weights[PROTECTED];
+    }
+
+    /**
+     * Gets the maximum total weight of all entries
+     * 
+     * @return The limit of this cache
+     */
+    public long limit(){
+        return this.limit;
     }
 
     @Override
-    public void clear(){
+    public synchronized void clear(){
         this.cache.clear();
-        this.size = 0;
+        for(int i=0; i<queues.length; ++i){
+            queues[i].prev = queues[i];
+            queues[i].next = queues[i];
+            weights[i] = 0;
+        }
+        this.candidates = 0;
+    }
+
+    @Override
+    public synchronized Stats stats(){
+        return new Stats(hits, misses, evictions, evictedWeight);
     }
     
     @Override
-    public String toString(){
+    public synchronized String toString(){
         final StringBuilder sb = new StringBuilder();
-        for(final Map.Entry<String, String> e : cache.entrySet()){
+        for(final Map.Entry<String, Node> e : cache.entrySet()){
             sb.append("[");
             sb.append(e.getKey());
             sb.append("] -> ");
-            if(e.getValue() != null){
+            final Object value = e.getValue().value;
+            if(value instanceof String){
                 sb.append("'");
-                sb.append(e.getValue());
+                sb.append(value);
                 sb.append("'");
             }else{
-                sb.append("null");
+                sb.append(value.getClass().getSimpleName());
             }
             sb.append(System.lineSeparator());
         }
         return sb.toString();
     }
+
+    private Object removeEntry(final String key){
+        final Node node = this.cache.remove(key);
+        if(node == null){
+            return null;
+        }
+        unlink(node);
+        return node.value;
+    }
+
+    private void onAccess(final Node node){
+        switch(node.queue){
+        case PROBATION:
+            unlink(node);
+            link(node, PROTECTED);
+            //demote the least recently used protected entries
+            while(weights[PROTECTED] > protectedLimit){
+                final Node demoted = queues[PROTECTED].next;
+                unlink(demoted);
+                link(demoted, PROBATION);
+            }
+            break;
+        default:
+            unlink(node);
+            link(node, node.queue);
+        }
+    }
+
+    private void evict(){
+        //entries leaving the window become candidates for the main space
+        while(weights[WINDOW] > windowLimit){
+            final Node node = queues[WINDOW].next;
+            unlink(node);
+            link(node, PROBATION);
+            ++candidates;
+        }
+        while(weight() > limit){
+            Node victim = queues[PROBATION].next;
+            if(victim == queues[PROBATION]){
+                victim = queues[PROTECTED].next;
+                if(victim == queues[PROTECTED]){
+                    victim = queues[WINDOW].next;
+                }
+                evict(victim);
+                continue;
+            }
+            final Node candidate = ((candidates > 0) ? queues[PROBATION].prev : null);
+            if((candidate == null) || (candidate == victim)){
+                evict(victim);
+            }else if(sketch.frequency(candidate.key.hashCode())
+                    > sketch.frequency(victim.key.hashCode())){
+
+                evict(victim);
+            }else{
+                evict(candidate);
+            }
+        }
+        this.candidates = 0;
+    }
+
+    private void evict(final Node node){
+        if((node == queues[PROBATION].prev) && (candidates > 0)){
+            --candidates;
+        }
+        this.cache.remove(node.key);
+        unlink(node);
+        ++evictions;
+        evictedWeight += node.weight;
+        if(listener != null){
+            listener.onEvicted(node.key, node.value);
+        }
+    }
+
+    private void link(final Node node, final int queue){
+        final Node head = queues[queue];
+        node.queue = queue;
+        node.prev = head.prev;
+        node.next = head;
+        head.prev.next = node;
+        head.prev = node;
+        weights[queue] += node.weight;
+    }
+
+    private void unlink(final Node node){
+        node.prev.next = node.next;
+        node.next.prev = node.prev;
+        node.prev = null;
+        node.next = null;
+        weights[node.queue] -= node.weight;
+    }
+
+    /**
+     * Entry of a cache and element of a circular doubly linked list.
+     *
+     */
+    private static final class Node {
+
+        private final String key;
+        private Object value;
+        private long weight;
+        private int queue;
+        private Node prev;
+        private Node next;
+
+        /**
+         * Constructs the head of an empty list
+         */
+        Node(){
+            this.key = null;
+            this.prev = this;
+            this.next = this;
+        }
+
+        Node(final String key, final Object value, final long weight){
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * Count-min sketch with four rows of saturating 4-bit counters, each held
+     * in one byte. All counters are halved after a number of increments
+     * proportional to the width of the sketch.
+     *
+     */
+    private static final class FrequencySketch {
+
+        private static final int[] SEEDS = {
+                0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+
+        private static final int MAX_COUNT = 15;
+
+        private final byte[][] rows;
+        private final int mask;
+        private final int sampleSize;
+        private int increments;
+
+        FrequencySketch(final long limit){
+            //assume entries of at least 64 units of weight on average
+            final long entries = Math.max(64, Math.min(1 << 20, limit / 64));
+            final int width = Integer.highestOneBit((int) entries - 1) << 1;
+            this.rows = new byte[SEEDS.length][width];
+            this.mask = width - 1;
+            this.sampleSize = 10 * width;
+        }
+
+        void increment(final int hash){
+            for(int i=0; i<rows.length; ++i){
+                final int index = index(hash, i);
+                if(rows[i][index] < MAX_COUNT){
+                    ++rows[i][index];
+                }
+            }
+            if(++increments >= sampleSize){
+                for(final byte[] row : rows){
+                    for(int j=0; j<row.length; ++j){
+                        row[j] >>= 1;
+                    }
+                }
+                this.increments /= 2;
+            }
+        }
+
+        int frequency(final int hash){
+            int frequency = MAX_COUNT;
+            for(int i=0; i<rows.length; ++i){
+                frequency = Math.min(frequency, rows[i][index(hash, i)]);
+            }
+            return frequency;
+        }
+
+        private int index(final int hash, final int row){
+            int h = hash * SEEDS[row];
+            h ^= (h >>> 17);
+            return (h & mask);
+        }
+    }
 }
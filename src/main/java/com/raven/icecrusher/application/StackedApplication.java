@@ -16,13 +16,19 @@
 
 package com.raven.icecrusher.application;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.List;
 import java.util.Stack;
 
 import com.raven.icecrusher.application.Controller.ArgumentBundle;
 import com.raven.icecrusher.application.Layout.Transition;
+import com.raven.icecrusher.application.StartupTrace.Phase;
 import com.raven.icecrusher.base.Activity;
+import com.raven.icecrusher.util.ExceptionHandler;
 
+import javafx.animation.AnimationTimer;
+import javafx.animation.PauseTransition;
 import javafx.animation.Timeline;
 import javafx.application.Application;
 import javafx.application.Platform;
@@ -33,6 +39,7 @@ import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.layout.StackPane;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 import javafx.util.Pair;
 
 /**
@@ -50,9 +57,20 @@ public abstract class StackedApplication extends Application implements ChangeLi
      *  the height of the scene inside the main stage **/
     public static final String BUNDLE_KEY_SCENE_HEIGHT = "scene.height";
 
+    /** Maximum time in milliseconds to wait for background work to terminate
+     *  when the application stops **/
+    private static final long SHUTDOWN_TIMEOUT = 2000;
+
+    /** Delay in milliseconds between two tasks run when idle,
+     *  so that rendering is not stalled by many tasks in a row **/
+    private static final int IDLE_INTERVAL = 50;
+
     private static Stage mainStage;
     private static Stack<Entry> stack;
     private static String cwd;
+    private static final Deque<Runnable> idleTasks = new ArrayDeque<>();
+    private static boolean interactive;
+    private static boolean runningIdleTasks;
 
     /**
      * Lock for activity transitions.
@@ -69,9 +87,11 @@ public abstract class StackedApplication extends Application implements ChangeLi
         mainStage = stage;
         cwd = System.getProperty("user.dir");
         stack = new Stack<>();
+        StartupTrace.get().mark(Phase.STAGE);
         onStart(stage);
         Platform.runLater(() -> setupMainStage());
         mainStage.show();
+        awaitFirstFrame();
     }
 
     /**
@@ -86,6 +106,7 @@ public abstract class StackedApplication extends Application implements ChangeLi
     @Override
     public final void stop(){
         onStop();
+        Scheduler.shutdown(SHUTDOWN_TIMEOUT);
     }
 
     /**
@@ -163,7 +184,7 @@ public abstract class StackedApplication extends Application implements ChangeLi
                 Transition.SLIDE_DOWN, height, target, null);
         
         timeline.setOnFinished((e) -> {
-            stack.push(Entry.of(target, controller));
+            stack.push(Entry.of(target, controller, layout));
             rootPane.getChildren().remove(current.getParent());
             setActivityTransitionInProgress(false);
         });
@@ -211,13 +232,33 @@ public abstract class StackedApplication extends Application implements ChangeLi
         
         timeline.setOnFinished((e) -> {
             getRootPane().getChildren().remove(old);
+            if(finishedEntry.getController().onRecycle()){
+                finishedEntry.getLayout().recycle(old, finishedEntry.getController());
+            }
             setActivityTransitionInProgress(false);
         });
         timeline.play();
         finishedEntry.getController().onStop();
+        finishedEntry.getController().getCancellationToken().cancel();
         controller.onResume(args);
     }
 
+    /**
+     * Runs the specified task on the FX application thread when this application is idle.
+     * Tasks are not run before the first frame of the main stage has been rendered, so they
+     * do not delay the startup. Tasks are run in the order in which they were specified,
+     * one at a time, with a short delay in between.<br>
+     * This method must be called on the FX application thread
+     * 
+     * @param task The task to run when idle
+     */
+    public static final void runWhenIdle(final Runnable task){
+        idleTasks.add(task);
+        if(interactive && !runningIdleTasks){
+            runNextIdleTask();
+        }
+    }
+
     /**
      * Gets the main stage of this application
      * 
@@ -350,6 +391,40 @@ public abstract class StackedApplication extends Application implements ChangeLi
         });
     }
 
+    private static void awaitFirstFrame(){
+        new AnimationTimer(){
+            private int pulses;
+
+            @Override
+            public void handle(long now){
+                //the first frame has been rendered by the pulse following it
+                if(++pulses == 2){
+                    stop();
+                    StartupTrace.get().mark(Phase.FIRST_FRAME);
+                    interactive = true;
+                    runNextIdleTask();
+                }
+            }
+        }.start();
+    }
+
+    private static void runNextIdleTask(){
+        final Runnable task = idleTasks.poll();
+        if(task == null){
+            runningIdleTasks = false;
+            return;
+        }
+        runningIdleTasks = true;
+        try{
+            task.run();
+        }catch(RuntimeException ex){
+            ExceptionHandler.handle(ex);
+        }
+        final PauseTransition delay = new PauseTransition(Duration.millis(IDLE_INTERVAL));
+        delay.setOnFinished((e) -> runNextIdleTask());
+        delay.play();
+    }
+
     private static boolean isActivityTransitionInProgress(){
         return transitionInProgress;
     }
@@ -372,7 +447,8 @@ public abstract class StackedApplication extends Application implements ChangeLi
         }else{
             mainStage.setScene(new Scene(root));
         }
-        stack.push(Entry.of((Parent)(root.getChildrenUnmodifiable().get(0)), controller));
+        StartupTrace.get().mark(Phase.LAYOUT);
+        stack.push(Entry.of((Parent)(root.getChildrenUnmodifiable().get(0)), controller, activity));
         controller.onStart(args);
     }
 
@@ -384,8 +460,11 @@ public abstract class StackedApplication extends Application implements ChangeLi
 
         private static final long serialVersionUID = 1L;
 
-        private Entry(Parent key, Controller value) {
+        private final transient Layout layout;
+
+        private Entry(Parent key, Controller value, Layout layout) {
             super(key, value);
+            this.layout = layout;
         }
 
         private Parent getParent(){
@@ -396,8 +475,12 @@ public abstract class StackedApplication extends Application implements ChangeLi
             return getValue();
         }
 
-        private static Entry of(Parent layout, Controller controller){
-            return new Entry(layout, controller);
+        private Layout getLayout(){
+            return this.layout;
+        }
+
+        private static Entry of(Parent parent, Controller controller, Layout layout){
+            return new Entry(parent, controller, layout);
         }
     }
 
@@ -0,0 +1,259 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.icecrusher.application;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.LongSupplier;
+
+import com.raven.icecrusher.util.EditorConfiguration;
+import com.raven.icecrusher.util.ExceptionHandler;
+
+/**
+ * Records the time at which each phase of the application startup has completed.
+ * All times are measured in milliseconds since the launch of the JVM.<br>
+ * When every phase has either been marked or skipped, the recorded times are
+ * appended as one line to the startup log file by a background thread. The log
+ * keeps the entries of the last {@link #MAX_LOG_ENTRIES} launches.
+ *
+ * <p>The time to the first interactive frame is compared against
+ * {@link #TARGET_FIRST_FRAME}, so that regressions can be spotted in the log.
+ *
+ * <p>All methods of this class may be called by any thread.
+ *
+ */
+public final class StartupTrace {
+
+    /**
+     * The phases of the application startup, in the order in which they complete.
+     *
+     */
+    public enum Phase {
+
+        /**
+         * The configuration has been loaded
+         */
+        CONFIG("config"),
+
+        /**
+         * The JavaFX toolkit has been initialized and the main stage was created
+         */
+        STAGE("stage"),
+
+        /**
+         * The layout of the first activity has been loaded and set on the main stage
+         */
+        LAYOUT("layout"),
+
+        /**
+         * The first frame of the main stage has been rendered,
+         * i.e. the application is interactive
+         */
+        FIRST_FRAME("first_frame"),
+
+        /**
+         * The focused tab of the previous session has been recalled
+         */
+        RECALL("recall");
+
+        private final String key;
+
+        Phase(final String key){
+            this.key = key;
+        }
+    }
+
+    /** Target in milliseconds for the time from launch to the first interactive frame **/
+    public static final long TARGET_FIRST_FRAME = 2000;
+
+    /** Maximum number of launches kept in the startup log **/
+    public static final int MAX_LOG_ENTRIES = 100;
+
+    private static final long UNMARKED = -1;
+    private static final long SKIPPED = -2;
+
+    private static StartupTrace instance;
+
+    private final long origin;
+    private final LongSupplier clock;
+    private final File log;
+    private final long[] marks;
+    private boolean complete;
+
+    StartupTrace(final long origin, final LongSupplier clock, final File log){
+        this.origin = origin;
+        this.clock = clock;
+        this.log = log;
+        this.marks = new long[Phase.values().length];
+        Arrays.fill(marks, UNMARKED);
+    }
+
+    /**
+     * Gets the trace of the current application launch
+     * 
+     * @return The <code>StartupTrace</code> of this launch
+     */
+    public static synchronized StartupTrace get(){
+        if(instance == null){
+            instance = new StartupTrace(ManagementFactory.getRuntimeMXBean().getStartTime(),
+                    System::currentTimeMillis, EditorConfiguration.getStartupLogFile());
+        }
+        return instance;
+    }
+
+    /**
+     * Marks the specified phase as completed at the current time.
+     * Phases which have already been marked or skipped are not changed
+     * 
+     * @param phase The completed <code>Phase</code>
+     */
+    public synchronized void mark(final Phase phase){
+        record(phase, Math.max(0, clock.getAsLong() - origin));
+    }
+
+    /**
+     * Marks the specified phase as skipped, i.e. it is not part of this launch.
+     * Phases which have already been marked or skipped are not changed
+     * 
+     * @param phase The skipped <code>Phase</code>
+     */
+    public synchronized void skip(final Phase phase){
+        record(phase, SKIPPED);
+    }
+
+    /**
+     * Gets the time at which the specified phase has completed
+     * 
+     * @param phase The <code>Phase</code> to get the time for
+     * @return The number of milliseconds since launch at which the specified phase
+     *         has completed, or -1 if that phase was not marked or was skipped
+     */
+    public synchronized long elapsed(final Phase phase){
+        final long time = marks[phase.ordinal()];
+        return ((time >= 0) ? time : -1);
+    }
+
+    /**
+     * Indicates whether every phase has either been marked or skipped
+     * 
+     * @return True if the startup has completed
+     */
+    public synchronized boolean isComplete(){
+        return complete;
+    }
+
+    /**
+     * Indicates whether the first interactive frame was rendered within
+     * {@link #TARGET_FIRST_FRAME} milliseconds after launch
+     * 
+     * @return True if the first frame has been marked in time
+     */
+    public synchronized boolean meetsTarget(){
+        final long time = marks[Phase.FIRST_FRAME.ordinal()];
+        return ((time >= 0) && (time <= TARGET_FIRST_FRAME));
+    }
+
+    /**
+     * Returns the log entry of this trace. Each phase is listed by its key and the
+     * time at which it has completed. A phase which was skipped is listed with '-'
+     * and a phase which was not marked yet is listed with '?'
+     * 
+     * @return The log entry of this trace as a single line
+     */
+    @Override
+    public synchronized String toString(){
+        final StringBuilder sb = new StringBuilder();
+        sb.append(LocalDateTime.ofInstant(Instant.ofEpochMilli(origin), ZoneId.systemDefault())
+                .withNano(0));
+
+        for(final Phase phase : Phase.values()){
+            final long time = marks[phase.ordinal()];
+            sb.append(' ').append(phase.key).append('=');
+            if(time == SKIPPED){
+                sb.append('-');
+            }else if(time == UNMARKED){
+                sb.append('?');
+            }else{
+                sb.append(time);
+            }
+        }
+        sb.append(" target=").append(TARGET_FIRST_FRAME);
+        sb.append(" met=").append(meetsTarget());
+        return sb.toString();
+    }
+
+    /**
+     * Appends the specified entry to the specified log file. The oldest entries
+     * are removed so that the log keeps at most the specified number of entries
+     * 
+     * @param file The log file to append to. Is created if it does not exist
+     * @param entry The entry to append
+     * @param maxEntries The maximum number of entries to keep
+     * @throws IOException If the log file cannot be read or written
+     */
+    static void append(final File file, final String entry, final int maxEntries)
+            throws IOException{
+
+        final List<String> lines = new ArrayList<>();
+        if(file.exists()){
+            lines.addAll(Files.readAllLines(file.toPath(), StandardCharsets.UTF_8));
+        }else if(file.getParentFile() != null){
+            file.getParentFile().mkdirs();
+        }
+        lines.add(entry);
+        final int from = Math.max(0, lines.size() - maxEntries);
+        Files.write(file.toPath(), lines.subList(from, lines.size()), StandardCharsets.UTF_8);
+    }
+
+    private void record(final Phase phase, final long time){
+        if(complete || (marks[phase.ordinal()] != UNMARKED)){
+            return;
+        }
+        marks[phase.ordinal()] = time;
+        for(final long mark : marks){
+            if(mark == UNMARKED){
+                return;
+            }
+        }
+        complete = true;
+        if(log != null){
+            final String entry = toString();
+            try{
+                Scheduler.submit(Scheduler.Pool.IO, Scheduler.Priority.BACKGROUND, () -> {
+                    try{
+                        append(log, entry, MAX_LOG_ENTRIES);
+                    }catch(IOException ex){
+                        ExceptionHandler.handle(ex);
+                    }
+                });
+            }catch(RejectedExecutionException ex){
+                //application is stopping
+            }
+        }
+    }
+
+}
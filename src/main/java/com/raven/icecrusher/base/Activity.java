@@ -29,7 +29,9 @@ public enum Activity {
     PIE_CHART       ("PlotPieChart.fxml"),
     LINE_CHART      ("PlotLineChart.fxml"),
     AREA_CHART      ("PlotAreaChart.fxml"),
-    BAR_CHART       ("PlotBarChart.fxml");
+    BAR_CHART       ("PlotBarChart.fxml"),
+    HISTOGRAM       ("PlotHistogram.fxml"),
+    SCATTER_CHART   ("PlotScatterChart.fxml");
 
     public String fxml;
 
@@ -30,7 +30,8 @@ public enum Dialog {
     RENAME_COLUMN               ("RenameColumnDialog.fxml"),
     SORT                        ("SortDialog.fxml"),
     STATS                       ("StatsDialog.fxml"),
-    UPDATE                      ("UpdateDialog.fxml");
+    UPDATE                      ("UpdateDialog.fxml"),
+    UPDATE_VALUES               ("UpdateValuesDialog.fxml");
 
     public String fxml;
 
@@ -0,0 +1,256 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.icecrusher.io;
+
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+import com.raven.common.struct.BooleanColumn;
+import com.raven.common.struct.Column;
+import com.raven.common.struct.DataFrame;
+import com.raven.common.struct.NullableBooleanColumn;
+import com.raven.icecrusher.util.Const;
+
+/**
+ * Conditional bulk update of a single DataFrame column. A BulkUpdate assigns
+ * a new value to every entry of a target column whose row satisfies a condition,
+ * i.e. the equivalent of <code>SET column = value WHERE condition</code>.<br>
+ * The condition is either a regular expression which is matched against the string
+ * representation of the values of a (possibly different) column, in which case
+ * a null value is represented by the string <code>"null"</code>, or an arbitrary
+ * predicate on the values of that column.
+ *
+ * <p>All matching rows are determined in one pass over the condition column and
+ * all assignments are then applied in one pass over the matching rows. Both passes
+ * are performed in parallel when the DataFrame has at least
+ * {@link Const#DF_PARALLELISM_THRESHOLD} rows.<br>
+ * The previous values of all changed entries are recorded in a {@link Revision}
+ * which can be used to undo the update.
+ *
+ * <p>Example:<br>
+ * <code>BulkUpdate.set("status", "closed").where("date", "2019-.*").applyTo(df);</code>
+ *
+ */
+public final class BulkUpdate {
+
+    /**
+     * Computes the new value of an entry affected by a <code>BulkUpdate</code>.
+     * Implementations must be stateless as they may be called concurrently.
+     *
+     */
+    @FunctionalInterface
+    public interface Assignment {
+
+        /**
+         * Computes the new value of an entry
+         *
+         * @param current The current value of the entry. May be null
+         * @return The new value of the entry
+         */
+        Object apply(Object current);
+    }
+
+    private final String column;
+    private final Assignment assignment;
+    private String conditionColumn;
+    private Predicate<Object> condition;
+
+    private BulkUpdate(final String column, final Assignment assignment){
+        this.column = column;
+        this.assignment = assignment;
+    }
+
+    /**
+     * Creates a <code>BulkUpdate</code> which sets all affected entries of the
+     * specified column to the specified value
+     *
+     * @param column The name of the column to update
+     * @param value The value to assign. Must be of the type of the column
+     * @return A <code>BulkUpdate</code> affecting all rows of the specified column
+     */
+    public static BulkUpdate set(final String column, final Object value){
+        return new BulkUpdate(column, (current) -> value);
+    }
+
+    /**
+     * Creates a <code>BulkUpdate</code> which computes the new value of all
+     * affected entries of the specified column with the specified Assignment
+     *
+     * @param column The name of the column to update
+     * @param assignment The <code>Assignment</code> to compute new values with
+     * @return A <code>BulkUpdate</code> affecting all rows of the specified column
+     */
+    public static BulkUpdate set(final String column, final Assignment assignment){
+        if(assignment == null){
+            throw new IllegalArgumentException("Assignment must not be null");
+        }
+        return new BulkUpdate(column, assignment);
+    }
+
+    /**
+     * Creates an <code>Assignment</code> which combines the current value of
+     * a numeric entry with the specified operand. The result has the same type as
+     * the current value. Null values are left unchanged
+     *
+     * @param operator The arithmetic operator to use. Must be one
+     *                 of <code>'+', '-', '*', '/'</code>
+     * @param operand The right-hand operand of the operation
+     * @return An <code>Assignment</code> performing the specified arithmetic operation
+     */
+    public static Assignment arithmetic(final char operator, final Number operand){
+        switch(operator){
+        case '+':
+        case '-':
+        case '*':
+        case '/':
+            break;
+        default:
+            throw new IllegalArgumentException("Invalid operator: " + operator);
+        }
+        return (current) -> {
+            if(current == null){
+                return null;
+            }
+            if((current instanceof Float) || (current instanceof Double)){
+                final double a = ((Number)current).doubleValue();
+                final double b = operand.doubleValue();
+                final double res = compute(operator, a, b);
+                return ((current instanceof Float) ? (Object)(float)res : (Object)res);
+            }
+            final long a = ((Number)current).longValue();
+            final long b = operand.longValue();
+            final long res = compute(operator, a, b);
+            if(current instanceof Byte){
+                return (byte)res;
+            }else if(current instanceof Short){
+                return (short)res;
+            }else if(current instanceof Integer){
+                return (int)res;
+            }
+            return res;
+        };
+    }
+
+    /**
+     * Restricts this <code>BulkUpdate</code> to all rows in which the value of the
+     * specified column matches the specified regular expression
+     *
+     * @param column The name of the column to evaluate the condition on
+     * @param regex The regular expression that values must match
+     * @return This <code>BulkUpdate</code> instance
+     */
+    public BulkUpdate where(final String column, final String regex){
+        final Pattern pattern = Pattern.compile(regex);
+        return where(column, (value) -> pattern.matcher(String.valueOf(value)).matches());
+    }
+
+    /**
+     * Restricts this <code>BulkUpdate</code> to all rows in which the value of the
+     * specified column satisfies the specified predicate. The predicate must be
+     * stateless as it may be evaluated concurrently
+     *
+     * @param column The name of the column to evaluate the condition on
+     * @param condition The <code>Predicate</code> that values must satisfy.
+     *                  Values passed to it may be null
+     * @return This <code>BulkUpdate</code> instance
+     */
+    public BulkUpdate where(final String column, final Predicate<Object> condition){
+        this.conditionColumn = column;
+        this.condition = condition;
+        return this;
+    }
+
+    /**
+     * Applies this <code>BulkUpdate</code> to the specified DataFrame.<br>
+     * This method blocks until all affected entries have been changed. It may be
+     * called by a background thread as long as the DataFrame is not accessed
+     * concurrently by other threads
+     *
+     * @param df The <code>DataFrame</code> to update
+     * @return A <code>Revision</code> holding the previous values of all changed
+     *         entries. The Revision is empty if no row matched the condition
+     */
+    public Revision applyTo(final DataFrame df){
+        final Column target = df.getColumn(column);
+        final boolean parallel = (df.rows() >= Const.DF_PARALLELISM_THRESHOLD);
+        final int[] rows = matchingRows(df, parallel);
+        final Revision.Values values = Revision.Values.of(target, rows.length);
+        //boolean columns may pack their entries, so concurrent
+        //writes to neighbouring rows are not safe for them
+        final boolean parallelWrites = parallel
+                && (target.typeCode() != BooleanColumn.TYPE_CODE)
+                && (target.typeCode() != NullableBooleanColumn.TYPE_CODE);
+
+        //previous values are recorded in whole blocks per thread
+        //as the recorded values may pack their entries as well
+        final int blockSize = Revision.Values.BLOCK_SIZE;
+        IntStream blocks = IntStream.range(0, Revision.Values.words(rows.length));
+        if(parallelWrites){
+            blocks = blocks.parallel();
+        }
+        blocks.forEach((block) -> {
+            final int end = Math.min(rows.length, (block + 1) * blockSize);
+            for(int i=block*blockSize; i<end; ++i){
+                final Object current = target.getValue(rows[i]);
+                values.set(i, current);
+                target.setValue(rows[i], assignment.apply(current));
+            }
+        });
+        return new Revision(column, rows, values.compact());
+    }
+
+    private int[] matchingRows(final DataFrame df, final boolean parallel){
+        IntStream rows = IntStream.range(0, df.rows());
+        if(parallel){
+            rows = rows.parallel();
+        }
+        if(condition == null){
+            return rows.toArray();
+        }
+        final Column col = df.getColumn(conditionColumn);
+        //ordered streams keep the row indices sorted
+        return rows.filter((i) -> condition.test(col.getValue(i))).toArray();
+    }
+
+    private static double compute(final char operator, final double a, final double b){
+        switch(operator){
+        case '+':
+            return a + b;
+        case '-':
+            return a - b;
+        case '*':
+            return a * b;
+        default:
+            return a / b;
+        }
+    }
+
+    private static long compute(final char operator, final long a, final long b){
+        switch(operator){
+        case '+':
+            return a + b;
+        case '-':
+            return a - b;
+        case '*':
+            return a * b;
+        default:
+            return a / b;
+        }
+    }
+
+}
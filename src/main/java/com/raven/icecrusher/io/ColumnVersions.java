@@ -0,0 +1,206 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.icecrusher.io;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.raven.common.struct.Column;
+import com.raven.common.struct.DataFrame;
+
+/**
+ * Version stamps of DataFrame columns. Every edit of a column must be reported
+ * by means of {@link #columnChanged(DataFrame, int)} and every structural change
+ * of a DataFrame, e.g. added or removed rows, a sort or a renamed column, by means of
+ * {@link #structureChanged(DataFrame)}. Data derived from a column can then be
+ * checked for staleness by comparing the version of that column at the time
+ * the data was computed with its current version.
+ *
+ * <p>DataFrames are tracked by identity and only weakly referenced, so tracking a
+ * DataFrame does not prevent it from being garbage collected. Each tracked DataFrame
+ * is assigned a unique id which is never reused. All methods of this class are
+ * thread-safe.
+ *
+ */
+public final class ColumnVersions {
+
+    private static final ReferenceQueue<DataFrame> queue = new ReferenceQueue<>();
+    private static final Map<Key, Versions> versions = new HashMap<>();
+    private static long counter;
+
+    private ColumnVersions(){ }
+
+    /**
+     * Gets the unique id of the specified DataFrame
+     * 
+     * @param df The <code>DataFrame</code> to get the id for
+     * @return The id of the specified DataFrame
+     */
+    public static synchronized long idOf(final DataFrame df){
+        return versionsOf(df).id;
+    }
+
+    /**
+     * Indicates whether the DataFrame with the specified id is still tracked, i.e.
+     * whether it has not been garbage collected yet
+     * 
+     * @param id The id of the DataFrame, as returned by {@link #idOf(DataFrame)}
+     * @return True if the DataFrame with the specified id is still tracked
+     */
+    public static synchronized boolean isTracked(final long id){
+        expunge();
+        for(final Versions v : versions.values()){
+            if(v.id == id){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the current version of the specified column
+     * 
+     * @param df The <code>DataFrame</code> holding the column
+     * @param column The index of the column
+     * @return The version of the specified column
+     */
+    public static synchronized long of(final DataFrame df, final int column){
+        final Versions v = versionsOf(df);
+        final Long version = v.columns.get(column);
+        return ((version != null) ? Math.max(version, v.structure) : v.structure);
+    }
+
+    /**
+     * Gets the current version of the specified column
+     * 
+     * @param df The <code>DataFrame</code> holding the column
+     * @param col The <code>Column</code> instance, as returned by the DataFrame
+     * @return The version of the specified column, or -1 if the
+     *         DataFrame does not hold the specified column instance
+     */
+    public static long of(final DataFrame df, final Column col){
+        final int index = indexOf(df, col);
+        return ((index >= 0) ? of(df, index) : -1);
+    }
+
+    /**
+     * Marks the specified column as changed
+     * 
+     * @param df The <code>DataFrame</code> holding the column
+     * @param column The index of the changed column
+     */
+    public static synchronized void columnChanged(final DataFrame df, final int column){
+        versionsOf(df).columns.put(column, ++counter);
+    }
+
+    /**
+     * Marks all columns of the specified DataFrame as changed
+     * 
+     * @param df The <code>DataFrame</code> whose structure has changed
+     */
+    public static synchronized void structureChanged(final DataFrame df){
+        final Versions v = versionsOf(df);
+        v.columns.clear();
+        v.structure = ++counter;
+    }
+
+    /**
+     * Gets the index of the specified column instance within the specified DataFrame
+     * 
+     * @param df The <code>DataFrame</code> to search
+     * @param col The <code>Column</code> instance to find
+     * @return The index of the specified column, or -1 if the DataFrame
+     *         does not hold that column instance
+     */
+    public static int indexOf(final DataFrame df, final Column col){
+        final int columns = df.columns();
+        for(int i=0; i<columns; ++i){
+            if(df.getColumn(i) == col){
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static Versions versionsOf(final DataFrame df){
+        expunge();
+        final Key key = new Key(df, null);
+        Versions v = versions.get(key);
+        if(v == null){
+            v = new Versions(++counter);
+            versions.put(new Key(df, queue), v);
+        }
+        return v;
+    }
+
+    private static void expunge(){
+        Reference<? extends DataFrame> ref;
+        while((ref = queue.poll()) != null){
+            versions.remove(ref);
+        }
+    }
+
+    /**
+     * Weak identity reference to a tracked DataFrame.
+     *
+     */
+    private static final class Key extends WeakReference<DataFrame> {
+
+        private final int hash;
+
+        Key(final DataFrame df, final ReferenceQueue<DataFrame> queue){
+            super(df, queue);
+            this.hash = System.identityHashCode(df);
+        }
+
+        @Override
+        public int hashCode(){
+            return this.hash;
+        }
+
+        @Override
+        public boolean equals(final Object obj){
+            if(this == obj){
+                return true;
+            }
+            if(!(obj instanceof Key)){
+                return false;
+            }
+            final DataFrame df = get();
+            return ((df != null) && (df == ((Key) obj).get()));
+        }
+    }
+
+    /**
+     * Versions of all columns of one DataFrame.
+     *
+     */
+    private static final class Versions {
+
+        private final long id;
+        private final Map<Integer, Long> columns = new HashMap<>();
+        private long structure;
+
+        Versions(final long id){
+            this.id = id;
+            this.structure = id;
+        }
+    }
+}
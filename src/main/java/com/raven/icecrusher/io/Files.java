@@ -16,7 +16,9 @@
 
 package com.raven.icecrusher.io;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
@@ -25,6 +27,7 @@ import com.raven.common.io.CSVReader;
 import com.raven.common.io.CSVWriter;
 import com.raven.common.io.DataFrameSerializer;
 import com.raven.common.struct.DataFrame;
+import com.raven.icecrusher.application.Scheduler;
 import com.raven.icecrusher.application.StackedApplication;
 import com.raven.icecrusher.ui.FileTab;
 import com.raven.icecrusher.ui.OneShotSnackbar;
@@ -86,6 +89,59 @@ public class Files {
         }
     }
 
+    /**
+     * Persists the DataFrame of the specified <code>FileTab</code> as the specified
+     * file in the same way as {@link #persistFile(EditorFile, DataFrame)}. If the
+     * DataFrame of the tab is currently spilled, it is persisted from its spill
+     * file without restoring the tab.<br>
+     * This operation will be performed on a background thread
+     * 
+     * @param file The EditorFile object representing the file to persist.
+     *             Must not be null
+     * @param tab The FileTab whose DataFrame to persist. Must not be null
+     * @return A <code>CompletableFuture</code> that completes when the
+     *         operation has finished
+     */
+    public static CompletableFuture<Void> persistTab(final EditorFile file,
+            final FileTab tab){
+
+        if(!tab.isSpilled()){
+            return persistFile(file, tab.getDataFrame());
+        }
+        final File spillFile = tab.getSpillFile();
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+        Scheduler.submit(Scheduler.Pool.IO, Scheduler.Priority.INTERACTIVE, () -> {
+            try{
+                if(file.isImported()){
+                    new CSVWriter(file)
+                        .useSeparator(file.getCSVSeparator())
+                        .withHeader(file.hasCSVHeader())
+                        .write(DataFrameSerializer.readFile(spillFile));
+
+                }else{//spill files are DataFrame files already
+                    java.nio.file.Files.copy(spillFile.toPath(), file.toPath(),
+                            StandardCopyOption.REPLACE_EXISTING);
+
+                }
+                future.complete(null);
+            }catch(Exception ex){
+                if(spillFile.exists()){
+                    future.completeExceptionally(ex);
+                    return;
+                }
+                //the tab was restored in the meantime and its spill file deleted
+                Platform.runLater(() -> persistTab(file, tab).whenComplete((result, e) -> {
+                    if(e != null){
+                        future.completeExceptionally(e);
+                    }else{
+                        future.complete(null);
+                    }
+                }));
+            }
+        });
+        return future;
+    }
+
     /**
      * Reads the specified file from the filesystem. All information on how exactly
      * the file will be read, for example as a .df or CSV file, is being retrieved from
@@ -175,7 +231,7 @@ public class Files {
                 return null;
             }
         };
-        new Thread(task).start();
+        Scheduler.submit(Scheduler.Pool.IO, Scheduler.Priority.INTERACTIVE, task);
     }
 
     /**
@@ -232,10 +288,15 @@ public class Files {
                 return null;
             }
         };
-        new Thread(task).start();
+        Scheduler.submit(Scheduler.Pool.IO, Scheduler.Priority.INTERACTIVE, task);
     }
 
     private static DataFrame sanitize(final DataFrame df){
-        return ((df != null) ? DataFrames.sanitize(df) : null);
+        if(df == null){
+            return null;
+        }
+        DataFrames.sanitize(df);
+        StringDictionary.encode(df);
+        return df;
     }
 }
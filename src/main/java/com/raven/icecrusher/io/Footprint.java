@@ -0,0 +1,382 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.icecrusher.io;
+
+import java.lang.reflect.Array;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+import com.raven.common.struct.BinaryColumn;
+import com.raven.common.struct.BooleanColumn;
+import com.raven.common.struct.ByteColumn;
+import com.raven.common.struct.CharColumn;
+import com.raven.common.struct.Column;
+import com.raven.common.struct.DataFrame;
+import com.raven.common.struct.DoubleColumn;
+import com.raven.common.struct.FloatColumn;
+import com.raven.common.struct.IntColumn;
+import com.raven.common.struct.LongColumn;
+import com.raven.common.struct.ShortColumn;
+import com.raven.common.struct.StringColumn;
+
+/**
+ * Estimated heap memory footprint of a DataFrame and each of its columns.<br>
+ * A Footprint is computed once by scanning all columns and is then kept up to date
+ * incrementally by reporting edits and structural changes, e.g. added or removed
+ * columns or rows, to it. Changes which affect the entire DataFrame require
+ * a new Footprint.
+ *
+ * <p>Estimates assume a 64-bit JVM with compressed object pointers, i.e. 4-byte
+ * references, 12-byte object headers and 8-byte object alignment, and strings
+ * backed by a char array. Columns of primitive types are estimated by their
+ * element width. Entries of nullable and variable-length columns are estimated by
+ * the reference to the entry plus the size of the referenced object. Objects shared
+ * by several rows, for example canonical strings of dictionary-encoded columns or
+ * cached boxed values, are only counted once.
+ *
+ */
+public final class Footprint {
+
+    private static final int REFERENCE = 4;
+    private static final int OBJECT_HEADER = 12;
+    private static final int ARRAY_HEADER = 16;
+
+    /**
+     * The maximum number of distinct instances tracked per column while scanning.
+     * Instances encountered after this limit are counted as unshared
+     */
+    private static final int MAX_TRACKED_INSTANCES = 65536;
+
+    private int rows;
+    //the width of the array element of each column
+    private int[] widths;
+    //the bytes of all objects referenced by each column
+    private long[] objects;
+    private boolean[] shared;
+
+    private Footprint(final int rows, final int[] widths, final long[] objects,
+            final boolean[] shared){
+
+        this.rows = rows;
+        this.widths = widths;
+        this.objects = objects;
+        this.shared = shared;
+    }
+
+    /**
+     * Computes the Footprint of the specified DataFrame by scanning
+     * all of its columns
+     * 
+     * @param df The <code>DataFrame</code> to compute the Footprint for
+     * @return The <code>Footprint</code> of the specified DataFrame
+     */
+    public static Footprint of(final DataFrame df){
+        final int n = df.columns();
+        final Footprint footprint = new Footprint(df.rows(), new int[n],
+                new long[n], new boolean[n]);
+
+        for(int i=0; i<n; ++i){
+            footprint.scan(df.getColumn(i), i);
+        }
+        return footprint;
+    }
+
+    /**
+     * Gets the estimated footprint of the entire DataFrame
+     * 
+     * @return The estimated number of bytes occupied by all columns
+     */
+    public long total(){
+        long total = 0;
+        for(int i=0; i<widths.length; ++i){
+            total += ofColumn(i);
+        }
+        return total;
+    }
+
+    /**
+     * Gets the estimated footprint of the column at the specified index
+     * 
+     * @param column The index of the column
+     * @return The estimated number of bytes occupied by the specified column
+     */
+    public long ofColumn(final int column){
+        return array(rows, widths[column]) + objects[column];
+    }
+
+    /**
+     * Updates this Footprint after a single entry has been changed
+     * 
+     * @param column The index of the column of the changed entry
+     * @param oldValue The previous value of the entry. May be null
+     * @param newValue The new value of the entry. May be null
+     */
+    public void entryChanged(final int column, final Object oldValue, final Object newValue){
+        if((column < 0) || (column >= widths.length)){
+            return;
+        }
+        //fixed width entries do not change the footprint
+        if(!isFixedWidth(oldValue) || !isFixedWidth(newValue)){
+            //a shared instance is most likely still referenced by other rows
+            if(!shared[column]){
+                objects[column] -= sizeOf(oldValue);
+            }
+            objects[column] += sizeOf(newValue);
+        }
+    }
+
+    /**
+     * Updates this Footprint after all entries recorded by the specified
+     * Revision have been changed in the specified DataFrame
+     * 
+     * @param df The changed <code>DataFrame</code>
+     * @param revision The <code>Revision</code> recording the previous values
+     */
+    public void revisionApplied(final DataFrame df, final Revision revision){
+        for(final Revision part : revision.parts()){
+            final int index = df.getColumnIndex(part.column());
+            final Column col = df.getColumn(index);
+            final int[] rows = part.rows();
+            for(int i=0; i<rows.length; ++i){
+                entryChanged(index, part.value(i), col.getValue(rows[i]));
+            }
+        }
+    }
+
+    /**
+     * Updates this Footprint before the specified Revision is reverted
+     * in the specified DataFrame
+     * 
+     * @param df The <code>DataFrame</code> to be reverted
+     * @param revision The <code>Revision</code> to be reverted
+     */
+    public void revisionReverting(final DataFrame df, final Revision revision){
+        for(final Revision part : revision.parts()){
+            final int index = df.getColumnIndex(part.column());
+            final Column col = df.getColumn(index);
+            final int[] rows = part.rows();
+            for(int i=0; i<rows.length; ++i){
+                entryChanged(index, col.getValue(rows[i]), part.value(i));
+            }
+        }
+    }
+
+    /**
+     * Updates this Footprint after a row has been added to the end
+     * of the specified DataFrame
+     * 
+     * @param df The changed <code>DataFrame</code>
+     */
+    public void rowAdded(final DataFrame df){
+        final int row = df.rows() - 1;
+        for(int i=0; i<widths.length; ++i){
+            final Column col = df.getColumn(i);
+            if(!isFixedWidth(col)){
+                objects[i] += sizeOf(col.getValue(row));
+            }
+        }
+        ++rows;
+    }
+
+    /**
+     * Updates this Footprint before the row at the specified index is
+     * removed from the specified DataFrame
+     * 
+     * @param df The <code>DataFrame</code> to be changed
+     * @param row The index of the row to be removed
+     */
+    public void rowRemoving(final DataFrame df, final int row){
+        for(int i=0; i<widths.length; ++i){
+            final Column col = df.getColumn(i);
+            if(!isFixedWidth(col) && !shared[i]){
+                objects[i] -= sizeOf(col.getValue(row));
+            }
+        }
+        --rows;
+    }
+
+    /**
+     * Updates this Footprint after a column has been added to the specified
+     * DataFrame. Only the added column is scanned
+     * 
+     * @param df The changed <code>DataFrame</code>
+     * @param column The index of the added column
+     */
+    public void columnAdded(final DataFrame df, final int column){
+        final int n = widths.length + 1;
+        this.widths = insert(widths, new int[n], column);
+        this.objects = insert(objects, new long[n], column);
+        this.shared = insert(shared, new boolean[n], column);
+        scan(df.getColumn(column), column);
+    }
+
+    /**
+     * Updates this Footprint after the column at the specified index has been
+     * replaced in the specified DataFrame, for example by converting it to another
+     * type. Only the replaced column is scanned
+     * 
+     * @param df The changed <code>DataFrame</code>
+     * @param column The index of the replaced column
+     */
+    public void columnReplaced(final DataFrame df, final int column){
+        scan(df.getColumn(column), column);
+    }
+
+    /**
+     * Updates this Footprint after the column at the specified index has been
+     * removed from the underlying DataFrame
+     * 
+     * @param column The index of the removed column
+     */
+    public void columnRemoved(final int column){
+        final int n = widths.length - 1;
+        this.widths = remove(widths, new int[n], column);
+        this.objects = remove(objects, new long[n], column);
+        this.shared = remove(shared, new boolean[n], column);
+    }
+
+    /**
+     * Gets the number of columns described by this Footprint
+     * 
+     * @return The number of columns of this Footprint
+     */
+    public int columns(){
+        return this.widths.length;
+    }
+
+    private void scan(final Column col, final int index){
+        shared[index] = false;
+        if(isFixedWidth(col)){
+            widths[index] = widthOf(col);
+            objects[index] = 0;
+            return;
+        }
+        final Set<Object> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        long bytes = 0;
+        for(int j=0; j<rows; ++j){
+            final Object value = col.getValue(j);
+            if(value == null){
+                continue;
+            }
+            if(seen.contains(value)){
+                shared[index] = true;
+            }else{
+                bytes += sizeOf(value);
+                if(seen.size() < MAX_TRACKED_INSTANCES){
+                    seen.add(value);
+                }
+            }
+        }
+        widths[index] = REFERENCE;
+        objects[index] = bytes;
+    }
+
+    /**
+     * Formats the specified number of bytes as a human readable string
+     * 
+     * @param bytes The number of bytes to format
+     * @return A string representation of the specified number of bytes
+     */
+    public static String format(final long bytes){
+        if(bytes < 1000){
+            return bytes + " B";
+        }
+        final String[] units = {"KB", "MB", "GB", "TB"};
+        double value = bytes;
+        int unit = -1;
+        while((value >= 1000) && (unit < units.length-1)){
+            value /= 1000;
+            ++unit;
+        }
+        return String.format("%.1f %s", value, units[unit]);
+    }
+
+    /**
+     * Estimates the number of bytes occupied by the specified object, excluding
+     * the reference to it
+     * 
+     * @param value The object to estimate. May be null
+     * @return The estimated size of the specified object in bytes
+     */
+    public static long sizeOf(final Object value){
+        if(value == null){
+            return 0;
+        }else if(value instanceof String){
+            //String object with a reference to a char array
+            return align(OBJECT_HEADER + REFERENCE + 4)
+                    + array(((String)value).length(), 2);
+
+        }else if(value instanceof byte[]){
+            return array(((byte[])value).length, 1);
+        }else if((value instanceof Long) || (value instanceof Double)){
+            return align(OBJECT_HEADER + 8);
+        }
+        return align(OBJECT_HEADER + 4);
+    }
+
+    private static boolean isFixedWidth(final Column col){
+        return !col.isNullable()
+                && (col.typeCode() != StringColumn.TYPE_CODE)
+                && (col.typeCode() != BinaryColumn.TYPE_CODE);
+    }
+
+    private static boolean isFixedWidth(final Object value){
+        return (value != null) && !(value instanceof String) && !(value instanceof byte[]);
+    }
+
+    private static int widthOf(final Column col){
+        switch(col.typeCode()){
+        case LongColumn.TYPE_CODE:
+        case DoubleColumn.TYPE_CODE:
+            return 8;
+        case IntColumn.TYPE_CODE:
+        case FloatColumn.TYPE_CODE:
+            return 4;
+        case ShortColumn.TYPE_CODE:
+        case CharColumn.TYPE_CODE:
+            return 2;
+        case ByteColumn.TYPE_CODE:
+        case BooleanColumn.TYPE_CODE:
+        default:
+            return 1;
+        }
+    }
+
+    private static long array(final long length, final int width){
+        return align(ARRAY_HEADER + (length * width));
+    }
+
+    private static long align(final long bytes){
+        return (bytes + 7) & ~7L;
+    }
+
+    private static <T> T insert(final T src, final T dest, final int index){
+        final int length = Array.getLength(src);
+        System.arraycopy(src, 0, dest, 0, index);
+        System.arraycopy(src, index, dest, index+1, length-index);
+        return dest;
+    }
+
+    private static <T> T remove(final T src, final T dest, final int index){
+        final int length = Array.getLength(src);
+        System.arraycopy(src, 0, dest, 0, index);
+        System.arraycopy(src, index+1, dest, index, length-index-1);
+        return dest;
+    }
+
+}
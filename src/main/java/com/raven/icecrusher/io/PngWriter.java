@@ -0,0 +1,233 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.icecrusher.io;
+
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Streaming encoder for PNG images. The image is written row by row so that only
+ * the rows passed to {@link #writeRows(int[], int, int, int)} need to be held in
+ * memory, regardless of the size of the image.<br>
+ * Pixels are written as 8-bit RGBA with the <i>Sub</i> filter applied to every row.
+ * The compressed data is split into IDAT chunks of at most {@link #CHUNK_SIZE} bytes.
+ *
+ * <p>Example:<br>
+ * <pre>
+ * try(PngWriter writer = new PngWriter(out, width, height)){
+ *     writer.writeRows(argb, 0, width, height);
+ * }
+ * </pre>
+ *
+ */
+public final class PngWriter implements Closeable {
+
+    /**
+     * The maximum number of bytes of an IDAT chunk
+     */
+    public static final int CHUNK_SIZE = 65536;
+
+    private static final byte[] SIGNATURE = {
+            (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    private static final byte FILTER_SUB = 1;
+
+    private final ChunkOutputStream chunks;
+    private final DeflaterOutputStream deflater;
+    private final Deflater compressor;
+    private final int width;
+    private final int height;
+    private final byte[] row;
+    private int rowsWritten;
+    private boolean closed;
+
+    /**
+     * Constructs a new <code>PngWriter</code> and writes the header of the image
+     * to the specified stream
+     * 
+     * @param out The <code>OutputStream</code> to write to. Is closed when
+     *            this writer is closed
+     * @param width The width of the image, in pixels
+     * @param height The height of the image, in pixels
+     * @throws IOException If an I/O error occurs
+     */
+    public PngWriter(final OutputStream out, final int width, final int height)
+            throws IOException{
+
+        if((width < 1) || (height < 1)){
+            throw new IllegalArgumentException("Image must have at least one pixel");
+        }
+        this.width = width;
+        this.height = height;
+        this.row = new byte[1 + 4 * width];
+        out.write(SIGNATURE);
+        final byte[] header = new byte[13];
+        putInt(header, 0, width);
+        putInt(header, 4, height);
+        header[8] = 8;//bit depth
+        header[9] = 6;//color type RGBA
+        header[10] = 0;//compression
+        header[11] = 0;//filter method
+        header[12] = 0;//no interlace
+        this.chunks = new ChunkOutputStream(out);
+        chunks.writeChunk("IHDR", header, header.length);
+        this.compressor = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        this.deflater = new DeflaterOutputStream(chunks, compressor, CHUNK_SIZE);
+    }
+
+    /**
+     * Writes the specified rows of pixels
+     * 
+     * @param argb The pixels in ARGB format, e.g. as read by a
+     *             <code>PixelReader</code> with an IntArgb pixel format
+     * @param offset The index of the first pixel of the first row
+     * @param stride The distance between the first pixels of two consecutive rows
+     * @param rows The number of rows to write
+     * @throws IOException If an I/O error occurs
+     */
+    public void writeRows(final int[] argb, final int offset, final int stride,
+            final int rows) throws IOException{
+
+        if((rowsWritten + rows) > height){
+            throw new IllegalStateException("Image has only " + height + " rows");
+        }
+        row[0] = FILTER_SUB;
+        for(int r=0; r<rows; ++r){
+            final int start = offset + r * stride;
+            int left = 0;
+            for(int i=0; i<width; ++i){
+                final int pixel = argb[start + i];
+                //convert ARGB to RGBA and store the difference to the left pixel
+                final int rgba = (pixel << 8) | (pixel >>> 24);
+                final int k = 1 + 4 * i;
+                row[k] = (byte) ((rgba >>> 24) - (left >>> 24));
+                row[k+1] = (byte) (((rgba >>> 16) & 0xFF) - ((left >>> 16) & 0xFF));
+                row[k+2] = (byte) (((rgba >>> 8) & 0xFF) - ((left >>> 8) & 0xFF));
+                row[k+3] = (byte) ((rgba & 0xFF) - (left & 0xFF));
+                left = rgba;
+            }
+            deflater.write(row);
+        }
+        rowsWritten += rows;
+    }
+
+    /**
+     * Finishes the image and closes the underlying stream
+     * 
+     * @throws IOException If an I/O error occurs or if not all rows of
+     *                     the image have been written
+     */
+    @Override
+    public void close() throws IOException{
+        if(closed){
+            return;
+        }
+        this.closed = true;
+        try{
+            if(rowsWritten != height){
+                throw new IOException("Incomplete image: " + rowsWritten
+                        + " of " + height + " rows written");
+
+            }
+            deflater.finish();
+            chunks.flushChunk();
+            chunks.writeChunk("IEND", new byte[0], 0);
+        }finally{
+            compressor.end();
+            chunks.close();
+        }
+    }
+
+    private static void putInt(final byte[] buffer, final int index, final int value){
+        buffer[index] = (byte) (value >>> 24);
+        buffer[index+1] = (byte) (value >>> 16);
+        buffer[index+2] = (byte) (value >>> 8);
+        buffer[index+3] = (byte) value;
+    }
+
+    /**
+     * Collects compressed image data and writes it as IDAT chunks.
+     *
+     */
+    private static final class ChunkOutputStream extends FilterOutputStream {
+
+        private final DataOutputStream data;
+        private final CRC32 crc = new CRC32();
+        private final byte[] buffer = new byte[CHUNK_SIZE];
+        private int count;
+
+        ChunkOutputStream(final OutputStream out){
+            super(out);
+            this.data = new DataOutputStream(out);
+        }
+
+        @Override
+        public void write(final int b) throws IOException{
+            if(count == buffer.length){
+                flushChunk();
+            }
+            buffer[count++] = (byte) b;
+        }
+
+        @Override
+        public void write(final byte[] b, int off, int len) throws IOException{
+            while(len > 0){
+                if(count == buffer.length){
+                    flushChunk();
+                }
+                final int n = Math.min(len, buffer.length - count);
+                System.arraycopy(b, off, buffer, count, n);
+                count += n;
+                off += n;
+                len -= n;
+            }
+        }
+
+        void flushChunk() throws IOException{
+            if(count > 0){
+                writeChunk("IDAT", buffer, count);
+                count = 0;
+            }
+        }
+
+        void writeChunk(final String type, final byte[] bytes, final int length)
+                throws IOException{
+
+            final byte[] name = type.getBytes(StandardCharsets.US_ASCII);
+            data.writeInt(length);
+            data.write(name);
+            data.write(bytes, 0, length);
+            crc.reset();
+            crc.update(name);
+            crc.update(bytes, 0, length);
+            data.writeInt((int) crc.getValue());
+        }
+
+        @Override
+        public void close() throws IOException{
+            data.flush();
+            super.close();
+        }
+    }
+}
@@ -0,0 +1,518 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.icecrusher.io;
+
+import java.util.List;
+import java.util.Objects;
+
+import com.raven.common.struct.BooleanColumn;
+import com.raven.common.struct.ByteColumn;
+import com.raven.common.struct.CharColumn;
+import com.raven.common.struct.Column;
+import com.raven.common.struct.DataFrame;
+import com.raven.common.struct.DoubleColumn;
+import com.raven.common.struct.FloatColumn;
+import com.raven.common.struct.IntColumn;
+import com.raven.common.struct.LongColumn;
+import com.raven.common.struct.NullableBooleanColumn;
+import com.raven.common.struct.NullableByteColumn;
+import com.raven.common.struct.NullableCharColumn;
+import com.raven.common.struct.NullableDoubleColumn;
+import com.raven.common.struct.NullableFloatColumn;
+import com.raven.common.struct.NullableIntColumn;
+import com.raven.common.struct.NullableLongColumn;
+import com.raven.common.struct.NullableShortColumn;
+import com.raven.common.struct.ShortColumn;
+
+/**
+ * Undo entry of a bulk operation on one or more DataFrame columns.<br>
+ * A Revision only records the indices of the rows that were changed
+ * together with their previous values. Reverting a Revision restores
+ * those values in place. Revisions of several columns can be combined
+ * into one Revision by means of {@link #combine(List)}.
+ *
+ * <p>The previous values are held in a primitive array typed like the column,
+ * together with a null bitmap for nullable columns. If all previous values
+ * are equal, for example when a constant replaces all entries equal to another
+ * constant, only that single value is kept besides the row indices.
+ *
+ * <p>A Revision is only valid as long as the row order and the structure of
+ * the DataFrame it was recorded for have not changed.
+ *
+ */
+public class Revision {
+
+    private final String column;
+    private final int[] rows;
+    private final Values values;
+    private final Revision[] parts;
+
+    /**
+     * Constructs a new <code>Revision</code> for the specified column
+     *
+     * @param column The name of the column which was changed
+     * @param rows The indices of all changed rows. Must not be null
+     * @param values The previous values of all changed rows, in the same
+     *               order as the row indices. Must not be null
+     */
+    Revision(final String column, final int[] rows, final Values values){
+        if(rows.length != values.size()){
+            throw new IllegalArgumentException("Row indices and values differ in length");
+        }
+        this.column = column;
+        this.rows = rows;
+        this.values = values;
+        this.parts = null;
+    }
+
+    private Revision(final Revision[] parts){
+        this.column = null;
+        this.rows = null;
+        this.values = null;
+        this.parts = parts;
+    }
+
+    /**
+     * Combines the specified Revisions into one Revision. Reverting the
+     * combined Revision reverts all specified Revisions in reverse order
+     *
+     * @param revisions The Revisions to combine. Must not be null
+     * @return A <code>Revision</code> combining all specified Revisions
+     */
+    public static Revision combine(final List<Revision> revisions){
+        return new Revision(revisions.toArray(new Revision[revisions.size()]));
+    }
+
+    /**
+     * Gets the names of all columns this Revision was recorded for
+     *
+     * @return The names of all changed columns
+     */
+    public String[] getColumnNames(){
+        if(parts == null){
+            return new String[]{column};
+        }
+        final String[] names = new String[parts.length];
+        for(int i=0; i<parts.length; ++i){
+            names[i] = parts[i].column;
+        }
+        return names;
+    }
+
+    /**
+     * Gets the number of entries recorded by this Revision
+     *
+     * @return The number of changed entries
+     */
+    public int size(){
+        if(parts == null){
+            return this.rows.length;
+        }
+        int size = 0;
+        for(final Revision part : parts){
+            size += part.size();
+        }
+        return size;
+    }
+
+    /**
+     * Gets the number of entries of the specified column recorded by this Revision
+     *
+     * @param column The name of the column to get the number of changed entries for
+     * @return The number of changed entries of the specified column
+     */
+    public int size(final String column){
+        int size = 0;
+        for(final Revision part : parts()){
+            if(part.column.equals(column)){
+                size += part.rows.length;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Gets all single-column Revisions this Revision consists of
+     * 
+     * @return The parts of this Revision, or this Revision itself if
+     *         it was recorded for a single column
+     */
+    Revision[] parts(){
+        return ((parts != null) ? parts : new Revision[]{this});
+    }
+
+    String column(){
+        return this.column;
+    }
+
+    int[] rows(){
+        return this.rows;
+    }
+
+    /**
+     * Gets the previous value of the specified recorded entry
+     * 
+     * @param index The index of the entry within the recorded row indices
+     * @return The previous value of the entry. May be null
+     */
+    Object value(final int index){
+        return this.values.get(index);
+    }
+
+    /**
+     * Restores all recorded values in the specified DataFrame
+     *
+     * @param df The <code>DataFrame</code> to revert. Must be the DataFrame
+     *           this Revision was recorded for
+     */
+    public void revert(final DataFrame df){
+        if(parts != null){
+            for(int i=parts.length-1; i>=0; --i){
+                parts[i].revert(df);
+            }
+            return;
+        }
+        final Column col = df.getColumn(column);
+        for(int i=0; i<rows.length; ++i){
+            col.setValue(rows[i], values.get(i));
+        }
+    }
+
+    /**
+     * Storage of the previous values of all entries recorded by a Revision.<br>
+     * Values are recorded by index in the order of the recorded row indices. Recording
+     * is not synchronized. Concurrent recording is only safe when each thread records
+     * whole blocks of {@link #BLOCK_SIZE} indices, as null and boolean values
+     * are packed into bitmaps.
+     *
+     */
+    abstract static class Values {
+
+        /** The number of indices sharing one word of a bitmap **/
+        static final int BLOCK_SIZE = 64;
+
+        private final int size;
+        private final long[] nulls;
+
+        Values(final int size, final boolean nullable){
+            this.size = size;
+            this.nulls = (nullable ? new long[words(size)] : null);
+        }
+
+        /**
+         * Creates a <code>Values</code> instance for recording the specified
+         * number of values of the specified column
+         * 
+         * @param col The <code>Column</code> to record values of
+         * @param size The number of values to record
+         * @return A <code>Values</code> instance typed like the specified column
+         */
+        static Values of(final Column col, final int size){
+            if(size == 0){
+                //nothing is recorded, so the column type does not matter
+                return new ObjectValues(0, false);
+            }
+            final byte type = col.typeCode();
+            final boolean nullable = col.isNullable();
+            if((type == ByteColumn.TYPE_CODE) || (type == NullableByteColumn.TYPE_CODE)){
+                return new ByteValues(size, nullable);
+            }else if((type == ShortColumn.TYPE_CODE) || (type == NullableShortColumn.TYPE_CODE)){
+                return new ShortValues(size, nullable);
+            }else if((type == IntColumn.TYPE_CODE) || (type == NullableIntColumn.TYPE_CODE)){
+                return new IntValues(size, nullable);
+            }else if((type == LongColumn.TYPE_CODE) || (type == NullableLongColumn.TYPE_CODE)){
+                return new LongValues(size, nullable);
+            }else if((type == FloatColumn.TYPE_CODE) || (type == NullableFloatColumn.TYPE_CODE)){
+                return new FloatValues(size, nullable);
+            }else if((type == DoubleColumn.TYPE_CODE) || (type == NullableDoubleColumn.TYPE_CODE)){
+                return new DoubleValues(size, nullable);
+            }else if((type == CharColumn.TYPE_CODE) || (type == NullableCharColumn.TYPE_CODE)){
+                return new CharValues(size, nullable);
+            }else if((type == BooleanColumn.TYPE_CODE) || (type == NullableBooleanColumn.TYPE_CODE)){
+                return new BooleanValues(size, nullable);
+            }
+            //strings and binary data are held by reference anyway
+            return new ObjectValues(size, nullable);
+        }
+
+        /**
+         * Records the specified value
+         * 
+         * @param index The index of the value
+         * @param value The value to record. May only be null for nullable columns
+         */
+        void set(final int index, final Object value){
+            if(value == null){
+                nulls[index >>> 6] |= (1L << index);
+            }else{
+                put(index, value);
+            }
+        }
+
+        /**
+         * Gets the recorded value with the specified index
+         * 
+         * @param index The index of the value
+         * @return The recorded value. May be null
+         */
+        Object get(final int index){
+            if((nulls != null) && ((nulls[index >>> 6] & (1L << index)) != 0)){
+                return null;
+            }
+            return value(index);
+        }
+
+        int size(){
+            return this.size;
+        }
+
+        /**
+         * Returns a <code>Values</code> instance which only holds the single value
+         * of all recorded values if they are all equal, or this instance otherwise
+         * 
+         * @return The most compact representation of all recorded values
+         */
+        Values compact(){
+            if(size == 0){
+                return this;
+            }
+            final Object first = get(0);
+            for(int i=1; i<size; ++i){
+                if(!Objects.deepEquals(first, get(i))){
+                    return this;
+                }
+            }
+            return new SingleValue(size, first);
+        }
+
+        abstract void put(int index, Object value);
+
+        abstract Object value(int index);
+
+        static int words(final int size){
+            return ((size + BLOCK_SIZE - 1) / BLOCK_SIZE);
+        }
+    }
+
+    private static final class SingleValue extends Values {
+
+        private final Object value;
+
+        SingleValue(final int size, final Object value){
+            super(size, false);
+            this.value = value;
+        }
+
+        @Override
+        Object get(final int index){
+            return this.value;
+        }
+
+        @Override
+        void put(final int index, final Object value){
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        Object value(final int index){
+            return this.value;
+        }
+    }
+
+    private static final class ByteValues extends Values {
+
+        private final byte[] array;
+
+        ByteValues(final int size, final boolean nullable){
+            super(size, nullable);
+            this.array = new byte[size];
+        }
+
+        @Override
+        void put(final int index, final Object value){
+            array[index] = (Byte) value;
+        }
+
+        @Override
+        Object value(final int index){
+            return array[index];
+        }
+    }
+
+    private static final class ShortValues extends Values {
+
+        private final short[] array;
+
+        ShortValues(final int size, final boolean nullable){
+            super(size, nullable);
+            this.array = new short[size];
+        }
+
+        @Override
+        void put(final int index, final Object value){
+            array[index] = (Short) value;
+        }
+
+        @Override
+        Object value(final int index){
+            return array[index];
+        }
+    }
+
+    private static final class IntValues extends Values {
+
+        private final int[] array;
+
+        IntValues(final int size, final boolean nullable){
+            super(size, nullable);
+            this.array = new int[size];
+        }
+
+        @Override
+        void put(final int index, final Object value){
+            array[index] = (Integer) value;
+        }
+
+        @Override
+        Object value(final int index){
+            return array[index];
+        }
+    }
+
+    private static final class LongValues extends Values {
+
+        private final long[] array;
+
+        LongValues(final int size, final boolean nullable){
+            super(size, nullable);
+            this.array = new long[size];
+        }
+
+        @Override
+        void put(final int index, final Object value){
+            array[index] = (Long) value;
+        }
+
+        @Override
+        Object value(final int index){
+            return array[index];
+        }
+    }
+
+    private static final class FloatValues extends Values {
+
+        private final float[] array;
+
+        FloatValues(final int size, final boolean nullable){
+            super(size, nullable);
+            this.array = new float[size];
+        }
+
+        @Override
+        void put(final int index, final Object value){
+            array[index] = (Float) value;
+        }
+
+        @Override
+        Object value(final int index){
+            return array[index];
+        }
+    }
+
+    private static final class DoubleValues extends Values {
+
+        private final double[] array;
+
+        DoubleValues(final int size, final boolean nullable){
+            super(size, nullable);
+            this.array = new double[size];
+        }
+
+        @Override
+        void put(final int index, final Object value){
+            array[index] = (Double) value;
+        }
+
+        @Override
+        Object value(final int index){
+            return array[index];
+        }
+    }
+
+    private static final class CharValues extends Values {
+
+        private final char[] array;
+
+        CharValues(final int size, final boolean nullable){
+            super(size, nullable);
+            this.array = new char[size];
+        }
+
+        @Override
+        void put(final int index, final Object value){
+            array[index] = (Character) value;
+        }
+
+        @Override
+        Object value(final int index){
+            return array[index];
+        }
+    }
+
+    private static final class BooleanValues extends Values {
+
+        private final long[] bits;
+
+        BooleanValues(final int size, final boolean nullable){
+            super(size, nullable);
+            this.bits = new long[words(size)];
+        }
+
+        @Override
+        void put(final int index, final Object value){
+            if((Boolean) value){
+                bits[index >>> 6] |= (1L << index);
+            }
+        }
+
+        @Override
+        Object value(final int index){
+            return ((bits[index >>> 6] & (1L << index)) != 0);
+        }
+    }
+
+    private static final class ObjectValues extends Values {
+
+        private final Object[] array;
+
+        ObjectValues(final int size, final boolean nullable){
+            super(size, nullable);
+            this.array = new Object[size];
+        }
+
+        @Override
+        void put(final int index, final Object value){
+            array[index] = value;
+        }
+
+        @Override
+        Object value(final int index){
+            return array[index];
+        }
+    }
+
+}
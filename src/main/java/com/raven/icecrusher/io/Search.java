@@ -0,0 +1,341 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.icecrusher.io;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.raven.common.struct.Column;
+import com.raven.common.struct.DataFrame;
+import com.raven.icecrusher.ui.view.ConversionPack;
+import com.raven.icecrusher.ui.view.Converters.Converter;
+
+/**
+ * Defines a search for values within the columns of a DataFrame.<br>
+ * A Search either looks for a literal substring, a regular expression which
+ * must be found within the string representation of a value, or a numeric value
+ * which must be equal to the value of a numeric column. Values of float columns
+ * are compared in float precision. Null values never match.
+ * By default, all columns of a DataFrame are searched. Use {@link #in(String)}
+ * to restrict a Search to a single column.
+ *
+ * <p>Use a {@link SearchTask} to scan a DataFrame in the background and
+ * {@link #replaceAll(DataFrame, String)} to replace all matches in one batch.
+ *
+ */
+public final class Search {
+
+    /**
+     * Enumerates all supported search modes.
+     *
+     */
+    public enum Mode {
+        LITERAL,
+        REGEX,
+        NUMERIC;
+    }
+
+    /**
+     * The location of a single matching entry.
+     *
+     */
+    public static final class Match {
+
+        private final int row;
+        private final int column;
+
+        Match(final int row, final int column){
+            this.row = row;
+            this.column = column;
+        }
+
+        /**
+         * Gets the row index of the matching entry
+         * 
+         * @return The row index of this Match
+         */
+        public int getRow(){
+            return this.row;
+        }
+
+        /**
+         * Gets the column index of the matching entry
+         * 
+         * @return The column index of this Match
+         */
+        public int getColumn(){
+            return this.column;
+        }
+    }
+
+    private final Mode mode;
+    private final String query;
+    private final Pattern pattern;
+    private final double number;
+    private String column;
+
+    private Search(final Mode mode, final String query){
+        this.mode = mode;
+        this.query = query;
+        this.pattern = ((mode == Mode.REGEX) 
+                ? Pattern.compile(query) 
+                : Pattern.compile(query, Pattern.LITERAL));
+
+        this.number = ((mode == Mode.NUMERIC) ? Double.parseDouble(query) : Double.NaN);
+    }
+
+    /**
+     * Creates a new <code>Search</code> for the specified query
+     * 
+     * @param mode The <code>Mode</code> of the search
+     * @param query The term to search for. Must not be null or empty
+     * @return A <code>Search</code> for all columns
+     * @throws IllegalArgumentException If the query is empty, or if it is not
+     *                                  a valid regex or number, respectively,
+     *                                  for the specified mode
+     */
+    public static Search of(final Mode mode, final String query){
+        if((query == null) || query.isEmpty()){
+            throw new IllegalArgumentException("Query must not be empty");
+        }
+        return new Search(mode, query);
+    }
+
+    /**
+     * Restricts this <code>Search</code> to the specified column
+     * 
+     * @param column The name of the column to search. Passing null
+     *               searches all columns
+     * @return This <code>Search</code> instance
+     */
+    public Search in(final String column){
+        this.column = column;
+        return this;
+    }
+
+    /**
+     * Gets the mode of this Search
+     * 
+     * @return The <code>Mode</code> of this Search
+     */
+    public Mode getMode(){
+        return this.mode;
+    }
+
+    /**
+     * Indicates whether the specified value matches this Search. This method
+     * may be called concurrently
+     * 
+     * @param value The value to test. May be null
+     * @return True if the value matches, false otherwise
+     */
+    public boolean matches(final Object value){
+        if(value == null){
+            return false;
+        }
+        switch(mode){
+        case LITERAL:
+            return value.toString().contains(query);
+        case REGEX:
+            return pattern.matcher(value.toString()).find();
+        case NUMERIC:
+            if(value instanceof Float){
+                //the query would otherwise have to match the widened float exactly
+                return ((Float)value).floatValue() == ((float) number);
+            }
+            return (value instanceof Number) && (((Number)value).doubleValue() == number);
+        default:
+            return false;
+        }
+    }
+
+    /**
+     * Gets the indices of all columns of the specified DataFrame which are
+     * searched by this Search
+     * 
+     * @param df The <code>DataFrame</code> to be searched
+     * @return The indices of all columns to search
+     */
+    public int[] columnsOf(final DataFrame df){
+        if(column != null){
+            return new int[]{df.getColumnIndex(column)};
+        }
+        final List<Integer> list = new ArrayList<>();
+        for(int i=0; i<df.columns(); ++i){
+            if((mode != Mode.NUMERIC) || df.getColumn(i).isNumeric()){
+                list.add(i);
+            }
+        }
+        final int[] indices = new int[list.size()];
+        for(int i=0; i<indices.length; ++i){
+            indices[i] = list.get(i);
+        }
+        return indices;
+    }
+
+    /**
+     * Replaces all matches of this Search in the specified DataFrame. When searching
+     * for a literal or regex, only the matching part of a value is replaced. The
+     * resulting string is converted back to the type of the column for all
+     * non-string columns. When searching for a number, the entire value is replaced
+     * by the replacement converted to the type of each searched column. When
+     * searching for a regex, the replacement may refer to captured groups by means
+     * of <code>$n</code> or <code>${name}</code>. In all other modes the replacement
+     * is taken literally.<br>
+     * All conversions are checked before any value is changed. All columns are
+     * updated by means of a {@link BulkUpdate} and therefore in parallel for
+     * large DataFrames. If an update fails, all columns updated before are reverted
+     * 
+     * @param df The <code>DataFrame</code> to change
+     * @param replacement The string representation of the replacement
+     * @return A <code>Revision</code> holding the previous values of all 
+     *         replaced entries
+     * @throws IllegalArgumentException If a replaced value cannot be converted
+     *                                  to the type of its column, or if the
+     *                                  replacement is not a valid regex replacement
+     */
+    public Revision replaceAll(final DataFrame df, final String replacement){
+        final int[] indices = columnsOf(df);
+        final List<BulkUpdate> updates = new ArrayList<>(indices.length);
+        final String substitute = ((mode == Mode.REGEX)
+                ? validateReplacement(replacement)
+                : Matcher.quoteReplacement(replacement));
+
+        //validate all conversions before changing anything
+        for(final int index : indices){
+            final Column col = df.getColumn(index);
+            final String name = df.getColumnName(index);
+            final Converter converter = ConversionPack.columnConversion(col).getConverter();
+            if(mode == Mode.NUMERIC){
+                final Object value = convert(converter, col, name, replacement);
+                updates.add(BulkUpdate.set(name, value).where(name, this::matches));
+            }else if(DataFrames.columnUsesStrings(col)){
+                updates.add(BulkUpdate.set(name, (current) -> pattern.matcher(
+                        current.toString()).replaceAll(substitute)).where(name, this::matches));
+            }else{
+                //only columns with matches must be convertible
+                for(int i=0; i<df.rows(); ++i){
+                    final Object current = col.getValue(i);
+                    if(matches(current)){
+                        convert(converter, col, name, pattern.matcher(
+                                current.toString()).replaceAll(substitute));
+                    }
+                }
+                updates.add(BulkUpdate.set(name, (current) -> convert(converter, col, name,
+                        pattern.matcher(current.toString()).replaceAll(substitute)))
+                        .where(name, this::matches));
+            }
+        }
+        final List<Revision> revisions = new ArrayList<>(updates.size());
+        try{
+            for(final BulkUpdate update : updates){
+                final Revision revision = update.applyTo(df);
+                if(revision.size() > 0){
+                    revisions.add(revision);
+                }
+            }
+        }catch(RuntimeException ex){
+            Revision.combine(revisions).revert(df);
+            throw ex;
+        }
+        return Revision.combine(revisions);
+    }
+
+    /**
+     * Converts the specified string to the type of the specified column
+     * 
+     * @param converter The <code>Converter</code> of the column
+     * @param col The <code>Column</code> to convert the value for
+     * @param name The name of the column
+     * @param value The string representation of the value
+     * @return The converted value. May be null if the column is nullable
+     * @throws IllegalArgumentException If the value cannot be converted
+     */
+    private static Object convert(final Converter converter, final Column col,
+            final String name, final String value){
+
+        final Object result;
+        try{
+            result = converter.fromString(value);
+        }catch(RuntimeException ex){
+            throw new IllegalArgumentException("Value '" + value
+                    + "' is invalid for column " + name);
+        }
+        if((result == null) && !col.isNullable()){
+            throw new IllegalArgumentException("Column " + name
+                    + " does not support null values");
+        }
+        return result;
+    }
+
+    /**
+     * Checks the specified regex replacement in the same way as
+     * <code>Matcher.appendReplacement()</code> would when it is applied
+     * to a match, so that an invalid replacement is rejected before
+     * any value is changed
+     * 
+     * @param replacement The replacement to check
+     * @return The specified replacement
+     * @throws IllegalArgumentException If the replacement has a dangling escape
+     *                                  character or refers to a group which is
+     *                                  not defined by the regex of this Search
+     */
+    private String validateReplacement(final String replacement){
+        final int groups = pattern.matcher("").groupCount();
+        int i = 0;
+        while(i < replacement.length()){
+            final char c = replacement.charAt(i++);
+            if(c == '\\'){
+                if(i == replacement.length()){
+                    throw new IllegalArgumentException(
+                            "Replacement ends with an escape character");
+                }
+                ++i;
+            }else if(c == '$'){
+                if(i == replacement.length()){
+                    throw new IllegalArgumentException(
+                            "Replacement is missing a group after '$'");
+                }
+                if(replacement.charAt(i) == '{'){
+                    final int end = replacement.indexOf('}', i);
+                    final String name = ((end != -1) ? replacement.substring(i+1, end) : "");
+                    if(name.isEmpty() || !query.contains("(?<" + name + ">")){
+                        throw new IllegalArgumentException(
+                                "Replacement refers to an unknown group");
+                    }
+                    i = end + 1;
+                }else{
+                    final int group = Character.digit(replacement.charAt(i), 10);
+                    if(group < 0){
+                        throw new IllegalArgumentException(
+                                "Replacement is missing a group after '$'");
+                    }
+                    if(group > groups){
+                        throw new IllegalArgumentException(
+                                "Replacement refers to group " + group
+                                + " but the regex only has " + groups);
+                    }
+                    ++i;
+                }
+            }
+        }
+        return replacement;
+    }
+
+}
@@ -0,0 +1,142 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.icecrusher.io;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import com.raven.common.struct.Column;
+import com.raven.common.struct.DataFrame;
+import com.raven.icecrusher.io.Search.Match;
+
+import javafx.application.Platform;
+import javafx.concurrent.Task;
+
+/**
+ * Background task scanning a DataFrame for all entries matching a {@link Search}.<br>
+ * The rows of the DataFrame are scanned in blocks. Consecutive blocks are
+ * scanned in parallel and all matches found in them are passed to the
+ * <code>ResultListener</code> on the FX application thread, in row order, 
+ * as soon as they are available. Thus the first matches are shown long
+ * before the entire DataFrame has been scanned.
+ * 
+ * <p>At most {@link #MAX_RESULTS} matches are passed to the listener. All further
+ * matches are only counted. The value of this task is the total number of
+ * matches found. A SearchTask can be cancelled at any time. It stops
+ * after the blocks currently being scanned.
+ *
+ */
+public class SearchTask extends Task<Integer> {
+
+    /**
+     * Callback for the matches found by a <code>SearchTask</code>.
+     *
+     */
+    @FunctionalInterface
+    public interface ResultListener {
+
+        /**
+         * Called on the FX application thread when new matches were found
+         * 
+         * @param matches All matches found since the last call, in row order
+         */
+        void onMatches(List<Match> matches);
+    }
+
+    /**
+     * The maximum number of matches passed to the ResultListener
+     */
+    public static final int MAX_RESULTS = 10000;
+
+    private static final int BLOCK_SIZE = 32768;
+
+    private final DataFrame df;
+    private final Search search;
+    private final ResultListener listener;
+
+    /**
+     * Constructs a new <code>SearchTask</code>
+     * 
+     * @param df The <code>DataFrame</code> to scan
+     * @param search The <code>Search</code> to perform
+     * @param listener The <code>ResultListener</code> to pass all matches to
+     */
+    public SearchTask(final DataFrame df, final Search search, final ResultListener listener){
+        this.df = df;
+        this.search = search;
+        this.listener = listener;
+    }
+
+    @Override
+    protected Integer call() throws Exception{
+        final int[] columns = search.columnsOf(df);
+        final int rows = df.rows();
+        final int blocks = (rows + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        final int parallelism = Runtime.getRuntime().availableProcessors();
+        int total = 0;
+        int published = 0;
+        for(int block=0; block<blocks; block+=parallelism){
+            if(isCancelled()){
+                break;
+            }
+            final int end = Math.min(blocks, block+parallelism);
+            //ordered collection keeps the blocks in row order
+            final List<List<Match>> found = IntStream.range(block, end)
+                    .parallel()
+                    .mapToObj((i) -> scan(i, columns))
+                    .collect(Collectors.toList());
+
+            final List<Match> batch = new ArrayList<>();
+            for(final List<Match> matches : found){
+                total += matches.size();
+                final int n = Math.min(matches.size(), MAX_RESULTS - published);
+                if(n > 0){
+                    batch.addAll(matches.subList(0, n));
+                    published += n;
+                }
+            }
+            if(!batch.isEmpty() && !isCancelled()){
+                Platform.runLater(() -> listener.onMatches(batch));
+            }
+            updateProgress(Math.min(((long)end)*BLOCK_SIZE, rows), rows);
+        }
+        return total;
+    }
+
+    private List<Match> scan(final int block, final int[] columns){
+        final List<Match> matches = new ArrayList<>();
+        if(isCancelled()){
+            return matches;
+        }
+        final Column[] cols = new Column[columns.length];
+        for(int i=0; i<columns.length; ++i){
+            cols[i] = df.getColumn(columns[i]);
+        }
+        final int end = (int) Math.min(df.rows(), ((long)block+1)*BLOCK_SIZE);
+        for(int row=block*BLOCK_SIZE; row<end; ++row){
+            for(int i=0; i<cols.length; ++i){
+                if(search.matches(cols[i].getValue(row))){
+                    matches.add(new Match(row, columns[i]));
+                }
+            }
+        }
+        return matches;
+    }
+
+}
@@ -0,0 +1,135 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.icecrusher.io;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import com.raven.common.struct.Column;
+import com.raven.common.struct.DataFrame;
+
+/**
+ * Dictionary encoding of string columns with a low cardinality.<br>
+ * Strings read from a file are usually separate instances per row, even if
+ * a column only holds a small number of distinct values. Encoding such a column
+ * replaces all equal strings by one canonical instance taken from a dictionary,
+ * so that each distinct value is held in memory only once while every row merely
+ * references it. Since the column itself keeps its type, encoded columns can be
+ * read, edited, sorted, filtered and saved like any other column.
+ *
+ * <p>Whether a column is encoded is decided by sampling its values. Columns with
+ * too many distinct values are left unchanged as encoding them would only add
+ * the overhead of the dictionary.
+ *
+ */
+public final class StringDictionary {
+
+    /**
+     * The maximum number of rows sampled to estimate the cardinality of a column
+     */
+    private static final int SAMPLE_SIZE = 4096;
+
+    /**
+     * The maximum number of entries of a dictionary. Encoding a column
+     * is stopped as soon as its dictionary would grow beyond this size
+     */
+    private static final int MAX_ENTRIES = 65536;
+
+    private StringDictionary(){ }
+
+    /**
+     * Encodes all string columns of the specified DataFrame which have
+     * a sufficiently low cardinality. The DataFrame is changed in place
+     * 
+     * @param df The <code>DataFrame</code> to encode. May be null
+     * @return The number of encoded columns
+     */
+    public static int encode(final DataFrame df){
+        if((df == null) || (df.rows() == 0)){
+            return 0;
+        }
+        int count = 0;
+        for(final Column col : df){
+            if(DataFrames.columnUsesStrings(col) && isLowCardinality(col, df.rows())){
+                if(encode(col, df.rows())){
+                    ++count;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Indicates whether the specified string column has a sufficiently low
+     * cardinality to be encoded. The cardinality is estimated from evenly
+     * spaced samples of the column values. A column is rejected if its samples
+     * hold more distinct values than would be expected from a column with as many
+     * distinct values as a dictionary can hold
+     * 
+     * @param col The <code>Column</code> to check. Must use strings
+     * @param rows The number of rows of the DataFrame the column belongs to
+     * @return True if the column should be encoded, false otherwise
+     */
+    public static boolean isLowCardinality(final Column col, final int rows){
+        if(rows < 2){
+            return false;
+        }
+        final int samples = Math.min(rows, SAMPLE_SIZE);
+        final double step = ((double)rows / samples);
+        final Set<Object> distinct = new HashSet<>();
+        for(int i=0; i<samples; ++i){
+            distinct.add(col.getValue((int)(i*step)));
+        }
+        //the expected number of distinct values when drawing the samples
+        //from a column with the maximum number of dictionary entries
+        final double limit = -MAX_ENTRIES * Math.expm1(-(double)samples / MAX_ENTRIES);
+        return (distinct.size() <= limit);
+    }
+
+    /**
+     * Encodes the specified string column by replacing all equal values with
+     * a canonical instance
+     * 
+     * @param col The <code>Column</code> to encode. Must use strings
+     * @param rows The number of rows of the DataFrame the column belongs to
+     * @return True if the entire column was encoded, false if encoding was stopped
+     *         because the column has more than the maximum number of distinct values.
+     *         In the latter case the column is still valid but only partially encoded
+     */
+    public static boolean encode(final Column col, final int rows){
+        final Map<String, String> dictionary = new HashMap<>();
+        for(int i=0; i<rows; ++i){
+            final String value = (String)col.getValue(i);
+            if(value == null){
+                continue;
+            }
+            final String canonical = dictionary.get(value);
+            if(canonical == null){
+                if(dictionary.size() >= MAX_ENTRIES){
+                    return false;
+                }
+                dictionary.put(value, value);
+            }else if(canonical != value){
+                col.setValue(i, canonical);
+            }
+        }
+        return true;
+    }
+
+}
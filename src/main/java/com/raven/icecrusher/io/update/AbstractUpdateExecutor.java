@@ -16,8 +16,10 @@
 
 package com.raven.icecrusher.io.update;
 
+import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.security.MessageDigest;
@@ -27,6 +29,10 @@ import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 
 import com.raven.icecrusher.application.Resources;
+import com.raven.icecrusher.application.Scheduler;
+import com.raven.icecrusher.application.StackedApplication;
+import com.raven.icecrusher.io.update.UpdateInfo.OperatingSystem;
+import com.raven.icecrusher.io.update.UpdateInfo.PackageType;
 import com.raven.icecrusher.util.Const;
 import com.raven.icecrusher.util.ExceptionHandler;
 
@@ -37,6 +43,12 @@ import javafx.concurrent.Task;
  * Abstract helper class for all concrete <code>UpdateExecutor</code> implementations.<br>
  * Provides methods for common tasks during the update process. 
  *
+ * <p>If a delta package was released against the installed version, it is preferred
+ * over the full update package. When the download, verification or application of
+ * a delta package fails, the update routine is notified through
+ * {@link UpdateRoutine#onFallbackToFullPackage()} and the full update package
+ * is used instead.
+ *
  */
 public abstract class AbstractUpdateExecutor {
 
@@ -50,7 +62,11 @@ public abstract class AbstractUpdateExecutor {
 
     private File tmpUpdateRoot;
     private String tmpUpdatePackageRoot;
-    private byte[] downloadedPackage;
+    private File downloadedPackage;
+    private String downloadChecksum;
+    private String packageChecksum;
+    private boolean deltaSelected;
+    private boolean deltaFailed;
 
     protected AbstractUpdateExecutor(final UpdateInfo updateInfo, 
             final UpdateRoutine updateRoutine){
@@ -63,8 +79,78 @@ public abstract class AbstractUpdateExecutor {
         return (this.updateInfo.getRuntimeId() != Const.APPLICATION_RUNTIME_ID);
     }
 
+    /**
+     * Selects the update package to download for the specified operating system.
+     * A delta package is selected if one was released against the installed version,
+     * the runtime has not changed and no delta package has failed before
+     * 
+     * @param os The operating system of the update package
+     * @return The expected checksum of the selected update package
+     */
+    protected String selectPackage(final OperatingSystem os){
+        final boolean runtimeChanged = checkRuntimeChanged();
+        final UpdateInfo.Delta delta = ((runtimeChanged || deltaFailed)
+                ? null
+                : updateInfo.getDelta(os));
+
+        this.deltaSelected = ((delta != null)
+                && (delta.getBaseVersion().compareTo(Version.current()) == 0));
+
+        this.packageChecksum = (deltaSelected
+                ? delta.getChecksum()
+                : updateInfo.getPackageChecksum(os,
+                        (runtimeChanged ? PackageType.FULL : PackageType.APP)));
+
+        return this.packageChecksum;
+    }
+
+    /**
+     * Indicates whether the selected update package is a delta package
+     * 
+     * @return True if a delta package was selected, false otherwise
+     */
+    protected boolean isDeltaPackage(){
+        return this.deltaSelected;
+    }
+
+    /**
+     * Gets the expected checksum of the selected update package
+     * 
+     * @return The checksum of the update package selected
+     *         by {@link #selectPackage(OperatingSystem)}
+     */
+    protected String getPackageChecksum(){
+        return this.packageChecksum;
+    }
+
+    /**
+     * Discards the selected delta package and notifies the update routine that
+     * the full update package must be downloaded instead. Subsequent calls to
+     * {@link #selectPackage(OperatingSystem)} will not select a delta package
+     */
+    protected void fallBackToFullPackage(){
+        discardDownloadedPackage();
+        this.deltaFailed = true;
+        this.deltaSelected = false;
+        this.updateRoutine.onFallbackToFullPackage();
+    }
+
+    /**
+     * Gets the directory this application is installed in
+     * 
+     * @return The installation directory
+     */
+    protected File getInstallationDirectory(){
+        File dir = new File(StackedApplication.getApplicationDirectory());
+        final String path = dir.getAbsolutePath();
+        if(path.endsWith("app") || path.endsWith("app" + File.separator)){
+            dir = dir.getParentFile();
+        }
+        return dir;
+    }
+
     protected String getDownloadVerification(){
-        return hashOfBytes(downloadedPackage);
+        return this.downloadChecksum;
     }
 
     protected File getTmpUpdateRootDir(){
@@ -84,7 +170,28 @@ public abstract class AbstractUpdateExecutor {
         return hashOfBytes(bytes);
     }
 
+    /**
+     * Gets the file to download the update package with the specified checksum to.
+     * The file name is derived from the checksum, so that an interrupted download of
+     * the same package can be resumed, even after the application was restarted
+     * 
+     * @param checksum The expected checksum of the update package
+     * @return The file to download the update package to
+     * @throws IOException If the system temporary directory cannot be found
+     */
+    protected File packageFileOf(final String checksum) throws IOException{
+        final String id = (((checksum != null) && (checksum.length() >= 16))
+                ? checksum.substring(0, 16)
+                : "package");
+
+        return new File(getTempDirectoryPath() + Const.APPLICATION_NAME + "-" + id + ".part");
+    }
+
     private File getTempUpdateDirectory() throws IOException{
+        return new File(getTempDirectoryPath() + createTempUpdateDirectory());
+    }
+
+    private String getTempDirectoryPath() throws IOException{
         String path = System.getProperty("java.io.tmpdir");
         if((path == null) || (path.isEmpty())){
             throw new IOException("Unable to find system temporary directory");
@@ -92,7 +199,7 @@ public abstract class AbstractUpdateExecutor {
         if(!path.endsWith(File.separator)){
             path = path + File.separator;
         }
-        return new File(path + createTempUpdateDirectory());
+        return path;
     }
 
     protected UpdateInfo getUpdateInfo(){
@@ -103,12 +210,27 @@ public abstract class AbstractUpdateExecutor {
         return this.updateRoutine;
     }
 
-    protected byte[] getDownloadedPackage(){
+    protected File getDownloadedPackage(){
         return this.downloadedPackage;
     }
 
-    protected void setDownloadedPackage(final byte[] data){
-        this.downloadedPackage = data;
+    protected void setDownloadedPackage(final File file, final String checksum){
+        this.downloadedPackage = file;
+        this.downloadChecksum = checksum;
+    }
+
+    /**
+     * Deletes the downloaded package file, if any. Must be called when the
+     * package is invalid, so that a later download does not resume it
+     */
+    protected void discardDownloadedPackage(){
+        if((downloadedPackage != null) && downloadedPackage.exists()){
+            if(!downloadedPackage.delete()){
+                downloadedPackage.deleteOnExit();
+            }
+        }
+        this.downloadedPackage = null;
+        this.downloadChecksum = null;
     }
 
     protected void doFinalize(){
@@ -116,7 +238,7 @@ public abstract class AbstractUpdateExecutor {
     }
 
     protected void extract(final AsyncOperation handler){
-        new Thread(new Task<Void>(){
+        Scheduler.submit(Scheduler.Pool.IO, Scheduler.Priority.NORMAL, new Task<Void>(){
             @Override
             protected Void call() throws Exception{
                 boolean success;
@@ -124,6 +246,12 @@ public abstract class AbstractUpdateExecutor {
                     extract();
                     success = true;
                 }catch(IOException ex){
+                    if(deltaSelected){
+                        //the delta package does not fit the installed files
+                        deleteTree(tmpUpdateRoot);
+                        Platform.runLater(() -> fallBackToFullPackage());
+                        return null;
+                    }
                     ExceptionHandler.handle(ex);
                     success = false;
                 }
@@ -135,13 +263,13 @@ public abstract class AbstractUpdateExecutor {
                 }
                 return null;
             }
-        }).start();
+        });
     }
 
     protected void copyLocalInstructions(final String filename, 
             final AsyncOperation handler){
 
-        new Thread(new Task<Void>(){
+        Scheduler.submit(Scheduler.Pool.IO, Scheduler.Priority.NORMAL, new Task<Void>(){
             @Override
             protected Void call() throws Exception{
                 boolean success;
@@ -160,13 +288,13 @@ public abstract class AbstractUpdateExecutor {
                 }
                 return null;
             }
-        }).start();
+        });
     }
 
     protected void copyRemoteInstructions(final byte[] bytes, final String filename, 
             final AsyncOperation handler){
 
-        new Thread(new Task<Void>(){
+        Scheduler.submit(Scheduler.Pool.IO, Scheduler.Priority.NORMAL, new Task<Void>(){
             @Override
             protected Void call() throws Exception{
                 boolean success;
@@ -185,15 +313,24 @@ public abstract class AbstractUpdateExecutor {
                 }
                 return null;
             }
-        }).start();
+        });
     }
 
     private void extract() throws IOException{
         tmpUpdateRoot = getTempUpdateDirectory();
         ensureExists(tmpUpdateRoot);
+        if(deltaSelected){
+            tmpUpdatePackageRoot = DeltaPackage.apply(getDownloadedPackage(),
+                    getInstallationDirectory(), tmpUpdateRoot);
+
+            discardDownloadedPackage();
+            return;
+        }
         final byte[] buffer = new byte[32768];
-        final ByteArrayInputStream bais = new ByteArrayInputStream(getDownloadedPackage());
-        try(final ZipInputStream zip = new ZipInputStream(bais)){
+        try(final ZipInputStream zip = new ZipInputStream(new BufferedInputStream(
+                new FileInputStream(getDownloadedPackage()), buffer.length))){
+
+
             ZipEntry entry = zip.getNextEntry();
             tmpUpdatePackageRoot = entry.getName();
             while(entry != null){
@@ -212,6 +349,7 @@ public abstract class AbstractUpdateExecutor {
                 entry = zip.getNextEntry();
             }
         }
+        discardDownloadedPackage();
     }
 
     private void copyLocal(final String filename) throws IOException{
@@ -258,6 +396,16 @@ public abstract class AbstractUpdateExecutor {
         }
     }
 
+    private void deleteTree(final File file){
+        final File[] children = file.listFiles();
+        if(children != null){
+            for(final File child : children){
+                deleteTree(child);
+            }
+        }
+        file.delete();
+    }
+
     private File fileByEntry(final File parentDir, final ZipEntry entry) throws IOException{
         final File file = new File(parentDir, entry.getName());
         if(!file.getCanonicalPath().startsWith(parentDir.getCanonicalPath() + File.separator)){
@@ -0,0 +1,240 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.icecrusher.io.update;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Update package which only holds the differences between a specific installed
+ * version of this application and the released version.<br>
+ * Applying a delta package to the installation directory produces the same directory
+ * tree as extracting the corresponding full package, so that the update instructions
+ * do not need to differentiate between both package types.
+ *
+ * <p>A delta package is a zip file with the following entries:<br>
+ * <code>delta.manifest</code> - The manifest listing all files of the released version<br>
+ * <code>patch/&lt;path&gt;</code> - A {@link DeltaPatch} for each patched file<br>
+ * <code>file/&lt;path&gt;</code> - The content of each added file
+ *
+ * <p>The manifest is a UTF-8 text file with one instruction per line:<br>
+ * <code>root &lt;name&gt;</code> - The name of the package root directory. Must come first<br>
+ * <code>copy &lt;path&gt; &lt;sha256&gt;</code> - Copies an unchanged installed file<br>
+ * <code>patch &lt;path&gt; &lt;base-sha256&gt; &lt;sha256&gt;</code> - Patches an installed
+ * file<br>
+ * <code>add &lt;path&gt; &lt;sha256&gt;</code> - Adds a file from the package
+ *
+ * <p>All paths use '/' as the separator and are relative to the installation directory.
+ * Installed files which are not listed are not part of the released version. The
+ * SHA-256 checksum of every produced file is verified, so a package which does not
+ * fit the installation is rejected as a whole.
+ *
+ */
+public final class DeltaPackage {
+
+    /** Name of the manifest entry of a delta package **/
+    public static final String MANIFEST = "delta.manifest";
+
+    private static final String PATCH_DIR = "patch/";
+    private static final String FILE_DIR = "file/";
+    private static final int BUFFER_SIZE = 32768;
+
+    private DeltaPackage(){ }
+
+    /**
+     * Applies the specified delta package to the specified installation directory.
+     * The resulting files are written to the package root directory within the
+     * specified staging directory. The installation directory is not modified
+     * 
+     * @param delta The delta package file
+     * @param installation The installation directory of this application
+     * @param staging The directory to create the package root directory in
+     * @return The name of the package root directory
+     * @throws IOException If the delta package is malformed, does not fit the
+     *                     installed files or if an I/O error occurs
+     */
+    public static String apply(final File delta, final File installation, final File staging)
+            throws IOException{
+
+        try(final ZipFile zip = new ZipFile(delta)){
+            final ZipEntry manifest = zip.getEntry(MANIFEST);
+            if(manifest == null){
+                throw new IOException("Delta package has no manifest");
+            }
+            String root = null;
+            try(final BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    zip.getInputStream(manifest), StandardCharsets.UTF_8))){
+
+                String line;
+                while((line = reader.readLine()) != null){
+                    line = line.trim();
+                    if(line.isEmpty() || line.startsWith("#")){
+                        continue;
+                    }
+                    final String[] args = line.split("\\s+");
+                    if(args[0].equals("root")){
+                        if((root != null) || (args.length != 2)){
+                            throw new IOException("Invalid manifest line: " + line);
+                        }
+                        root = args[1];
+                        continue;
+                    }
+                    if(root == null){
+                        throw new IOException("Manifest does not specify a root directory");
+                    }
+                    final File rootDir = resolve(staging, root);
+                    apply(zip, args, installation, rootDir, line);
+                }
+            }
+            if(root == null){
+                throw new IOException("Manifest does not specify a root directory");
+            }
+            return root;
+        }
+    }
+
+    private static void apply(final ZipFile zip, final String[] args, final File installation,
+            final File rootDir, final String line) throws IOException{
+
+        final String op = args[0];
+        if((op.equals("copy") && (args.length == 3))
+                || (op.equals("add") && (args.length == 3))){
+
+            final File target = resolve(rootDir, args[1]);
+            final InputStream source = (op.equals("copy")
+                    ? new FileInputStream(resolve(installation, args[1]))
+                    : entryStream(zip, FILE_DIR + args[1]));
+
+            try(final InputStream in = new BufferedInputStream(source, BUFFER_SIZE)){
+                write(target, args[2], (out) -> {
+                    final byte[] buffer = new byte[BUFFER_SIZE];
+                    int n;
+                    while((n = in.read(buffer)) != -1){
+                        out.write(buffer, 0, n);
+                    }
+                });
+            }
+        }else if(op.equals("patch") && (args.length == 4)){
+            final File base = resolve(installation, args[1]);
+            if(!args[2].equalsIgnoreCase(checksumOf(base))){
+                throw new IOException("Installed file does not match patch base: " + args[1]);
+            }
+            final File target = resolve(rootDir, args[1]);
+            try(final InputStream patch = new BufferedInputStream(
+                    entryStream(zip, PATCH_DIR + args[1]), BUFFER_SIZE);
+                    final RandomAccessFile in = new RandomAccessFile(base, "r")){
+
+                write(target, args[3], (out) -> DeltaPatch.apply(patch, in, out));
+            }
+        }else{
+            throw new IOException("Invalid manifest line: " + line);
+        }
+    }
+
+    /**
+     * Writes a file by means of the specified producer and verifies its checksum
+     */
+    private static void write(final File target, final String checksum,
+            final Producer producer) throws IOException{
+
+        final File parent = target.getParentFile();
+        if(!parent.exists() && !parent.mkdirs()){
+            throw new IOException("Unable to create directory: " + parent);
+        }
+        final MessageDigest md = sha256();
+        try(final OutputStream out = new DigestOutputStream(new BufferedOutputStream(
+                new FileOutputStream(target), BUFFER_SIZE), md)){
+
+            producer.produce(out);
+        }
+        if(!checksum.equalsIgnoreCase(hex(md.digest()))){
+            throw new IOException("Checksum mismatch of patched file: " + target);
+        }
+    }
+
+    private static InputStream entryStream(final ZipFile zip, final String name)
+            throws IOException{
+
+        final ZipEntry entry = zip.getEntry(name);
+        if(entry == null){
+            throw new IOException("Delta package has no entry: " + name);
+        }
+        return zip.getInputStream(entry);
+    }
+
+    /**
+     * Resolves the specified relative path against the specified directory and
+     * ensures that the resulting file lies within that directory
+     */
+    private static File resolve(final File dir, final String path) throws IOException{
+        final File file = new File(dir, path.replace('/', File.separatorChar));
+        if(!file.getCanonicalPath().startsWith(dir.getCanonicalPath() + File.separator)){
+            throw new IOException("Path " + path + " is not part of directory " + dir);
+        }
+        return file;
+    }
+
+    private static String checksumOf(final File file) throws IOException{
+        final MessageDigest md = sha256();
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        try(final InputStream in = new FileInputStream(file)){
+            int n;
+            while((n = in.read(buffer)) != -1){
+                md.update(buffer, 0, n);
+            }
+        }
+        return hex(md.digest());
+    }
+
+    private static MessageDigest sha256() throws IOException{
+        try{
+            return MessageDigest.getInstance("SHA-256");
+        }catch(NoSuchAlgorithmException ex){
+            throw new IOException(ex);
+        }
+    }
+
+    private static String hex(final byte[] bytes){
+        final StringBuilder sb = new StringBuilder(bytes.length*2);
+        for(final byte b : bytes){
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+
+    @FunctionalInterface
+    private interface Producer {
+
+        void produce(OutputStream out) throws IOException;
+    }
+
+}
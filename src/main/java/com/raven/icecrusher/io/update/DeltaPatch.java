@@ -0,0 +1,194 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.icecrusher.io.update;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+
+/**
+ * Binary patch which transforms a base file into a target file.<br>
+ * A patch is a sequence of operations which either copy a range of bytes from
+ * the base file or insert literal bytes into the target file. Both operations
+ * append to the target file, so unchanged parts of the base file cost only a few
+ * bytes in the patch, regardless of their size.
+ *
+ * <p>The format of a patch is:<br>
+ * <code>MAGIC(int) VERSION(byte) {OP_COPY(byte) offset(long) length(int) |
+ * OP_INSERT(byte) length(int) bytes} OP_END(byte)</code>
+ *
+ * <p>Patches are created by a {@link Writer}. Computing the operations for two versions
+ * of a file is up to the tool which builds the update packages.
+ *
+ */
+public final class DeltaPatch {
+
+    private static final int MAGIC = 0x49434450;//"ICDP"
+    private static final byte VERSION = 1;
+
+    private static final byte OP_END = 0;
+    private static final byte OP_COPY = 1;
+    private static final byte OP_INSERT = 2;
+
+    private static final int BUFFER_SIZE = 32768;
+
+    private DeltaPatch(){ }
+
+    /**
+     * Applies the patch read from the specified stream to the specified base file
+     * and writes the resulting target file to the specified stream
+     * 
+     * @param patch The stream to read the patch from. Is not closed by this method
+     * @param base The base file to apply the patch to
+     * @param target The stream to write the target file to. Is not closed by this method
+     * @throws IOException If the patch is malformed, does not fit the base file,
+     *                     or if an I/O error occurs
+     */
+    public static void apply(final InputStream patch, final RandomAccessFile base,
+            final OutputStream target) throws IOException{
+
+        final DataInputStream in = new DataInputStream(patch);
+        if((in.readInt() != MAGIC) || (in.readByte() != VERSION)){
+            throw new IOException("Invalid patch format");
+        }
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        try{
+            byte op;
+            while((op = in.readByte()) != OP_END){
+                switch(op){
+                case OP_COPY:
+                    final long offset = in.readLong();
+                    final int length = in.readInt();
+                    if((offset < 0) || (length < 0) || (offset + length > base.length())){
+                        throw new IOException("Patch range exceeds base file");
+                    }
+                    base.seek(offset);
+                    transfer(base, target, length, buffer);
+                    break;
+                case OP_INSERT:
+                    final int size = in.readInt();
+                    if(size < 0){
+                        throw new IOException("Invalid patch insertion size");
+                    }
+                    transfer(in, target, size, buffer);
+                    break;
+                default:
+                    throw new IOException("Invalid patch operation: " + op);
+                }
+            }
+        }catch(EOFException ex){
+            throw new IOException("Patch is truncated", ex);
+        }
+    }
+
+    private static void transfer(final RandomAccessFile in, final OutputStream out,
+            int length, final byte[] buffer) throws IOException{
+
+        while(length > 0){
+            final int n = in.read(buffer, 0, Math.min(length, buffer.length));
+            if(n < 0){
+                throw new EOFException();
+            }
+            out.write(buffer, 0, n);
+            length -= n;
+        }
+    }
+
+    private static void transfer(final DataInputStream in, final OutputStream out,
+            int length, final byte[] buffer) throws IOException{
+
+        while(length > 0){
+            final int n = Math.min(length, buffer.length);
+            in.readFully(buffer, 0, n);
+            out.write(buffer, 0, n);
+            length -= n;
+        }
+    }
+
+    /**
+     * Writes the operations of a patch to a stream.
+     *
+     */
+    public static final class Writer {
+
+        private final DataOutputStream out;
+        private boolean finished;
+
+        /**
+         * Constructs a new <code>Writer</code> writing a patch to the specified stream
+         * 
+         * @param out The stream to write the patch to
+         * @throws IOException If an I/O error occurs
+         */
+        public Writer(final OutputStream out) throws IOException{
+            this.out = new DataOutputStream(out);
+            this.out.writeInt(MAGIC);
+            this.out.writeByte(VERSION);
+        }
+
+        /**
+         * Appends the specified range of the base file to the target file
+         * 
+         * @param offset The position of the first byte to copy from the base file
+         * @param length The number of bytes to copy
+         * @return This <code>Writer</code> instance
+         * @throws IOException If an I/O error occurs
+         */
+        public Writer copy(final long offset, final int length) throws IOException{
+            out.writeByte(OP_COPY);
+            out.writeLong(offset);
+            out.writeInt(length);
+            return this;
+        }
+
+        /**
+         * Appends the specified bytes to the target file
+         * 
+         * @param bytes The bytes to insert
+         * @param offset The position of the first byte to insert
+         * @param length The number of bytes to insert
+         * @return This <code>Writer</code> instance
+         * @throws IOException If an I/O error occurs
+         */
+        public Writer insert(final byte[] bytes, final int offset, final int length)
+                throws IOException{
+
+            out.writeByte(OP_INSERT);
+            out.writeInt(length);
+            out.write(bytes, offset, length);
+            return this;
+        }
+
+        /**
+         * Finishes the patch. The underlying stream is flushed but not closed
+         * 
+         * @throws IOException If an I/O error occurs
+         */
+        public void finish() throws IOException{
+            if(!finished){
+                out.writeByte(OP_END);
+                out.flush();
+                finished = true;
+            }
+        }
+    }
+
+}
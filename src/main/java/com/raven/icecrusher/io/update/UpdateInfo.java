@@ -188,6 +188,37 @@ public class UpdateInfo {
         return null;
     }
 
+    /**
+     * Gets the delta package information of the specified OS of this UpdateInfo object
+     * 
+     * @param os The operating system of the delta package to get
+     * @return The delta package for the specified OS of this UpdateInfo object as a
+     *         <code>Delta</code> object, or null if no delta package was released
+     *         for the specified OS
+     */
+    public Delta getDelta(final OperatingSystem os){
+        final NodeList nodes = this.document.getElementsByTagName("delta");
+        for(int i=0; i<nodes.getLength(); ++i){
+            final Node node = nodes.item(i);
+            if(node.getNodeType() == Node.ELEMENT_NODE){
+                final Element element = (Element) node;
+                if(element.getAttribute("os").equalsIgnoreCase(os.toString())){
+                    final String from = element.getAttribute("from");
+                    final String checksum = element.getTextContent();
+                    if(from.isEmpty() || (checksum == null) || checksum.trim().isEmpty()){
+                        return null;
+                    }
+                    try{
+                        return new Delta(os, new Version(from), checksum.trim());
+                    }catch(NumberFormatException ex){
+                        return null;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
     @Override
     public String toString(){
         final StringBuilder sb = new StringBuilder();
@@ -236,6 +267,16 @@ public class UpdateInfo {
             sb.append(" (Windows, full)");
             sb.append(nl);
         }
+        Delta delta = this.getDelta(OperatingSystem.LINUX);
+        if(delta != null){
+            sb.append(delta.toString());
+            sb.append(nl);
+        }
+        delta = this.getDelta(OperatingSystem.WINDOWS);
+        if(delta != null){
+            sb.append(delta.toString());
+            sb.append(nl);
+        }
         Instruction instruct = this.getInstruction(OperatingSystem.LINUX);
         if(instruct != null){
             sb.append("[Instruction]");
@@ -348,4 +389,56 @@ public class UpdateInfo {
         }
     }
 
+    /**
+     * Models a data object holding information about a delta package for a
+     * specific operating system. A delta package only holds the differences
+     * between a specific base version and the released version.
+     *
+     */
+    public static class Delta {
+
+        private OperatingSystem os;
+        private Version base;
+        private String checksum;
+
+        protected Delta(final OperatingSystem os, final Version base, final String checksum){
+            this.os = os;
+            this.base = base;
+            this.checksum = checksum;
+        }
+
+        /**
+         * Gets the OS of this Delta object
+         * 
+         * @return The operating system as an <code>OperatingSystem</code> enum
+         */
+        public OperatingSystem getOperatingSystem(){
+            return this.os;
+        }
+
+        /**
+         * Gets the version the delta package can be applied to
+         * 
+         * @return The base version of the delta package
+         */
+        public Version getBaseVersion(){
+            return this.base;
+        }
+
+        /**
+         * Gets the downloadable delta package checksum
+         * 
+         * @return The checksum of the downloadable delta package
+         */
+        public String getChecksum(){
+            return this.checksum;
+        }
+
+        @Override
+        public String toString(){
+            return ("Checksum: " + this.checksum + " (" + this.os
+                    + ", delta from " + this.base + ")");
+        }
+    }
+
 }
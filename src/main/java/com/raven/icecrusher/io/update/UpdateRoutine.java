@@ -32,6 +32,13 @@ public interface UpdateRoutine {
      */
     public void onPackageDownloaded(boolean success);
 
+    /**
+     * Called when the underlying UpdateExecutor was unable to use the delta package
+     * for the installed version and the full update package has to be downloaded
+     * instead. The download must be restarted by the routine
+     */
+    public void onFallbackToFullPackage();
+
     /**
      * Called when the underlying UpdateExecutor has verified the downloaded update 
      * package
@@ -18,6 +18,7 @@ package com.raven.icecrusher.io.update;
 
 import java.awt.Desktop;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.Date;
@@ -32,6 +33,7 @@ import com.raven.icecrusher.application.ProxyController;
 import com.raven.icecrusher.application.StackedApplication;
 import com.raven.icecrusher.net.NetworkResult;
 import com.raven.icecrusher.net.NetworkService;
+import com.raven.icecrusher.net.ResourceCache;
 import com.raven.icecrusher.net.ResourceLocator;
 import com.raven.icecrusher.ui.FrameController;
 import com.raven.icecrusher.ui.OneShotSnackbar;
@@ -82,28 +84,36 @@ public class Updater implements UpdateRoutine {
     /**
      * Checks whether a new version of this application has been released, passing 
      * the result to the specified UpdateHandler. The necessary data is collected 
-     * over the network
+     * over the network.<br>
+     * The update information of the last check is cached together with the validators
+     * of its response, so that unchanged update information is not transferred again.
+     * If the update information cannot be retrieved, the cached information is used
      * 
      * @param handler The <code>UpdateHandler</code> for the callback
      */
     public void checkForUpdates(final UpdateHandler handler){
         this.handler = handler;
-        this.service = NetworkService.getService(ResourceLocator.LATEST_VERSION);
+        final ResourceCache cache = ResourceCache.getDefault();
+        this.service = NetworkService.getService(ResourceLocator.LATEST_VERSION, cache);
         this.service.setOnResult((result) -> {
             if((result.getSatus() == NetworkResult.Status.SUCCESS)
-                    && (result.getResponseCode() == HttpsURLConnection.HTTP_OK)){
+                    && ((result.getResponseCode() == HttpsURLConnection.HTTP_OK)
+                            || result.isCached())){
 
-                final UpdateInfo info = UpdateInfo.fromXmlString(result.getString());
-                if(info != null){
-                    updateInfo = info;
-                    version = info.getVersion();
-                }
+                resolve(result.getString());
                 getConfiguration().set(UPDATER, CONFIG_LAST_UPDATE_CHECK, 
                         Const.DATE_FORMAT_ENCODED.format(new Date()));
 
                 push(version);
             }else{
-                push(null);
+                //fall back to the update information of the last check
+                final ResourceCache.Entry cached = cache.get(
+                        ResourceLocator.LATEST_VERSION.getUrl());
+
+                if(cached != null){
+                    resolve(new String(cached.getPayload(), StandardCharsets.UTF_8));
+                }
+                push(version);
                 return;
             }
             service = null;
@@ -289,6 +299,14 @@ public class Updater implements UpdateRoutine {
         });
     }
 
+    private void resolve(final String xml){
+        final UpdateInfo info = UpdateInfo.fromXmlString(xml);
+        if(info != null){
+            updateInfo = info;
+            version = info.getVersion();
+        }
+    }
+
     private void push(final Version version){
         if(handler != null){
             Platform.runLater(() -> handler.onResolve(version));
@@ -313,6 +331,16 @@ public class Updater implements UpdateRoutine {
         this.updateExecutor.verifyDownload();
     }
 
+    @Override
+    public void onFallbackToFullPackage(){
+        this.dialog.setProgressMessage("Downloading full package...");
+        this.dialog.setActionButtonText(DIALOG_STATE_CANCEL);
+        this.dialog.setActionButtonDisabled(false);
+        this.dialog.getProgressBar().setProgress(0.0);
+        this.updateExecutor.downloadPackage(dialog.getProgressBar(),
+                dialog.getProgressValueLabel());
+    }
+
     @Override
     public void onDownloadVerified(boolean isValid){
         if(!isValid){
@@ -17,13 +17,12 @@
 package com.raven.icecrusher.io.update;
 
 import java.io.File;
+import java.io.IOException;
 import java.net.HttpURLConnection;
 
-import com.raven.icecrusher.application.StackedApplication;
 import com.raven.icecrusher.io.update.UpdateInfo.Instruction;
 import com.raven.icecrusher.io.update.UpdateInfo.InstructionType;
 import com.raven.icecrusher.io.update.UpdateInfo.OperatingSystem;
-import com.raven.icecrusher.io.update.UpdateInfo.PackageType;
 import com.raven.icecrusher.net.NetworkService;
 import com.raven.icecrusher.net.ResourceLocator;
 import com.raven.icecrusher.net.NetworkResult.Status;
@@ -49,24 +48,43 @@ public class WindowsUpdateExecutor extends AbstractUpdateExecutor implements Upd
 
     @Override
     public void downloadPackage(ProgressIndicator indicator, Label label){
-        final boolean runtimeChanged = super.checkRuntimeChanged();
-        this.service = NetworkService.getService(runtimeChanged 
-                ? ResourceLocator.UPDATE_PACKAGE_WINDOWS_FULL 
-                        : ResourceLocator.UPDATE_PACKAGE_WINDOWS_APP);
+        final String checksum = super.selectPackage(OperatingSystem.WINDOWS);
+        final ResourceLocator resource;
+        if(super.isDeltaPackage()){
+            resource = ResourceLocator.UPDATE_PACKAGE_WINDOWS_DELTA;
+        }else{
+            resource = (super.checkRuntimeChanged()
+                    ? ResourceLocator.UPDATE_PACKAGE_WINDOWS_FULL
+                    : ResourceLocator.UPDATE_PACKAGE_WINDOWS_APP);
+        }
+
+        final File file;
+        try{
+            file = super.packageFileOf(checksum);
+        }catch(IOException ex){
+            ExceptionHandler.handle(ex);
+            super.getUpdateRoutine().onPackageDownloaded(false);
+            return;
+        }
+        this.service = NetworkService.getService(resource, file);
 
         this.service.bindIndicator(indicator, label);
         this.service.setOnResult((result) -> {
             final boolean success = ((result.getSatus() == Status.SUCCESS) 
-                    && (result.getResponseCode() == HttpURLConnection.HTTP_OK)
-                    && (result.getBytes() != null)
-                    && (result.getBytes().length > 0));
+                    && (result.getFile() != null)
+                    && (result.getFile().length() > 0)
+                    && (result.getChecksum() != null));
 
             if(result.getSatus() == Status.CANCELLED){
-                //evict from memory
+                //the partial file is kept for resuming
                 service = null;
                 return;
             }
-            super.setDownloadedPackage(result.getBytes());
+            super.setDownloadedPackage(result.getFile(), result.getChecksum());
+            if(!success && super.isDeltaPackage()){
+                super.fallBackToFullPackage();
+                return;
+            }
             super.getUpdateRoutine().onPackageDownloaded(success);
         });
         this.service.connect();
@@ -77,13 +95,18 @@ public class WindowsUpdateExecutor extends AbstractUpdateExecutor implements Upd
         boolean isValid = false;
         final String hash = super.getDownloadVerification();
         if((hash != null) && (!hash.isEmpty())){
-            final String checksum = getUpdateInfo().getPackageChecksum(OperatingSystem.WINDOWS, 
-                    (checkRuntimeChanged() ? PackageType.FULL : PackageType.APP));
-
+            final String checksum = super.getPackageChecksum();
             if(checksum != null){
                 isValid = (hash.equals(checksum));
             }
         }
+        if(!isValid){
+            if(super.isDeltaPackage()){
+                super.fallBackToFullPackage();
+                return;
+            }
+            super.discardDownloadedPackage();
+        }
         super.getUpdateRoutine().onDownloadVerified(isValid);
     }
 
@@ -123,11 +146,7 @@ public class WindowsUpdateExecutor extends AbstractUpdateExecutor implements Upd
         if(!path.endsWith(File.separator)){
             path = path + File.separator;
         }
-        File targetDir = new File(StackedApplication.getApplicationDirectory());
-        final String targetDirPath = targetDir.getAbsolutePath();
-        if((targetDirPath.endsWith("app") || (targetDirPath.endsWith("app\\")))){
-            targetDir = targetDir.getParentFile();
-        }	
+        final File targetDir = super.getInstallationDirectory();
         final String execution = ("\"\"" + path + LOCAL_INSTRUCTION_FILE + "\"");
         final String argSource = ("\"" + path.substring(0, path.length()-1) + "\"");
         final String argTarget = ("\"" + targetDir.getAbsolutePath() + "\"\"");
@@ -0,0 +1,95 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.icecrusher.net;
+
+import java.io.File;
+import java.io.IOException;
+
+import com.raven.icecrusher.net.NetworkResult.Status;
+import com.raven.icecrusher.util.ExceptionHandler;
+
+import javafx.concurrent.Task;
+
+/**
+ * Connector class for downloading a web resource into a file by means
+ * of an {@link HttpTransfer}.<br>
+ * The download is performed on a background thread. The result of a successful
+ * download holds the target file and its checksum but no payload bytes.
+ * 
+ */
+public class DownloadConnector extends Task<NetworkResult> {
+
+    private final ResourceLocator locator;
+    private final File target;
+    private volatile HttpTransfer transfer;
+
+    protected DownloadConnector(final ResourceLocator locator, final File target){
+        if(locator == null){
+            throw new IllegalArgumentException("Locator must not be null");
+        }
+        this.locator = locator;
+        this.target = target;
+    }
+
+    @Override
+    protected NetworkResult call() throws Exception{
+        try{
+            this.transfer = new HttpTransfer(locator.getUrl(), target)
+                    .withProgressListener((transferred, total) -> {
+                        if(total > 0){
+                            updateProgress(transferred, total);
+                            updateMessage(String.valueOf(
+                                    (int)(((float)transferred/(float)total)*100)) + "%");
+                        }
+                    });
+
+            if(isCancelled()){
+                transfer.cancel();
+            }
+            final String checksum = transfer.transfer();
+            if(checksum == null){
+                return new NetworkResult.Builder()
+                        .responseCode(transfer.getResponseCode())
+                        .status(Status.CANCELLED)
+                        .build();
+            }
+            return new NetworkResult.Builder()
+                    .file(target)
+                    .checksum(checksum)
+                    .responseCode(transfer.getResponseCode())
+                    .status(Status.SUCCESS)
+                    .build();
+
+        }catch(IOException ex){
+            ExceptionHandler.handle(ex);
+            return new NetworkResult.Builder()
+                    .responseCode((transfer != null) ? transfer.getResponseCode() : -1)
+                    .status(Status.FAILURE)
+                    .build();
+        }
+    }
+
+    @Override
+    public boolean cancel(final boolean mayInterruptIfRunning){
+        final HttpTransfer current = this.transfer;
+        if(current != null){
+            current.cancel();
+        }
+        return super.cancel(mayInterruptIfRunning);
+    }
+
+}
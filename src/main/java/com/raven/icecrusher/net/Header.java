@@ -60,6 +60,23 @@ public class Header implements Iterable<HeaderField> {
         return this.fields.get(key);
     }
 
+    /**
+     * Returns the value of the header field with the specified key, ignoring the case
+     * of the key. HTTP header field names are case-insensitive, so this method should
+     * be used to look up fields of response headers
+     * 
+     * @param key The key of the header field to get
+     * @return The value of the header field with the specified key. May be null
+     */
+    public String valueOfIgnoreCase(final String key){
+        for(final Map.Entry<String, String> field : fields.entrySet()){
+            if(field.getKey().equalsIgnoreCase(key)){
+                return field.getValue();
+            }
+        }
+        return null;
+    }
+
     /**
      * Gets the header field with the specified key
      * 
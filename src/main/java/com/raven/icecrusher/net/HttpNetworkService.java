@@ -16,6 +16,8 @@
 
 package com.raven.icecrusher.net;
 
+import java.io.File;
+
 import javafx.beans.property.DoubleProperty;
 import javafx.beans.property.StringProperty;
 import javafx.concurrent.Service;
@@ -32,6 +34,8 @@ public class HttpNetworkService extends Service<NetworkResult> implements Networ
 
     private ResourceLocator locator;
     private Parcel parcel;
+    private File target;
+    private ResourceCache cache;
     private DoubleProperty progressProperty;
     private StringProperty relProgressProperty;
 
@@ -43,6 +47,19 @@ public class HttpNetworkService extends Service<NetworkResult> implements Networ
         this.parcel = parcel;
     }
 
+    protected HttpNetworkService(final ResourceLocator locator, final File target){
+        this(locator, (Parcel) null);
+        if(target == null){
+            throw new IllegalArgumentException("Target file must not be null");
+        }
+        this.target = target;
+    }
+
+    protected HttpNetworkService(final ResourceLocator locator, final ResourceCache cache){
+        this(locator, (Parcel) null);
+        this.cache = cache;
+    }
+
     @Override
     public void bindIndicator(final ProgressIndicator indicator){
         this.progressProperty = indicator.progressProperty();
@@ -93,7 +110,11 @@ public class HttpNetworkService extends Service<NetworkResult> implements Networ
 
     @Override
     protected Task<NetworkResult> createTask(){
-        final NetworkConnector connector= new NetworkConnector(locator, parcel);
+        final Task<NetworkResult> connector = ((target != null)
+                ? new DownloadConnector(locator, target)
+                : new NetworkConnector(locator, parcel, cache));
+
+
         if(progressProperty != null){
             this.progressProperty.unbind();
             this.progressProperty.bind(connector.progressProperty());
@@ -0,0 +1,310 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.icecrusher.net;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.List;
+import java.util.Map;
+import javax.net.ssl.HttpsURLConnection;
+
+import com.raven.icecrusher.net.NetworkResult.Status;
+import com.raven.icecrusher.util.ExceptionHandler;
+
+/**
+ * A single HTTP request to a web endpoint whose response payload is received
+ * into memory.<br>
+ * If a {@link ResourceCache} is specified for a GET request, the request is sent as a
+ * conditional request for the cached response, if any. When the server responds with
+ * <code>304 Not Modified</code>, the result holds the cached payload and is marked as
+ * cached. Successful responses are stored in the cache.
+ *
+ * <p>A request blocks the calling thread and should therefore be executed
+ * by a background thread. It can be cancelled by any thread.
+ * 
+ */
+public class HttpRequest {
+
+    private static final int CONNECT_TIMEOUT = 10000;
+
+    private final String method;
+    private final String url;
+    private Parcel parcel;
+    private ResourceCache cache;
+    private HttpTransfer.ProgressListener listener;
+    private HttpURLConnection connection;
+    private volatile boolean cancelled;
+
+    /**
+     * Constructs a new <code>HttpRequest</code>
+     * 
+     * @param method The HTTP method of the request
+     * @param url The URL of the endpoint
+     */
+    public HttpRequest(final String method, final String url){
+        if((method == null) || (url == null)){
+            throw new IllegalArgumentException("Method and URL must not be null");
+        }
+        this.method = method;
+        this.url = url;
+    }
+
+    /**
+     * Sets the parcel to send with this request
+     * 
+     * @param parcel The <code>Parcel</code> to send. May be null
+     * @return This <code>HttpRequest</code> instance
+     */
+    public HttpRequest withParcel(final Parcel parcel){
+        this.parcel = parcel;
+        return this;
+    }
+
+    /**
+     * Sets the cache to revalidate and store the response of this request with.
+     * Is ignored for requests other than GET
+     * 
+     * @param cache The <code>ResourceCache</code> to use. May be null
+     * @return This <code>HttpRequest</code> instance
+     */
+    public HttpRequest withCache(final ResourceCache cache){
+        this.cache = cache;
+        return this;
+    }
+
+    /**
+     * Sets the listener to notify about the progress of receiving the response payload
+     * 
+     * @param listener The <code>ProgressListener</code> to notify. May be null
+     * @return This <code>HttpRequest</code> instance
+     */
+    public HttpRequest withProgressListener(final HttpTransfer.ProgressListener listener){
+        this.listener = listener;
+        return this;
+    }
+
+    /**
+     * Cancels this request
+     */
+    public void cancel(){
+        this.cancelled = true;
+    }
+
+    /**
+     * Executes this request. This method blocks until the response has been received.
+     * Failures are not thrown but reported by the status of the returned result
+     * 
+     * @return The <code>NetworkResult</code> of this request
+     */
+    public NetworkResult execute(){
+        NetworkResult result = new NetworkResult();
+        result.setStatus(Status.SUCCESS);//set as default. May get overridden later
+        final boolean cacheable = ((cache != null) && method.equals("GET"));
+        final ResourceCache.Entry cached = (cacheable ? cache.get(url) : null);
+        try{
+            openConnection();
+            this.connection.setRequestMethod(method);
+            this.connection.setRequestProperty("Accept-Language", "en-US,en,q=0.5");
+            this.connection.setRequestProperty("Accept-Encoding", "UTF-8");
+            this.connection.setConnectTimeout(CONNECT_TIMEOUT);
+            if(parcel != null){
+                if(parcel.hasHeader()){
+                    addHeaderFieldsToRequest(parcel.getHeader());
+                }
+            }
+            if(cached != null){
+                addValidatorsToRequest(cached);
+            }
+            if(isOutputMethod() && (parcel != null) && !parcel.payloadIsEmpty()){
+                this.connection.setDoOutput(true);
+                sendPayload();
+            }
+
+            final int responseCode = connection.getResponseCode();
+            if((responseCode >= 200) && (responseCode < 300)){//HTTP 2xx Status codes
+                result = receivePayload();
+            }else if((responseCode == HttpURLConnection.HTTP_NOT_MODIFIED) && (cached != null)){
+                result = new NetworkResult.Builder()
+                        .bytes(cached.getPayload())
+                        .cached(true)
+                        .status(Status.SUCCESS)
+                        .build();
+            }
+            result.setResponseCode(responseCode);
+            result.setResponseHeader(receiveResponseHeader());
+            if(cacheable && (responseCode == HttpURLConnection.HTTP_OK)
+                    && (result.getSatus() == Status.SUCCESS)){
+
+                cache.put(url, result.getResponseHeader(), result.getBytes());
+            }
+        }catch(Exception ex){
+            ExceptionHandler.handle(ex);
+            result = new NetworkResult.Builder().status(Status.FAILURE).build();
+        }finally{
+            if(connection != null){
+                connection.disconnect();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Opens a HttpURLConnection/HttpsURLConnection on the URL of this request
+     * 
+     * @throws MalformedURLException If no protocol is specified,
+     *                               or an unknown protocol is found
+     * @throws IOException If a connection cannot be opened or if an I/O exception occurs
+     */
+    private void openConnection() throws MalformedURLException, IOException{
+        if(url.startsWith("https")){
+            this.connection = (HttpsURLConnection) new URL(url).openConnection();
+        }else{
+            this.connection = (HttpURLConnection) new URL(url).openConnection();
+        }
+    }
+
+    /**
+     * Writes parcel payload data on the buffered output stream of the underlying connection
+     * 
+     * @throws IOException If an I/O exception occurs during writing
+     */
+    private void sendPayload() throws IOException{
+        try(final BufferedOutputStream os = new BufferedOutputStream(
+                connection.getOutputStream())){
+            
+            os.write(parcel.getBytes());
+            os.flush();
+        }
+    }
+
+    /**
+     * Constructs and returns the header of the connection response
+     * 
+     * @return The HTTP header of the endpoint response
+     */
+    private Header receiveResponseHeader(){
+        final Header header = new Header();
+        for(final Map.Entry<String, List<String>> field : connection.getHeaderFields()
+                .entrySet()){
+            
+            final StringBuilder sb = new StringBuilder();
+            final List<String> values = field.getValue();
+            for(final String s : values){
+                sb.append(s);
+            }
+            if((field.getKey() != null) && (sb.length() > 0)){
+                header.add(field.getKey(), sb.toString());
+            }
+        }
+        return header;
+    }
+
+    /**
+     * Constructs and returns a NetworkResult object for the response
+     * of the underlying connection
+     * 
+     * @return A NetworkResult object for the underlying connection
+     * @throws IOException If an I/O exception occurs
+     */
+    private NetworkResult receivePayload() throws IOException{
+        NetworkResult result = null;
+        final int responseCode = connection.getResponseCode();
+        final long contentLength = connection.getContentLengthLong();
+        byte[] buffer = new byte[32768];
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream(buffer.length);
+        final BufferedInputStream is = new BufferedInputStream(
+                connection.getInputStream());
+        
+        try{
+            int i = -1;
+            while((i = is.read(buffer, 0, buffer.length)) != -1){
+                if(cancelled){
+                    result = createCancelledResult(responseCode);
+                    break;
+                }
+                baos.write(buffer, 0, i);
+                if((contentLength >= 0) && (listener != null)){
+                    listener.onProgress(baos.size(), contentLength);
+                }
+            }
+        }finally{
+            is.close();
+        }
+        if(!cancelled){
+            result = new NetworkResult.Builder()
+                    .bytes(baos.toByteArray())
+                    .responseCode(responseCode)
+                    .status(Status.SUCCESS)
+                    .build();
+        }
+        return result;
+    }
+
+    /**
+     * Adds all fields of the provided Header object to the underlying connection request
+     * 
+     * @param header The header to add
+     */
+    private void addHeaderFieldsToRequest(final Header header){
+        for(final HeaderField field : header){
+            this.connection.setRequestProperty(field.getKey(), field.getValue());
+        }
+    }
+
+    /**
+     * Adds the conditional header fields for the specified cached response
+     * to the underlying connection request
+     * 
+     * @param cached The cached response to revalidate
+     */
+    private void addValidatorsToRequest(final ResourceCache.Entry cached){
+        if(cached.getETag() != null){
+            this.connection.setRequestProperty("If-None-Match", cached.getETag());
+        }
+        if(cached.getLastModified() != null){
+            this.connection.setRequestProperty("If-Modified-Since", cached.getLastModified());
+        }
+    }
+
+    /**
+     * Indicates whether the HTTP method of this request is either POST or PUT
+     * 
+     * @return True if the HTTP method is POST or PUT. False for any other HTTP method
+     */
+    private boolean isOutputMethod(){
+        return ((method.equals("POST") || (method.equals("PUT"))));
+    }
+
+    /**
+     * Creates a NetworkResult object for cancelled connections
+     * 
+     * @param responseCode The response code of the connection
+     * @return A NetworkResult representing a cancelled connection
+     */
+    private NetworkResult createCancelledResult(final int responseCode){
+        return new NetworkResult.Builder()
+                .responseCode(responseCode)
+                .status(Status.CANCELLED)
+                .build();
+    }
+
+}
@@ -0,0 +1,342 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.icecrusher.net;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Transfers a resource over HTTP directly into a file. The content is streamed to the
+ * target file while its SHA-256 checksum is computed incrementally, so the resource is
+ * never held in memory as a whole.
+ *
+ * <p>If the target file already holds a part of the resource, for example because a
+ * previous transfer was interrupted, only the remaining part is requested by means of
+ * an HTTP <code>Range</code> request. A transfer which is interrupted by an I/O error is
+ * resumed in the same way, up to the specified number of attempts. If the server does
+ * not support range requests, the resource is transferred from the beginning.<br>
+ * Since a partial file is resumed as is, callers must verify the checksum of the
+ * completed transfer and discard the file if it does not match.
+ *
+ * <p>A transfer blocks the calling thread and should therefore be performed
+ * by a background thread. It can be cancelled by any thread.
+ *
+ */
+public class HttpTransfer {
+
+    /**
+     * Listener for the progress of a transfer.
+     *
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+
+        /**
+         * Called by the transferring thread whenever data was received
+         * 
+         * @param transferred The number of bytes of the resource held by the target file
+         * @param total The total size of the resource in bytes, or -1 if unknown
+         */
+        void onProgress(long transferred, long total);
+    }
+
+    /** Default number of connection attempts of a transfer **/
+    public static final int DEFAULT_ATTEMPTS = 3;
+
+    private static final int BUFFER_SIZE = 32768;
+    private static final int CONNECT_TIMEOUT = 10000;
+    private static final int READ_TIMEOUT = 30000;
+
+    private final URL url;
+    private final File target;
+    private int attempts;
+    private ProgressListener listener;
+    private MessageDigest digest;
+    private long digested;
+    private int responseCode;
+    private volatile boolean cancelled;
+
+    /**
+     * Constructs a new <code>HttpTransfer</code> of the specified resource
+     * 
+     * @param url The URL of the resource to transfer
+     * @param target The file to write the resource to. If the file exists,
+     *               its content is treated as the first part of the resource
+     * @throws MalformedURLException If the specified URL is invalid
+     */
+    public HttpTransfer(final String url, final File target) throws MalformedURLException{
+        if(target == null){
+            throw new IllegalArgumentException("Target file must not be null");
+        }
+        this.url = new URL(url);
+        this.target = target;
+        this.attempts = DEFAULT_ATTEMPTS;
+        this.responseCode = -1;
+    }
+
+    /**
+     * Sets the maximum number of connection attempts of this transfer
+     * 
+     * @param attempts The number of connection attempts. Must be positive
+     * @return This <code>HttpTransfer</code> instance
+     */
+    public HttpTransfer withAttempts(final int attempts){
+        if(attempts < 1){
+            throw new IllegalArgumentException("Number of attempts must be positive");
+        }
+        this.attempts = attempts;
+        return this;
+    }
+
+    /**
+     * Sets the listener to notify about the progress of this transfer
+     * 
+     * @param listener The <code>ProgressListener</code> to notify. May be null
+     * @return This <code>HttpTransfer</code> instance
+     */
+    public HttpTransfer withProgressListener(final ProgressListener listener){
+        this.listener = listener;
+        return this;
+    }
+
+    /**
+     * Cancels this transfer. The part of the resource received so
+     * far is kept in the target file and can be resumed later
+     */
+    public void cancel(){
+        this.cancelled = true;
+    }
+
+    /**
+     * Indicates whether this transfer was cancelled
+     * 
+     * @return True if this transfer was cancelled
+     */
+    public boolean isCancelled(){
+        return this.cancelled;
+    }
+
+    /**
+     * Gets the HTTP response code of the last connection of this transfer
+     * 
+     * @return The last response code, or -1 if no response was received
+     */
+    public int getResponseCode(){
+        return this.responseCode;
+    }
+
+    /**
+     * Performs this transfer. This method blocks until the entire resource has been
+     * written to the target file, the transfer was cancelled or all attempts failed
+     * 
+     * @return The SHA-256 checksum of the target file as a lowercase hex string,
+     *         or null if this transfer was cancelled
+     * @throws IOException If the server responded with an unexpected status code
+     *                     or if the last attempt failed with an I/O error
+     */
+    public String transfer() throws IOException{
+        IOException failure = null;
+        for(int i=0; i<attempts; ++i){
+            if(cancelled){
+                return null;
+            }
+            try{
+                return attempt();
+            }catch(StatusException ex){
+                throw ex;
+            }catch(IOException ex){
+                failure = ex;
+            }
+        }
+        throw failure;
+    }
+
+    private String attempt() throws IOException{
+        long offset = (target.exists() ? target.length() : 0);
+        if((digest == null) || (digested != offset)){
+            digest(offset);
+        }
+        final HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        try{
+            connection.setConnectTimeout(CONNECT_TIMEOUT);
+            connection.setReadTimeout(READ_TIMEOUT);
+            connection.setRequestProperty("Accept-Encoding", "identity");
+            if(offset > 0){
+                connection.setRequestProperty("Range", "bytes=" + offset + "-");
+            }
+            this.responseCode = connection.getResponseCode();
+            long total;
+            if(responseCode == HttpURLConnection.HTTP_PARTIAL){
+                final long[] range = contentRangeOf(connection);
+                if((range == null) || (range[0] != offset)){
+                    truncate();
+                    throw new IOException("Invalid content range: "
+                            + connection.getHeaderField("Content-Range"));
+                }
+                total = range[1];
+            }else if(responseCode == HttpURLConnection.HTTP_OK){
+                truncate();
+                offset = 0;
+                total = connection.getContentLengthLong();
+            }else if((responseCode == 416) && (offset > 0)){
+                //the partial file is either complete or does not match the resource
+                final long[] range = contentRangeOf(connection);
+                if((range != null) && (range[1] == offset)){
+                    notifyProgress(offset, offset);
+                    return hex(digest.digest());
+                }
+                truncate();
+                throw new IOException("Requested range not satisfiable");
+            }else{
+                throw new StatusException("Unexpected HTTP response code: " + responseCode);
+            }
+            return receive(connection, offset, total);
+        }finally{
+            connection.disconnect();
+        }
+    }
+
+    private String receive(final HttpURLConnection connection, final long offset,
+            final long total) throws IOException{
+
+        long transferred = offset;
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        try(final InputStream is = connection.getInputStream();
+                final FileOutputStream os = new FileOutputStream(target, (offset > 0))){
+
+            int n = -1;
+            while((n = is.read(buffer, 0, buffer.length)) != -1){
+                if(cancelled){
+                    return null;
+                }
+                os.write(buffer, 0, n);
+                digest.update(buffer, 0, n);
+                transferred += n;
+                digested = transferred;
+                notifyProgress(transferred, total);
+            }
+        }
+        if((total >= 0) && (transferred != total)){
+            throw new IOException("Transfer ended after " + transferred
+                    + " of " + total + " bytes");
+        }
+        return hex(digest.digest());
+    }
+
+    private void digest(final long length) throws IOException{
+        this.digest = sha256();
+        this.digested = 0;
+        if(length <= 0){
+            return;
+        }
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        try(final InputStream is = new FileInputStream(target)){
+            int n = -1;
+            while((n = is.read(buffer, 0, buffer.length)) != -1){
+                digest.update(buffer, 0, n);
+                digested += n;
+            }
+        }
+    }
+
+    private void truncate() throws IOException{
+        if(target.exists()){
+            try(final RandomAccessFile file = new RandomAccessFile(target, "rw")){
+                file.setLength(0);
+            }
+        }
+        this.digest = sha256();
+        this.digested = 0;
+    }
+
+    private void notifyProgress(final long transferred, final long total){
+        if(listener != null){
+            listener.onProgress(transferred, total);
+        }
+    }
+
+    /**
+     * Parses the Content-Range header of the specified connection
+     * 
+     * @param connection The connection to parse the header of
+     * @return An array holding the first byte position and the total size,
+     *         or null if the header is missing or the total size is unknown.
+     *         The first byte position is -1 for unsatisfied ranges
+     */
+    private static long[] contentRangeOf(final HttpURLConnection connection){
+        final String value = connection.getHeaderField("Content-Range");
+        if((value == null) || !value.startsWith("bytes ")){
+            return null;
+        }
+        final int slash = value.indexOf('/');
+        if(slash < 0){
+            return null;
+        }
+        try{
+            final String range = value.substring(6, slash).trim();
+            final String size = value.substring(slash+1).trim();
+            if(size.equals("*")){
+                return null;
+            }
+            final int dash = range.indexOf('-');
+            final long first = ((dash > 0) ? Long.parseLong(range.substring(0, dash)) : -1);
+            return new long[]{first, Long.parseLong(size)};
+        }catch(NumberFormatException ex){
+            return null;
+        }
+    }
+
+    private static MessageDigest sha256() throws IOException{
+        try{
+            return MessageDigest.getInstance("SHA-256");
+        }catch(NoSuchAlgorithmException ex){
+            throw new IOException(ex);
+        }
+    }
+
+    private static String hex(final byte[] bytes){
+        final StringBuilder sb = new StringBuilder(bytes.length*2);
+        for(final byte b : bytes){
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Signals that the server responded with a status code
+     * which cannot be handled by retrying the transfer.
+     *
+     */
+    private static final class StatusException extends IOException {
+
+        private static final long serialVersionUID = 1L;
+
+        private StatusException(final String message){
+            super(message);
+        }
+    }
+
+}
@@ -16,6 +16,7 @@
 
 package com.raven.icecrusher.net;
 
+import java.io.File;
 import java.io.UnsupportedEncodingException;
 
 /**
@@ -27,7 +28,8 @@ import java.io.UnsupportedEncodingException;
  * <p>Depending on the expected response type (content-type), the response payload
  * can be accessed by either calling <code>getBytes()</code> for arbitrary binary 
  * data, or <code>getString</code>  which will automatically convert the payload data
- * to a String object.
+ * to a String object. Results of downloads which were written to a file instead
+ * provide that file by <code>getFile()</code> together with its checksum.
  *
  */
 public class NetworkResult {
@@ -61,6 +63,9 @@ public class NetworkResult {
     private Header responseHeader;
     private int responseCode;
     private byte[] data;
+    private File file;
+    private String checksum;
+    private boolean cached;
 
     protected NetworkResult(){
         this.responseCode = -1;
@@ -91,6 +96,36 @@ public class NetworkResult {
         }
     }
 
+    /**
+     * Gets the file the response payload was written to
+     * 
+     * @return The file holding the downloaded resource. May be null
+     */
+    public File getFile(){
+        return this.file;
+    }
+
+    /**
+     * Gets the SHA-256 checksum of the file the response payload was written to
+     * 
+     * @return The checksum of the downloaded file as a lowercase hex string.
+     *         May be null
+     */
+    public String getChecksum(){
+        return this.checksum;
+    }
+
+    /**
+     * Indicates whether the response payload was taken from a {@link ResourceCache}
+     * because the endpoint responded with <code>304 Not Modified</code>
+     * 
+     * @return True if the payload of this result was cached, false if
+     *         it was received from the connection endpoint
+     */
+    public boolean isCached(){
+        return this.cached;
+    }
+
     /**
      * Gets the HTTP response code of the connection endpoint
      * 
@@ -133,6 +168,10 @@ public class NetworkResult {
         if(responseHeader != null){
             sb.append(responseHeader.toString());
         }
+        if(file != null){
+            sb.append(nl);
+            sb.append("File: " + this.file);
+        }
         if(data != null){
             sb.append(nl);
             sb.append("Data:");
@@ -146,6 +185,18 @@ public class NetworkResult {
         this.data = data;
     }
 
+    protected void setFile(final File file){
+        this.file = file;
+    }
+
+    protected void setChecksum(final String checksum){
+        this.checksum = checksum;
+    }
+
+    protected void setCached(final boolean cached){
+        this.cached = cached;
+    }
+
     protected void setStatus(final Status status){
         this.status = status;
     }
@@ -175,6 +226,21 @@ public class NetworkResult {
             return this;
         }
 
+        protected Builder file(final File file){
+            this.result.setFile(file);
+            return this;
+        }
+
+        protected Builder checksum(final String checksum){
+            this.result.setChecksum(checksum);
+            return this;
+        }
+
+        protected Builder cached(final boolean cached){
+            this.result.setCached(cached);
+            return this;
+        }
+
         protected Builder responsHeader(final Header responseHeader){
             this.result.setResponseHeader(responseHeader);
             return this;
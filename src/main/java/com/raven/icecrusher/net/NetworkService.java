@@ -16,6 +16,8 @@
 
 package com.raven.icecrusher.net;
 
+import java.io.File;
+
 import javafx.scene.control.Label;
 import javafx.scene.control.ProgressIndicator;
 
@@ -93,7 +95,7 @@ public interface NetworkService {
      *         connection attempt to that resource
      */
     public static NetworkService getService(ResourceLocator locator){
-        return getService(locator, null);
+        return getService(locator, (Parcel) null);
     }
 
     /**
@@ -110,4 +112,40 @@ public interface NetworkService {
     public static NetworkService getService(ResourceLocator locator, Parcel parcel){
         return new HttpNetworkService(locator, parcel);
     }
+
+    /**
+     * Returns a network service for downloading the network resource specified by the URL 
+     * of the <code>ResourceLocator</code> passed to this method into the specified file.
+     * The resource is streamed to the file without being held in memory. If the file
+     * already holds the first part of the resource, only the remaining part is downloaded.
+     * The result of the returned service provides the file and its checksum
+     * 
+     * @param locator The <code>ResourceLocator</code> of the resource to download
+     * @param target The file to write the downloaded resource to
+     * @return A <code>NetworkService</code> for the specified resource. When calling 
+     *         <code>connect()</code> on the returned network service, it will download
+     *         that resource
+     * @see HttpTransfer
+     */
+    public static NetworkService getService(ResourceLocator locator, File target){
+        return new HttpNetworkService(locator, target);
+    }
+
+    /**
+     * Returns a network service for connecting to the network resource specified by the URL 
+     * of the <code>ResourceLocator</code> passed to this method. The response is revalidated
+     * and stored with the specified <code>ResourceCache</code>, so that an unchanged resource
+     * is not transferred again. The result of the returned service is marked as cached
+     * when the payload was taken from the cache
+     * 
+     * @param locator The <code>ResourceLocator</code> of the resource to connect to
+     * @param cache The <code>ResourceCache</code> to revalidate the response with
+     * @return A <code>NetworkService</code> for the specified resource. When calling 
+     *         <code>connect()</code> on the returned network service, it will make a 
+     *         connection attempt to that resource
+     * @see ResourceCache
+     */
+    public static NetworkService getService(ResourceLocator locator, ResourceCache cache){
+        return new HttpNetworkService(locator, cache);
+    }
 }
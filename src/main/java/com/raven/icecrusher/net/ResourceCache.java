@@ -0,0 +1,213 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.icecrusher.net;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import com.raven.icecrusher.util.EditorConfiguration;
+import com.raven.icecrusher.util.ExceptionHandler;
+
+/**
+ * Persistent cache for responses of GET requests which can be revalidated
+ * by means of conditional HTTP requests.<br>
+ * For each cached resource, the response payload is stored together with the
+ * <code>ETag</code> and <code>Last-Modified</code> header fields of the response.
+ * A subsequent request for the same resource sends these values as
+ * <code>If-None-Match</code> and <code>If-Modified-Since</code> header fields. If the
+ * server responds with <code>304 Not Modified</code>, the cached payload is used and
+ * no payload is transferred. Responses without either header field are not cached.
+ *
+ * <p>Each resource is stored in its own file within the cache directory.
+ * All methods of this class may be called by any thread.
+ *
+ */
+public class ResourceCache {
+
+    /**
+     * A cached response.
+     *
+     */
+    public static final class Entry {
+
+        private final String etag;
+        private final String lastModified;
+        private final byte[] payload;
+
+        private Entry(final String etag, final String lastModified, final byte[] payload){
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.payload = payload;
+        }
+
+        /**
+         * Gets the entity tag of the cached response
+         * 
+         * @return The value of the ETag header field. May be null
+         */
+        public String getETag(){
+            return this.etag;
+        }
+
+        /**
+         * Gets the modification date of the cached response
+         * 
+         * @return The value of the Last-Modified header field. May be null
+         */
+        public String getLastModified(){
+            return this.lastModified;
+        }
+
+        /**
+         * Gets the payload of the cached response
+         * 
+         * @return The bytes of the cached response payload
+         */
+        public byte[] getPayload(){
+            return this.payload;
+        }
+    }
+
+    private static final int MAGIC = 0x49435243;//"ICRC"
+    private static final String FILE_EXTENSION = ".http";
+    private static final String CACHE_DIR = "http";
+
+    private static ResourceCache instance;
+
+    private final File directory;
+
+    /**
+     * Constructs a new <code>ResourceCache</code> storing its entries in
+     * the specified directory
+     * 
+     * @param directory The directory to store all entries in.
+     *                  Is created when the first entry is stored
+     */
+    public ResourceCache(final File directory){
+        if(directory == null){
+            throw new IllegalArgumentException("Directory must not be null");
+        }
+        this.directory = directory;
+    }
+
+    /**
+     * Gets the <code>ResourceCache</code> of this application, which
+     * is located within the cache directory of the user
+     * 
+     * @return The application-wide <code>ResourceCache</code>
+     */
+    public static synchronized ResourceCache getDefault(){
+        if(instance == null){
+            instance = new ResourceCache(new File(
+                    EditorConfiguration.getCacheDirectory(), CACHE_DIR));
+        }
+        return instance;
+    }
+
+    /**
+     * Gets the cached response for the resource with the specified URL
+     * 
+     * @param url The URL of the resource
+     * @return The cached <code>Entry</code> of the specified resource,
+     *         or null if the resource is not cached
+     */
+    public synchronized Entry get(final String url){
+        final File file = fileOf(url);
+        if(!file.exists()){
+            return null;
+        }
+        try(final DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new FileInputStream(file)))){
+
+            if((in.readInt() != MAGIC) || !in.readUTF().equals(url)){
+                return null;
+            }
+            final String etag = emptyToNull(in.readUTF());
+            final String lastModified = emptyToNull(in.readUTF());
+            final byte[] payload = new byte[in.readInt()];
+            in.readFully(payload);
+            return new Entry(etag, lastModified, payload);
+        }catch(IOException ex){
+            ExceptionHandler.handle(ex);
+            return null;
+        }
+    }
+
+    /**
+     * Caches the specified response for the resource with the specified URL. The
+     * response is only cached if its header has an <code>ETag</code> or a
+     * <code>Last-Modified</code> field. Otherwise any cached response is removed
+     * 
+     * @param url The URL of the resource
+     * @param header The header of the response
+     * @param payload The payload of the response
+     * @return True if the response was cached, false otherwise
+     */
+    public synchronized boolean put(final String url, final Header header,
+            final byte[] payload){
+
+        final String etag = header.valueOfIgnoreCase("ETag");
+        final String lastModified = header.valueOfIgnoreCase("Last-Modified");
+        final File file = fileOf(url);
+        if(((etag == null) && (lastModified == null)) || (payload == null)){
+            file.delete();
+            return false;
+        }
+        if(!directory.exists() && !directory.mkdirs()){
+            return false;
+        }
+        try(final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(file)))){
+
+            out.writeInt(MAGIC);
+            out.writeUTF(url);
+            out.writeUTF((etag != null) ? etag : "");
+            out.writeUTF((lastModified != null) ? lastModified : "");
+            out.writeInt(payload.length);
+            out.write(payload);
+            return true;
+        }catch(IOException ex){
+            ExceptionHandler.handle(ex);
+            file.delete();
+            return false;
+        }
+    }
+
+    /**
+     * Removes the cached response for the resource with the specified URL, if any
+     * 
+     * @param url The URL of the resource
+     */
+    public synchronized void remove(final String url){
+        fileOf(url).delete();
+    }
+
+    private File fileOf(final String url){
+        return new File(directory, String.format("%08x", url.hashCode()) + FILE_EXTENSION);
+    }
+
+    private static String emptyToNull(final String value){
+        return (value.isEmpty() ? null : value);
+    }
+
+}
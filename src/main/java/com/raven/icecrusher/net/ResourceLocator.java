@@ -28,6 +28,8 @@ public enum ResourceLocator {
     UPDATE_PACKAGE_LINUX_FULL("GET", "https://www.raven-computing.com/assets/file/products/icecrusher/update_linux_full.zip"),
     UPDATE_PACKAGE_WINDOWS_APP("GET", "https://www.raven-computing.com/assets/file/products/icecrusher/update_windows_app.zip"),
     UPDATE_PACKAGE_WINDOWS_FULL("GET", "https://www.raven-computing.com/assets/file/products/icecrusher/update_windows_full.zip"),
+    UPDATE_PACKAGE_LINUX_DELTA("GET", "https://www.raven-computing.com/assets/file/products/icecrusher/update_linux_delta.zip"),
+    UPDATE_PACKAGE_WINDOWS_DELTA("GET", "https://www.raven-computing.com/assets/file/products/icecrusher/update_windows_delta.zip"),
     UPDATE_INSTRUCT_LINUX("GET", "https://www.raven-computing.com/assets/file/products/icecrusher/update.sh"),
     UPDATE_INSTRUCT_WINDOWS("GET", "https://www.raven-computing.com/assets/file/products/icecrusher/update.bat"),
     RELEASE_NOTES("GET", "https://www.raven-computing.com/products/icecrusher/release-notes.html"),
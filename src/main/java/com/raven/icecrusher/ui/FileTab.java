@@ -16,7 +16,15 @@
 
 package com.raven.icecrusher.ui;
 
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
 import com.raven.common.struct.DataFrame;
+import com.raven.common.struct.DefaultDataFrame;
+import com.raven.icecrusher.application.Scheduler;
+import com.raven.icecrusher.io.Footprint;
+import com.raven.icecrusher.io.Revision;
 import com.raven.icecrusher.ui.view.DataFrameView;
 import com.raven.icecrusher.util.EditorFile;
 
@@ -28,14 +36,27 @@ import static com.raven.icecrusher.util.EditorConfiguration.Section.*;
 
 /**
  * A <code>Tab</code> containing a <code>DataFrameView</code> and an <code>EditorFile</code>.<br>
+ * The DataFrame of an inactive Tab may be spilled to a temporary file in order to
+ * free memory. A spilled DataFrame is not held by its Tab until it was read back
+ * by the {@link TabMemoryManager}, which happens in the background when the Tab
+ * gets selected.
  *
  */
 public class FileTab extends Tab {
 
+    /**
+     * The maximum number of revisions kept by a FileTab
+     */
+    public static final int MAX_REVISIONS = 16;
+
     private EditorFile file;
     private DataFrame df;
     private DataFrameView view;
     private boolean isSave = true;
+    private Deque<Revision> revisions;
+    private File spillFile;
+    private Footprint footprint;
+    private final Scheduler.Token token = new Scheduler.Token();
 
     /**
      * Constructs a new <code>FileTab</code> from the specified EditorFile and DataFrame
@@ -87,22 +108,190 @@ public class FileTab extends Tab {
     }
 
     /**
-     * Gets the DataFrame of this Tab
+     * Gets the DataFrame of this Tab. The DataFrame of a spilled Tab is
+     * not available until the Tab was restored
      * 
-     * @return The <code>DataFrame</code> inside this Tab
+     * @return The <code>DataFrame</code> inside this Tab, or null
+     *         if this Tab is spilled
+     * @see #isSpilled()
      */
     public DataFrame getDataFrame(){
         return this.df;
     }
 
+    /**
+     * Gets the estimated memory footprint of the DataFrame of this Tab. The
+     * Footprint is computed when it is first requested and must be updated
+     * by the caller whenever entries of the DataFrame change. The Footprint of
+     * a spilled DataFrame is retained and describes the DataFrame when it was spilled.
+     * Since computing a Footprint scans the entire DataFrame, callers on the FX
+     * application thread should check {@link #hasFootprint()} first
+     * 
+     * @return The <code>Footprint</code> of the DataFrame of this Tab
+     */
+    public Footprint getFootprint(){
+        if(footprint == null){
+            this.footprint = Footprint.of(getDataFrame());
+        }
+        return this.footprint;
+    }
+
+    /**
+     * Indicates whether the Footprint of this Tab is available, i.e. whether
+     * it can be requested without scanning the DataFrame of this Tab
+     * 
+     * @return True if the Footprint of this Tab is available, false otherwise
+     */
+    public boolean hasFootprint(){
+        return (this.footprint != null);
+    }
+
+    /**
+     * Sets the Footprint of this Tab, for example after it has been
+     * computed by a background thread
+     * 
+     * @param footprint The <code>Footprint</code> of the DataFrame of this Tab
+     */
+    public void setFootprint(final Footprint footprint){
+        this.footprint = footprint;
+    }
+
+    /**
+     * Gets the cancellation token of this Tab. All work submitted to the
+     * {@link Scheduler} with this token is cancelled when this Tab is closed
+     * 
+     * @return The <code>Scheduler.Token</code> of this Tab
+     */
+    public Scheduler.Token getCancellationToken(){
+        return this.token;
+    }
+
+    /**
+     * Discards the Footprint of this Tab so that it is recomputed when it
+     * is requested the next time. This method should be called whenever
+     * the underlying DataFrame changes in a way which cannot be reported
+     * to its Footprint incrementally
+     * 
+     */
+    public void invalidateFootprint(){
+        //the footprint of a spilled DataFrame cannot be recomputed
+        if(spillFile == null){
+            this.footprint = null;
+        }
+    }
+
+    /**
+     * Indicates whether the DataFrame of this Tab is currently spilled to a file
+     * 
+     * @return True if the DataFrame of this Tab is not held in memory, false otherwise
+     */
+    public boolean isSpilled(){
+        return (this.spillFile != null);
+    }
+
+    /**
+     * Gets the file the DataFrame of this Tab is spilled to
+     * 
+     * @return The spill file of this Tab, or null if the DataFrame
+     *         of this Tab is not spilled
+     */
+    public File getSpillFile(){
+        return this.spillFile;
+    }
+
+    /**
+     * Releases the DataFrame of this Tab after it has been written to the specified
+     * file. The DataFrame is unavailable until it is restored from that file.
+     * The view of this Tab shows an empty DataFrame while it is spilled
+     * 
+     * @param file The file holding the serialized DataFrame of this Tab
+     */
+    public void spillTo(final File file){
+        this.spillFile = file;
+        this.df = null;
+        this.view.setDataFrame(new DefaultDataFrame());
+    }
+
+    /**
+     * Restores the spilled DataFrame of this Tab and deletes its spill file.
+     * The undo history and the saved state of this Tab are left unchanged
+     * 
+     * @param df The <code>DataFrame</code> read from the spill file of this Tab
+     */
+    public void restore(final DataFrame df){
+        this.df = df;
+        this.view.setDataFrame(df);
+        discardSpillFile();
+    }
+
+    /**
+     * Deletes the spill file of this Tab, if any. This method should be
+     * called when this Tab is closed
+     * 
+     */
+    public void discardSpillFile(){
+        if(spillFile != null){
+            spillFile.delete();
+            this.spillFile = null;
+        }
+    }
+
     /**
      * Replaces the DataFrame of this Tab
      * 
      * @param df The <code>DataFrame</code> to be used by this Tab
      */
     public void replaceWith(final DataFrame df){
+        discardSpillFile();
         this.df = df;
         this.view.setDataFrame(df);
+        clearRevisions();
+        invalidateFootprint();
+    }
+
+    /**
+     * Adds the specified Revision to the undo history of this Tab. If the history
+     * is full, the oldest Revision is discarded
+     * 
+     * @param revision The <code>Revision</code> to add
+     */
+    public void pushRevision(final Revision revision){
+        if(revisions == null){
+            this.revisions = new ArrayDeque<>();
+        }
+        if(revisions.size() == MAX_REVISIONS){
+            revisions.removeLast();
+        }
+        revisions.push(revision);
+    }
+
+    /**
+     * Removes and returns the most recent Revision of this Tab
+     * 
+     * @return The most recent <code>Revision</code>, or null if this Tab
+     *         has no undo history
+     */
+    public Revision popRevision(){
+        return (hasRevisions() ? revisions.pop() : null);
+    }
+
+    /**
+     * Indicates whether this Tab has any Revisions which can be reverted
+     * 
+     * @return True if this Tab has an undo history, false otherwise
+     */
+    public boolean hasRevisions(){
+        return (revisions != null) && (!revisions.isEmpty());
+    }
+
+    /**
+     * Discards the undo history of this Tab. This method should be called
+     * whenever the structure or the row order of the underlying DataFrame
+     * changes, as recorded Revisions are invalid afterwards
+     * 
+     */
+    public void clearRevisions(){
+        this.revisions = null;
     }
 
     /**
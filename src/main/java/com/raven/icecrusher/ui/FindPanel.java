@@ -0,0 +1,334 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.icecrusher.ui;
+
+import java.util.List;
+import java.util.regex.PatternSyntaxException;
+
+import com.jfoenix.controls.JFXButton;
+import com.jfoenix.controls.JFXComboBox;
+import com.jfoenix.controls.JFXProgressBar;
+import com.jfoenix.controls.JFXTextField;
+import com.raven.common.struct.DataFrame;
+import com.raven.icecrusher.application.Scheduler;
+import com.raven.icecrusher.io.Search;
+import com.raven.icecrusher.io.Search.Match;
+import com.raven.icecrusher.io.SearchTask;
+import com.raven.icecrusher.ui.view.DataFrameView;
+
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.TableColumn;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+
+/**
+ * Helper class to keep code for the find and replace panel out of the FrameController.
+ * The panel searches the DataFrame of the selected tab in the background and shows
+ * all matches as they are found. Selecting a match scrolls the DataFrameView to the
+ * corresponding cell.
+ *
+ */
+public class FindPanel {
+
+    private static final String ALL_COLUMNS = "All columns";
+    private static final String MODE_LITERAL = "Text";
+    private static final String MODE_REGEX = "Regex";
+    private static final String MODE_NUMERIC = "Number";
+
+    private FrameController controller;
+    private VBox root;
+    private JFXComboBox<String> cBoxColumns;
+    private JFXComboBox<String> cBoxMode;
+    private JFXTextField txtQuery;
+    private JFXTextField txtReplacement;
+    private JFXButton btnFind;
+    private JFXButton btnReplace;
+    private JFXProgressBar progress;
+    private Label labelStatus;
+    private ListView<Match> listResults;
+
+    private FileTab tab;
+    private Search search;
+    private SearchTask task;
+
+    public FindPanel(FrameController controller){
+        this.controller = controller;
+        build();
+    }
+
+    /**
+     * Gets the root node of this panel
+     * 
+     * @return The <code>Node</code> to show this panel
+     */
+    public Node getNode(){
+        return this.root;
+    }
+
+    /**
+     * Lets this panel search the specified tab. Any running search
+     * is cancelled and all results are discarded
+     * 
+     * @param tab The <code>FileTab</code> to search
+     */
+    public void attachTo(final FileTab tab){
+        reset();
+        this.tab = tab;
+        cBoxColumns.getItems().removeAll(cBoxColumns.getItems());
+        cBoxColumns.getItems().add(ALL_COLUMNS);
+        cBoxColumns.getItems().addAll(tab.getDataFrame().getColumnNames());
+        cBoxColumns.setValue(ALL_COLUMNS);
+    }
+
+    /**
+     * Gets the tab searched by this panel
+     * 
+     * @return The <code>FileTab</code> this panel is attached to
+     */
+    public FileTab getTab(){
+        return this.tab;
+    }
+
+    /**
+     * Cancels any running search and discards all results
+     * 
+     */
+    public void reset(){
+        cancel();
+        this.search = null;
+        listResults.getItems().clear();
+        labelStatus.setText(" ");
+        btnReplace.setDisable(true);
+    }
+
+    /**
+     * Moves the keyboard focus to the query field of this panel
+     * 
+     */
+    public void requestFocus(){
+        txtQuery.requestFocus();
+    }
+
+    private void cancel(){
+        if(task != null){
+            task.cancel();
+            this.task = null;
+            searching(false);
+        }
+    }
+
+    private void build(){
+        this.cBoxColumns = new JFXComboBox<>();
+        this.cBoxMode = new JFXComboBox<>();
+        cBoxMode.getItems().addAll(MODE_LITERAL, MODE_REGEX, MODE_NUMERIC);
+        cBoxMode.setValue(MODE_LITERAL);
+        this.txtQuery = new JFXTextField();
+        txtQuery.setPromptText("Find");
+        txtQuery.setOnAction((e) -> onFind());
+        this.txtReplacement = new JFXTextField();
+        txtReplacement.setPromptText("Replace with");
+        this.btnFind = new JFXButton("Find");
+        btnFind.setOnAction((e) -> onFind());
+        this.btnReplace = new JFXButton("Replace All");
+        btnReplace.setOnAction((e) -> onReplaceAll());
+        btnReplace.setDisable(true);
+        final JFXButton btnClose = new JFXButton("X");
+        btnClose.getStyleClass().add("row-adder-close-button");
+        btnClose.setOnAction((e) -> controller.closeFindPanel());
+        this.progress = new JFXProgressBar();
+        progress.setMaxWidth(Double.MAX_VALUE);
+        progress.setVisible(false);
+        this.labelStatus = new Label(" ");
+        this.listResults = new ListView<>();
+        listResults.setCellFactory((list) -> new MatchCell());
+        listResults.getSelectionModel().selectedItemProperty().addListener(
+                (ov, oldValue, newValue) -> showMatch(newValue));
+
+        final Label title = new Label("Find");
+        title.setStyle("-fx-font-weight: bold");
+        final HBox header = new HBox(title, btnClose);
+        HBox.setHgrow(title, Priority.ALWAYS);
+        title.setMaxWidth(Double.MAX_VALUE);
+        header.setAlignment(Pos.CENTER_LEFT);
+        final HBox findButtons = new HBox(cBoxMode, btnFind);
+        findButtons.setSpacing(10);
+        findButtons.setAlignment(Pos.CENTER_LEFT);
+
+        this.root = new VBox(header, cBoxColumns, txtQuery, findButtons,
+                progress, labelStatus, listResults, txtReplacement, btnReplace);
+
+        root.setSpacing(12);
+        root.setPadding(new Insets(10));
+        root.setPrefWidth(260);
+        root.getStyleClass().addAll("row-adder-pane", "find-pane");
+        VBox.setVgrow(listResults, Priority.ALWAYS);
+    }
+
+    private Search createSearch(){
+        final String query = txtQuery.getText();
+        if((query == null) || query.isEmpty()){
+            showWarnMsg("Please specify a search term");
+            return null;
+        }
+        Search.Mode mode = Search.Mode.LITERAL;
+        if(MODE_REGEX.equals(cBoxMode.getValue())){
+            mode = Search.Mode.REGEX;
+        }else if(MODE_NUMERIC.equals(cBoxMode.getValue())){
+            mode = Search.Mode.NUMERIC;
+        }
+        try{
+            final String column = cBoxColumns.getValue();
+            return Search.of(mode, query).in(
+                    ALL_COLUMNS.equals(column) ? null : column);
+
+        }catch(PatternSyntaxException ex){
+            showWarnMsg("The entered regular expression is invalid");
+        }catch(NumberFormatException ex){
+            showWarnMsg("The entered search term is not a number");
+        }
+        return null;
+    }
+
+    private void onFind(){
+        if(task != null){//button acts as cancel button while searching
+            cancel();
+            return;
+        }
+        final Search search = createSearch();
+        if(search == null){
+            return;
+        }
+        final DataFrame df = tab.getDataFrame();
+        if(search.columnsOf(df).length == 0){
+            showWarnMsg((search.getMode() == Search.Mode.NUMERIC)
+                    ? "This DataFrame has no numeric columns"
+                    : "This DataFrame has no columns");
+            return;
+        }
+        reset();
+        this.search = search;
+        final SearchTask task = new SearchTask(df, search, this::onMatches);
+        task.setOnSucceeded((e) -> {
+            if(this.task == task){
+                this.task = null;
+                searching(false);
+                final int total = task.getValue();
+                labelStatus.setText((total == 0)
+                        ? "No matches"
+                        : String.format("%,d matches", total)
+                        + ((total > SearchTask.MAX_RESULTS)
+                                ? String.format(" (showing %,d)", SearchTask.MAX_RESULTS)
+                                : ""));
+                
+                btnReplace.setDisable(total == 0);
+            }
+        });
+        task.setOnFailed((e) -> {
+            if(this.task == task){
+                this.task = null;
+                searching(false);
+                showWarnMsg("Search failed");
+            }
+        });
+        this.task = task;
+        searching(true);
+        progress.progressProperty().bind(task.progressProperty());
+        Scheduler.submit(Scheduler.Pool.CPU, Scheduler.Priority.INTERACTIVE,
+                tab.getCancellationToken(), task);
+    }
+
+    private void onMatches(final List<Match> matches){
+        if(task == null){//results of a cancelled search
+            return;
+        }
+        final boolean first = listResults.getItems().isEmpty();
+        listResults.getItems().addAll(matches);
+        labelStatus.setText(String.format("%,d matches so far", listResults.getItems().size()));
+        if(first){
+            listResults.getSelectionModel().selectFirst();
+        }
+    }
+
+    private void onReplaceAll(){
+        if((search == null) || (task != null)){
+            return;
+        }
+        final Search search = this.search;
+        final String replacement = txtReplacement.getText();
+        listResults.getItems().clear();
+        btnReplace.setDisable(true);
+        controller.applyBulkOperation(tab, () -> search.replaceAll(tab.getDataFrame(),
+                (replacement != null) ? replacement : ""));
+
+        labelStatus.setText(" ");
+    }
+
+    private void showMatch(final Match match){
+        if(match == null){
+            return;
+        }
+        final DataFrameView view = tab.getView();
+        final int offset = (view.hasIndexColumn() ? 1 : 0);
+        if((match.getRow() >= view.getItems().size())
+                || (match.getColumn()+offset >= view.getColumns().size())){
+            return;
+        }
+        final TableColumn<Integer, ?> col = view.getColumns().get(match.getColumn()+offset);
+        view.scrollTo(match.getRow());
+        view.scrollToColumn(col);
+        view.getSelectionModel().clearAndSelect(match.getRow(), col);
+        view.getFocusModel().focus(match.getRow(), col);
+    }
+
+    private void searching(final boolean value){
+        btnFind.setText(value ? "Cancel" : "Find");
+        progress.setVisible(value);
+        if(!value){
+            progress.progressProperty().unbind();
+        }
+    }
+
+    private void showWarnMsg(final String msg){
+        OneShotSnackbar.showFor(controller.rootPane, msg);
+    }
+
+    private class MatchCell extends ListCell<Match> {
+        @Override
+        protected void updateItem(final Match match, final boolean empty){
+            super.updateItem(match, empty);
+            if(empty || (match == null)){
+                setText(null);
+            }else{
+                final DataFrame df = tab.getDataFrame();
+                String text = String.format("Row %,d, %s", match.getRow(),
+                        df.getColumnName(match.getColumn()));
+
+                if(match.getRow() < df.rows()){
+                    text += ": " + df.getColumn(match.getColumn()).getValue(match.getRow());
+                }
+                setText(text);
+            }
+        }
+    }
+
+}
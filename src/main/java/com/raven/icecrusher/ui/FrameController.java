@@ -16,8 +16,15 @@
 
 package com.raven.icecrusher.ui;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
 
 import com.jfoenix.controls.JFXButton;
 import com.jfoenix.controls.JFXSpinner;
@@ -33,13 +40,21 @@ import com.raven.common.struct.NullableFloatColumn;
 import com.raven.common.util.Chronometer;
 import com.raven.common.util.FutureAction;
 import com.raven.icecrusher.Editor;
+import com.raven.icecrusher.application.Cache;
 import com.raven.icecrusher.application.Controller;
 import com.raven.icecrusher.application.Exposed;
 import com.raven.icecrusher.application.Resources;
+import com.raven.icecrusher.application.Scheduler;
+import com.raven.icecrusher.application.StartupTrace;
+import com.raven.icecrusher.application.StartupTrace.Phase;
 import com.raven.icecrusher.base.Activity;
+import com.raven.icecrusher.io.BulkUpdate;
+import com.raven.icecrusher.io.ColumnVersions;
 import com.raven.icecrusher.io.ConversionException;
 import com.raven.icecrusher.io.DataFrames;
 import com.raven.icecrusher.io.Files;
+import com.raven.icecrusher.io.Footprint;
+import com.raven.icecrusher.io.Revision;
 import com.raven.icecrusher.io.update.Updater;
 import com.raven.icecrusher.io.update.Version;
 import com.raven.icecrusher.ui.dialog.AddColumnDialog;
@@ -53,6 +68,8 @@ import com.raven.icecrusher.ui.dialog.RenameColumnDialog;
 import com.raven.icecrusher.ui.dialog.SaveDialog;
 import com.raven.icecrusher.ui.dialog.SortDialog;
 import com.raven.icecrusher.ui.dialog.StatsDialog;
+import com.raven.icecrusher.ui.dialog.UpdateValuesDialog;
+import com.raven.icecrusher.ui.view.ConversionPack;
 import com.raven.icecrusher.ui.view.DataFrameView;
 import com.raven.icecrusher.ui.view.DataFrameView.ContextMenuEvent;
 import com.raven.icecrusher.ui.view.DataFrameView.EditEvent;
@@ -70,6 +87,7 @@ import javafx.animation.KeyFrame;
 import javafx.animation.KeyValue;
 import javafx.animation.Timeline;
 import javafx.application.Platform;
+import javafx.collections.ListChangeListener;
 import javafx.concurrent.Task;
 import javafx.event.ActionEvent;
 import javafx.event.Event;
@@ -150,6 +168,14 @@ public class FrameController extends Controller implements ViewListener {
     @FXML
     protected MenuItem menuConvert;
 
+    @FXML
+    protected MenuItem menuUpdateValues;
+
+    @FXML
+    protected MenuItem menuUndo;
+    @FXML
+    protected MenuItem menuFind;
+
     @FXML
     protected MenuItem menuPieChart;
 
@@ -162,6 +188,12 @@ public class FrameController extends Controller implements ViewListener {
     @FXML
     protected MenuItem menuBarChart;
 
+    @FXML
+    protected MenuItem menuHistogram;
+
+    @FXML
+    protected MenuItem menuScatterChart;
+
     @FXML
     protected Label labelType;
 
@@ -170,6 +202,8 @@ public class FrameController extends Controller implements ViewListener {
 
     @FXML
     protected Label labelCols;
+    @FXML
+    protected Label labelMemory;
 
     @FXML
     protected Label labelHint;
@@ -201,6 +235,8 @@ public class FrameController extends Controller implements ViewListener {
     protected EditorConfiguration config;
 
     private RowAdder adder;
+    private FindPanel findPanel;
+    private TabMemoryManager memory;
 
     //keep reference to avoid garbage collection
     //when updating
@@ -210,9 +246,16 @@ public class FrameController extends Controller implements ViewListener {
     private volatile int exitLatch;
     private boolean sliderIsUp;
     private boolean showingConfirmation;
+    //recalled files which are not opened yet
+    private final List<EditorFile> pendingRecall = new ArrayList<>();
+    //tabs whose footprint is currently computed in the background, mapped
+    //to whether the footprint must be computed again when the scan completes
+    private final Map<FileTab, Boolean> pendingFootprints = new HashMap<>();
 
     public FrameController(){
         this.config = getConfiguration();
+        this.memory = new TabMemoryManager(config.largeMemoryOf(
+                GLOBAL, CONFIG_TABS_MEMORY_BUDGET));
     }
 
     @FXML
@@ -222,6 +265,7 @@ public class FrameController extends Controller implements ViewListener {
         setSaveButtonsDisabled(true);
         setEditMenuItemsDisabled(true);
         setStatsMenuItemsDisabled(true);
+        menuUndo.setDisable(true);
 
         editScene.setManaged(false);
         editScene.setVisible(false);
@@ -230,6 +274,19 @@ public class FrameController extends Controller implements ViewListener {
         mainTabs.getSelectionModel().selectedItemProperty().addListener((ov, oldTab, newTab) -> {
             tabSwitchBehaviour(newTab);
         });
+        mainTabs.getTabs().addListener((ListChangeListener.Change<? extends Tab> change) -> {
+            while(change.next()){
+                for(final Tab tab : change.getRemoved()){
+                    memory.unregister((FileTab)tab);
+                    ((FileTab)tab).getCancellationToken().cancel();
+                }
+                for(final Tab tab : change.getAddedSubList()){
+                    memory.register((FileTab)tab);
+                    //the footprint is estimated in the background
+                    footprintChanged((FileTab)tab);
+                }
+            }
+        });
 
         //later executed on FX application thread
         Platform.runLater(() -> {
@@ -240,17 +297,19 @@ public class FrameController extends Controller implements ViewListener {
             .addListener((observable, oldValue, newValue) -> splitPane.setDividerPositions(1.0));
 
             enableDarkTheme(config.booleanOf(GLOBAL, CONFIG_THEME_VIEW_DARK));
-
-            if(config.booleanOf(UPDATER, CONFIG_AUTO_UPDATE_CHECK)){
-                updateBehaviour();
-            }
         });
+        //not needed for the first frame
+        if(config.booleanOf(UPDATER, CONFIG_AUTO_UPDATE_CHECK)){
+            runWhenIdle(this::updateBehaviour);
+        }
     }
 
     @Override
     public void onStart(ArgumentBundle bundle){
         if(config.booleanOf(GLOBAL, CONFIG_RECALL_TABS)){
             recoverHistory();
+        }else{
+            StartupTrace.get().skip(Phase.RECALL);
         }
         if(Editor.wasUpdated()){
             final Chronometer chron = new Chronometer();
@@ -298,6 +357,19 @@ public class FrameController extends Controller implements ViewListener {
     public void onEdit(EditEvent event){
         setSaveButtonsDisabled(false);
         currentlySelectedTab().setSaved(false);
+        if(!event.isRowDeletion() && !event.isBulkEdit()){
+            final FileTab tab = currentlySelectedTab();
+            //bulk updates would otherwise be reverted over manual edits
+            tab.clearRevisions();
+            menuUndo.setDisable(true);
+            ColumnVersions.columnChanged(tab.getDataFrame(), event.getColumn());
+            if(tab.hasFootprint()){
+                tab.getFootprint().entryChanged(event.getColumn(),
+                        event.getOldVal(), event.getNewVal());
+
+            }
+            footprintChanged(tab);
+        }
         if(event.isRowDeletion()){
             final DataFrameView view = event.getView();
             if(config.booleanOf(GLOBAL, CONFIG_CONFIRM_ROW_DELETION)){//ask for confirmation
@@ -309,7 +381,7 @@ public class FrameController extends Controller implements ViewListener {
                     dialog.setBackgroundEffect(mainBorderPane, Dialogs.getBackgroundBlur());
                     dialog.setOnConfirm(() -> {
                         dialog.close();
-                        view.getDataFrame().removeRow(event.getRow());
+                        removeRow(currentlySelectedTab(), event.getRow());
                         view.reload();
                         labelRows.setText(String.format("%,d", view.getDataFrame().rows()));
                         setStatsMenuItemsDisabled(view.getDataFrame());
@@ -318,7 +390,7 @@ public class FrameController extends Controller implements ViewListener {
                     dialog.show();
                 }
             }else{//skip confirmation
-                view.getDataFrame().removeRow(event.getRow());
+                removeRow(currentlySelectedTab(), event.getRow());
                 view.reload();
                 setStatsMenuItemsDisabled(view.getDataFrame());
             }
@@ -342,6 +414,9 @@ public class FrameController extends Controller implements ViewListener {
         case STATS:
             showColumnStats(event);
             break;
+        case DETAILS:
+            showColumnDetails(event);
+            break;
         case CONVERT:
             convertColumn(event);
             break;
@@ -374,8 +449,28 @@ public class FrameController extends Controller implements ViewListener {
         }
         if(newTab != null){
             final FileTab tab = (FileTab) newTab;
+            final boolean restoring = memory.select(tab, () -> {
+                setLoadingIndication(false);
+                if(tab == currentlySelectedTab()){
+                    if(!tab.isSpilled()){
+                        tabSwitchBehaviour(tab);
+                    }else{//restoring failed but the tab can still be saved
+                        setEditMenuItemsDisabled(true);
+                        setStatsMenuItemsDisabled(true);
+                        setSaveButtonsDisabled(tab.isSaved());
+                    }
+                }
+            });
+            if(restoring){
+                setLoadingIndication(true);
+                return;
+            }
             final DataFrame df = tab.getDataFrame();
             setSaveButtonsDisabled(tab.isSaved());
+            menuUndo.setDisable(!tab.hasRevisions());
+            if(isFindPanelShown()){
+                findPanel.attachTo(tab);
+            }
             if(df.columns() > 0){
                 setEditMenuItemsDisabled(false);
                 setStatsMenuItemsDisabled(df);
@@ -387,14 +482,20 @@ public class FrameController extends Controller implements ViewListener {
             labelType.setText(df.getClass().getSimpleName());
             labelRows.setText(String.format("%,d", df.rows()));
             labelCols.setText(String.format("%,d", df.columns()));
+            labelMemory.setText(tab.hasFootprint()
+                    ? Footprint.format(tab.getFootprint().total())
+                    : " ");
         }else{//all tabs got closed
             setEditMenuItemsDisabled(true);
             setStatsMenuItemsDisabled(true);
             setSaveButtonsDisabled(true);
+            menuUndo.setDisable(true);
+            closeFindPanel();
             labelHint.setVisible(true);
             labelType.setText(" ");
             labelRows.setText(" ");
             labelCols.setText(" ");
+            labelMemory.setText(" ");
         }
     }
 
@@ -459,6 +560,7 @@ public class FrameController extends Controller implements ViewListener {
                     list.add(file);
                 }
             }
+            list.addAll(pendingRecall);
             history.setHistoryList(list);
             config.setHistory(history);
         }else{
@@ -471,19 +573,59 @@ public class FrameController extends Controller implements ViewListener {
         if(history != null){
             final List<EditorFile> fileList = history.getHistoryList();
             if(!fileList.isEmpty()){
-                openAllFiles(fileList, history);
+                recallFiles(fileList, history.getFocusIndex());
+                return;
             }
         }
+        StartupTrace.get().skip(Phase.RECALL);
+    }
+
+    /**
+     * Opens the focused file of a recalled session first. All other files are
+     * opened when idle, without blocking user input in the meantime
+     */
+    private void recallFiles(final List<EditorFile> files, final int focusIndex){
+        final int focus = ((focusIndex >= 0 && focusIndex < files.size()) ? focusIndex : 0);
+        final List<EditorFile> before = new ArrayList<>(files.subList(0, focus));
+        final List<EditorFile> after = new ArrayList<>(files.subList(focus+1, files.size()));
+        pendingRecall.addAll(before);
+        pendingRecall.addAll(after);
+        openAllFiles(Collections.singletonList(files.get(focus)), -1, true, () -> {
+            StartupTrace.get().mark(Phase.RECALL);
+            if(!before.isEmpty()){
+                runWhenIdle(() -> openAllFiles(before, 0, false,
+                        () -> pendingRecall.removeAll(before)));
+            }
+            if(!after.isEmpty()){
+                runWhenIdle(() -> openAllFiles(after, -1, false,
+                        () -> pendingRecall.removeAll(after)));
+            }
+        });
     }
 
     private void openAllFiles(final List<EditorFile> files){
-        openAllFiles(files, null);
+        openAllFiles(files, -1, true, null);
     }
 
-    private void openAllFiles(final List<EditorFile> files, final History history){
-        setLoadingIndication(true);
+    /**
+     * Opens the specified files in new tabs
+     * 
+     * @param files The files to open
+     * @param position The index at which the first tab is inserted,
+     *                 or -1 to append all tabs
+     * @param foreground Indicates whether user input is blocked while the files are
+     *                   read and whether the last opened tab is selected afterwards
+     * @param onOpened The callback to run after all files were opened. May be null
+     */
+    private void openAllFiles(final List<EditorFile> files, final int position,
+            final boolean foreground, final Runnable onOpened){
+
+        if(foreground){
+            setLoadingIndication(true);
+        }
         labelHint.setVisible(false);
         Files.readAllFiles(files, (tabs) -> {
+            int index = ((position >= 0) ? position : mainTabs.getTabs().size());
             for(int i=0; i<tabs.size(); ++i){
                 final FileTab tab = tabs.get(i);
                 final EditorFile file = files.get(i);
@@ -492,7 +634,11 @@ public class FrameController extends Controller implements ViewListener {
                     tab.setText(file.getName());
                     tab.getView().addEditListener(this);
                     tab.setOnCloseRequest((e) -> setTabCloseBehaviour(e, tab));
-                    mainTabs.getTabs().add(tab);
+                    index = Math.min(index, mainTabs.getTabs().size());
+                    mainTabs.getTabs().add(index++, tab);
+                    if(!foreground){
+                        continue;
+                    }
                     if(df.columns() > 0){
                         setEditMenuItemsDisabled(false);
                         setStatsMenuItemsDisabled(df);
@@ -503,18 +649,17 @@ public class FrameController extends Controller implements ViewListener {
                     }
                 }
             }
-            setLoadingIndication(false);
-            if(tabs.isEmpty()){//no file could be recovered
+            if(mainTabs.getTabs().isEmpty()){//no file could be opened
                 labelHint.setVisible(true);
             }
-            //when opening from a history use the saved index
-            //otherwise use the last index
-            if(history != null){
-                final int i = history.getFocusIndex();
-                mainTabs.getSelectionModel().select(
-                        ((i>=0 && i<mainTabs.getTabs().size()) ? i : 0));
-            }else{
-                mainTabs.getSelectionModel().selectLast();
+            if(foreground){
+                setLoadingIndication(false);
+                if(index > 0){
+                    mainTabs.getSelectionModel().select(index-1);
+                }
+            }
+            if(onOpened != null){
+                onOpened.run();
             }
         });
     }
@@ -597,6 +742,8 @@ public class FrameController extends Controller implements ViewListener {
         menuAddCol.setDisable(value);
         menuSort.setDisable(value);
         menuFilter.setDisable(value);
+        menuUpdateValues.setDisable(value);
+        menuFind.setDisable(value);
         menuConvert.setDisable(value);
         //also handle saveAs and export menu item here
         menuSaveAs.setDisable(value);
@@ -608,6 +755,8 @@ public class FrameController extends Controller implements ViewListener {
         menuLineChart.setDisable(value);
         menuAreaChart.setDisable(value);
         menuBarChart.setDisable(value);
+        menuHistogram.setDisable(value);
+        menuScatterChart.setDisable(value);
     }
 
     private void setStatsMenuItemsDisabled(final DataFrame df){
@@ -622,6 +771,8 @@ public class FrameController extends Controller implements ViewListener {
         menuLineChart.setDisable(!(rowsOk && colsOk && atLeastTwoCols));
         menuAreaChart.setDisable(!(rowsOk && colsOk && atLeastTwoCols));
         menuBarChart.setDisable(!(rowsOk && colsOk && atLeastTwoCols));
+        menuHistogram.setDisable(!(rowsOk && colsOk));
+        menuScatterChart.setDisable(!(rowsOk && colsOk && atLeastTwoCols));
     }
 
     private void setLoadingIndication(final boolean value){
@@ -633,6 +784,98 @@ public class FrameController extends Controller implements ViewListener {
         return (FileTab)mainTabs.getSelectionModel().getSelectedItem();
     }
 
+    /**
+     * Must be called after the structure of the DataFrame of the specified tab
+     * has changed. Changes of the memory footprint must have been reported to the
+     * Footprint of the tab already, or the Footprint must have been invalidated
+     * 
+     * @param tab The changed <code>FileTab</code>
+     */
+    private void structureChanged(final FileTab tab){
+        //row indices of revisions and search results are no longer valid
+        tab.clearRevisions();
+        menuUndo.setDisable(true);
+        ColumnVersions.structureChanged(tab.getDataFrame());
+        footprintChanged(tab);
+        if(isFindPanelShown() && (findPanel.getTab() == tab)){
+            findPanel.attachTo(tab);
+        }
+    }
+
+    private void removeRow(final FileTab tab, final int row){
+        final DataFrame df = tab.getDataFrame();
+        if(tab.hasFootprint()){
+            tab.getFootprint().rowRemoving(df, row);
+        }
+        df.removeRow(row);
+        structureChanged(tab);
+    }
+
+    private void footprintChanged(final FileTab tab){
+        if(!tab.hasFootprint()){
+            recomputeFootprint(tab);
+            return;
+        }
+        memory.update(tab);
+        if(tab == currentlySelectedTab()){
+            labelMemory.setText(Footprint.format(tab.getFootprint().total()));
+        }
+    }
+
+    private void recomputeFootprint(final FileTab tab){
+        if(tab == currentlySelectedTab()){
+            labelMemory.setText(" ");
+        }
+        if(tab.isSpilled()){
+            return;
+        }
+        if(pendingFootprints.containsKey(tab)){
+            //the DataFrame changed while it is being scanned
+            pendingFootprints.put(tab, true);
+            return;
+        }
+        pendingFootprints.put(tab, false);
+        final DataFrame df = tab.getDataFrame();
+        final Task<Footprint> task = new Task<Footprint>(){
+            @Override
+            protected Footprint call() throws Exception{
+                return Footprint.of(df);
+            }
+        };
+        task.setOnSucceeded((e) -> {
+            final boolean rescan = pendingFootprints.remove(tab);
+            //a tab might have been spilled after the scan was started
+            if(!rescan && !tab.hasFootprint()
+                    && ((tab.getDataFrame() == df) || tab.isSpilled())){
+
+                tab.setFootprint(task.getValue());
+            }
+            footprintChanged(tab);
+        });
+        task.setOnFailed((e) -> {
+            //a failed scan is only repeated if the DataFrame changed during the scan
+            if(pendingFootprints.remove(tab)){
+                footprintChanged(tab);
+            }else{
+                ExceptionHandler.handle(task.getException());
+            }
+        });
+        task.setOnCancelled((e) -> pendingFootprints.remove(tab));
+        Scheduler.submit(Scheduler.Pool.CPU, Scheduler.Priority.BACKGROUND,
+                tab.getCancellationToken(), task);
+    }
+
+    private boolean isFindPanelShown(){
+        return ((findPanel != null) && (mainBorderPane.getRight() == findPanel.getNode()));
+    }
+
+    protected void closeFindPanel(){
+        if(isFindPanelShown()){
+            findPanel.reset();
+            mainBorderPane.setRight(null);
+        }
+    }
+
     private DataFrame convert(final DataFrame df){
         df.flush();
         return DataFrames.sanitize(DataFrame.convert(df, (df.isNullable() 
@@ -654,6 +897,7 @@ public class FrameController extends Controller implements ViewListener {
         dialog.setOnRename((newName) -> {
             final int index = view.getDataFrame().getColumnIndex(event.getColumnName());
             view.getDataFrame().setColumnName(index, newName);
+            structureChanged(tab);
             final int OFFSET = (config.booleanOf(GLOBAL, CONFIG_SHOW_INDEX_COL) ? 1 : 0);
             view.getColumns().get(index+OFFSET).setText(newName);
             tab.setSaved(false);
@@ -667,30 +911,35 @@ public class FrameController extends Controller implements ViewListener {
         final DataFrame df = view.getDataFrame();
         if(df.rows() > 1){
             setSaveButtonsDisabled(false);
-            currentlySelectedTab().setSaved(false);
+            final FileTab tab = currentlySelectedTab();
+            tab.setSaved(false);
             if(df.rows() >= Const.DF_PARALLELISM_THRESHOLD){
-                parallelSortColumn(view, colummn);
+                parallelSortColumn(tab, view, colummn);
             }else{
                 //sort directly on FX application thread
                 view.getDataFrame().sortBy(colummn);
+                structureChanged(tab);
                 view.reload();
             }
         }
     }
 
-    private void parallelSortColumn(final DataFrameView view, final String colummn){
+    private void parallelSortColumn(final FileTab tab, final DataFrameView view,
+            final String colummn){
+
         setLoadingIndication(true);
-        new Thread(new Task<Void>(){
+        Scheduler.submit(Scheduler.Pool.CPU, Scheduler.Priority.INTERACTIVE, new Task<Void>(){
             @Override
             protected Void call() throws Exception{
                 view.getDataFrame().sortBy(colummn);
                 Platform.runLater(() -> {
+                    structureChanged(tab);
                     view.reload();
                     setLoadingIndication(false);
                 });
                 return null;
             }
-        }).start();
+        });
     }
 
     private void deleteColumn(final ContextMenuEvent event){
@@ -707,8 +956,14 @@ public class FrameController extends Controller implements ViewListener {
         dialog.setOnConfirm(() -> {
             dialog.close();
             setSaveButtonsDisabled(false);
-            currentlySelectedTab().setSaved(false);
-            view.getDataFrame().removeColumn(event.getColumnName());
+            final FileTab tab = currentlySelectedTab();
+            tab.setSaved(false);
+            final int index = view.getDataFrame().getColumnIndex(event.getColumnName());
+            view.getDataFrame().removeColumn(index);
+            if(tab.hasFootprint()){
+                tab.getFootprint().columnRemoved(index);
+            }
+            structureChanged(tab);
             view.reload();
             setStatsMenuItemsDisabled(view.getDataFrame());
             labelCols.setText(String.format("%,d", view.getDataFrame().columns()));
@@ -717,8 +972,45 @@ public class FrameController extends Controller implements ViewListener {
     }
 
     private void showColumnStats(final ContextMenuEvent event){
+        final FileTab tab = currentlySelectedTab();
         final DataFrame df = event.getView().getDataFrame();
         final String name = event.getColumnName();
+        final File source = sourceFileOf(tab);
+        final String artifact = "stats:" + name;
+        setLoadingIndication(true);
+        //the disk cache and the computation both might block
+        final Task<ColumnStats> task = new Task<ColumnStats>(){
+            @Override
+            protected ColumnStats call() throws Exception{
+                ColumnStats stats = ((source != null)
+                        ? Cache.disk().get(source, artifact, ColumnStats.CODEC)
+                        : null);
+
+                if(stats == null){
+                    stats = computeColumnStats(df, name);
+                    if(source != null){
+                        Cache.disk().put(source, artifact, stats, ColumnStats.CODEC);
+                    }
+                }
+                return stats;
+            }
+        };
+        task.setOnSucceeded((e) -> {
+            setLoadingIndication(false);
+            final StatsDialog dialog = new StatsDialog(rootPane, task.getValue());
+            dialog.setBackgroundEffect(mainBorderPane, Dialogs.getBackgroundBlur());
+            dialog.show();
+        });
+        task.setOnFailed((e) -> {
+            setLoadingIndication(false);
+            ExceptionHandler.showDialog(task.getException());
+        });
+        task.setOnCancelled((e) -> setLoadingIndication(false));
+        Scheduler.submit(Scheduler.Pool.IO, Scheduler.Priority.INTERACTIVE,
+                tab.getCancellationToken(), task);
+    }
+
+    private ColumnStats computeColumnStats(final DataFrame df, final String name){
         final ColumnStats stats = new ColumnStats();
         final Column col = df.getColumn(name);
         final byte type = col.typeCode();
@@ -733,9 +1025,33 @@ public class FrameController extends Controller implements ViewListener {
         stats.setMaximum(df.maximum(name));
         stats.setSum(df.sum(name));
         stats.setAverage(df.average(name));
+        return stats;
+    }
+
+    private void showColumnDetails(final ContextMenuEvent event){
+        final FileTab tab = currentlySelectedTab();
+        final DataFrame df = tab.getDataFrame();
+        final int index = df.getColumnIndex(event.getColumnName());
+        final Column col = df.getColumn(index);
+        String message = String.format("Type: %s%nEntries: %,d",
+                col.getClass().getSimpleName(), df.rows());
+
+        if(tab.hasFootprint()){
+            final Footprint footprint = tab.getFootprint();
+            final long bytes = footprint.ofColumn(index);
+            final double share = ((footprint.total() > 0) 
+                    ? (100.0 * bytes / footprint.total()) 
+                    : 0.0);
+
+            message += String.format("%nMemory: %s (%.1f%% of DataFrame)",
+                    Footprint.format(bytes), share);
+        }
+
+        final ConfirmationDialog dialog = new ConfirmationDialog(rootPane, 
+                "Details for " + event.getColumnName(), message, "Close");
 
-        final StatsDialog dialog = new StatsDialog(rootPane, stats);
         dialog.setBackgroundEffect(mainBorderPane, Dialogs.getBackgroundBlur());
+        dialog.setOnConfirm(() -> dialog.close());
         dialog.show();
     }
 
@@ -748,18 +1064,104 @@ public class FrameController extends Controller implements ViewListener {
                     df.getColumn(event.getColumnName()),
                     df.rows(), event.getConversionTarget());
 
-            df.setColumn(df.getColumnIndex(event.getColumnName()), col);
+            final int index = df.getColumnIndex(event.getColumnName());
+            df.setColumn(index, col);
+            if(tab.hasFootprint()){
+                tab.getFootprint().columnReplaced(df, index);
+            }
         }catch(ConversionException ex){
             showSnackbar(ex.getMessage() + " at index " + ex.getRowIndex() 
             + " (" + ex.getFormattedOffendingValue() + ")");
 
             return;
         }
+        structureChanged(tab);
         tab.getView().reload();
         tab.setSaved(false);
         setSaveButtonsDisabled(false);
     }
 
+    private BulkUpdate bulkUpdateOf(final Column col, final String column,
+            final char operator, final String value){
+
+        final Object operand = ConversionPack.columnConversion(col)
+                .getConverter().fromString(value);
+
+        if(operator == '='){
+            if((operand == null) && !col.isNullable()){
+                throw new IllegalArgumentException("Column " + column
+                        + " does not support null values");
+            }
+            return BulkUpdate.set(column, operand);
+        }
+        if(operand == null){
+            throw new IllegalArgumentException("Please specify a value");
+        }
+        final boolean isIntegral = !((operand instanceof Float) || (operand instanceof Double));
+        if((operator == '/') && isIntegral && (((Number)operand).longValue() == 0)){
+            throw new IllegalArgumentException("Division by zero");
+        }
+        return BulkUpdate.set(column, BulkUpdate.arithmetic(operator, (Number)operand));
+    }
+
+    protected void applyBulkOperation(final FileTab tab, final Callable<Revision> operation){
+        final DataFrame df = tab.getDataFrame();
+        if(df.rows() >= Const.DF_PARALLELISM_THRESHOLD){
+            setLoadingIndication(true);
+            final Task<Revision> task = new Task<Revision>(){
+                @Override
+                protected Revision call() throws Exception{
+                    return operation.call();
+                }
+            };
+            task.setOnSucceeded((e) -> {
+                setLoadingIndication(false);
+                bulkUpdateApplied(tab, task.getValue());
+            });
+            task.setOnFailed((e) -> {
+                setLoadingIndication(false);
+                if(task.getException() instanceof IllegalArgumentException){
+                    showSnackbar(task.getException().getMessage());
+                }else{
+                    ExceptionHandler.showDialog(task.getException());
+                }
+            });
+            Scheduler.submit(Scheduler.Pool.CPU, Scheduler.Priority.INTERACTIVE, task);
+        }else{
+            try{
+                bulkUpdateApplied(tab, operation.call());
+            }catch(IllegalArgumentException ex){
+                showSnackbar(ex.getMessage());
+            }catch(Exception ex){
+                ExceptionHandler.showDialog(ex);
+            }
+        }
+    }
+
+    protected void bulkUpdateApplied(final FileTab tab, final Revision revision){
+        if(revision.size() == 0){
+            showSnackbar("Nothing found that matches your condition");
+            return;
+        }
+        tab.pushRevision(revision);
+        if(tab.hasFootprint()){
+            tab.getFootprint().revisionApplied(tab.getDataFrame(), revision);
+        }
+        footprintChanged(tab);
+        menuUndo.setDisable(false);
+        notifyBulkEdit(tab, revision);
+        showSnackbar(String.format("Updated %,d entries", revision.size()));
+    }
+
+    private void notifyBulkEdit(final FileTab tab, final Revision revision){
+        //notifies this controller only once per changed column
+        final DataFrame df = tab.getDataFrame();
+        for(final String column : new LinkedHashSet<>(Arrays.asList(revision.getColumnNames()))){
+            ColumnVersions.columnChanged(df, df.getColumnIndex(column));
+            tab.getView().bulkEdited(df.getColumnIndex(column), revision.size(column));
+        }
+    }
+
     private void saveTab(final FileTab tab){
         saveTab(tab, false);
     }
@@ -778,7 +1180,7 @@ public class FrameController extends Controller implements ViewListener {
         }
         setLoadingIndication(true);
         final EditorFile newFile = file;
-        Files.persistFile(file, tab.getDataFrame()).handleAsync((result, ex) -> {
+        Files.persistTab(file, tab).handleAsync((result, ex) -> {
             Platform.runLater(() -> {
                 setLoadingIndication(false);
                 if(ex == null){
@@ -831,7 +1233,7 @@ public class FrameController extends Controller implements ViewListener {
                 }
                 tab.setFile(file);
             }
-            Files.persistFile(file, tab.getDataFrame()).handleAsync((result, ex) -> {
+            Files.persistTab(file, tab).handleAsync((result, ex) -> {
                 tab.setSaved(true);
                 exitCount();
                 if(exitLatch == 0){
@@ -910,9 +1312,24 @@ public class FrameController extends Controller implements ViewListener {
         final ArgumentBundle bundle = new ArgumentBundle();
         bundle.addArgument(Const.BUNDLE_KEY_EDITORFILE, tab.getFile());
         bundle.addArgument(Const.BUNDLE_KEY_DATAFRAME, tab.getDataFrame());
+        bundle.addArgument(Const.BUNDLE_KEY_SOURCE_FILE, sourceFileOf(tab));
         return bundle;
     }
 
+    /**
+     * Gets the file the DataFrame of the specified tab was read from or last
+     * saved to, as long as the DataFrame has not been changed since then.
+     * Artifacts computed from such a DataFrame can be persisted for that file
+     * 
+     * @param tab The <code>FileTab</code> to get the source file for
+     * @return The source file of the specified tab, or null if the tab has
+     *         unsaved changes or does not have a file
+     */
+    private File sourceFileOf(final FileTab tab){
+        final EditorFile file = tab.getFile();
+        return ((tab.isSaved() && (file != null) && file.isFile()) ? file : null);
+    }
+
     @FXML
     private void onFileNew(ActionEvent event){
         final CreateDialog dialog = new CreateDialog(rootPane);
@@ -984,7 +1401,7 @@ public class FrameController extends Controller implements ViewListener {
         setLoadingIndication(true);
 
         final EditorFile newFile = file;
-        Files.persistFile(file, tab.getDataFrame()).handleAsync((result, ex) -> {
+        Files.persistTab(file, tab).handleAsync((result, ex) -> {
             Platform.runLater(() -> {
                 setLoadingIndication(false);
                 if(ex == null){
@@ -1053,7 +1470,7 @@ public class FrameController extends Controller implements ViewListener {
             dialog.close();
             file.setCSVSeparator(separator);
             setLoadingIndication(true);
-            Files.persistFile(file, tab.getDataFrame()).handle((result, ex) -> {
+            Files.persistTab(file, tab).handle((result, ex) -> {
                 Platform.runLater(() -> {
                     setLoadingIndication(false);
                     if(ex != null){
@@ -1087,6 +1504,11 @@ public class FrameController extends Controller implements ViewListener {
                 final FileTab tab = currentlySelectedTab();
                 final int rows = tab.getDataFrame().rows();
                 labelRows.setText(String.format("%,d", rows));
+                if(tab.hasFootprint()){
+                    tab.getFootprint().rowAdded(tab.getDataFrame());
+                }
+                ColumnVersions.structureChanged(tab.getDataFrame());
+                footprintChanged(tab);
                 tab.setSaved(false);
                 setSaveButtonsDisabled(false);
                 setStatsMenuItemsDisabled(tab.getDataFrame());
@@ -1113,6 +1535,11 @@ public class FrameController extends Controller implements ViewListener {
         dialog.setBackgroundEffect(mainBorderPane, Dialogs.getBackgroundBlur());
         dialog.setAddListener((name, col) -> {
             df.addColumn(name, col);
+            ColumnVersions.columnChanged(df, df.columns() - 1);
+            if(tab.hasFootprint()){
+                tab.getFootprint().columnAdded(df, df.columns() - 1);
+            }
+            footprintChanged(tab);
             view.reload();
             dialog.close();
             labelCols.setText(String.format("%,d", df.columns()));
@@ -1170,6 +1597,7 @@ public class FrameController extends Controller implements ViewListener {
                     mainTabs.getSelectionModel().select(newTab);
                 }else{
                     tab.replaceWith(filtered);
+                    structureChanged(tab);
                     tab.setSaved(false);
                     setSaveButtonsDisabled(false);
                     labelRows.setText(String.format("%,d", filtered.rows()));
@@ -1180,6 +1608,71 @@ public class FrameController extends Controller implements ViewListener {
         dialog.show();
     }
 
+    @FXML
+    private void onEditUpdateValues(ActionEvent event){
+        if(sliderIsUp){
+            slide();
+        }
+        final FileTab tab = currentlySelectedTab();
+        final DataFrame df = tab.getDataFrame();
+        final UpdateValuesDialog dialog = new UpdateValuesDialog(rootPane, df);
+        dialog.setBackgroundEffect(mainBorderPane, Dialogs.getBackgroundBlur());
+        dialog.setOnUpdate((column, operator, value, conditionColumn, regex) -> {
+            final BulkUpdate update;
+            try{
+                update = bulkUpdateOf(df.getColumn(column), column, operator, value);
+            }catch(NumberFormatException ex){
+                showSnackbar("Invalid value for column " + column);
+                return;
+            }catch(IllegalArgumentException ex){
+                showSnackbar(ex.getMessage());
+                return;
+            }
+            if(conditionColumn != null){
+                update.where(conditionColumn, regex);
+            }
+            dialog.close();
+            applyBulkOperation(tab, () -> update.applyTo(df));
+        });
+        dialog.show();
+    }
+
+    @FXML
+    private void onEditFind(ActionEvent event){
+        final FileTab tab = currentlySelectedTab();
+        if(tab == null){
+            return;
+        }
+        if(isFindPanelShown()){
+            closeFindPanel();
+            return;
+        }
+        if(findPanel == null){
+            this.findPanel = new FindPanel(this);
+        }
+        findPanel.attachTo(tab);
+        mainBorderPane.setRight(findPanel.getNode());
+        findPanel.requestFocus();
+    }
+
+    @FXML
+    private void onEditUndo(ActionEvent event){
+        final FileTab tab = currentlySelectedTab();
+        if(tab == null){
+            return;
+        }
+        final Revision revision = tab.popRevision();
+        if(revision != null){
+            if(tab.hasFootprint()){
+                tab.getFootprint().revisionReverting(tab.getDataFrame(), revision);
+            }
+            revision.revert(tab.getDataFrame());
+            footprintChanged(tab);
+            notifyBulkEdit(tab, revision);
+        }
+        menuUndo.setDisable(!tab.hasRevisions());
+    }
+
     @FXML
     private void onEditConvert(ActionEvent event){
         if(sliderIsUp){
@@ -1197,6 +1690,7 @@ public class FrameController extends Controller implements ViewListener {
             dialog.close();
             final DataFrame converted = convert(df);
             tab.replaceWith(converted);
+            structureChanged(tab);
             tab.setSaved(false);
             setSaveButtonsDisabled(false);
             labelType.setText(converted.getClass().getSimpleName());
@@ -1273,6 +1767,16 @@ public class FrameController extends Controller implements ViewListener {
         startActivity(Activity.BAR_CHART, argumentsFrom(currentlySelectedTab()));
     }
 
+    @FXML
+    private void onPlotHistogram(ActionEvent event){
+        startActivity(Activity.HISTOGRAM, argumentsFrom(currentlySelectedTab()));
+    }
+
+    @FXML
+    private void onPlotScatterChart(ActionEvent event){
+        startActivity(Activity.SCATTER_CHART, argumentsFrom(currentlySelectedTab()));
+    }
+
     @FXML
     private void onFeedback(ActionEvent event){
         startActivity(Activity.FEEDBACK);
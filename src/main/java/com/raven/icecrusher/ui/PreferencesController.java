@@ -22,6 +22,7 @@ import static com.raven.icecrusher.util.EditorConfiguration.Section.*;
 import com.jfoenix.controls.JFXComboBox;
 import com.jfoenix.controls.JFXToggleButton;
 import com.raven.icecrusher.application.Controller;
+import com.raven.icecrusher.application.Scheduler;
 import com.raven.icecrusher.io.update.Updater;
 import com.raven.icecrusher.util.Const;
 import com.raven.icecrusher.util.EditorConfiguration;
@@ -43,6 +44,13 @@ public class PreferencesController extends Controller {
     protected static final ObservableList<String> OPTIONS_THEME = 
             FXCollections.observableArrayList("Dark Theme", "Light Theme");
 
+    /**
+     * All thread count options shown in the performance combo boxes.
+     * The first option selects the default number of threads
+     */
+    protected static final ObservableList<String> OPTIONS_THREADS = 
+            FXCollections.observableArrayList("Automatic", "1", "2", "4", "8", "16");
+
     @FXML
     private JFXToggleButton prefRememberTabs;
 
@@ -61,6 +69,12 @@ public class PreferencesController extends Controller {
     @FXML
     private JFXComboBox<String> prefTheme;
 
+    @FXML
+    private JFXComboBox<String> prefIoThreads;
+
+    @FXML
+    private JFXComboBox<String> prefCpuThreads;
+
     private EditorConfiguration config;
     private boolean isDirty;
     private boolean reloadRequired;
@@ -88,6 +102,15 @@ public class PreferencesController extends Controller {
         return false;
     }
 
+    @Override
+    public boolean onRecycle(){
+        initialize();
+        isDirty = false;
+        reloadRequired = false;
+        themeChanged = false;
+        return true;
+    }
+
     @FXML
     public void initialize(){
         prefRememberTabs.setSelected(config.booleanOf(GLOBAL, CONFIG_RECALL_TABS));
@@ -101,6 +124,10 @@ public class PreferencesController extends Controller {
                         : OPTIONS_THEME.get(1));
 
         currentThemeDark = config.booleanOf(GLOBAL, CONFIG_THEME_VIEW_DARK);
+        prefIoThreads.setItems(OPTIONS_THREADS);
+        prefCpuThreads.setItems(OPTIONS_THREADS);
+        selectThreadOption(prefIoThreads, config.integerOf(GLOBAL, CONFIG_SCHEDULER_IO_THREADS));
+        selectThreadOption(prefCpuThreads, config.integerOf(GLOBAL, CONFIG_SCHEDULER_CPU_THREADS));
     }
 
     @FXML
@@ -117,7 +144,11 @@ public class PreferencesController extends Controller {
     @FXML
     private void onPreferenceChanged(ActionEvent event){
         if((event.getSource() instanceof JFXComboBox)){
-            themePreference();
+            if(event.getSource() == prefTheme){
+                themePreference();
+            }else{
+                threadPreference();
+            }
             return;
         }
         final JFXToggleButton btn = (JFXToggleButton) event.getSource();
@@ -155,4 +186,31 @@ public class PreferencesController extends Controller {
         isDirty = true;
     }
 
+    private void threadPreference(){
+        if(prefIoThreads.getSelectionModel().isEmpty()
+                || prefCpuThreads.getSelectionModel().isEmpty()){
+
+            return;//still initializing
+        }
+        final int ioThreads = threadsOf(prefIoThreads);
+        final int cpuThreads = threadsOf(prefCpuThreads);
+        config.set(GLOBAL, CONFIG_SCHEDULER_IO_THREADS, ioThreads);
+        config.set(GLOBAL, CONFIG_SCHEDULER_CPU_THREADS, cpuThreads);
+        Scheduler.configure(ioThreads, cpuThreads);
+        isDirty = true;
+    }
+
+    private static void selectThreadOption(final JFXComboBox<String> comboBox,
+            final int threads){
+
+        final int index = OPTIONS_THREADS.indexOf(String.valueOf(threads));
+        comboBox.getSelectionModel().select((index > 0) ? index : 0);
+    }
+
+    private static int threadsOf(final JFXComboBox<String> comboBox){
+        final int index = comboBox.getSelectionModel().getSelectedIndex();
+        //zero selects the default number of threads
+        return ((index > 0) ? Integer.valueOf(OPTIONS_THREADS.get(index)) : 0);
+    }
+
 }
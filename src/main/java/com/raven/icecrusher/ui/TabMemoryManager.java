@@ -0,0 +1,277 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.icecrusher.ui;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import com.raven.common.io.DataFrameSerializer;
+import com.raven.common.io.SerializationException;
+import com.raven.common.struct.DataFrame;
+import com.raven.icecrusher.application.Scheduler;
+import com.raven.icecrusher.util.Const;
+import com.raven.icecrusher.util.ExceptionHandler;
+
+import javafx.concurrent.Task;
+
+/**
+ * Keeps the estimated memory footprint of the DataFrames of all open tabs within
+ * a configurable budget. When the budget is exceeded, the DataFrames of the least
+ * recently used inactive tabs are spilled to temporary files by a background thread.
+ * A spilled tab is restored when it gets selected again.<br>
+ * Since spilling serializes the current state of a DataFrame, unsaved changes are
+ * retained. The saved state and the undo history of a tab are not affected.
+ *
+ * <p>All methods of this class must be called by the FX application thread.
+ *
+ */
+public class TabMemoryManager {
+
+    private final long budget;
+    //uses access order, i.e. the least recently used tab is the first entry
+    private final LinkedHashMap<FileTab, Long> footprints;
+    private final Set<FileTab> pending;
+
+    /**
+     * Constructs a new <code>TabMemoryManager</code> with the specified budget
+     * 
+     * @param budget The maximum number of bytes all DataFrames held in
+     *               memory should occupy. A value of zero or less disables spilling
+     */
+    public TabMemoryManager(final long budget){
+        this.budget = budget;
+        this.footprints = new LinkedHashMap<>(16, 0.75f, true);
+        this.pending = new HashSet<>();
+    }
+
+    /**
+     * Starts tracking the specified tab. A tab whose Footprint is not available
+     * yet is tracked without an estimate until {@link #update(FileTab)} is called
+     * 
+     * @param tab The <code>FileTab</code> to track
+     */
+    public void register(final FileTab tab){
+        footprints.put(tab, (tab.hasFootprint() ? tab.getFootprint().total() : 0L));
+    }
+
+    /**
+     * Stops tracking the specified tab and deletes its spill file, if any
+     * 
+     * @param tab The <code>FileTab</code> which was closed
+     */
+    public void unregister(final FileTab tab){
+        footprints.remove(tab);
+        pending.remove(tab);
+        tab.discardSpillFile();
+    }
+
+    /**
+     * Updates the estimated footprint of the specified tab after its DataFrame
+     * has changed or its Footprint has been computed. The Footprint is never
+     * computed by this method, i.e. tabs without a Footprint are not updated
+     * 
+     * @param tab The changed <code>FileTab</code>
+     */
+    public void update(final FileTab tab){
+        if(footprints.containsKey(tab) && !tab.isSpilled() && tab.hasFootprint()){
+            footprints.put(tab, tab.getFootprint().total());
+        }
+    }
+
+    /**
+     * Gets the estimated number of bytes occupied by the DataFrames of
+     * all tracked tabs which are currently held in memory
+     * 
+     * @return The estimated footprint of all tabs in bytes
+     */
+    public long getTotalFootprint(){
+        long total = 0;
+        for(final Map.Entry<FileTab, Long> entry : footprints.entrySet()){
+            if(!entry.getKey().isSpilled()){
+                total += entry.getValue();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Marks the specified tab as the most recently used tab and spills other tabs
+     * if the budget is exceeded. If the specified tab is spilled, it is restored by a
+     * background thread first and the specified callback is run afterwards
+     * 
+     * @param tab The selected <code>FileTab</code>
+     * @param onRestored The callback to run on the FX application thread after the
+     *                   specified tab was restored. Is not run if the tab is not spilled
+     * @return True if the specified tab is being restored, false if it
+     *         is held in memory
+     */
+    public boolean select(final FileTab tab, final Runnable onRestored){
+        //a spill in progress is discarded when it completes
+        pending.remove(tab);
+        footprints.get(tab);
+        if(tab.isSpilled()){
+            restore(tab, onRestored);
+            return true;
+        }
+        trim(tab);
+        return false;
+    }
+
+    private void restore(final FileTab tab, final Runnable onRestored){
+        final File file = tab.getSpillFile();
+        final Task<DataFrame> task = new Task<DataFrame>(){
+            @Override
+            protected DataFrame call() throws Exception{
+                return readSpillFile(file);
+            }
+        };
+        task.setOnSucceeded((e) -> {
+            if(tab.getSpillFile() == file){
+                tab.restore(task.getValue());
+                update(tab);
+                trim(tab);
+            }
+            onRestored.run();
+        });
+        task.setOnFailed((e) -> {
+            ExceptionHandler.showDialog(task.getException());
+            onRestored.run();
+        });
+        task.setOnCancelled((e) -> onRestored.run());
+        Scheduler.submit(Scheduler.Pool.IO, Scheduler.Priority.INTERACTIVE,
+                tab.getCancellationToken(), task);
+    }
+
+    private void trim(final FileTab active){
+        if(budget <= 0){
+            return;
+        }
+        final Map<FileTab, Long> held = new LinkedHashMap<>();
+        for(final Map.Entry<FileTab, Long> entry : footprints.entrySet()){
+            if(!entry.getKey().isSpilled()){
+                held.put(entry.getKey(), entry.getValue());
+            }
+        }
+        final List<FileTab> victims = victims(held, budget,
+                (tab) -> (tab != active) && !pending.contains(tab));
+
+        for(final FileTab tab : victims){
+            spill(tab);
+        }
+    }
+
+    /**
+     * Selects the least recently used entries which must be spilled in order
+     * for the total footprint of all entries held in memory to not exceed
+     * the specified budget
+     * 
+     * @param <T> The type of the entries
+     * @param footprints The footprints of all entries held in memory, in the
+     *                   order of their last use, the least recently used first
+     * @param budget The maximum number of bytes all entries should occupy
+     * @param eligible Indicates whether an entry may be spilled
+     * @return The entries to spill. Is empty if the budget is not exceeded or
+     *         no eligible entries are left
+     */
+    static <T> List<T> victims(final Map<T, Long> footprints, final long budget,
+            final Predicate<T> eligible){
+
+        long total = 0;
+        for(final long bytes : footprints.values()){
+            total += bytes;
+        }
+        final List<T> victims = new ArrayList<>();
+        for(final Map.Entry<T, Long> entry : footprints.entrySet()){
+            if(total <= budget){
+                break;
+            }
+            if(eligible.test(entry.getKey())){
+                victims.add(entry.getKey());
+                total -= entry.getValue();
+            }
+        }
+        return victims;
+    }
+
+    /**
+     * Writes the specified DataFrame to a new temporary spill file
+     * 
+     * @param df The <code>DataFrame</code> to spill
+     * @return The spill file holding the specified DataFrame
+     * @throws IOException If the DataFrame could not be written
+     */
+    static File writeSpillFile(final DataFrame df) throws IOException{
+        final File file = File.createTempFile(
+                Const.APPLICATION_NAME.toLowerCase() + "_", 
+                DataFrameSerializer.DF_FILE_EXTENSION);
+
+        file.deleteOnExit();
+        try{
+            DataFrameSerializer.writeFile(file, df);
+        }catch(IOException ex){
+            file.delete();
+            throw ex;
+        }
+        return file;
+    }
+
+    /**
+     * Reads the DataFrame held by the specified spill file
+     * 
+     * @param file The spill file to read
+     * @return The <code>DataFrame</code> read from the specified file
+     * @throws IOException If the spill file could not be read
+     * @throws SerializationException If the spill file is corrupt
+     */
+    static DataFrame readSpillFile(final File file)
+            throws IOException, SerializationException{
+
+        return DataFrameSerializer.readFile(file);
+    }
+
+    private void spill(final FileTab tab){
+        final DataFrame df = tab.getDataFrame();
+        pending.add(tab);
+        final Task<File> task = new Task<File>(){
+            @Override
+            protected File call() throws Exception{
+                return writeSpillFile(df);
+            }
+        };
+        task.setOnSucceeded((e) -> {
+            //the tab might have been selected or closed in the meantime
+            if(pending.remove(tab) && (tab.getDataFrame() == df)){
+                tab.spillTo(task.getValue());
+            }else{
+                task.getValue().delete();
+            }
+        });
+        task.setOnFailed((e) -> {
+            pending.remove(tab);
+            ExceptionHandler.handle(task.getException());
+        });
+        Scheduler.submit(Scheduler.Pool.IO, Scheduler.Priority.BACKGROUND, task);
+    }
+
+}
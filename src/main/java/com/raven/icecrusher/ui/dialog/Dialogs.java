@@ -138,17 +138,34 @@ public class Dialogs {
 
     /**
      * Shows a native export file dialog (for plots) where the user can choose a file to save 
-     * the created PNG plot image to
+     * the created PNG plot image or SVG plot graphic to. If the chosen file has no such
+     * extension, the extension of the selected filter is added
      * 
      * @param stage The owner stage of the displayed file dialog
      * @return A <code>File</code> object representing the file chosen by the user
      */
     public static File showPlotExportDialog(final Stage stage){
         final FileChooser fileChooser = new FileChooser();
-        fileChooser.setTitle("Export plot to PNG file");
+        fileChooser.setTitle("Export plot");
         fileChooser.setInitialDirectory(initDir());
-        final File file = fileChooser.showSaveDialog(stage);
-        if((file != null) && !config.booleanOf(GLOBAL, CONFIG_DIALOG_ALWAYS_HOME)){
+        final FileChooser.ExtensionFilter png = new FileChooser.ExtensionFilter(
+                "PNG Image (*.png)", "*.png");
+
+        final FileChooser.ExtensionFilter svg = new FileChooser.ExtensionFilter(
+                "SVG Vector Graphic (*.svg)", "*.svg");
+
+        fileChooser.getExtensionFilters().addAll(png, svg);
+        File file = fileChooser.showSaveDialog(stage);
+        if(file == null){
+            return null;
+        }
+        final String name = file.getName().toLowerCase();
+        if(!name.endsWith(".png") && !name.endsWith(".svg")){
+            file = new File(file.getAbsolutePath()
+                    + ((fileChooser.getSelectedExtensionFilter() == svg) ? ".svg" : ".png"));
+
+        }
+        if(!config.booleanOf(GLOBAL, CONFIG_DIALOG_ALWAYS_HOME)){
             final String parent = file.getParent();
             config.set(WINDOW, CONFIG_WINDOW_DIALOG_DIR, ((parent != null) ? parent : KEY_USER_HOME));
         }
@@ -0,0 +1,51 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.icecrusher.ui.dialog;
+
+import com.raven.common.struct.DataFrame;
+import com.raven.icecrusher.application.Layout;
+import com.raven.icecrusher.base.Dialog;
+import com.raven.icecrusher.ui.dialog.UpdateValuesDialogController.DialogListener;
+
+import javafx.scene.Parent;
+import javafx.scene.layout.Region;
+import javafx.scene.layout.StackPane;
+
+/**
+ * A Dialog which lets the user change the values of a <code>DataFrame</code>
+ * column in all rows matching a condition.
+ *
+ */
+public class UpdateValuesDialog extends EditorDialog {
+
+    private UpdateValuesDialogController controller;
+
+    public UpdateValuesDialog(StackPane root, DataFrame df){
+        super(root, null);
+        final Layout layout = Layout.of(Dialog.UPDATE_VALUES);
+        final Parent parent = layout.load();
+        controller = layout.getController();
+        controller.setRootContainer(root);
+        controller.useDataFrame(df);
+        setContent((Region)parent);
+    }
+
+    public void setOnUpdate(DialogListener listener){
+        controller.setUpdateListener(listener);
+    }
+
+}
@@ -0,0 +1,152 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.icecrusher.ui.dialog;
+
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import com.jfoenix.controls.JFXComboBox;
+import com.jfoenix.controls.JFXTextField;
+import com.raven.common.struct.DataFrame;
+import com.raven.icecrusher.ui.OneShotSnackbar;
+
+import javafx.event.ActionEvent;
+import javafx.fxml.FXML;
+import javafx.scene.layout.Pane;
+
+/**
+ * Controller class for the {@link UpdateValuesDialog}.
+ *
+ */
+public class UpdateValuesDialogController {
+
+    /**
+     * Listener interface for the <code>UpdateValuesDialog</code>.
+     *
+     */
+    public interface DialogListener {
+
+        /**
+         * Called when the user confirms the update action
+         * 
+         * @param column The name of the column to update
+         * @param operator The operator of the assignment. Either <code>'='</code>
+         *                 or one of the arithmetic operators <code>'+', '-', '*', '/'</code>
+         * @param value The string representation of the value to assign
+         * @param conditionColumn The name of the column to evaluate the condition on. 
+         *                        May be null to update all rows
+         * @param regex The regex which values of the condition column must match.
+         *              Is null if conditionColumn is null
+         */
+        void onUpdate(String column, char operator, String value,
+                String conditionColumn, String regex);
+    }
+
+    private static final String OPERATOR_ASSIGN = "=";
+    private static final String[] OPERATORS_NUMERIC = {"=", "+=", "-=", "*=", "/="};
+
+    @FXML
+    private JFXComboBox<String> cBoxColumns;
+
+    @FXML
+    private JFXComboBox<String> cBoxOperator;
+
+    @FXML
+    private JFXTextField txtValue;
+
+    @FXML
+    private JFXComboBox<String> cBoxCondition;
+
+    @FXML
+    private JFXTextField txtRegex;
+
+    private DataFrame df;
+    private Pane rootPane;
+    private DialogListener delegate;
+
+    public void setUpdateListener(DialogListener delegate){
+        this.delegate = delegate;
+    }
+
+    public void setRootContainer(Pane pane) {
+        this.rootPane = pane;
+    }
+
+    public void useDataFrame(final DataFrame df){
+        this.df = df;
+        final String[] columns = df.getColumnNames();
+        cBoxColumns.getItems().removeAll(cBoxColumns.getItems());
+        cBoxColumns.getItems().addAll(columns);
+        cBoxCondition.getItems().removeAll(cBoxCondition.getItems());
+        cBoxCondition.getItems().addAll(columns);
+    }
+
+    @FXML
+    private void initialize(){
+        cBoxOperator.getItems().add(OPERATOR_ASSIGN);
+        cBoxOperator.setValue(OPERATOR_ASSIGN);
+        cBoxColumns.valueProperty().addListener((ov, oldValue, newValue) -> {
+            //arithmetic operators are only available for numeric columns
+            cBoxOperator.getItems().removeAll(cBoxOperator.getItems());
+            if((newValue != null) && df.getColumn(newValue).isNumeric()){
+                cBoxOperator.getItems().addAll(OPERATORS_NUMERIC);
+            }else{
+                cBoxOperator.getItems().add(OPERATOR_ASSIGN);
+            }
+            cBoxOperator.setValue(OPERATOR_ASSIGN);
+        });
+    }
+
+    @FXML
+    private void onUpdate(ActionEvent event){
+        final String column = cBoxColumns.getValue();
+        if((column == null) || (column.isEmpty())){
+            showWarnMsg("Please specify a column");
+            return;
+        }
+        final String operator = cBoxOperator.getValue();
+        final String value = txtValue.getText();
+        if(!OPERATOR_ASSIGN.equals(operator) && ((value == null) || value.isEmpty())){
+            showWarnMsg("Please specify a value");
+            return;
+        }
+        final String condition = cBoxCondition.getValue();
+        String regex = null;
+        if((condition != null) && (!condition.isEmpty())){
+            regex = txtRegex.getText();
+            if((regex == null) || (regex.isEmpty())){
+                showWarnMsg("Please specify a regex");
+                return;
+            }
+            try{
+                Pattern.compile(regex);
+            }catch(PatternSyntaxException ex){
+                showWarnMsg("The entered regular expression is invalid");
+                return;
+            }
+        }
+        if(delegate != null){
+            delegate.onUpdate(column, operator.charAt(0), (value != null ? value : ""),
+                    ((regex != null) ? condition : null), regex);
+        }
+    }
+
+    private void showWarnMsg(final String msg){
+        OneShotSnackbar.showFor(rootPane, msg);
+    }
+
+}
@@ -63,9 +63,10 @@ public class AreaChartController extends XYChartController {
     @Override
     public void onPlot(ActionEvent event){
         if(!plotIsShown || (preparedSeries != null)){
+            updateLevelOfDetail(preparedSeries);
             this.chart.getData().addAll(preparedSeries);
             this.plotIsShown = true;
-            this.btnPlotExport.setText("Export as PNG");
+            this.btnPlotExport.setText("Export");
             for(final Series<Number, Number> series : preparedSeries){
                 final String color = getSettingsViewForSeries(series).getColor();
                 updateAreaColor(series.getNode(), color);
@@ -89,14 +90,18 @@ public class AreaChartController extends XYChartController {
         super.onClose(event);
     }
 
+    @Override
+    protected String exportSvg(){
+        //the raw series data does not reflect the stacking of areas
+        return null;
+    }
+
     private void prepareChart(){
-        final Column colX = selectedXColumn();
-        final Column colY = selectedYColumn();
+        prepareData(selectedXColumn(), selectedYColumn(), this::addPreparedSeries);
+    }
 
-        final XYChartData data = prepareData(colX, colY);
-        if(data == null){
-            return;
-        }
+    private void addPreparedSeries(final XYChartData data){
+        final Column colY = data.getYcolumn();
         final Series<Number, Number> series = data.getSeries();
         setDateControlsDisabled(true);
 
@@ -17,10 +17,15 @@
 package com.raven.icecrusher.ui.plot;
 
 import java.text.DecimalFormat;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.ArrayList;
 
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import com.jfoenix.controls.JFXButton;
 import com.jfoenix.controls.JFXCheckBox;
@@ -30,6 +35,7 @@ import com.raven.common.struct.Column;
 import com.raven.common.struct.Item;
 import com.raven.common.struct.WritableItem;
 import com.raven.icecrusher.application.Cache;
+import com.raven.icecrusher.application.DiskCache;
 import com.raven.icecrusher.ui.OneShotSnackbar;
 import com.raven.icecrusher.ui.plot.SettingsView.ViewListener;
 
@@ -80,6 +86,35 @@ public class BarChartController extends ChartController {
             .observableArrayList(
             "Sum", "Minimum", "Maximum", "Average", "Single");
 
+    /**
+     * Persists the values of all bars. Only the string representation
+     * of the bar keys is used and therefore persisted
+     */
+    private static final DiskCache.Codec<Map<Object, Double>> MAPPING_CODEC
+            = new DiskCache.Codec<Map<Object, Double>>(){
+
+        @Override
+        public void write(final DataOutput out, final Map<Object, Double> value)
+                throws IOException{
+
+            out.writeInt(value.size());
+            for(final Map.Entry<Object, Double> e : value.entrySet()){
+                out.writeUTF(e.getKey().toString());
+                out.writeDouble(e.getValue());
+            }
+        }
+
+        @Override
+        public Map<Object, Double> read(final DataInput in) throws IOException{
+            final int size = in.readInt();
+            final Map<Object, Double> map = new LinkedHashMap<>();
+            for(int i=0; i<size; ++i){
+                map.put(in.readUTF(), in.readDouble());
+            }
+            return map;
+        }
+    };
+
     @FXML
     protected JFXComboBox<String> cbColumnX;
 
@@ -232,7 +267,7 @@ public class BarChartController extends ChartController {
             this.chartXAxis.setAnimated(false);
             this.chart.getData().addAll(preparedSeries);
             this.plotIsShown = true;
-            this.btnPlotExport.setText("Export as PNG");
+            this.btnPlotExport.setText("Export");
             for(final Series<String, Number> series : preparedSeries){
                 final String color = getSettingsViewForSeries(series).getColor();
                 updateBarColor(series, color);
@@ -283,6 +318,7 @@ public class BarChartController extends ChartController {
      * This method should be called whenever any column selection changes
      */
     private void columnSelectionChanged(){
+        preparation.cancel();
         if((cbColumnX.getSelectionModel().getSelectedIndex() != -1) 
                 && (cbColumnY.getSelectionModel().getSelectedIndex() != -1)){
 
@@ -324,6 +360,7 @@ public class BarChartController extends ChartController {
      * Resets all settings to the default values and removes all chart series data
      */
     private void reset(){
+        preparation.cancel();
         this.chart.getData().clear();
         this.settingsList.resetSettingsList();
         this.usedBars.clear();
@@ -360,7 +397,7 @@ public class BarChartController extends ChartController {
                     resetPlotButton();
                     plotIsShown = false;
                 }else{
-                    btnPlotExport.setText("Export as PNG");
+                    btnPlotExport.setText("Export");
                 }
             }
         }
@@ -387,45 +424,45 @@ public class BarChartController extends ChartController {
             
             return ;
         }
-        final Series<String, Number> series = prepareData(colX, colY);
-        if(series == null){
-            return;
-        }
-        final int index = this.settingsList.getChildren().size();
-        final SettingsView sv = new BarSettingsView(
-                index,
-                colY.getName(),
-                cbYMode.getSelectionModel().getSelectedItem());
-        
-        series.setName(sv.getEditText());
-        sv.setViewListener(new ViewListener(){
-            @Override
-            public void onRelabel(SettingsView view, String newLabel){
-                series.setName(newLabel);
-                updateAllLegendColors();
-            }
-            @Override
-            public void onColorChanged(SettingsView view, String newColor){
-                if(plotIsShown){
-                    updateBarColor(series, newColor);
-                    updateLegendColor(view, newColor);
+        prepareData(colX, colY, (series) -> {
+            final int index = this.settingsList.getChildren().size();
+            final SettingsView sv = new BarSettingsView(
+                    index,
+                    colY.getName(),
+                    cbYMode.getSelectionModel().getSelectedItem());
+            
+            series.setName(sv.getEditText());
+            sv.setViewListener(new ViewListener(){
+                @Override
+                public void onRelabel(SettingsView view, String newLabel){
+                    series.setName(newLabel);
+                    updateAllLegendColors();
                 }
-            }
-            @Override
-            public void onRemove(SettingsView view){
-                //an animation may still be in process
-                if(!settingsList.isRemoving()){
-                    removeSeries(view);
+                @Override
+                public void onColorChanged(SettingsView view, String newColor){
+                    if(plotIsShown){
+                        updateBarColor(series, newColor);
+                        updateLegendColor(view, newColor);
+                    }
                 }
-            }
+                @Override
+                public void onRemove(SettingsView view){
+                    //an animation may still be in process
+                    if(!settingsList.isRemoving()){
+                        removeSeries(view);
+                    }
+                }
+            });
+            addSettingsViewToList(sv);
+            this.preparedSeries.add(series);
+            this.btnPlotExport.setDisable(false);
+            this.btnPlotExport.setText("Plot");
         });
-        addSettingsViewToList(sv);
-        this.preparedSeries.add(series);
-        this.btnPlotExport.setDisable(false);
-        this.btnPlotExport.setText("Plot");
     }
 
-    private Series<String, Number> prepareData(final Column colX, final Column colY){
+    private void prepareData(final Column colX, final Column colY,
+            final Consumer<Series<String, Number>> onPrepared){
+
         final String yColName = df.getColumnName(
                 cbColumnY.getSelectionModel().getSelectedIndex());
         
@@ -435,17 +472,54 @@ public class BarChartController extends ChartController {
             OneShotSnackbar.showFor(getRootNode(),
                     "This data series has already been added");
             
-            return null;
+            return;
         }
-        XYChart.Series<String, Number> series = new XYChart.Series<>();
-        series.setName("Series " + (seriesNumber++));
-
-        Map<Object, Double> map = null;
-        try{
-            map = createMapping(colX, colY,
-                    cbYMode.getSelectionModel().getSelectedIndex());
-            
-        }catch(RuntimeException ex){
+        final Consumer<Map<Object, Double>> onSucceeded = (map) -> {
+            btnYAdd.setDisable(false);
+            if(map.isEmpty()){
+                OneShotSnackbar.showFor(getRootNode(),
+                        "No valid data points for selected columns");
+                
+                return;
+            }
+            final XYChart.Series<String, Number> series = new XYChart.Series<>();
+            series.setName("Series " + (seriesNumber++));
+            final List<Data<String, Number>> data = new ArrayList<>(map.size());
+            final boolean isEmpty = xAxisLabels.isEmpty(); 
+            for(final Map.Entry<Object, Double> e : map.entrySet()){
+                data.add(new XYChart.Data<>(e.getKey().toString(), e.getValue()));
+                if(isEmpty){
+                    final String key = e.getKey().toString();
+                    xAxisLabels.add(new WritableItem<String>(key,
+                            Cache.session().get("BarChart.xaxislabel.text." + key, key)));
+                }
+            }
+            //publish all bars at once
+            series.getData().setAll(data);
+            usedBars.add(bar);
+            onPrepared.accept(series);
+        };
+        final PreparedDataCache.Key key = PreparedDataCache.keyOf(
+                df, source, "bar." + yColMode, colX, colY);
+
+        @SuppressWarnings("unchecked")
+        final Map<Object, Double> cached = PreparedDataCache.get(key, Map.class);
+        if(cached != null){
+            preparation.cancel();
+            onSucceeded.accept(cached);
+            return;
+        }
+        btnYAdd.setDisable(true);
+        preparation.submit((progress) -> {
+            Map<Object, Double> map = PreparedDataCache.load(key, MAPPING_CODEC);
+            if(map == null){
+                map = createMapping(colX, colY, yColMode, progress);
+                PreparedDataCache.persist(key, map, MAPPING_CODEC);
+            }
+            PreparedDataCache.put(key, map, 64L * map.size() + 128);
+            return map;
+        }, onSucceeded, (ex) -> {
+            btnYAdd.setDisable(false);
             if(ex instanceof NumberFormatException){
                 OneShotSnackbar.showFor(getRootNode(), "Only numbers are allowed for the y-Axis");
             }else if(ex instanceof ClassCastException){
@@ -453,32 +527,11 @@ public class BarChartController extends ChartController {
             }else{
                 OneShotSnackbar.showFor(getRootNode(), ex.getMessage());
             }
-            return null;
-        }
-        if(map.isEmpty()){
-            OneShotSnackbar.showFor(getRootNode(),
-                    "No valid data points for selected columns");
-            
-            return null;
-        }
-        final ObservableList<Data<String, Number>> data = series.getData();
-
-        final boolean isEmpty = xAxisLabels.isEmpty(); 
-        for(final Map.Entry<Object, Double> e : map.entrySet()){
-            data.add(new XYChart.Data<>(e.getKey().toString(), e.getValue()));
-            if(isEmpty){
-                final String key = e.getKey().toString();
-                xAxisLabels.add(new WritableItem<String>(key,
-                        Cache.session().get("BarChart.xaxislabel.text." + key, key)));
-            }
-        }
-        usedBars.add(bar);
-
-        return series;
+        });
     }
 
     private Map<Object, Double> createMapping(final Column colX, final Column colY,
-            final int opMode) throws RuntimeException{
+            final int opMode, final ChartPreparation.Progress progress) throws RuntimeException{
 
         BarOperator operator = null;
         switch(opMode){
@@ -500,8 +553,10 @@ public class BarChartController extends ChartController {
         default:
             throw new IllegalArgumentException("Unknown operation mode: " + opMode);
         }
-        for(int i=0; i<df.rows(); ++i){
+        final int rows = df.rows();
+        for(int i=0; i<rows; ++i){
             operator.operate(i);
+            progress.update(i+1, rows);
         }
         return operator.finish();
     }
@@ -0,0 +1,237 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.icecrusher.ui.plot;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javafx.beans.NamedArg;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.chart.Axis;
+import javafx.scene.chart.LineChart;
+import javafx.scene.chart.XYChart.Data;
+import javafx.scene.paint.Color;
+
+/**
+ * A <code>LineChart</code> which can draw series straight onto a <code>Canvas</code>
+ * instead of creating one node per data point.<br>
+ * The raw data of a canvas series is held by a {@link Decimator} and is decimated
+ * to the width of the plot area every time the chart is laid out, e.g. after the
+ * range of the x-axis was changed by zooming or panning. Such series do not hold
+ * any data items themselves but are still part of the chart data, so that axes,
+ * legend, title and snapshots behave as for any other series. Series with data
+ * items are rendered by the <code>LineChart</code> as usual.
+ *
+ */
+public class CanvasLineChart extends LineChart<Number, Number> {
+
+    /**
+     * The radius of data point symbols drawn onto the canvas
+     */
+    private static final double SYMBOL_RADIUS = 2.5;
+
+    /**
+     * The maximum number of drawn points of a series for which
+     * data point symbols are drawn
+     */
+    private static final int MAX_SYMBOLS = 2000;
+
+    private final Canvas canvas;
+    private final Map<Series<Number, Number>, CanvasSeries> canvasSeries;
+
+    public CanvasLineChart(@NamedArg("xAxis") final Axis<Number> xAxis,
+            @NamedArg("yAxis") final Axis<Number> yAxis){
+
+        super(xAxis, yAxis);
+        this.canvas = new Canvas();
+        this.canvas.setMouseTransparent(true);
+        this.canvasSeries = new HashMap<>();
+        getPlotChildren().add(0, canvas);
+    }
+
+    /**
+     * Lets the specified series be drawn onto the canvas of this chart.
+     * Any data items of the series are ignored by this chart as long as the
+     * series is drawn onto the canvas
+     * 
+     * @param series The series to draw onto the canvas
+     * @param decimator The <code>Decimator</code> holding the raw data of the series
+     * @param yLowerBound The smallest y-value of the series
+     * @param yUpperBound The largest y-value of the series
+     */
+    public void setSeriesData(final Series<Number, Number> series, final Decimator decimator,
+            final double yLowerBound, final double yUpperBound){
+
+        final CanvasSeries cs = canvasSeries.get(series);
+        canvasSeries.put(series, new CanvasSeries(decimator, yLowerBound, yUpperBound,
+                ((cs != null) ? cs.color : Color.GRAY)));
+
+        redraw();
+    }
+
+    /**
+     * Indicates whether the specified series is drawn onto the canvas of this chart
+     * 
+     * @param series The series to check
+     * @return True if the series is drawn onto the canvas, false otherwise
+     */
+    public boolean isCanvasSeries(final Series<Number, Number> series){
+        return canvasSeries.containsKey(series);
+    }
+
+    /**
+     * Sets the color of the specified canvas series
+     * 
+     * @param series The series to set the color for
+     * @param color The color as a web color string
+     */
+    public void setSeriesColor(final Series<Number, Number> series, final String color){
+        final CanvasSeries cs = canvasSeries.get(series);
+        if(cs != null){
+            cs.color = Color.web(color);
+            redraw();
+        }
+    }
+
+    /**
+     * Draws all canvas series again with the current axis ranges
+     * 
+     */
+    public void redraw(){
+        final double width = getXAxis().getWidth();
+        final double height = getYAxis().getHeight();
+        canvas.setWidth(width);
+        canvas.setHeight(height);
+        final GraphicsContext gc = canvas.getGraphicsContext2D();
+        gc.clearRect(0, 0, width, height);
+        if((width <= 0) || (height <= 0)){
+            return;
+        }
+        final Axis<Number> xAxis = getXAxis();
+        final Axis<Number> yAxis = getYAxis();
+        //both axes are linear, so display positions are computed by a linear mapping
+        final double x0 = xAxis.getDisplayPosition(0);
+        final double xScale = xAxis.getDisplayPosition(1) - x0;
+        final double y0 = yAxis.getDisplayPosition(0);
+        final double yScale = yAxis.getDisplayPosition(1) - y0;
+        final double lower = xAxis.getValueForDisplay(0).doubleValue();
+        final double upper = xAxis.getValueForDisplay(width).doubleValue();
+        for(final Series<Number, Number> series : getData()){
+            final CanvasSeries cs = canvasSeries.get(series);
+            if(cs == null){
+                continue;
+            }
+            final double[][] points = cs.decimator.decimate(
+                    Math.min(lower, upper), Math.max(lower, upper), (int) width);
+
+            final double[] xs = points[0];
+            final double[] ys = points[1];
+            if(xs.length == 0){
+                continue;
+            }
+            gc.setStroke(cs.color);
+            gc.setLineWidth(2.0);
+            gc.beginPath();
+            gc.moveTo(x0 + xs[0] * xScale, y0 + ys[0] * yScale);
+            for(int i=1; i<xs.length; ++i){
+                gc.lineTo(x0 + xs[i] * xScale, y0 + ys[i] * yScale);
+            }
+            gc.stroke();
+            if(getCreateSymbols() && (xs.length <= MAX_SYMBOLS)){
+                gc.setFill(cs.color);
+                final double d = 2 * SYMBOL_RADIUS;
+                for(int i=0; i<xs.length; ++i){
+                    gc.fillOval(x0 + xs[i] * xScale - SYMBOL_RADIUS,
+                            y0 + ys[i] * yScale - SYMBOL_RADIUS, d, d);
+                }
+            }
+        }
+    }
+
+    @Override
+    protected void layoutPlotChildren(){
+        super.layoutPlotChildren();
+        redraw();
+    }
+
+    @Override
+    protected void updateAxisRange(){
+        final Axis<Number> xAxis = getXAxis();
+        final Axis<Number> yAxis = getYAxis();
+        final List<Number> xData = (xAxis.isAutoRanging() ? new ArrayList<>() : null);
+        final List<Number> yData = (yAxis.isAutoRanging() ? new ArrayList<>() : null);
+        if((xData == null) && (yData == null)){
+            return;
+        }
+        for(final Series<Number, Number> series : getData()){
+            final CanvasSeries cs = canvasSeries.get(series);
+            if(cs != null){
+                if((xData != null) && (cs.decimator.size() > 0)){
+                    xData.add(cs.decimator.minX());
+                    xData.add(cs.decimator.maxX());
+                }
+                if(yData != null){
+                    yData.add(cs.yLowerBound);
+                    yData.add(cs.yUpperBound);
+                }
+            }else{
+                for(final Data<Number, Number> data : series.getData()){
+                    if(xData != null){
+                        xData.add(data.getXValue());
+                    }
+                    if(yData != null){
+                        yData.add(data.getYValue());
+                    }
+                }
+            }
+        }
+        if(xData != null){
+            xAxis.invalidateRange(xData);
+        }
+        if(yData != null){
+            yAxis.invalidateRange(yData);
+        }
+    }
+
+    @Override
+    protected void seriesRemoved(final Series<Number, Number> series){
+        canvasSeries.remove(series);
+        super.seriesRemoved(series);
+        redraw();
+    }
+
+    private static class CanvasSeries {
+
+        private final Decimator decimator;
+        private final double yLowerBound;
+        private final double yUpperBound;
+        private Color color;
+
+        private CanvasSeries(final Decimator decimator, final double yLowerBound,
+                final double yUpperBound, final Color color){
+
+            this.decimator = decimator;
+            this.yLowerBound = yLowerBound;
+            this.yUpperBound = yUpperBound;
+            this.color = color;
+        }
+    }
+
+}
@@ -17,11 +17,13 @@
 package com.raven.icecrusher.ui.plot;
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
-import javax.imageio.ImageIO;
-
 import com.jfoenix.controls.JFXButton;
 import com.jfoenix.controls.JFXComboBox;
 import com.jfoenix.controls.JFXTextField;
@@ -29,6 +31,7 @@ import com.raven.common.struct.DataFrame;
 import com.raven.icecrusher.application.Cache;
 import com.raven.icecrusher.application.Controller;
 import com.raven.icecrusher.io.Files;
+import com.raven.icecrusher.ui.OneShotSnackbar;
 import com.raven.icecrusher.ui.dialog.Dialogs;
 import com.raven.icecrusher.util.Const;
 import com.raven.icecrusher.util.EditorFile;
@@ -39,14 +42,12 @@ import com.sun.javafx.charts.Legend.LegendItem;
 import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
-import javafx.embed.swing.SwingFXUtils;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.geometry.Side;
 import javafx.scene.Node;
 import javafx.scene.chart.Chart;
 import javafx.scene.control.ComboBox;
-import javafx.scene.image.WritableImage;
 import javafx.scene.layout.AnchorPane;
 
 import static com.raven.icecrusher.util.EditorConfiguration.*;
@@ -70,12 +71,19 @@ import static com.raven.icecrusher.util.EditorConfiguration.Section.*;
  * user to change specific optics of each item. This is implemented as a SettingsListView
  * which is a custom VBox.
  * 
+ * <p>A {@link ChartPreparation} for computing chart data in the background.
+ * 
  *
  */
 public abstract class ChartController extends Controller {
 
     protected static final double CHART_PANE_HEIGHT_OFFSET = 250.0;
 
+    /**
+     * The maximum factor by which charts can be scaled when exported
+     */
+    protected static final double MAX_EXPORT_SCALE = 16.0;
+
     //computation is index based. Do not change order of items
     protected static ObservableList<String> optionsTitle = FXCollections.observableArrayList(
             "Top", "Bottom", "Left", "Right", "Disabled");
@@ -104,6 +112,11 @@ public abstract class ChartController extends Controller {
 
     protected DataFrame df;
 
+    protected ChartPreparation preparation;
+
+    /** The file the DataFrame was read from, if the DataFrame is unchanged **/
+    protected File source;
+
     protected boolean plotIsShown;
     protected boolean titleDisabled;
 
@@ -134,6 +147,7 @@ public abstract class ChartController extends Controller {
      */
     public void initialize(final Chart chart){
         this.chart = chart;
+        this.preparation = new ChartPreparation(chartPane, getCancellationToken());
         //ComboBoxes
         this.cbTitlePosition.setItems(optionsTitle);
         this.cbLegendPosition.setItems(optionsLegend);
@@ -159,6 +173,7 @@ public abstract class ChartController extends Controller {
         this.df = (DataFrame) bundle.getArgument(Const.BUNDLE_KEY_DATAFRAME);
         final EditorFile file = (EditorFile)bundle.getArgument(Const.BUNDLE_KEY_EDITORFILE);
         final String fileName = (file != null ? file.getName() : Files.DEFAULT_NEW_FILENAME);
+        this.source = (File) bundle.getArgument(Const.BUNDLE_KEY_SOURCE_FILE);
         final String chartTitle = Cache.session()
                 .get("ChartController.chart.title." + fileName, fileName);
         
@@ -178,6 +193,7 @@ public abstract class ChartController extends Controller {
 
     @Override
     public boolean onExitRequested(){
+        preparation.cancel();
         final ArgumentBundle bundle = new ArgumentBundle();
         bundle.addArgument(Const.BUNDLE_KEY_EXIT_REQUESTED, true);
         finishActivity(bundle);
@@ -197,33 +213,65 @@ public abstract class ChartController extends Controller {
      * @param event The <code>ActionEvent</code> object of the event fired
      */
     protected void onClose(ActionEvent event){
+        preparation.cancel();
         super.finishActivity();
     }
 
     /**
-     * Opens a standard file dialog to prompt the user to export and save a snapshot of the
-     * current chart to a PNG-file. The writing of the file will be performed on a 
-     * background thread
+     * Opens a standard file dialog to prompt the user to export and save the current
+     * chart to a PNG-file or an SVG-file.<br>
+     * PNG-files are rendered at the scale set in the configuration in tiles and are
+     * encoded on the shared chart worker pool, so that no full-size image is held in
+     * memory. SVG-files are created by {@link #exportSvg()} and are written on the
+     * shared chart worker pool
      */
     protected void exportSnapshot(){
         File file = Dialogs.showPlotExportDialog(getStage());
-        if(file != null){
-            //use default parameters
-            final WritableImage img = chart.snapshot(null, null);
-            if(!file.getName().toLowerCase().endsWith(".png")){
-                file = addPNGFileExtension(file);
+        if(file == null){
+            return;
+        }
+        if(file.getName().toLowerCase().endsWith(".svg")){
+            final String svg = exportSvg();
+            if(svg == null){
+                OneShotSnackbar.showFor(getRootNode(),
+                        "SVG export is not available for this chart");
+
+                return;
             }
             final File f = file;
-            new Thread(() -> {
-                try{
-                    ImageIO.write(SwingFXUtils.fromFXImage(img, null), "png", f);
+            ChartPreparation.execute(() -> {
+                try(Writer writer = new OutputStreamWriter(
+                        new FileOutputStream(f), StandardCharsets.UTF_8)){
+
+                    writer.write(svg);
                 }catch(IOException ex){
-                    Platform.runLater(() -> {
-                        ExceptionHandler.showDialog(ex);
-                    });
+                    Platform.runLater(() -> ExceptionHandler.showDialog(ex));
                 }
-            }).start();
+            });
+            return;
+        }
+        if(!file.getName().toLowerCase().endsWith(".png")){
+            file = addPNGFileExtension(file);
         }
+        TiledSnapshot.export(chart, exportScale(), file,
+                () -> { }, ExceptionHandler::showDialog);
+    }
+
+    /**
+     * Creates an SVG document of the current chart. This implementation returns null.
+     * Concrete classes may override this method to support SVG export
+     * 
+     * @return The SVG document of the chart, or null if SVG export is
+     *         not supported by the chart
+     */
+    protected String exportSvg(){
+        return null;
+    }
+
+    private double exportScale(){
+        final double scale = getConfiguration().doubleOf(PLOT, CONFIG_EXPORT_SCALE);
+        //snapshots are limited by the size of textures, so keep the scale sane
+        return (((scale > 0) && (scale <= MAX_EXPORT_SCALE)) ? scale : 1.0);
     }
 
     /**
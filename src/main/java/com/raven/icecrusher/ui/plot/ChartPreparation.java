@@ -0,0 +1,207 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.icecrusher.ui.plot;
+
+import java.util.concurrent.CancellationException;
+import java.util.function.Consumer;
+
+import com.jfoenix.controls.JFXProgressBar;
+import com.raven.icecrusher.application.Scheduler;
+
+import javafx.concurrent.Task;
+import javafx.scene.layout.AnchorPane;
+
+/**
+ * Background preparation of chart data. All chart activities scan and aggregate
+ * their DataFrame columns through a ChartPreparation so that the FX thread is not
+ * blocked while the user is selecting columns. The work is executed by the CPU pool
+ * of the {@link Scheduler}. While work is running, its progress is shown by a
+ * progress bar at the top of the chart pane.
+ * 
+ * <p>A ChartPreparation runs at most one unit of work at a time. Submitting new work
+ * cancels any work that is still running, so that results of a stale column selection
+ * are never published. The result of the work is passed to the specified handler on
+ * the FX thread in one step.
+ *
+ */
+public class ChartPreparation {
+
+    /**
+     * A unit of work which computes chart data in the background. Implementations
+     * must not access any nodes of the scene graph.
+     *
+     * @param <T> The type of the result of the work
+     */
+    @FunctionalInterface
+    public interface Work<T> {
+
+        /**
+         * Computes the chart data
+         * 
+         * @param progress The <code>Progress</code> to report to. Must be called
+         *                 regularly in order for the work to be cancellable
+         * @return The result of the work
+         * @throws Exception If the work cannot be completed
+         */
+        T prepare(Progress progress) throws Exception;
+    }
+
+    /**
+     * Receives the progress of a unit of work.
+     *
+     */
+    @FunctionalInterface
+    public interface Progress {
+
+        /**
+         * Reports the current progress of the work
+         * 
+         * @param done The amount of work done so far
+         * @param total The total amount of work
+         * @throws CancellationException If the work has been cancelled
+         */
+        void update(long done, long total);
+    }
+
+    private final JFXProgressBar progressBar;
+    private final Scheduler.Token token;
+    private PreparationTask<?> current;
+
+    /**
+     * Constructs a new <code>ChartPreparation</code> which shows its progress
+     * in the specified chart pane
+     * 
+     * @param chartPane The <code>AnchorPane</code> holding the chart
+     * @param token The <code>Scheduler.Token</code> of the chart activity. All work
+     *              is cancelled when the token is cancelled
+     */
+    public ChartPreparation(final AnchorPane chartPane, final Scheduler.Token token){
+        this.token = token;
+        this.progressBar = new JFXProgressBar();
+        this.progressBar.setVisible(false);
+        this.progressBar.setMouseTransparent(true);
+        AnchorPane.setTopAnchor(progressBar, 0.0);
+        AnchorPane.setLeftAnchor(progressBar, 0.0);
+        AnchorPane.setRightAnchor(progressBar, 0.0);
+        chartPane.getChildren().add(progressBar);
+    }
+
+    /**
+     * Submits the specified work for execution in the background. Any work that is
+     * still running is cancelled. This method must be called on the FX thread
+     * 
+     * @param <T> The type of the result of the work
+     * @param work The <code>Work</code> to execute
+     * @param onSucceeded The handler to pass the result of the work to. Is called on
+     *                    the FX thread
+     * @param onFailed The handler to pass the cause of a failure to. Is called on
+     *                 the FX thread
+     */
+    public <T> void submit(final Work<T> work, final Consumer<T> onSucceeded,
+            final Consumer<Throwable> onFailed){
+
+        cancel();
+        final PreparationTask<T> task = new PreparationTask<>(work);
+        task.setOnSucceeded((event) -> {
+            if(finish(task)){
+                onSucceeded.accept(task.getValue());
+            }
+        });
+        task.setOnFailed((event) -> {
+            if(finish(task)){
+                onFailed.accept(task.getException());
+            }
+        });
+        this.current = task;
+        progressBar.progressProperty().bind(task.progressProperty());
+        progressBar.setVisible(true);
+        Scheduler.submit(Scheduler.Pool.CPU, Scheduler.Priority.INTERACTIVE, token, task);
+    }
+
+    /**
+     * Cancels the currently running work, if any. The result of cancelled
+     * work is discarded
+     */
+    public void cancel(){
+        if(current != null){
+            final PreparationTask<?> task = current;
+            finish(task);
+            task.cancel();
+        }
+    }
+
+    /**
+     * Executes the specified runnable on the CPU pool of the {@link Scheduler},
+     * without showing any progress
+     * 
+     * @param runnable The <code>Runnable</code> to execute
+     */
+    public static void execute(final Runnable runnable){
+        Scheduler.submit(Scheduler.Pool.CPU, Scheduler.Priority.NORMAL, runnable);
+    }
+
+    /**
+     * Indicates whether work is currently running
+     * 
+     * @return True if work is running, false otherwise
+     */
+    public boolean isRunning(){
+        return (current != null);
+    }
+
+    private boolean finish(final PreparationTask<?> task){
+        if(task != current){//stale work
+            return false;
+        }
+        this.current = null;
+        progressBar.progressProperty().unbind();
+        progressBar.setVisible(false);
+        return true;
+    }
+
+    /**
+     * Task executing a unit of work.
+     *
+     * @param <T> The type of the result of the work
+     */
+    private static final class PreparationTask<T> extends Task<T> implements Progress {
+
+        private final Work<T> work;
+        private long reported;
+
+        PreparationTask(final Work<T> work){
+            this.work = work;
+        }
+
+        @Override
+        protected T call() throws Exception{
+            return work.prepare(this);
+        }
+
+        @Override
+        public void update(final long done, final long total){
+            if(isCancelled()){
+                throw new CancellationException();
+            }
+            //only forward changes of at least one percent
+            if((done >= total) || (((done - reported) * 100) >= total)){
+                this.reported = done;
+                updateProgress(done, total);
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.icecrusher.ui.plot;
+
+import java.util.function.IntToDoubleFunction;
+
+import com.raven.common.struct.ByteColumn;
+import com.raven.common.struct.Column;
+import com.raven.common.struct.DoubleColumn;
+import com.raven.common.struct.FloatColumn;
+import com.raven.common.struct.IntColumn;
+import com.raven.common.struct.LongColumn;
+import com.raven.common.struct.ShortColumn;
+
+/**
+ * Provides primitive read access to numeric columns. Values of primitive columns
+ * are read without boxing. Null values of nullable columns are read as NaN.
+ *
+ */
+final class ColumnReaders {
+
+    private ColumnReaders(){ }
+
+    /**
+     * Creates a function reading the values of the specified numeric column
+     * as doubles, by row index
+     * 
+     * @param col The numeric column to read
+     * @return A function mapping row indices to the values of the specified column
+     */
+    static IntToDoubleFunction of(final Column col){
+        if(!col.isNumeric()){
+            throw new IllegalArgumentException("Column must be numeric");
+        }
+        switch(col.typeCode()){
+        case ByteColumn.TYPE_CODE:
+            return ((ByteColumn) col)::get;
+        case ShortColumn.TYPE_CODE:
+            return ((ShortColumn) col)::get;
+        case IntColumn.TYPE_CODE:
+            return ((IntColumn) col)::get;
+        case LongColumn.TYPE_CODE:
+            return ((LongColumn) col)::get;
+        case FloatColumn.TYPE_CODE:
+            return ((FloatColumn) col)::get;
+        case DoubleColumn.TYPE_CODE:
+            return ((DoubleColumn) col)::get;
+        default://nullable columns
+            return (i) -> {
+                final Object value = col.getValue(i);
+                return ((value != null) ? ((Number) value).doubleValue() : Double.NaN);
+            };
+        }
+    }
+
+    /**
+     * Indicates whether the specified value is neither NaN nor infinite
+     * 
+     * @param value The value to check
+     * @return True if the specified value is finite, false otherwise
+     */
+    static boolean isFinite(final double value){
+        return !(Double.isNaN(value) || Double.isInfinite(value));
+    }
+}
@@ -0,0 +1,193 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.icecrusher.ui.plot;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.raven.common.struct.Column;
+
+/**
+ * Data points of a time series, prepared for a date axis. The x-values of a
+ * DateSeries are the exact number of days since its origin, which is the earliest
+ * date of the series. All data points are sorted by their x-values.
+ * 
+ * <p>Dates are either parsed from their string representation or, if no formatter is
+ * specified, read as epoch milliseconds from a numeric column. When parsing, each distinct
+ * string is only parsed once. Formatters of date-time patterns are supported as well, in
+ * which case the time of day is ignored. Rows with a null x- or y-value are skipped.
+ *
+ */
+public final class DateSeries {
+
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    /**
+     * The maximum number of distinct strings memoized while parsing
+     */
+    private static final int MAX_MEMOIZED = 65536;
+
+    private final LocalDate origin;
+    private final double[] x;
+    private final double[] y;
+    private final double minY;
+    private final double maxY;
+
+    private DateSeries(final LocalDate origin, final double[] x, final double[] y,
+            final double minY, final double maxY){
+
+        this.origin = origin;
+        this.x = x;
+        this.y = y;
+        this.minY = minY;
+        this.maxY = maxY;
+    }
+
+    /**
+     * Builds a <code>DateSeries</code> from the specified columns
+     * 
+     * @param colX The column holding the dates
+     * @param colY The column holding the numeric y-values
+     * @param rows The number of rows of both columns
+     * @param formatter The <code>DateTimeFormatter</code> to parse dates with, or null
+     *                  to read the x-values as epoch milliseconds
+     * @param progress The <code>Progress</code> to report to
+     * @return A <code>DateSeries</code> holding all non-null data points of the
+     *         specified columns, or null if there are no such data points
+     * @throws DateFormatException If a value cannot be read as a date
+     */
+    public static DateSeries of(final Column colX, final Column colY, final int rows,
+            final DateTimeFormatter formatter, final ChartPreparation.Progress progress)
+                    throws DateFormatException{
+
+        final long[] days = new long[rows];
+        final double[] values = new double[rows];
+        final Map<String, Long> memo = new HashMap<>();
+        long minDay = Long.MAX_VALUE;
+        long maxDay = Long.MIN_VALUE;
+        int n = 0;
+        for(int i=0; i<rows; ++i){
+            final Object date = colX.getValue(i);
+            final Object value = colY.getValue(i);
+            if((date != null) && (value != null)){
+                final long day = ((formatter != null)
+                        ? parse(date.toString(), formatter, memo, i)
+                                : epochDay(date, i));
+
+                days[n] = day;
+                values[n++] = ((Number)value).doubleValue();
+                if(day < minDay){ minDay = day; }
+                if(day > maxDay){ maxDay = day; }
+            }
+            progress.update(i+1, rows);
+        }
+        if(n == 0){
+            return null;
+        }
+        if((maxDay - minDay) > Integer.MAX_VALUE){
+            throw new DateFormatException("Dates span too many days");
+        }
+        //sort pairs by day offset in the upper and row in the lower half
+        final long[] keys = new long[n];
+        for(int i=0; i<n; ++i){
+            keys[i] = ((days[i] - minDay) << 32) | i;
+        }
+        Arrays.parallelSort(keys);
+        final double[] x = new double[n];
+        final double[] y = new double[n];
+        double minY = Double.POSITIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for(int i=0; i<n; ++i){
+            x[i] = (keys[i] >>> 32);
+            final double value = values[(int) keys[i]];
+            y[i] = value;
+            if(value < minY){ minY = value; }
+            if(value > maxY){ maxY = value; }
+        }
+        return new DateSeries(LocalDate.ofEpochDay(minDay), x, y, minY, maxY);
+    }
+
+    /**
+     * Gets the origin of this series, i.e. the date of the x-value zero
+     * 
+     * @return The earliest date of this series
+     */
+    public LocalDate getOrigin(){
+        return this.origin;
+    }
+
+    /**
+     * Gets the number of days since the origin of all data points, in ascending order
+     * 
+     * @return The x-values of this series
+     */
+    public double[] getX(){
+        return this.x;
+    }
+
+    /**
+     * Gets the y-values of all data points, in the order of their x-values
+     * 
+     * @return The y-values of this series
+     */
+    public double[] getY(){
+        return this.y;
+    }
+
+    public double getMinY(){
+        return this.minY;
+    }
+
+    public double getMaxY(){
+        return this.maxY;
+    }
+
+    private static long parse(final String value, final DateTimeFormatter formatter,
+            final Map<String, Long> memo, final int index){
+
+        final Long cached = memo.get(value);
+        if(cached != null){
+            return cached;
+        }
+        final long day;
+        try{
+            day = LocalDate.from(formatter.parse(value)).toEpochDay();
+        }catch(DateTimeException ex){
+            throw new DateFormatException(index);
+        }
+        if(memo.size() < MAX_MEMOIZED){
+            memo.put(value, day);
+        }
+        return day;
+    }
+
+    private static long epochDay(final Object value, final int index){
+        try{
+            final long millis = ((value instanceof Number)
+                    ? ((Number)value).longValue()
+                            : Long.parseLong(value.toString().trim()));
+
+            return Math.floorDiv(millis, MILLIS_PER_DAY);
+        }catch(NumberFormatException ex){
+            throw new DateFormatException(index);
+        }
+    }
+}
@@ -0,0 +1,386 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.icecrusher.ui.plot;
+
+import java.util.Arrays;
+
+/**
+ * Level-of-detail reduction of XY data for charts.<br>
+ * A Decimator reduces a series of data points, sorted by their x-values, to at most
+ * a constant number of points per pixel bucket along the x-axis. For each bucket the
+ * points with the minimum and maximum y-value are kept in their original order, so that
+ * all peaks remain visible in a line or area drawn through the reduced series.
+ * The first point before and the first point after the decimated range are kept as
+ * well, so that lines continue to the edges of a zoomed chart.
+ *
+ * <p>The raw data is held in primitive arrays and is never changed by decimation.
+ * Any range of it can therefore be decimated again, for example when the user zooms in.
+ *
+ * <p>For large series a min/max pyramid is built once on construction. Level 0 of the
+ * pyramid holds the indices of the minimum and maximum y-value of each tile of
+ * {@link #TILE_SIZE} consecutive points and each further level merges two tiles of
+ * the level below. The minimum and maximum of any bucket are then found by combining
+ * at most two tiles per level, so that decimating a range takes time proportional to
+ * the number of buckets times the number of levels, regardless of the number of
+ * points within the range. The pyramid needs about one byte per data point.
+ *
+ */
+public final class Decimator {
+
+    private static final int INSERTION_SORT_THRESHOLD = 32;
+
+    /**
+     * The number of data points of one tile of the lowest pyramid level.
+     * Must be a power of two
+     */
+    static final int TILE_SIZE = 16;
+
+    /**
+     * The minimum number of data points for which a pyramid is built
+     */
+    static final int PYRAMID_THRESHOLD = 4096;
+
+    private static final int TILE_SHIFT = Integer.numberOfTrailingZeros(TILE_SIZE);
+
+    private final double[] x;
+    private final double[] y;
+    private final int[][] minTiles;
+    private final int[][] maxTiles;
+
+    /**
+     * Constructs a new <code>Decimator</code> for the specified data points.
+     * The data points are sorted by their x-values if necessary. Both arrays are
+     * used directly and must therefore not be changed afterwards
+     * 
+     * @param x The x-values of all data points
+     * @param y The y-values of all data points
+     */
+    public Decimator(final double[] x, final double[] y){
+        if(x.length != y.length){
+            throw new IllegalArgumentException("Array lengths differ");
+        }
+        this.x = x;
+        this.y = y;
+        if(!isSorted(x)){
+            sort(x, y, 0, x.length-1);
+        }
+        if(x.length >= PYRAMID_THRESHOLD){
+            final int levels = 32 - Integer.numberOfLeadingZeros(x.length >> TILE_SHIFT);
+            this.minTiles = new int[levels][];
+            this.maxTiles = new int[levels][];
+            buildPyramid();
+        }else{
+            this.minTiles = null;
+            this.maxTiles = null;
+        }
+    }
+
+    /**
+     * Gets the number of raw data points of this Decimator
+     * 
+     * @return The number of data points
+     */
+    public int size(){
+        return this.x.length;
+    }
+
+    /**
+     * Gets the smallest x-value of all data points
+     * 
+     * @return The minimum x-value, or NaN if this Decimator holds no data points
+     */
+    public double minX(){
+        return ((x.length > 0) ? x[0] : Double.NaN);
+    }
+
+    /**
+     * Gets the largest x-value of all data points
+     * 
+     * @return The maximum x-value, or NaN if this Decimator holds no data points
+     */
+    public double maxX(){
+        return ((x.length > 0) ? x[x.length-1] : Double.NaN);
+    }
+
+    /**
+     * Decimates all data points within the specified x-range
+     * 
+     * @param lower The lower bound of the x-range, inclusive
+     * @param upper The upper bound of the x-range, inclusive
+     * @param buckets The number of buckets to divide the x-range into,
+     *                usually the width of the chart in pixels
+     * @return An array of length two holding the x-values at index 0 and the
+     *         y-values at index 1 of the decimated data points
+     */
+    public double[][] decimate(final double lower, final double upper, final int buckets){
+        //include one point on each side of the range
+        final int from = Math.max(0, lowerIndex(lower) - 1);
+        final int to = Math.min(x.length, upperIndex(upper) + 1);
+        final int n = to - from;
+        if((n <= (2 * buckets)) || (upper <= lower) || (buckets < 1)){
+            return new double[][]{
+                Arrays.copyOfRange(x, from, to), Arrays.copyOfRange(y, from, to)};
+        }
+        final double[] rx = new double[2 * buckets + 2];
+        final double[] ry = new double[2 * buckets + 2];
+        int k = 0;
+        final double width = (upper - lower) / buckets;
+        int i = from;
+        //point before the range
+        if(x[i] < lower){
+            rx[k] = x[i];
+            ry[k++] = y[i++];
+        }
+        final int end = ((x[to-1] > upper) ? to-1 : to);
+        if(minTiles != null){
+            k = decimateTiles(i, end, lower, width, buckets, rx, ry, k);
+            i = end;
+        }
+        while(i < end){
+            final int bucket = Math.min(buckets-1, (int)((x[i] - lower) / width));
+            final double bucketEnd = lower + (bucket + 1) * width;
+            int min = i;
+            int max = i;
+            int j = i + 1;
+            while((j < end) && ((x[j] < bucketEnd) || (bucket == buckets-1))){
+                if(y[j] < y[min]){
+                    min = j;
+                }
+                if(y[j] > y[max]){
+                    max = j;
+                }
+                ++j;
+            }
+            final int first = Math.min(min, max);
+            final int second = Math.max(min, max);
+            rx[k] = x[first];
+            ry[k++] = y[first];
+            if(second != first){
+                rx[k] = x[second];
+                ry[k++] = y[second];
+            }
+            i = j;
+        }
+        //point after the range
+        if(end < to){
+            rx[k] = x[end];
+            ry[k++] = y[end];
+        }
+        return new double[][]{Arrays.copyOf(rx, k), Arrays.copyOf(ry, k)};
+    }
+
+    /**
+     * Decimates the points within the specified index range by querying
+     * the pyramid for each bucket
+     */
+    private int decimateTiles(final int from, final int end, final double lower,
+            final double width, final int buckets, final double[] rx, final double[] ry,
+            int k){
+
+        final int[] extremes = new int[2];
+        int start = from;
+        for(int bucket=0; (bucket<buckets) && (start<end); ++bucket){
+            final int stop = ((bucket == buckets-1)
+                    ? end : Math.max(start, Math.min(end, lowerIndex(lower + (bucket+1) * width))));
+
+            if(stop > start){
+                extremes(start, stop, extremes);
+                final int first = Math.min(extremes[0], extremes[1]);
+                final int second = Math.max(extremes[0], extremes[1]);
+                rx[k] = x[first];
+                ry[k++] = y[first];
+                if(second != first){
+                    rx[k] = x[second];
+                    ry[k++] = y[second];
+                }
+            }
+            start = stop;
+        }
+        return k;
+    }
+
+    /**
+     * Finds the indices of the minimum and maximum y-value within the specified
+     * index range. Points at the unaligned edges of the range are scanned directly,
+     * all other points are covered by at most two tiles per pyramid level
+     */
+    private void extremes(int from, int to, final int[] extremes){
+        extremes[0] = from;
+        extremes[1] = from;
+        while((from < to) && ((from & (TILE_SIZE-1)) != 0)){
+            consider(from, from, extremes);
+            ++from;
+        }
+        while((to > from) && ((to & (TILE_SIZE-1)) != 0)){
+            --to;
+            consider(to, to, extremes);
+        }
+        int lo = (from >> TILE_SHIFT);
+        int hi = (to >> TILE_SHIFT);
+        int level = 0;
+        while(lo < hi){
+            if((lo & 1) != 0){
+                consider(minTiles[level][lo], maxTiles[level][lo], extremes);
+                ++lo;
+            }
+            if((hi & 1) != 0){
+                --hi;
+                consider(minTiles[level][hi], maxTiles[level][hi], extremes);
+            }
+            lo >>= 1;
+            hi >>= 1;
+            ++level;
+        }
+    }
+
+    private void consider(final int min, final int max, final int[] extremes){
+        if(y[min] < y[extremes[0]]){
+            extremes[0] = min;
+        }
+        if(y[max] > y[extremes[1]]){
+            extremes[1] = max;
+        }
+    }
+
+    private void buildPyramid(){
+        final int tiles = (x.length >> TILE_SHIFT);
+        final int[] mins = new int[tiles];
+        final int[] maxs = new int[tiles];
+        for(int t=0; t<tiles; ++t){
+            int min = (t << TILE_SHIFT);
+            int max = min;
+            final int end = min + TILE_SIZE;
+            for(int i=min+1; i<end; ++i){
+                if(y[i] < y[min]){
+                    min = i;
+                }
+                if(y[i] > y[max]){
+                    max = i;
+                }
+            }
+            mins[t] = min;
+            maxs[t] = max;
+        }
+        minTiles[0] = mins;
+        maxTiles[0] = maxs;
+        for(int level=1; level<minTiles.length; ++level){
+            final int[] lowerMins = minTiles[level-1];
+            final int[] lowerMaxs = maxTiles[level-1];
+            final int n = (lowerMins.length >> 1);
+            final int[] levelMins = new int[n];
+            final int[] levelMaxs = new int[n];
+            for(int t=0; t<n; ++t){
+                final int a = (t << 1);
+                final int b = a + 1;
+                levelMins[t] = ((y[lowerMins[b]] < y[lowerMins[a]]) ? lowerMins[b] : lowerMins[a]);
+                levelMaxs[t] = ((y[lowerMaxs[b]] > y[lowerMaxs[a]]) ? lowerMaxs[b] : lowerMaxs[a]);
+            }
+            minTiles[level] = levelMins;
+            maxTiles[level] = levelMaxs;
+        }
+    }
+
+    private int lowerIndex(final double value){
+        int lo = 0;
+        int hi = x.length;
+        while(lo < hi){
+            final int mid = (lo + hi) >>> 1;
+            if(x[mid] < value){
+                lo = mid + 1;
+            }else{
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private int upperIndex(final double value){
+        int lo = 0;
+        int hi = x.length;
+        while(lo < hi){
+            final int mid = (lo + hi) >>> 1;
+            if(x[mid] <= value){
+                lo = mid + 1;
+            }else{
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static boolean isSorted(final double[] x){
+        for(int i=1; i<x.length; ++i){
+            if(x[i] < x[i-1]){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Sorts both arrays in place by the values of the first array
+     */
+    private static void sort(final double[] x, final double[] y, int lo, int hi){
+        while((hi - lo) > INSERTION_SORT_THRESHOLD){
+            final int mid = (lo + hi) >>> 1;
+            //median of three as pivot
+            if(x[mid] < x[lo]){ swap(x, y, mid, lo); }
+            if(x[hi] < x[lo]){ swap(x, y, hi, lo); }
+            if(x[hi] < x[mid]){ swap(x, y, hi, mid); }
+            final double pivot = x[mid];
+            int i = lo;
+            int j = hi;
+            while(i <= j){
+                while(x[i] < pivot){ ++i; }
+                while(x[j] > pivot){ --j; }
+                if(i <= j){
+                    swap(x, y, i++, j--);
+                }
+            }
+            //recurse into the smaller partition to bound the stack depth
+            if((j - lo) < (hi - i)){
+                sort(x, y, lo, j);
+                lo = i;
+            }else{
+                sort(x, y, i, hi);
+                hi = j;
+            }
+        }
+        for(int i=lo+1; i<=hi; ++i){
+            final double kx = x[i];
+            final double ky = y[i];
+            int j = i - 1;
+            while((j >= lo) && (x[j] > kx)){
+                x[j+1] = x[j];
+                y[j+1] = y[j];
+                --j;
+            }
+            x[j+1] = kx;
+            y[j+1] = ky;
+        }
+    }
+
+    private static void swap(final double[] x, final double[] y, final int i, final int j){
+        final double tx = x[i];
+        x[i] = x[j];
+        x[j] = tx;
+        final double ty = y[i];
+        y[i] = y[j];
+        y[j] = ty;
+    }
+
+}
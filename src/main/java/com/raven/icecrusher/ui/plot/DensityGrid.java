@@ -0,0 +1,360 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.icecrusher.ui.plot;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntToDoubleFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Two-dimensional point density of two numeric columns within a rectangular range.<br>
+ * All points inside the range are counted in a grid of cells, usually one cell per
+ * pixel of the plot area. The grid is computed in one parallel pass in which every
+ * task counts into its own grid. If only a few points lie inside the range, then
+ * these points are collected as well, so that they can be drawn exactly.
+ * 
+ * <p>Rows in which either value is null or not finite are ignored.
+ *
+ */
+public final class DensityGrid {
+
+    /**
+     * Extent and linear correlation of all points of two columns.
+     *
+     */
+    public static final class Extent {
+
+        private long n;
+        private double minX = Double.POSITIVE_INFINITY;
+        private double maxX = Double.NEGATIVE_INFINITY;
+        private double minY = Double.POSITIVE_INFINITY;
+        private double maxY = Double.NEGATIVE_INFINITY;
+        private double meanX;
+        private double meanY;
+        private double m2X;
+        private double m2Y;
+        private double coMoment;
+
+        private void add(final double x, final double y){
+            ++n;
+            final double dx = x - meanX;
+            final double dy = y - meanY;
+            meanX += dx / n;
+            meanY += dy / n;
+            m2X += dx * (x - meanX);
+            m2Y += dy * (y - meanY);
+            coMoment += dx * (y - meanY);
+            if(x < minX){ minX = x; }
+            if(x > maxX){ maxX = x; }
+            if(y < minY){ minY = y; }
+            if(y > maxY){ maxY = y; }
+        }
+
+        private static Extent merge(final Extent a, final Extent b){
+            if(a.n == 0){
+                return b;
+            }
+            if(b.n == 0){
+                return a;
+            }
+            final Extent e = new Extent();
+            e.n = a.n + b.n;
+            final double dx = b.meanX - a.meanX;
+            final double dy = b.meanY - a.meanY;
+            final double f = ((double) a.n * b.n) / e.n;
+            e.meanX = a.meanX + dx * b.n / e.n;
+            e.meanY = a.meanY + dy * b.n / e.n;
+            e.m2X = a.m2X + b.m2X + dx * dx * f;
+            e.m2Y = a.m2Y + b.m2Y + dy * dy * f;
+            e.coMoment = a.coMoment + b.coMoment + dx * dy * f;
+            e.minX = Math.min(a.minX, b.minX);
+            e.maxX = Math.max(a.maxX, b.maxX);
+            e.minY = Math.min(a.minY, b.minY);
+            e.maxY = Math.max(a.maxY, b.maxY);
+            return e;
+        }
+
+        /**
+         * Gets the number of points
+         * 
+         * @return The number of points with finite values
+         */
+        public long count(){
+            return this.n;
+        }
+
+        public double minX(){
+            return this.minX;
+        }
+
+        public double maxX(){
+            return this.maxX;
+        }
+
+        public double minY(){
+            return this.minY;
+        }
+
+        public double maxY(){
+            return this.maxY;
+        }
+
+        /**
+         * Gets the Pearson correlation coefficient of all points
+         * 
+         * @return The correlation coefficient, or NaN if either
+         *         column has no variance
+         */
+        public double correlation(){
+            final double denominator = Math.sqrt(m2X * m2Y);
+            return ((denominator > 0) ? (coMoment / denominator) : Double.NaN);
+        }
+    }
+
+    private final double xLower;
+    private final double xUpper;
+    private final double yLower;
+    private final double yUpper;
+    private final int width;
+    private final int height;
+    private final int[] counts;
+    private final int maxCount;
+    private final long visible;
+    private double[] pointsX;
+    private double[] pointsY;
+
+    private DensityGrid(final double xLower, final double xUpper, final double yLower,
+            final double yUpper, final int width, final int height, final int[] counts){
+
+        this.xLower = xLower;
+        this.xUpper = xUpper;
+        this.yLower = yLower;
+        this.yUpper = yUpper;
+        this.width = width;
+        this.height = height;
+        this.counts = counts;
+        int max = 0;
+        long sum = 0;
+        for(final int count : counts){
+            sum += count;
+            if(count > max){
+                max = count;
+            }
+        }
+        this.maxCount = max;
+        this.visible = sum;
+    }
+
+    /**
+     * Computes the extent and correlation of all points of the specified columns
+     * 
+     * @param x The function reading the x-values
+     * @param y The function reading the y-values
+     * @param rows The number of rows of both columns
+     * @param progress The <code>Progress</code> to report to
+     * @return The <code>Extent</code> of all points
+     */
+    public static Extent extentOf(final IntToDoubleFunction x, final IntToDoubleFunction y,
+            final int rows, final ChartPreparation.Progress progress){
+
+        final int tasks = tasksFor(rows);
+        final AtomicLong done = new AtomicLong();
+        return IntStream.range(0, tasks).parallel().mapToObj((t) -> {
+            final Extent extent = new Extent();
+            final int end = end(t, tasks, rows);
+            for(int i=begin(t, tasks, rows); i<end; ++i){
+                final double vx = x.applyAsDouble(i);
+                final double vy = y.applyAsDouble(i);
+                if(ColumnReaders.isFinite(vx) && ColumnReaders.isFinite(vy)){
+                    extent.add(vx, vy);
+                }
+                if((i & 0xFFFF) == 0){
+                    progress.update(done.addAndGet(0x10000), rows);
+                }
+            }
+            return extent;
+        }).reduce(new Extent(), Extent::merge);
+    }
+
+    /**
+     * Computes the density of all points of the specified columns within the
+     * specified range
+     * 
+     * @param x The function reading the x-values
+     * @param y The function reading the y-values
+     * @param rows The number of rows of both columns
+     * @param xLower The lower bound of the x-range
+     * @param xUpper The upper bound of the x-range
+     * @param yLower The lower bound of the y-range
+     * @param yUpper The upper bound of the y-range
+     * @param width The number of cells along the x-axis
+     * @param height The number of cells along the y-axis
+     * @param exactThreshold The maximum number of points inside the range
+     *                       for which all points are collected
+     * @param progress The <code>Progress</code> to report to
+     * @return A <code>DensityGrid</code> for the specified range
+     */
+    public static DensityGrid of(final IntToDoubleFunction x, final IntToDoubleFunction y,
+            final int rows, final double xLower, final double xUpper, final double yLower,
+            final double yUpper, final int width, final int height, final int exactThreshold,
+            final ChartPreparation.Progress progress){
+
+        if((width < 1) || (height < 1)){
+            throw new IllegalArgumentException("Grid must have at least one cell");
+        }
+        final double sx = width / (xUpper - xLower);
+        final double sy = height / (yUpper - yLower);
+        final int tasks = tasksFor(rows);
+        final AtomicLong done = new AtomicLong();
+        final int[] counts = IntStream.range(0, tasks).parallel().mapToObj((t) -> {
+            final int[] local = new int[width * height];
+            final int end = end(t, tasks, rows);
+            for(int i=begin(t, tasks, rows); i<end; ++i){
+                final double vx = x.applyAsDouble(i);
+                final double vy = y.applyAsDouble(i);
+                //comparisons are false for NaN values
+                if((vx >= xLower) && (vx <= xUpper) && (vy >= yLower) && (vy <= yUpper)){
+                    final int cx = Math.min(width - 1, (int) ((vx - xLower) * sx));
+                    final int cy = Math.min(height - 1, (int) ((yUpper - vy) * sy));
+                    ++local[cy * width + cx];
+                }
+                if((i & 0xFFFF) == 0){
+                    progress.update(done.addAndGet(0x10000), rows);
+                }
+            }
+            return local;
+        }).reduce((a, b) -> {
+            for(int i=0; i<a.length; ++i){
+                a[i] += b[i];
+            }
+            return a;
+        }).orElse(new int[width * height]);
+
+        final DensityGrid grid = new DensityGrid(xLower, xUpper, yLower, yUpper,
+                width, height, counts);
+
+        if(grid.visible <= exactThreshold){
+            grid.collectPoints(x, y, rows);
+        }
+        return grid;
+    }
+
+    public double xLower(){
+        return this.xLower;
+    }
+
+    public double xUpper(){
+        return this.xUpper;
+    }
+
+    public double yLower(){
+        return this.yLower;
+    }
+
+    public double yUpper(){
+        return this.yUpper;
+    }
+
+    public int width(){
+        return this.width;
+    }
+
+    public int height(){
+        return this.height;
+    }
+
+    /**
+     * Gets the number of points in the specified cell. Cells are
+     * counted from the top left corner of the range
+     * 
+     * @param column The column of the cell, from left to right
+     * @param row The row of the cell, from top to bottom
+     * @return The number of points in the specified cell
+     */
+    public int count(final int column, final int row){
+        return this.counts[row * width + column];
+    }
+
+    /**
+     * Gets the largest number of points in any cell
+     * 
+     * @return The maximum cell count
+     */
+    public int maxCount(){
+        return this.maxCount;
+    }
+
+    /**
+     * Gets the number of points inside the range of this grid
+     * 
+     * @return The number of visible points
+     */
+    public long visible(){
+        return this.visible;
+    }
+
+    /**
+     * Indicates whether this grid holds all visible points exactly
+     * 
+     * @return True if the points are available through {@link #pointsX()}
+     *         and {@link #pointsY()}, false otherwise
+     */
+    public boolean hasPoints(){
+        return (this.pointsX != null);
+    }
+
+    public double[] pointsX(){
+        return this.pointsX;
+    }
+
+    public double[] pointsY(){
+        return this.pointsY;
+    }
+
+    private void collectPoints(final IntToDoubleFunction x, final IntToDoubleFunction y,
+            final int rows){
+
+        final double[] px = new double[(int) visible];
+        final double[] py = new double[(int) visible];
+        int k = 0;
+        for(int i=0; (i<rows) && (k<px.length); ++i){
+            final double vx = x.applyAsDouble(i);
+            final double vy = y.applyAsDouble(i);
+            if((vx >= xLower) && (vx <= xUpper) && (vy >= yLower) && (vy <= yUpper)){
+                px[k] = vx;
+                py[k++] = vy;
+            }
+        }
+        this.pointsX = px;
+        this.pointsY = py;
+    }
+
+    private static int tasksFor(final int rows){
+        //one grid per task, so keep the number of tasks small
+        final int parallelism = ForkJoinPool.getCommonPoolParallelism() + 1;
+        return Math.max(1, Math.min(parallelism, rows / 65536));
+    }
+
+    private static int begin(final int task, final int tasks, final int rows){
+        return (int) (((long) rows * task) / tasks);
+    }
+
+    private static int end(final int task, final int tasks, final int rows){
+        return (int) (((long) rows * (task + 1)) / tasks);
+    }
+}
@@ -0,0 +1,193 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.icecrusher.ui.plot;
+
+import javafx.beans.NamedArg;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.chart.Axis;
+import javafx.scene.chart.ScatterChart;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+
+/**
+ * A <code>ScatterChart</code> which draws the density of a large number of points
+ * onto a <code>Canvas</code> instead of creating one node per point.<br>
+ * The density is given by a {@link DensityGrid} and is drawn as an image in which
+ * every cell of the grid is colored according to the logarithm of its point count.
+ * If the grid holds its points exactly, then all points are drawn as dots instead.
+ * The grid is drawn at the position of its range on the current axes, so that a grid
+ * computed for a previous range is shown scaled until a new one is available.
+ *
+ */
+public class DensityScatterChart extends ScatterChart<Number, Number> {
+
+    /**
+     * The radius of exactly drawn points
+     */
+    private static final double POINT_RADIUS = 2.5;
+
+    /**
+     * The colors of the density scale, from low to high density
+     */
+    private static final Color[] SCALE = new Color[]{
+        Color.web("#3b0f70"), Color.web("#8c2981"), Color.web("#de4968"),
+        Color.web("#fe9f6d"), Color.web("#fcfdbf")};
+
+    /**
+     * The density scale as ARGB values
+     */
+    private static final int[] PALETTE = palette(256);
+
+    private final Canvas canvas;
+    private DensityGrid grid;
+    private WritableImage image;
+    private Color pointColor = Color.web("#fe9f6d");
+
+    public DensityScatterChart(@NamedArg("xAxis") final Axis<Number> xAxis,
+            @NamedArg("yAxis") final Axis<Number> yAxis){
+
+        super(xAxis, yAxis);
+        this.canvas = new Canvas();
+        this.canvas.setMouseTransparent(true);
+        getPlotChildren().add(0, canvas);
+    }
+
+    /**
+     * Sets the density grid to draw
+     * 
+     * @param grid The <code>DensityGrid</code> to draw. May be null
+     */
+    public void setGrid(final DensityGrid grid){
+        this.grid = grid;
+        this.image = (((grid != null) && !grid.hasPoints()) ? render(grid) : null);
+        redraw();
+    }
+
+    /**
+     * Gets the density grid drawn by this chart
+     * 
+     * @return The <code>DensityGrid</code> of this chart, or null if no grid is set
+     */
+    public DensityGrid getGrid(){
+        return this.grid;
+    }
+
+    /**
+     * Sets the color of exactly drawn points
+     * 
+     * @param color The color as a web color string
+     */
+    public void setPointColor(final String color){
+        this.pointColor = Color.web(color);
+        redraw();
+    }
+
+    /**
+     * Gets the width of the plot area
+     * 
+     * @return The width of the plot area in pixels
+     */
+    public double getPlotWidth(){
+        return getXAxis().getWidth();
+    }
+
+    /**
+     * Gets the height of the plot area
+     * 
+     * @return The height of the plot area in pixels
+     */
+    public double getPlotHeight(){
+        return getYAxis().getHeight();
+    }
+
+    /**
+     * Draws the density grid again with the current axis ranges
+     * 
+     */
+    public void redraw(){
+        final double width = getPlotWidth();
+        final double height = getPlotHeight();
+        canvas.setWidth(width);
+        canvas.setHeight(height);
+        final GraphicsContext gc = canvas.getGraphicsContext2D();
+        gc.clearRect(0, 0, width, height);
+        if((grid == null) || (width <= 0) || (height <= 0)){
+            return;
+        }
+        final Axis<Number> xAxis = getXAxis();
+        final Axis<Number> yAxis = getYAxis();
+        if(grid.hasPoints()){
+            final double[] xs = grid.pointsX();
+            final double[] ys = grid.pointsY();
+            final double d = 2 * POINT_RADIUS;
+            gc.setFill(pointColor);
+            for(int i=0; i<xs.length; ++i){
+                gc.fillOval(xAxis.getDisplayPosition(xs[i]) - POINT_RADIUS,
+                        yAxis.getDisplayPosition(ys[i]) - POINT_RADIUS, d, d);
+            }
+        }else if(image != null){
+            final double left = xAxis.getDisplayPosition(grid.xLower());
+            final double right = xAxis.getDisplayPosition(grid.xUpper());
+            final double top = yAxis.getDisplayPosition(grid.yUpper());
+            final double bottom = yAxis.getDisplayPosition(grid.yLower());
+            gc.drawImage(image, left, top, right - left, bottom - top);
+        }
+    }
+
+    @Override
+    protected void layoutPlotChildren(){
+        super.layoutPlotChildren();
+        redraw();
+    }
+
+    private static WritableImage render(final DensityGrid grid){
+        final int width = grid.width();
+        final int height = grid.height();
+        final int[] pixels = new int[width * height];
+        final double scale = Math.log1p(grid.maxCount());
+        for(int row=0; row<height; ++row){
+            for(int col=0; col<width; ++col){
+                final int count = grid.count(col, row);
+                if(count > 0){
+                    final double t = ((scale > 0) ? (Math.log1p(count) / scale) : 1.0);
+                    pixels[row * width + col] = PALETTE[(int) (t * (PALETTE.length - 1))];
+                }
+            }
+        }
+        final WritableImage img = new WritableImage(width, height);
+        img.getPixelWriter().setPixels(0, 0, width, height,
+                PixelFormat.getIntArgbInstance(), pixels, 0, width);
+
+        return img;
+    }
+
+    private static int[] palette(final int size){
+        final int[] palette = new int[size];
+        for(int i=0; i<size; ++i){
+            final double position = ((double) i / (size - 1)) * (SCALE.length - 1);
+            final int j = Math.min(SCALE.length - 2, (int) position);
+            final Color c = SCALE[j].interpolate(SCALE[j + 1], position - j);
+            palette[i] = (0xFF << 24)
+                    | ((int) Math.round(c.getRed() * 255) << 16)
+                    | ((int) Math.round(c.getGreen() * 255) << 8)
+                    | (int) Math.round(c.getBlue() * 255);
+        }
+        return palette;
+    }
+}
@@ -0,0 +1,345 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.icecrusher.ui.plot;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntToDoubleFunction;
+import java.util.stream.IntStream;
+
+import com.raven.common.struct.Column;
+
+/**
+ * Frequency distribution of the values of a numeric column.<br>
+ * A Histogram is computed in two parallel streaming passes over the column. The first
+ * pass computes the range and the moments of all values, which determine the bins
+ * according to a {@link BinRule}. The second pass counts the values of each bin.
+ * Null values and values which are not finite are ignored.
+ * 
+ * <p>An optional kernel density estimate can be computed from the bin counts,
+ * scaled to be comparable with them.
+ *
+ */
+public final class Histogram {
+
+    /**
+     * Rules for determining the number of bins of a Histogram.
+     *
+     */
+    public enum BinRule {
+
+        /**
+         * <code>ceil(log2(n)) + 1</code> bins. Suitable for roughly normal data
+         */
+        STURGES("Sturges"),
+
+        /**
+         * Bins of width <code>3.49 * sd * n^(-1/3)</code>
+         */
+        SCOTT("Scott"),
+
+        /**
+         * <code>ceil(sqrt(n))</code> bins
+         */
+        SQUARE_ROOT("Square root"),
+
+        /**
+         * A fixed number of bins
+         */
+        FIXED("Fixed");
+
+        private final String label;
+
+        BinRule(final String label){
+            this.label = label;
+        }
+
+        @Override
+        public String toString(){
+            return this.label;
+        }
+    }
+
+    /**
+     * The maximum number of bins of a Histogram
+     */
+    public static final int MAX_BINS = 1000;
+
+    /**
+     * The number of rows processed by one parallel task
+     */
+    private static final int CHUNK_SIZE = 65536;
+
+    private final double min;
+    private final double width;
+    private final long[] counts;
+    private final long total;
+    private final double mean;
+    private final double stdDev;
+
+    private Histogram(final double min, final double width, final long[] counts,
+            final long total, final double mean, final double stdDev){
+
+        this.min = min;
+        this.width = width;
+        this.counts = counts;
+        this.total = total;
+        this.mean = mean;
+        this.stdDev = stdDev;
+    }
+
+    /**
+     * Computes a <code>Histogram</code> of the specified numeric column
+     * 
+     * @param col The column to compute the histogram of. Must be numeric
+     * @param rows The number of rows of the column
+     * @param rule The <code>BinRule</code> to use
+     * @param bins The number of bins if the rule is <code>FIXED</code>.
+     *             Ignored otherwise
+     * @param progress The <code>Progress</code> to report to
+     * @return A <code>Histogram</code> of all non-null values of the specified column,
+     *         or null if the column has no such values
+     */
+    public static Histogram of(final Column col, final int rows, final BinRule rule,
+            final int bins, final ChartPreparation.Progress progress){
+
+        final IntToDoubleFunction reader = ColumnReaders.of(col);
+        final int chunks = (rows + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        final long work = 2L * rows;
+        final AtomicLong done = new AtomicLong();
+        //first pass
+        final Moments moments = IntStream.range(0, chunks).parallel().mapToObj((c) -> {
+            final Moments m = new Moments();
+            final int end = Math.min(rows, (c + 1) * CHUNK_SIZE);
+            for(int i=c*CHUNK_SIZE; i<end; ++i){
+                m.add(reader.applyAsDouble(i));
+            }
+            progress.update(done.addAndGet(end - (c * CHUNK_SIZE)), work);
+            return m;
+        }).reduce(new Moments(), Moments::merge);
+
+        if(moments.n == 0){
+            return null;
+        }
+        final double sd = ((moments.n > 1) ? Math.sqrt(moments.m2 / (moments.n - 1)) : 0.0);
+        final int k = binsOf(rule, bins, moments, sd);
+        final double range = (moments.max - moments.min);
+        final double width = ((range > 0) ? (range / k) : 1.0);
+        final double lower = ((range > 0) ? moments.min : (moments.min - 0.5));
+        //second pass
+        final long[] counts = IntStream.range(0, chunks).parallel().mapToObj((c) -> {
+            final long[] local = new long[k];
+            final int end = Math.min(rows, (c + 1) * CHUNK_SIZE);
+            for(int i=c*CHUNK_SIZE; i<end; ++i){
+                final double value = reader.applyAsDouble(i);
+                if(ColumnReaders.isFinite(value)){
+                    //the maximum belongs to the last bin
+                    ++local[Math.min(k - 1, (int) ((value - lower) / width))];
+                }
+            }
+            progress.update(done.addAndGet(end - (c * CHUNK_SIZE)), work);
+            return local;
+        }).reduce(new long[k], (a, b) -> {
+            final long[] sum = new long[k];
+            for(int i=0; i<k; ++i){
+                sum[i] = a[i] + b[i];
+            }
+            return sum;
+        });
+        return new Histogram(lower, width, counts, moments.n, moments.mean, sd);
+    }
+
+    /**
+     * Gets the number of bins of this Histogram
+     * 
+     * @return The number of bins
+     */
+    public int bins(){
+        return this.counts.length;
+    }
+
+    /**
+     * Gets the number of values in the specified bin
+     * 
+     * @param bin The index of the bin
+     * @return The number of values in the specified bin
+     */
+    public long count(final int bin){
+        return this.counts[bin];
+    }
+
+    /**
+     * Gets the lower edge of the specified bin. The upper edge of the last bin
+     * is <code>lowerEdge(bins())</code>
+     * 
+     * @param bin The index of the bin
+     * @return The lower edge of the specified bin
+     */
+    public double lowerEdge(final int bin){
+        return (min + (bin * width));
+    }
+
+    /**
+     * Gets the width of all bins
+     * 
+     * @return The width of a bin
+     */
+    public double width(){
+        return this.width;
+    }
+
+    /**
+     * Gets the number of values counted by this Histogram
+     * 
+     * @return The total number of values
+     */
+    public long total(){
+        return this.total;
+    }
+
+    public double mean(){
+        return this.mean;
+    }
+
+    public double stdDev(){
+        return this.stdDev;
+    }
+
+    /**
+     * Computes the outline of this Histogram as a step function, starting and
+     * ending on the x-axis
+     * 
+     * @return An array of length two holding the x-values at index 0 and the
+     *         y-values at index 1 of all points of the outline
+     */
+    public double[][] outline(){
+        final int k = counts.length;
+        final double[] x = new double[2 * k + 2];
+        final double[] y = new double[2 * k + 2];
+        x[0] = lowerEdge(0);
+        for(int i=0; i<k; ++i){
+            x[2*i+1] = lowerEdge(i);
+            y[2*i+1] = counts[i];
+            x[2*i+2] = lowerEdge(i + 1);
+            y[2*i+2] = counts[i];
+        }
+        x[2*k+1] = lowerEdge(k);
+        return new double[][]{x, y};
+    }
+
+    /**
+     * Computes a Gaussian kernel density estimate from the bin counts of this Histogram,
+     * using Silverman's rule of thumb for the bandwidth. The density is scaled by the
+     * total number of values and the bin width, so that it can be plotted together
+     * with the bin counts
+     * 
+     * @param points The number of points to evaluate the density at
+     * @return An array of length two holding the x-values at index 0 and the
+     *         y-values at index 1 of all evaluated points
+     */
+    public double[][] density(final int points){
+        double h = 1.06 * stdDev * Math.pow(total, -0.2);
+        if(!(h > 0)){
+            h = width;
+        }
+        final int k = counts.length;
+        final double from = lowerEdge(0);
+        final double step = ((lowerEdge(k) - from) / Math.max(1, points - 1));
+        final double norm = (width / (h * Math.sqrt(2 * Math.PI)));
+        final double[] x = new double[points];
+        final double[] y = new double[points];
+        for(int j=0; j<points; ++j){
+            final double at = from + (j * step);
+            double sum = 0.0;
+            for(int i=0; i<k; ++i){
+                if(counts[i] != 0){
+                    final double u = (at - (lowerEdge(i) + (width / 2))) / h;
+                    sum += counts[i] * Math.exp(-0.5 * u * u);
+                }
+            }
+            x[j] = at;
+            y[j] = sum * norm;
+        }
+        return new double[][]{x, y};
+    }
+
+    private static int binsOf(final BinRule rule, final int bins, final Moments moments,
+            final double sd){
+
+        final double range = (moments.max - moments.min);
+        double k;
+        switch(rule){
+        case STURGES:
+            k = Math.ceil(Math.log(moments.n) / Math.log(2)) + 1;
+            break;
+        case SCOTT:
+            final double h = 3.49 * sd * Math.pow(moments.n, -1.0 / 3.0);
+            k = ((h > 0) ? Math.ceil(range / h) : 1);
+            break;
+        case SQUARE_ROOT:
+            k = Math.ceil(Math.sqrt(moments.n));
+            break;
+        default:
+            k = bins;
+        }
+        if(range <= 0){
+            return 1;
+        }
+        return (int) Math.max(1, Math.min(MAX_BINS, k));
+    }
+
+    /**
+     * Count, range and central moments of a sequence of values.
+     *
+     */
+    private static final class Moments {
+
+        private long n;
+        private double min = Double.POSITIVE_INFINITY;
+        private double max = Double.NEGATIVE_INFINITY;
+        private double mean;
+        private double m2;
+
+        private void add(final double value){
+            if(!ColumnReaders.isFinite(value)){
+                return;
+            }
+            ++n;
+            final double delta = value - mean;
+            mean += delta / n;
+            m2 += delta * (value - mean);
+            if(value < min){ min = value; }
+            if(value > max){ max = value; }
+        }
+
+        private static Moments merge(final Moments a, final Moments b){
+            if(a.n == 0){
+                return b;
+            }
+            if(b.n == 0){
+                return a;
+            }
+            final Moments m = new Moments();
+            m.n = a.n + b.n;
+            final double delta = b.mean - a.mean;
+            m.mean = a.mean + delta * b.n / m.n;
+            m.m2 = a.m2 + b.m2 + delta * delta * ((double) a.n * b.n / m.n);
+            m.min = Math.min(a.min, b.min);
+            m.max = Math.max(a.max, b.max);
+            return m;
+        }
+    }
+}
@@ -0,0 +1,335 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.icecrusher.ui.plot;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.jfoenix.controls.JFXCheckBox;
+import com.jfoenix.controls.JFXComboBox;
+import com.jfoenix.controls.JFXTextField;
+import com.raven.common.struct.Column;
+import com.raven.icecrusher.application.Cache;
+import com.raven.icecrusher.ui.OneShotSnackbar;
+import com.raven.icecrusher.ui.plot.Histogram.BinRule;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.event.ActionEvent;
+import javafx.fxml.FXML;
+import javafx.scene.Node;
+import javafx.scene.chart.AreaChart;
+import javafx.scene.chart.NumberAxis;
+import javafx.scene.chart.XYChart;
+import javafx.scene.chart.XYChart.Series;
+
+import static com.raven.icecrusher.util.EditorConfiguration.*;
+import static com.raven.icecrusher.util.EditorConfiguration.Section.*;
+
+/**
+ * Controller class for the Histogram activity. The histogram of the selected numeric
+ * column is computed in the background whenever the column or the binning changes.
+ * It is shown as the outline of all bins, optionally together with a kernel
+ * density estimate of the distribution.
+ *
+ */
+public class HistogramController extends ChartController {
+
+    protected static final String STYLE_PLOT_BACKGROUND_WHITE = "-fx-background-color: white";
+    protected static final String STYLE_PLOTBACKGROUND_DARK = "-fx-background-color: #383838";
+    protected static final String STYLE_GRID_LINES_WHITE = "-fx-stroke: derive(white, -10%)";
+    protected static final String STYLE_GRID_LINES_DARK = "-fx-stroke: derive(white, -70%)";
+
+    /**
+     * The number of points the density estimate is evaluated at
+     */
+    private static final int DENSITY_POINTS = 256;
+
+    /**
+     * The number of bins initially used by the fixed bin rule
+     */
+    private static final int DEFAULT_BINS = 20;
+
+    //computation is index based. Do not change order of items
+    private static final ObservableList<String> OPTIONS_BIN_RULE = FXCollections
+            .observableArrayList(
+            BinRule.STURGES.toString(), BinRule.SCOTT.toString(),
+            BinRule.SQUARE_ROOT.toString(), BinRule.FIXED.toString());
+
+    @FXML
+    private JFXComboBox<String> cbColumn;
+
+    @FXML
+    private JFXComboBox<String> cbBinRule;
+
+    @FXML
+    private JFXTextField txtBins;
+
+    @FXML
+    private JFXTextField txtAxisXLabel;
+
+    @FXML
+    private JFXTextField txtAxisYLabel;
+
+    @FXML
+    private JFXCheckBox checkShowGrid;
+
+    @FXML
+    private JFXCheckBox checkWhiteBackground;
+
+    @FXML
+    private JFXCheckBox checkDensity;
+
+    @FXML
+    private NumberAxis chartXAxis;
+
+    @FXML
+    private NumberAxis chartYAxis;
+
+    @FXML
+    private AreaChart<Number, Number> chart;
+
+    private List<Series<Number, Number>> preparedSeries;
+    private boolean plotDataChanged;
+
+    public HistogramController(){
+        super();
+    }
+
+    @FXML
+    @Override
+    public void initialize(){
+        super.initialize(this.chart);
+        //ComboBoxes
+        this.cbBinRule.setItems(OPTIONS_BIN_RULE);
+        selectOptionFromConfig(cbBinRule, CONFIG_HISTOGRAM_BIN_RULE, OPTIONS_BIN_RULE);
+        this.txtBins.setText(String.valueOf(DEFAULT_BINS));
+        this.txtBins.setDisable(selectedBinRule() != BinRule.FIXED);
+        this.cbBinRule.getSelectionModel().selectedItemProperty().addListener(
+                (ov, oldValue, newValue) -> {
+
+            getConfiguration().set(PLOT, CONFIG_HISTOGRAM_BIN_RULE, newValue);
+            txtBins.setDisable(selectedBinRule() != BinRule.FIXED);
+            prepareChart();
+        });
+        //CheckBoxes
+        this.checkShowGrid.selectedProperty().addListener((ov, oldValue, newValue) -> {
+            chart.setHorizontalGridLinesVisible(newValue);
+            chart.setVerticalGridLinesVisible(newValue);
+            getConfiguration().set(PLOT, CONFIG_GRID_VISIBLE, newValue);
+        });
+        this.checkShowGrid.setSelected(getConfiguration().booleanOf(PLOT, CONFIG_GRID_VISIBLE));
+        this.checkWhiteBackground.selectedProperty().addListener(
+                (ov, oldValue, newValue) -> {
+                    
+            final Node nBack = chart.lookup(".chart-plot-background");
+            final Node nLinesVer = chart.lookup(".chart-vertical-grid-lines");
+            final Node nLinesHor = chart.lookup(".chart-horizontal-grid-lines");
+            if((nBack != null) && (nLinesVer != null) && (nLinesHor != null)){
+                nBack.setStyle(newValue ? STYLE_PLOT_BACKGROUND_WHITE : STYLE_PLOTBACKGROUND_DARK);
+                nLinesVer.setStyle(newValue ? STYLE_GRID_LINES_WHITE : STYLE_GRID_LINES_DARK);
+                nLinesHor.setStyle(newValue ? STYLE_GRID_LINES_WHITE : STYLE_GRID_LINES_DARK);
+            }
+            getConfiguration().set(PLOT, CONFIG_BACKGROUND_WHITE, newValue);
+        });
+        this.checkWhiteBackground.setSelected(getConfiguration().booleanOf(PLOT, CONFIG_BACKGROUND_WHITE));
+        this.checkDensity.setSelected(getConfiguration().booleanOf(PLOT, CONFIG_HISTOGRAM_DENSITY));
+        this.checkDensity.selectedProperty().addListener((ov, oldValue, newValue) -> {
+            getConfiguration().set(PLOT, CONFIG_HISTOGRAM_DENSITY, newValue);
+            prepareChart();
+        });
+    }
+
+    @Override
+    public void onStart(ArgumentBundle bundle){
+        super.onStart(bundle);
+        //flush the DataFrame to make sure that counting
+        //does not result in deviating sizes
+        this.df.flush();
+        for(final String name : df.getColumnNames()){
+            if(df.getColumn(name).isNumeric()){
+                this.cbColumn.getItems().add(name);
+            }
+        }
+        this.cbColumn.getSelectionModel().selectedItemProperty().addListener(
+                (ov, oldValue, newValue) -> {
+
+            if(newValue != null){
+                final String text = txtAxisXLabel.getText();
+                if((text == null) || text.isEmpty()){
+                    txtAxisXLabel.setText(Cache.session()
+                            .get("ChartController.chart.xaxis.label." + newValue));
+                    
+                }else{
+                    Cache.session().set("ChartController.chart.xaxis.label." + newValue, text);
+                }
+            }
+            prepareChart();
+        });
+        this.txtBins.textProperty().addListener((observable, oldValue, newValue) -> {
+            prepareChart();
+        });
+        this.txtAxisXLabel.textProperty().addListener((observable, oldValue, newValue) -> {
+            chartXAxis.setLabel(newValue);
+            final String column = cbColumn.getValue();
+            if(column != null){
+                Cache.session().set("ChartController.chart.xaxis.label." + column, newValue);
+            }
+        });
+        this.txtAxisYLabel.textProperty().addListener((observable, oldValue, newValue) -> {
+            chartYAxis.setLabel(newValue);
+        });
+        if(cbColumn.getItems().isEmpty()){
+            OneShotSnackbar.showFor(getRootNode(), "There are no numeric columns");
+        }
+    }
+
+    @FXML
+    @Override
+    public void onPlot(ActionEvent event){
+        if(plotIsShown && !plotDataChanged){
+            exportSnapshot();
+        }else if(preparedSeries != null){
+            this.chart.getData().setAll(preparedSeries);
+            for(int i=0; i<preparedSeries.size(); ++i){
+                updateAreaColor(preparedSeries.get(i).getNode(),
+                        settingsList.getSettingsViewAt(i).getColor());
+            }
+            this.plotIsShown = true;
+            this.plotDataChanged = false;
+            this.btnPlotExport.setText("Export");
+            updateAllLegendColors();
+        }
+    }
+
+    @FXML
+    protected void onClose(ActionEvent event){
+        super.onClose(event);
+    }
+
+    private BinRule selectedBinRule(){
+        final int index = cbBinRule.getSelectionModel().getSelectedIndex();
+        return ((index >= 0) ? BinRule.values()[index] : BinRule.STURGES);
+    }
+
+    private void prepareChart(){
+        final String name = cbColumn.getSelectionModel().getSelectedItem();
+        if(name == null){
+            return;
+        }
+        final BinRule rule = selectedBinRule();
+        int bins = 0;
+        if(rule == BinRule.FIXED){
+            try{
+                bins = Integer.parseInt(txtBins.getText().trim());
+            }catch(NumberFormatException ex){
+                bins = 0;
+            }
+            if((bins < 1) || (bins > Histogram.MAX_BINS)){
+                preparation.cancel();
+                showInfo("Number of bins must be between 1 and " + Histogram.MAX_BINS);
+                return;
+            }
+        }
+        final Column col = df.getColumn(name);
+        final int rows = df.rows();
+        final int numberOfBins = bins;
+        final boolean showDensity = checkDensity.isSelected();
+        this.btnPlotExport.setDisable(true);
+        preparation.submit((progress) -> Histogram.of(col, rows, rule, numberOfBins, progress),
+                (histogram) -> {
+
+            if(histogram == null){
+                showInfo("This column only contains null values");
+                return;
+            }
+            final List<Series<Number, Number>> series = new ArrayList<>(2);
+            series.add(seriesOf(histogram.outline()));
+            if(showDensity){
+                series.add(seriesOf(histogram.density(DENSITY_POINTS)));
+            }
+            showPrepared(series);
+        }, (ex) -> showInfo(ex.getMessage()));
+    }
+
+    private void showPrepared(final List<Series<Number, Number>> series){
+        final String[] names = new String[]{"Histogram", "Density"};
+        if(settingsList.getChildren().size() != series.size()){
+            final List<SettingsView> views = new ArrayList<>(series.size());
+            for(int i=0; i<series.size(); ++i){
+                final SettingsView ssv = new SliceSettingsView(i, names[i]);
+                ssv.setViewListener(new ViewListenerAdapter(){
+                    @Override
+                    public void onRelabel(SettingsView view, String newLabel){
+                        if(plotIsShown && (view.getIndex() < chart.getData().size())){
+                            chart.getData().get(view.getIndex()).setName(newLabel);
+                            updateAllLegendColors();
+                        }
+                    }
+                    @Override
+                    public void onColorChanged(SettingsView view, String newColor){
+                        if(plotIsShown && (view.getIndex() < chart.getData().size())){
+                            updateAreaColor(chart.getData().get(view.getIndex()).getNode(),
+                                    newColor);
+
+                            updateLegendColor(view, newColor);
+                        }
+                    }
+                });
+                views.add(ssv);
+            }
+            setAllSettingsViewsInList(views);
+        }
+        for(int i=0; i<series.size(); ++i){
+            series.get(i).setName(settingsList.getSettingsViewAt(i).getEditText());
+        }
+        this.preparedSeries = series;
+        this.plotDataChanged = true;
+        this.btnPlotExport.setDisable(false);
+        this.btnPlotExport.setText("Plot");
+    }
+
+    private Series<Number, Number> seriesOf(final double[][] points){
+        final List<XYChart.Data<Number, Number>> data = new ArrayList<>(points[0].length);
+        for(int i=0; i<points[0].length; ++i){
+            data.add(new XYChart.Data<>(points[0][i], points[1][i]));
+        }
+        final Series<Number, Number> series = new Series<>();
+        series.getData().setAll(data);
+        return series;
+    }
+
+    private void updateAreaColor(final Node node, final String color){
+        if(node == null){
+            return;
+        }
+        final Node fill = node.lookup(".chart-series-area-fill");
+        final Node line = node.lookup(".chart-series-area-line");
+        if((fill != null) && (line != null)){
+            //specify an alpha channel for the area fill
+            fill.setStyle("-fx-fill: " + color + "55");
+            line.setStyle("-fx-stroke: " + color);
+        }
+    }
+
+    private void showInfo(final String message){
+        OneShotSnackbar.showFor(getRootNode(), message);
+        if(!plotIsShown || plotDataChanged){
+            this.btnPlotExport.setDisable(true);
+        }
+    }
+}
@@ -23,7 +23,6 @@ import com.raven.icecrusher.ui.plot.SettingsView.ViewListener;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.scene.Node;
-import javafx.scene.chart.LineChart;
 import javafx.scene.chart.XYChart.Series;
 
 /**
@@ -33,7 +32,7 @@ import javafx.scene.chart.XYChart.Series;
 public class LineChartController extends XYChartController {
 
     @FXML
-    private LineChart<Number, Number> chart;
+    private CanvasLineChart chart;
 
     public LineChartController(){
         super();
@@ -56,6 +55,7 @@ public class LineChartController extends XYChartController {
             if(newValue){
                 updateAllSymbolsColor(chart);
             }
+            chart.redraw();
         });
         chart.setCreateSymbols(checkDataPoints.isSelected());
         chartYAxis.setForceZeroInRange(false);
@@ -65,13 +65,15 @@ public class LineChartController extends XYChartController {
     @Override
     public void onPlot(ActionEvent event){
         if(!plotIsShown || (preparedSeries != null)){
+            updateLevelOfDetail(preparedSeries);
             this.chart.getData().addAll(preparedSeries);
             this.plotIsShown = true;
-            this.btnPlotExport.setText("Export as PNG");
+            this.btnPlotExport.setText("Export");
             for(final Series<Number, Number> series : preparedSeries){
                 final String color = getSettingsViewForSeries(series).getColor();
                 updateLineColor(series.getNode(), color);
                 updateSymbolsColor(series.getData(), color);
+                updateCanvasColor(series, color);
             }
             updateAllLegendColors();
             this.preparedSeries = null;
@@ -92,13 +94,11 @@ public class LineChartController extends XYChartController {
     }
 
     private void prepareChart(){
-        final Column colX = selectedXColumn();
-        final Column colY = selectedYColumn();
+        prepareData(selectedXColumn(), selectedYColumn(), this::addPreparedSeries);
+    }
 
-        final XYChartData data = prepareData(colX, colY);
-        if(data == null){
-            return;
-        }
+    private void addPreparedSeries(final XYChartData data){
+        final Column colY = data.getYcolumn();
         final Series<Number, Number> series = data.getSeries();
         setDateControlsDisabled(true);
 
@@ -118,6 +118,7 @@ public class LineChartController extends XYChartController {
                     updateLineColor(node, newColor);
                     updateLegendColor(view, newColor);
                     updateSymbolsColor(series.getData(), newColor);
+                    updateCanvasColor(series, newColor);
                 }
             }
             @Override
@@ -16,7 +16,6 @@
 
 package com.raven.icecrusher.ui.plot;
 
-import java.math.BigDecimal;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -48,11 +47,11 @@ import static com.raven.icecrusher.util.EditorConfiguration.Section.*;
 public class PieChartController extends ChartController {
     
     /**
-     * The maximum number of slices the pie chart is allowed to create.
-     * Prevents performance issues on weak machines. Having more slices results
-     * in an unclear plot anyway and is considered an unrealistic case
+     * The maximum number of slices the pie chart creates. Having more slices
+     * results in an unclear plot, so all keys beyond the largest ones are
+     * grouped into a single slice
      */
-    private static final int MAX_NUMBER_SLICES_ALLOWED = 25;
+    private static final int MAX_NUMBER_SLICES = 25;
 
     @FXML
     private JFXComboBox<String> cbColumnKeys;
@@ -154,7 +153,7 @@ public class PieChartController extends ChartController {
             }
             this.plotIsShown = true;
             this.plotDataChanged = false;
-            this.btnPlotExport.setText("Export as PNG");
+            this.btnPlotExport.setText("Export");
             reloadSliceLabels();
             updateAllLegendColors();
         }
@@ -195,21 +194,47 @@ public class PieChartController extends ChartController {
             showInfo("Values must be numeric");
             return;
         }
-        Map<String, Number> map = null;
-        try{
-            map = (hasValues ? prepareData(keys, values) : prepareData(keys));
-        }catch(RuntimeException ex){
-            showInfo(ex.getMessage());
+        final PreparedDataCache.Key key = (hasValues
+                ? PreparedDataCache.keyOf(df, source, "pie.sum", keys, values)
+                        : PreparedDataCache.keyOf(df, source, "pie.count", keys));
+
+        final SliceAggregation cached = PreparedDataCache.get(key, SliceAggregation.class);
+        if(cached != null){
+            preparation.cancel();
+            this.btnPlotExport.setDisable(false);
+            showChart(cached, hasValues);
             return;
         }
+        this.btnPlotExport.setDisable(true);
+        preparation.submit((progress) -> {
+            SliceAggregation aggregation = PreparedDataCache.load(key, SliceAggregation.CODEC);
+            if(aggregation == null){
+                aggregation = SliceAggregation.of(keys, values, df.rows(), progress);
+                PreparedDataCache.persist(key, aggregation, SliceAggregation.CODEC);
+            }
+            PreparedDataCache.put(key, aggregation, 64L * aggregation.size() + 128);
+            return aggregation;
+        }, (aggregation) -> {
+
+            this.btnPlotExport.setDisable(false);
+            showChart(aggregation, hasValues);
+        }, (ex) -> showInfo(ex.getMessage()));
+    }
+
+    private void showChart(final SliceAggregation aggregation, final boolean hasValues){
+        this.totalNulls = aggregation.nulls();
+        this.totalSum = aggregation.total();
         // perform various checks
         if(totalNulls == df.rows()){
             showInfo("This column only contains null values");
             return;
         }
-        if(map.size() > MAX_NUMBER_SLICES_ALLOWED){
-            showInfo("This column produces too many slices");
-            return;
+        final Map<String, Number> map = aggregation.top(MAX_NUMBER_SLICES);
+        if(aggregation.size() > MAX_NUMBER_SLICES){
+            OneShotSnackbar.showFor(getRootNode(), "Grouped "
+                    + (aggregation.size() - MAX_NUMBER_SLICES + 1)
+                    + " smallest slices into one");
+
         }
         if(map.size() != settingsList.getChildren().size()){
             settingsList.resetSettingsList();
@@ -274,55 +299,6 @@ public class PieChartController extends ChartController {
         return ssv;
     }
 
-    private Map<String, Number> prepareData(final Column keys){
-        this.totalNulls = 0;
-        final Map<String, Number> map = new HashMap<>();
-        for(int i=0; i<df.rows(); ++i){
-            final Object value = keys.getValue(i);
-            if(value != null){
-                final String s = value.toString();
-                final Integer count = (Integer)map.get(s);
-                if(count != null){
-                    map.put(s, count+1);
-                }else{
-                    map.put(s, 1);
-                }
-            }else{//track null values
-                ++totalNulls;
-            }
-        }
-        return map;
-    }
-
-    private Map<String, Number> prepareData(final Column keys, final Column values){
-        BigDecimal bdSum = BigDecimal.ZERO;
-        final Map<String, Number> map = new HashMap<>();
-        for(int i=0; i<df.rows(); ++i){
-            final Object key = keys.getValue(i);
-            final Number value = (Number)values.getValue(i);
-            if((key != null) && (value != null)){
-                final double dValue = value.doubleValue();
-                if(dValue < 0){
-                    throw new RuntimeException("Values contain negative numbers "
-                            + "(At index " + String.valueOf(i) + ")");
-
-                }
-                final String s = key.toString();
-                final Number sum = (Number)map.get(s);
-                if(sum != null){
-                    map.put(s, new BigDecimal(Double.toString(sum.doubleValue()))
-                            .add(new BigDecimal(Double.toString(dValue))));
-
-                }else{
-                    map.put(s, value);
-                }
-                bdSum = bdSum.add(new BigDecimal(Double.toString(value.doubleValue())));
-            }
-        }
-        this.totalSum = bdSum.doubleValue();
-        return map;
-    }
-
     private String labelForSlice(final String label, final double value){
         final StringBuilder sb = new StringBuilder();
         final DecimalFormat form = new DecimalFormat("##.##");
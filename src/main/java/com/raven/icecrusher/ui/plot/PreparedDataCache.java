@@ -0,0 +1,278 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.icecrusher.ui.plot;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import com.raven.common.struct.Column;
+import com.raven.common.struct.DataFrame;
+import com.raven.icecrusher.application.Cache;
+import com.raven.icecrusher.application.DiskCache;
+import com.raven.icecrusher.application.SessionCache;
+import com.raven.icecrusher.io.ColumnVersions;
+
+/**
+ * Application-wide cache of prepared chart data. Preparing the data of a chart
+ * requires a full pass over all involved columns, which is slow for large DataFrames.
+ * This cache keeps prepared data across openings of chart activities so that
+ * showing the same selection again does not require another pass.
+ *
+ * <p>Entries are identified by the DataFrame, the chart specific selection, e.g. the
+ * aggregation mode, and the involved columns. Each entry records the
+ * {@link ColumnVersions} of its columns at the time the preparation started, so
+ * an entry is ignored and removed as soon as any of its columns has been edited.<br>
+ * Entries are held by a {@link SessionCache} weighing each entry by its estimated size,
+ * so entries are evicted by recency and frequency when their total estimated size
+ * exceeds {@link #BUDGET}. Entries of DataFrames which have been garbage collected
+ * are removed as soon as data is cached the next time. Cached data must not be
+ * modified by its users.
+ *
+ * <p>Prepared data of a DataFrame which is unchanged with respect to the file it
+ * was read from can additionally be persisted in the {@link DiskCache} of the
+ * application, so that it is available when the file is opened again in a later
+ * session. Loading and persisting data is performed by the preparation work.
+ *
+ */
+final class PreparedDataCache {
+
+    /**
+     * The maximum total estimated size of all entries, in bytes
+     */
+    static final long BUDGET = Runtime.getRuntime().maxMemory() / 8;
+
+    //the names of all cached entries of each DataFrame id
+    private static final Map<Long, Set<String>> names = new HashMap<>();
+
+    //entries are only evicted by calls made while holding the lock of this class
+    private static final SessionCache entries = new SessionCache(
+            BUDGET, (key, value) -> ((Entry) value).bytes,
+            (key, value) -> forget(((Entry) value).frame, key));
+
+    private PreparedDataCache(){ }
+
+    /**
+     * Identifies the prepared data of a selection of columns at their current versions.
+     * A Key must be created before the preparation starts.
+     *
+     */
+    static final class Key {
+
+        private final long frame;
+        private final String name;
+        private final long[] versions;
+        private final File source;
+        private final String artifact;
+
+        private Key(final long frame, final String name, final long[] versions,
+                final File source, final String artifact){
+
+            this.frame = frame;
+            this.name = name;
+            this.versions = versions;
+            this.source = source;
+            this.artifact = artifact;
+        }
+    }
+
+    /**
+     * Creates a Key for the specified selection of columns at their current versions
+     * 
+     * @param df The <code>DataFrame</code> holding all columns
+     * @param selection A string describing all chart specific settings
+     *                  the prepared data depends on
+     * @param columns All columns the prepared data is computed from
+     * @return A <code>Key</code> for the specified selection
+     */
+    static Key keyOf(final DataFrame df, final String selection, final Column... columns){
+        return keyOf(df, null, selection, columns);
+    }
+
+    /**
+     * Creates a Key for the specified selection of columns at their current versions
+     * whose prepared data can be persisted for the specified source file
+     * 
+     * @param df The <code>DataFrame</code> holding all columns
+     * @param source The file the DataFrame was read from, or null if the DataFrame
+     *               has been changed since it was read or was not read from a file
+     * @param selection A string describing all chart specific settings
+     *                  the prepared data depends on
+     * @param columns All columns the prepared data is computed from
+     * @return A <code>Key</code> for the specified selection
+     */
+    static Key keyOf(final DataFrame df, final File source,
+            final String selection, final Column... columns){
+
+        final long frame = ColumnVersions.idOf(df);
+        final StringBuilder sb = new StringBuilder();
+        sb.append(frame).append(':').append(selection);
+        final StringBuilder artifact = new StringBuilder(selection);
+        final long[] versions = new long[columns.length];
+        for(int i=0; i<columns.length; ++i){
+            final int index = ColumnVersions.indexOf(df, columns[i]);
+            sb.append(':').append(index);
+            versions[i] = ((index >= 0) ? ColumnVersions.of(df, index) : -1);
+            artifact.append(':').append((index >= 0) ? df.getColumnName(index) : "");
+        }
+        return new Key(frame, sb.toString(), versions, source, artifact.toString());
+    }
+
+    /**
+     * Loads the prepared data for the specified Key from the disk cache. This method
+     * performs I/O and should therefore only be called by a background thread
+     * 
+     * @param <T> The type of the prepared data
+     * @param key The <code>Key</code> of the prepared data
+     * @param codec The <code>Codec</code> to decode the prepared data with
+     * @return The persisted prepared data, or null if the Key has no source file
+     *         or no data is persisted for the current state of the source file
+     */
+    static <T> T load(final Key key, final DiskCache.Codec<T> codec){
+        return ((key.source != null)
+                ? Cache.disk().get(key.source, key.artifact, codec)
+                : null);
+    }
+
+    /**
+     * Persists the specified prepared data in the disk cache, if the specified Key
+     * has a source file. This method performs I/O and should therefore only be
+     * called by a background thread
+     * 
+     * @param <T> The type of the prepared data
+     * @param key The <code>Key</code> created before the data was prepared
+     * @param value The prepared data
+     * @param codec The <code>Codec</code> to encode the prepared data with
+     */
+    static <T> void persist(final Key key, final T value, final DiskCache.Codec<T> codec){
+        if(key.source != null){
+            Cache.disk().put(key.source, key.artifact, value, codec);
+        }
+    }
+
+    /**
+     * Gets the prepared data for the specified Key
+     * 
+     * @param <T> The type of the prepared data
+     * @param key The <code>Key</code> of the prepared data
+     * @param type The type of the prepared data
+     * @return The prepared data, or null if no data is cached for the specified
+     *         Key or if any of its columns has changed since it was prepared
+     */
+    static synchronized <T> T get(final Key key, final Class<T> type){
+        final Entry entry = entries.get(key.name, Entry.class);
+        if(entry == null){
+            return null;
+        }
+        if(!Arrays.equals(entry.versions, key.versions) || !type.isInstance(entry.value)){
+            entries.put(key.name, null);
+            forget(key.frame, key.name);
+            return null;
+        }
+        return type.cast(entry.value);
+    }
+
+    /**
+     * Caches the specified prepared data. Data whose estimated size
+     * exceeds the budget is not cached
+     * 
+     * @param key The <code>Key</code> created before the data was prepared
+     * @param value The prepared data. Must not be modified afterwards
+     * @param bytes The estimated size of the prepared data, in bytes
+     */
+    static synchronized void put(final Key key, final Object value, final long bytes){
+        entries.put(key.name, null);
+        forget(key.frame, key.name);
+        purge();
+        for(final long version : key.versions){
+            if(version < 0){
+                return;
+            }
+        }
+        if(ColumnVersions.isTracked(key.frame) && (bytes <= BUDGET)){
+            //the name is forgotten again if the entry is not admitted
+            names.computeIfAbsent(key.frame, (frame) -> new HashSet<>()).add(key.name);
+            entries.put(key.name, new Entry(value, key.frame, key.versions, bytes));
+        }
+    }
+
+    /**
+     * Removes the specified entry name from the names of the specified DataFrame
+     * 
+     * @param frame The id of the DataFrame
+     * @param name The name of the entry which is no longer cached
+     */
+    private static void forget(final long frame, final String name){
+        final Set<String> set = names.get(frame);
+        if((set != null) && set.remove(name) && set.isEmpty()){
+            names.remove(frame);
+        }
+    }
+
+    /**
+     * Removes all entries of DataFrames which have been garbage collected,
+     * as their data is never used again
+     */
+    private static void purge(){
+        final Iterator<Map.Entry<Long, Set<String>>> it = names.entrySet().iterator();
+        while(it.hasNext()){
+            final Map.Entry<Long, Set<String>> frame = it.next();
+            if(!ColumnVersions.isTracked(frame.getKey())){
+                for(final String name : frame.getValue()){
+                    entries.remove(name);
+                }
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Removes all entries
+     */
+    static synchronized void clear(){
+        entries.clear();
+        names.clear();
+    }
+
+    /**
+     * Gets the total estimated size of all entries
+     * 
+     * @return The size of this cache, in bytes
+     */
+    static synchronized long size(){
+        return entries.weight();
+    }
+
+    private static final class Entry {
+
+        private final Object value;
+        private final long frame;
+        private final long[] versions;
+        private final long bytes;
+
+        Entry(final Object value, final long frame, final long[] versions, final long bytes){
+            this.value = value;
+            this.frame = frame;
+            this.versions = versions;
+            this.bytes = bytes;
+        }
+    }
+}
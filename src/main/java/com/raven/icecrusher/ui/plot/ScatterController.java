@@ -0,0 +1,439 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.icecrusher.ui.plot;
+
+import java.text.DecimalFormat;
+import java.util.Collections;
+import java.util.function.IntToDoubleFunction;
+
+import com.jfoenix.controls.JFXCheckBox;
+import com.jfoenix.controls.JFXComboBox;
+import com.jfoenix.controls.JFXTextField;
+import com.raven.icecrusher.application.Cache;
+import com.raven.icecrusher.ui.OneShotSnackbar;
+
+import javafx.event.ActionEvent;
+import javafx.fxml.FXML;
+import javafx.geometry.Point2D;
+import javafx.scene.Node;
+import javafx.scene.chart.NumberAxis;
+import javafx.scene.control.Label;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
+
+import static com.raven.icecrusher.util.EditorConfiguration.*;
+import static com.raven.icecrusher.util.EditorConfiguration.Section.*;
+
+/**
+ * Controller class for the Scatter Plot activity. The points of two numeric columns
+ * are binned into a grid at screen resolution in the background and drawn as a
+ * density image by a {@link DensityScatterChart}. Zooming with the mouse wheel and
+ * panning by dragging bins the points of the visible range again. As soon as only a
+ * few points are visible, they are drawn exactly. A double click resets the zoom.
+ *
+ */
+public class ScatterController extends ChartController {
+
+    protected static final String STYLE_PLOT_BACKGROUND_WHITE = "-fx-background-color: white";
+    protected static final String STYLE_PLOTBACKGROUND_DARK = "-fx-background-color: #383838";
+    protected static final String STYLE_GRID_LINES_WHITE = "-fx-stroke: derive(white, -10%)";
+    protected static final String STYLE_GRID_LINES_DARK = "-fx-stroke: derive(white, -70%)";
+
+    /**
+     * The maximum number of visible points which are drawn exactly
+     */
+    protected static final int EXACT_THRESHOLD = 10000;
+
+    /**
+     * The factor by which the visible range changes per zoom step
+     */
+    protected static final double ZOOM_FACTOR = 0.8;
+
+    /**
+     * The size of the density grid used when the chart has not been laid out yet
+     */
+    private static final int DEFAULT_GRID_WIDTH = 800;
+    private static final int DEFAULT_GRID_HEIGHT = 500;
+
+    /**
+     * The number of major ticks per axis
+     */
+    private static final double TICKS = 10.0;
+
+    @FXML
+    private JFXComboBox<String> cbColumnX;
+
+    @FXML
+    private JFXComboBox<String> cbColumnY;
+
+    @FXML
+    private JFXTextField txtAxisXLabel;
+
+    @FXML
+    private JFXTextField txtAxisYLabel;
+
+    @FXML
+    private JFXCheckBox checkShowGrid;
+
+    @FXML
+    private JFXCheckBox checkWhiteBackground;
+
+    @FXML
+    private Label labelCorrelation;
+
+    @FXML
+    private NumberAxis chartXAxis;
+
+    @FXML
+    private NumberAxis chartYAxis;
+
+    @FXML
+    private DensityScatterChart chart;
+
+    private IntToDoubleFunction xValues;
+    private IntToDoubleFunction yValues;
+    private int rows;
+    private double[] fullRange;
+    private DensityGrid preparedGrid;
+    private Point2D panAnchor;
+    private double[] panRange;
+
+    public ScatterController(){
+        super();
+    }
+
+    @FXML
+    @Override
+    public void initialize(){
+        super.initialize(this.chart);
+        //a density plot has no legend
+        this.cbLegendPosition.setDisable(true);
+        //CheckBoxes
+        this.checkShowGrid.selectedProperty().addListener((ov, oldValue, newValue) -> {
+            chart.setHorizontalGridLinesVisible(newValue);
+            chart.setVerticalGridLinesVisible(newValue);
+            getConfiguration().set(PLOT, CONFIG_GRID_VISIBLE, newValue);
+        });
+        this.checkShowGrid.setSelected(getConfiguration().booleanOf(PLOT, CONFIG_GRID_VISIBLE));
+        this.checkWhiteBackground.selectedProperty().addListener(
+                (ov, oldValue, newValue) -> {
+                    
+            final Node nBack = chart.lookup(".chart-plot-background");
+            final Node nLinesVer = chart.lookup(".chart-vertical-grid-lines");
+            final Node nLinesHor = chart.lookup(".chart-horizontal-grid-lines");
+            if((nBack != null) && (nLinesVer != null) && (nLinesHor != null)){
+                nBack.setStyle(newValue ? STYLE_PLOT_BACKGROUND_WHITE : STYLE_PLOTBACKGROUND_DARK);
+                nLinesVer.setStyle(newValue ? STYLE_GRID_LINES_WHITE : STYLE_GRID_LINES_DARK);
+                nLinesHor.setStyle(newValue ? STYLE_GRID_LINES_WHITE : STYLE_GRID_LINES_DARK);
+            }
+            getConfiguration().set(PLOT, CONFIG_BACKGROUND_WHITE, newValue);
+        });
+        this.checkWhiteBackground.setSelected(getConfiguration().booleanOf(PLOT, CONFIG_BACKGROUND_WHITE));
+        //zooming and panning
+        chart.setOnScroll(this::zoom);
+        chart.setOnMouseClicked((event) -> {
+            if((event.getButton() == MouseButton.PRIMARY) && (event.getClickCount() == 2)){
+                resetZoom();
+            }
+        });
+        chart.setOnMousePressed((event) -> {
+            if(plotIsShown && (event.getButton() == MouseButton.PRIMARY)){
+                panAnchor = new Point2D(event.getSceneX(), event.getSceneY());
+                panRange = currentRange();
+            }
+        });
+        chart.setOnMouseDragged(this::pan);
+        chart.setOnMouseReleased((event) -> {
+            if((panAnchor != null) && ((event.getSceneX() != panAnchor.getX())
+                    || (event.getSceneY() != panAnchor.getY()))){
+
+                refine();
+            }
+            panAnchor = null;
+        });
+    }
+
+    @Override
+    public void onStart(ArgumentBundle bundle){
+        super.onStart(bundle);
+        //flush the DataFrame to make sure that counting
+        //does not result in deviating sizes
+        this.df.flush();
+        for(final String name : df.getColumnNames()){
+            if(df.getColumn(name).isNumeric()){
+                this.cbColumnX.getItems().add(name);
+                this.cbColumnY.getItems().add(name);
+            }
+        }
+        this.cbColumnX.getSelectionModel().selectedItemProperty().addListener(
+                (ov, oldValue, newValue) -> {
+
+            if(newValue != null){
+                final String text = txtAxisXLabel.getText();
+                if((text == null) || text.isEmpty()){
+                    txtAxisXLabel.setText(Cache.session()
+                            .get("ChartController.chart.xaxis.label." + newValue));
+                    
+                }else{
+                    Cache.session().set("ChartController.chart.xaxis.label." + newValue, text);
+                }
+            }
+            prepareChart();
+        });
+        this.cbColumnY.getSelectionModel().selectedItemProperty().addListener(
+                (ov, oldValue, newValue) -> {
+
+            if(newValue != null){
+                final String text = txtAxisYLabel.getText();
+                if((text == null) || text.isEmpty()){
+                    txtAxisYLabel.setText(Cache.session()
+                            .get("ChartController.chart.yaxis.label." + newValue));
+                    
+                }else{
+                    Cache.session().set("ChartController.chart.yaxis.label." + newValue, text);
+                }
+            }
+            prepareChart();
+        });
+        this.txtAxisXLabel.textProperty().addListener((observable, oldValue, newValue) -> {
+            chartXAxis.setLabel(newValue);
+            final String axis = cbColumnX.getValue();
+            if(axis != null){
+                Cache.session().set("ChartController.chart.xaxis.label." + axis, newValue);
+            }
+        });
+        this.txtAxisYLabel.textProperty().addListener((observable, oldValue, newValue) -> {
+            chartYAxis.setLabel(newValue);
+            final String axis = cbColumnY.getValue();
+            if(axis != null){
+                Cache.session().set("ChartController.chart.yaxis.label." + axis, newValue);
+            }
+        });
+        if(cbColumnX.getItems().isEmpty()){
+            OneShotSnackbar.showFor(getRootNode(), "There are no numeric columns");
+        }
+    }
+
+    @FXML
+    @Override
+    public void onPlot(ActionEvent event){
+        if(plotIsShown){
+            exportSnapshot();
+        }else if(preparedGrid != null){
+            setRange(preparedGrid.xLower(), preparedGrid.xUpper(),
+                    preparedGrid.yLower(), preparedGrid.yUpper());
+
+            chart.setPointColor(settingsList.getSettingsViewAt(0).getColor());
+            chart.setGrid(preparedGrid);
+            this.preparedGrid = null;
+            this.plotIsShown = true;
+            this.btnPlotExport.setText("Export");
+        }
+    }
+
+    @FXML
+    protected void onClose(ActionEvent event){
+        super.onClose(event);
+    }
+
+    @Override
+    protected void changeLegendPosition(final Number index){
+        chart.setLegendVisible(false);
+    }
+
+    private void prepareChart(){
+        final String nameX = cbColumnX.getSelectionModel().getSelectedItem();
+        final String nameY = cbColumnY.getSelectionModel().getSelectedItem();
+        reset();
+        if((nameX == null) || (nameY == null)){
+            return;
+        }
+        final IntToDoubleFunction x = ColumnReaders.of(df.getColumn(nameX));
+        final IntToDoubleFunction y = ColumnReaders.of(df.getColumn(nameY));
+        final int n = df.rows();
+        final int width = gridWidth();
+        final int height = gridHeight();
+        preparation.submit((progress) -> {
+            final DensityGrid.Extent extent = DensityGrid.extentOf(x, y, n, progress);
+            if(extent.count() == 0){
+                return null;
+            }
+            final double[] range = paddedRange(extent);
+            final DensityGrid grid = DensityGrid.of(x, y, n, range[0], range[1],
+                    range[2], range[3], width, height, EXACT_THRESHOLD, progress);
+
+            return new Object[]{extent, grid};
+        }, (result) -> {
+            if(result == null){
+                OneShotSnackbar.showFor(getRootNode(),
+                        "No valid data points for selected columns");
+
+                return;
+            }
+            final DensityGrid.Extent extent = (DensityGrid.Extent) result[0];
+            this.preparedGrid = (DensityGrid) result[1];
+            this.xValues = x;
+            this.yValues = y;
+            this.rows = n;
+            this.fullRange = new double[]{preparedGrid.xLower(), preparedGrid.xUpper(),
+                    preparedGrid.yLower(), preparedGrid.yUpper()};
+
+            final double r = extent.correlation();
+            labelCorrelation.setText(Double.isNaN(r)
+                    ? "" : ("r = " + new DecimalFormat("0.0000").format(r)));
+
+            if(settingsList.isEmpty()){
+                final SettingsView ssv = new SliceSettingsView(0, "Points");
+                ssv.setViewListener(new ViewListenerAdapter(){
+                    @Override
+                    public void onColorChanged(SettingsView view, String newColor){
+                        chart.setPointColor(newColor);
+                    }
+                });
+                setAllSettingsViewsInList(Collections.singletonList(ssv));
+            }
+            this.btnPlotExport.setDisable(false);
+            this.btnPlotExport.setText("Plot");
+        }, (ex) -> OneShotSnackbar.showFor(getRootNode(), ex.getMessage()));
+    }
+
+    private void reset(){
+        preparation.cancel();
+        chart.setGrid(null);
+        labelCorrelation.setText("");
+        this.preparedGrid = null;
+        this.fullRange = null;
+        this.plotIsShown = false;
+        resetPlotButton();
+    }
+
+    /**
+     * Bins the points of the visible range again
+     */
+    private void refine(){
+        if(!plotIsShown){
+            return;
+        }
+        final IntToDoubleFunction x = this.xValues;
+        final IntToDoubleFunction y = this.yValues;
+        final int n = this.rows;
+        final double[] range = currentRange();
+        final int width = gridWidth();
+        final int height = gridHeight();
+        preparation.submit((progress) -> DensityGrid.of(x, y, n, range[0], range[1],
+                range[2], range[3], width, height, EXACT_THRESHOLD, progress),
+                chart::setGrid,
+                (ex) -> OneShotSnackbar.showFor(getRootNode(), ex.getMessage()));
+    }
+
+    private void zoom(final ScrollEvent event){
+        if(!plotIsShown || (event.getDeltaY() == 0)){
+            return;
+        }
+        final double factor = ((event.getDeltaY() > 0) ? ZOOM_FACTOR : (1 / ZOOM_FACTOR));
+        final Point2D px = chartXAxis.sceneToLocal(event.getSceneX(), event.getSceneY());
+        final Point2D py = chartYAxis.sceneToLocal(event.getSceneX(), event.getSceneY());
+        final double cx = chartXAxis.getValueForDisplay(px.getX()).doubleValue();
+        final double cy = chartYAxis.getValueForDisplay(py.getY()).doubleValue();
+        final double[] range = currentRange();
+        double xLower = cx - (cx - range[0]) * factor;
+        double xUpper = cx + (range[1] - cx) * factor;
+        double yLower = cy - (cy - range[2]) * factor;
+        double yUpper = cy + (range[3] - cy) * factor;
+        //never zoom out beyond the full range
+        if((xUpper - xLower) >= (fullRange[1] - fullRange[0])){
+            xLower = fullRange[0];
+            xUpper = fullRange[1];
+        }
+        if((yUpper - yLower) >= (fullRange[3] - fullRange[2])){
+            yLower = fullRange[2];
+            yUpper = fullRange[3];
+        }
+        if((xUpper > xLower) && (yUpper > yLower)){
+            setRange(xLower, xUpper, yLower, yUpper);
+            refine();
+        }
+        event.consume();
+    }
+
+    private void pan(final MouseEvent event){
+        if((panAnchor == null) || !plotIsShown){
+            return;
+        }
+        final double width = chartXAxis.getWidth();
+        final double height = chartYAxis.getHeight();
+        if((width <= 0) || (height <= 0)){
+            return;
+        }
+        final double dx = -(event.getSceneX() - panAnchor.getX())
+                * ((panRange[1] - panRange[0]) / width);
+
+        final double dy = (event.getSceneY() - panAnchor.getY())
+                * ((panRange[3] - panRange[2]) / height);
+
+        setRange(panRange[0] + dx, panRange[1] + dx, panRange[2] + dy, panRange[3] + dy);
+        event.consume();
+    }
+
+    private void resetZoom(){
+        if(plotIsShown && (fullRange != null)){
+            setRange(fullRange[0], fullRange[1], fullRange[2], fullRange[3]);
+            refine();
+        }
+    }
+
+    private double[] currentRange(){
+        return new double[]{chartXAxis.getLowerBound(), chartXAxis.getUpperBound(),
+                chartYAxis.getLowerBound(), chartYAxis.getUpperBound()};
+    }
+
+    private void setRange(final double xLower, final double xUpper,
+            final double yLower, final double yUpper){
+
+        chartXAxis.setLowerBound(xLower);
+        chartXAxis.setUpperBound(xUpper);
+        chartXAxis.setTickUnit((xUpper - xLower) / TICKS);
+        chartYAxis.setLowerBound(yLower);
+        chartYAxis.setUpperBound(yUpper);
+        chartYAxis.setTickUnit((yUpper - yLower) / TICKS);
+    }
+
+    private int gridWidth(){
+        final int width = (int) chart.getPlotWidth();
+        return ((width > 0) ? width : DEFAULT_GRID_WIDTH);
+    }
+
+    private int gridHeight(){
+        final int height = (int) chart.getPlotHeight();
+        return ((height > 0) ? height : DEFAULT_GRID_HEIGHT);
+    }
+
+    private static double[] paddedRange(final DensityGrid.Extent extent){
+        return new double[]{
+                padLower(extent.minX(), extent.maxX()), padUpper(extent.minX(), extent.maxX()),
+                padLower(extent.minY(), extent.maxY()), padUpper(extent.minY(), extent.maxY())};
+    }
+
+    private static double padLower(final double min, final double max){
+        return ((max > min) ? (min - (max - min) * 0.02) : (min - 0.5));
+    }
+
+    private static double padUpper(final double min, final double max){
+        return ((max > min) ? (max + (max - min) * 0.02) : (max + 0.5));
+    }
+}
@@ -0,0 +1,355 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.icecrusher.ui.plot;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+import java.util.function.IntToDoubleFunction;
+import java.util.stream.IntStream;
+
+import com.raven.common.struct.Column;
+import com.raven.icecrusher.application.DiskCache;
+
+/**
+ * Aggregation of a key column for a pie chart. For each distinct key either
+ * the number of occurrences or the sum of the values of a numeric column is computed.
+ *
+ * <p>The aggregation is performed in parallel chunks, each of which fills its own
+ * open addressing hash table with primitive counts and sums. The tables are merged
+ * afterwards. Sums are computed with compensated (Neumaier) summation so that
+ * adding many values of different magnitude does not lose precision.<br>
+ * Keys with the smallest weight can be grouped into a single "Other"
+ * slice by means of {@link #top(int)}.
+ *
+ */
+public final class SliceAggregation {
+
+    /**
+     * The label of the slice grouping all keys not among the largest ones
+     */
+    public static final String OTHER_LABEL = "Other";
+
+    /**
+     * The number of rows processed by one parallel task
+     */
+    private static final int CHUNK_SIZE = 65536;
+
+    /**
+     * Codec for persisting aggregations in a {@link DiskCache}
+     */
+    static final DiskCache.Codec<SliceAggregation> CODEC = new DiskCache.Codec<SliceAggregation>(){
+
+        @Override
+        public void write(final DataOutput out, final SliceAggregation value) throws IOException{
+            out.writeBoolean(value.counted);
+            out.writeInt(value.nulls);
+            out.writeDouble(value.total);
+            out.writeInt(value.keys.length);
+            for(int i=0; i<value.keys.length; ++i){
+                out.writeUTF(value.keys[i]);
+                out.writeDouble(value.weights[i]);
+            }
+        }
+
+        @Override
+        public SliceAggregation read(final DataInput in) throws IOException{
+            final boolean counted = in.readBoolean();
+            final int nulls = in.readInt();
+            final double total = in.readDouble();
+            final int size = in.readInt();
+            final String[] keys = new String[size];
+            final double[] weights = new double[size];
+            for(int i=0; i<size; ++i){
+                keys[i] = in.readUTF();
+                weights[i] = in.readDouble();
+            }
+            return new SliceAggregation(keys, weights, counted, nulls, total);
+        }
+    };
+
+    private final String[] keys;
+    private final double[] weights;
+    private final boolean counted;
+    private final int nulls;
+    private final double total;
+
+    private SliceAggregation(final String[] keys, final double[] weights,
+            final boolean counted, final int nulls, final double total){
+
+        this.keys = keys;
+        this.weights = weights;
+        this.counted = counted;
+        this.nulls = nulls;
+        this.total = total;
+    }
+
+    /**
+     * Aggregates the specified key column
+     * 
+     * @param keys The column holding the keys
+     * @param values The numeric column holding the values to sum up for each key,
+     *               or null to count the occurrences of each key
+     * @param rows The number of rows of both columns
+     * @param progress The <code>Progress</code> to report to
+     * @return A <code>SliceAggregation</code> of the specified columns
+     */
+    public static SliceAggregation of(final Column keys, final Column values,
+            final int rows, final ChartPreparation.Progress progress){
+
+        return of((i) -> {
+            final Object key = keys.getValue(i);
+            return ((key != null) ? key.toString() : null);
+        }, ((values != null) ? ColumnReaders.of(values) : null), rows, progress);
+    }
+
+    /**
+     * Aggregates the specified keys. Rows with a null key are counted as nulls.
+     * Rows with a NaN value are ignored
+     * 
+     * @param keys The function reading the key of a row. May return null
+     * @param values The function reading the value of a row, or null to
+     *               count the occurrences of each key
+     * @param rows The number of rows
+     * @param progress The <code>Progress</code> to report to
+     * @return A <code>SliceAggregation</code> of the specified keys
+     */
+    public static SliceAggregation of(final IntFunction<String> keys,
+            final IntToDoubleFunction values, final int rows,
+            final ChartPreparation.Progress progress){
+
+        final int chunks = (rows + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        final AtomicLong done = new AtomicLong();
+        final Table table = IntStream.range(0, chunks).parallel().mapToObj((c) -> {
+            final Table local = new Table();
+            final int end = Math.min(rows, (c + 1) * CHUNK_SIZE);
+            for(int i=c*CHUNK_SIZE; i<end; ++i){
+                final String key = keys.apply(i);
+                if(key == null){
+                    ++local.nulls;
+                }else if(values == null){
+                    local.add(key, 1.0);
+                }else{
+                    final double value = values.applyAsDouble(i);
+                    if(value < 0){
+                        throw new IllegalArgumentException("Values contain negative numbers "
+                                + "(At index " + String.valueOf(i) + ")");
+
+                    }
+                    if(!Double.isNaN(value)){
+                        local.add(key, value);
+                    }
+                }
+            }
+            progress.update(done.addAndGet(end - (c * CHUNK_SIZE)), rows);
+            return local;
+        }).reduce(Table::merge).orElseGet(Table::new);
+
+        final String[] resultKeys = new String[table.size];
+        final double[] resultWeights = new double[table.size];
+        double sum = 0.0;
+        double compensation = 0.0;
+        int k = 0;
+        for(int i=0; i<table.keys.length; ++i){
+            if(table.keys[i] != null){
+                resultKeys[k] = table.keys[i];
+                resultWeights[k] = table.sums[i] + table.compensations[i];
+                final double t = sum + resultWeights[k];
+                compensation += neumaier(sum, resultWeights[k], t);
+                sum = t;
+                ++k;
+            }
+        }
+        return new SliceAggregation(resultKeys, resultWeights, (values == null),
+                table.nulls, sum + compensation);
+    }
+
+    /**
+     * Gets the number of distinct keys
+     * 
+     * @return The number of distinct non-null keys
+     */
+    public int size(){
+        return this.keys.length;
+    }
+
+    /**
+     * Gets the number of rows with a null key
+     * 
+     * @return The number of null keys
+     */
+    public int nulls(){
+        return this.nulls;
+    }
+
+    /**
+     * Gets the sum of the weights of all keys
+     * 
+     * @return The total number of counted rows or the total sum of all values
+     */
+    public double total(){
+        return this.total;
+    }
+
+    /**
+     * Gets the weights of the largest keys, in descending order. If there are more
+     * than the specified number of distinct keys, the largest <code>n-1</code> keys
+     * are returned together with one entry holding the sum of all remaining keys
+     * 
+     * @param n The maximum number of entries to return. Must be at least 2
+     * @return A map of at most <code>n</code> entries, with the remaining keys
+     *         grouped under {@link #OTHER_LABEL}
+     */
+    public Map<String, Number> top(final int n){
+        if(n < 2){
+            throw new IllegalArgumentException("Must return at least two entries");
+        }
+        final int limit = ((keys.length > n) ? (n - 1) : keys.length);
+        final int[] largest = largest(limit);
+        final Map<String, Number> map = new LinkedHashMap<>();
+        double sum = 0.0;
+        double compensation = 0.0;
+        for(final int index : largest){
+            map.put(keys[index], weightOf(index));
+            final double t = sum + weights[index];
+            compensation += neumaier(sum, weights[index], t);
+            sum = t;
+        }
+        if(limit < keys.length){
+            String label = OTHER_LABEL;
+            if(map.containsKey(label)){
+                label = OTHER_LABEL + " (" + (keys.length - limit) + ")";
+            }
+            final double rest = Math.max(0.0, total - (sum + compensation));
+            map.put(label, (counted ? (Number) Math.round(rest) : (Number) rest));
+        }
+        return map;
+    }
+
+    private Number weightOf(final int index){
+        return (counted ? (Number) ((long) weights[index]) : (Number) weights[index]);
+    }
+
+    /**
+     * Selects the indices of the largest keys with a bounded insertion sort,
+     * which is linear in the number of keys for a small limit
+     */
+    private int[] largest(final int limit){
+        final int[] selected = new int[limit];
+        int size = 0;
+        for(int i=0; i<keys.length; ++i){
+            if((size == limit) && !isLarger(i, selected[size - 1])){
+                continue;
+            }
+            int j = ((size < limit) ? size++ : (size - 1));
+            while((j > 0) && isLarger(i, selected[j - 1])){
+                selected[j] = selected[j - 1];
+                --j;
+            }
+            selected[j] = i;
+        }
+        return selected;
+    }
+
+    private boolean isLarger(final int a, final int b){
+        final int cmp = Double.compare(weights[a], weights[b]);
+        //break ties by key to get a deterministic order
+        return ((cmp > 0) || ((cmp == 0) && (keys[a].compareTo(keys[b]) < 0)));
+    }
+
+    /**
+     * Computes the rounding error of the addition <code>t = sum + value</code>
+     */
+    private static double neumaier(final double sum, final double value, final double t){
+        return ((Math.abs(sum) >= Math.abs(value)) ? ((sum - t) + value) : ((value - t) + sum));
+    }
+
+    /**
+     * Open addressing hash table mapping keys to compensated sums.
+     *
+     */
+    private static final class Table {
+
+        private String[] keys = new String[64];
+        private double[] sums = new double[64];
+        private double[] compensations = new double[64];
+        private int size;
+        private int nulls;
+
+        void add(final String key, final double value){
+            final int mask = keys.length - 1;
+            int i = mix(key.hashCode()) & mask;
+            while((keys[i] != null) && !keys[i].equals(key)){
+                i = (i + 1) & mask;
+            }
+            if(keys[i] == null){
+                keys[i] = key;
+                if(++size > (keys.length >> 1)){
+                    sums[i] = value;
+                    grow();
+                    return;
+                }
+            }
+            final double t = sums[i] + value;
+            compensations[i] += neumaier(sums[i], value, t);
+            sums[i] = t;
+        }
+
+        static Table merge(final Table a, final Table b){
+            final Table into = ((a.size >= b.size) ? a : b);
+            final Table from = ((into == a) ? b : a);
+            for(int i=0; i<from.keys.length; ++i){
+                if(from.keys[i] != null){
+                    into.add(from.keys[i], from.sums[i]);
+                    into.add(from.keys[i], from.compensations[i]);
+                }
+            }
+            into.nulls += from.nulls;
+            return into;
+        }
+
+        private void grow(){
+            final String[] oldKeys = keys;
+            final double[] oldSums = sums;
+            final double[] oldCompensations = compensations;
+            keys = new String[oldKeys.length << 1];
+            sums = new double[oldKeys.length << 1];
+            compensations = new double[oldKeys.length << 1];
+            final int mask = keys.length - 1;
+            for(int j=0; j<oldKeys.length; ++j){
+                if(oldKeys[j] != null){
+                    int i = mix(oldKeys[j].hashCode()) & mask;
+                    while(keys[i] != null){
+                        i = (i + 1) & mask;
+                    }
+                    keys[i] = oldKeys[j];
+                    sums[i] = oldSums[j];
+                    compensations[i] = oldCompensations[j];
+                }
+            }
+        }
+
+        private static int mix(final int hash){
+            final int h = hash * 0x9E3779B9;
+            return (h ^ (h >>> 16));
+        }
+    }
+}
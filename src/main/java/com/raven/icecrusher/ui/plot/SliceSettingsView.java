@@ -17,7 +17,7 @@
 package com.raven.icecrusher.ui.plot;
 
 /**
- * A SettingsView used for Pie Charts.
+ * A SettingsView used for Pie Charts and Histograms.
  *
  */
 public class SliceSettingsView extends SettingsView {
@@ -0,0 +1,153 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.icecrusher.ui.plot;
+
+import java.util.Locale;
+
+/**
+ * Builder for simple SVG documents of charts. All coordinates are given in
+ * pixels of the chart as laid out on screen, which are used as SVG user units.
+ *
+ */
+final class SvgChart {
+
+    private final StringBuilder sb;
+    private int clipCount;
+
+    /**
+     * Constructs a new <code>SvgChart</code> of the specified size
+     * 
+     * @param width The width of the chart
+     * @param height The height of the chart
+     */
+    SvgChart(final double width, final double height){
+        this.sb = new StringBuilder(4096);
+        sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        sb.append("<svg xmlns=\"http://www.w3.org/2000/svg\" version=\"1.1\"");
+        sb.append(" width=\"").append(number(width)).append('"');
+        sb.append(" height=\"").append(number(height)).append('"');
+        sb.append(" viewBox=\"0 0 ").append(number(width)).append(' ')
+          .append(number(height)).append("\"");
+        sb.append(" font-family=\"sans-serif\">\n");
+    }
+
+    SvgChart rect(final double x, final double y, final double width, final double height,
+            final String fill, final String stroke){
+
+        sb.append("<rect x=\"").append(number(x)).append("\" y=\"").append(number(y))
+          .append("\" width=\"").append(number(width)).append("\" height=\"")
+          .append(number(height)).append("\" fill=\"").append(fill).append('"');
+        if(stroke != null){
+            sb.append(" stroke=\"").append(stroke).append('"');
+        }
+        sb.append("/>\n");
+        return this;
+    }
+
+    SvgChart line(final double x1, final double y1, final double x2, final double y2,
+            final String stroke){
+
+        sb.append("<line x1=\"").append(number(x1)).append("\" y1=\"").append(number(y1))
+          .append("\" x2=\"").append(number(x2)).append("\" y2=\"").append(number(y2))
+          .append("\" stroke=\"").append(stroke).append("\"/>\n");
+        return this;
+    }
+
+    /**
+     * Adds a text element
+     * 
+     * @param x The x-coordinate of the anchor of the text
+     * @param y The y-coordinate of the baseline of the text
+     * @param text The text to add
+     * @param anchor The SVG text anchor, i.e. start, middle or end
+     * @param size The font size
+     * @param rotation The rotation around the anchor, in degrees
+     * @return This <code>SvgChart</code> instance
+     */
+    SvgChart text(final double x, final double y, final String text, final String anchor,
+            final double size, final double rotation){
+
+        if((text == null) || text.isEmpty()){
+            return this;
+        }
+        sb.append("<text x=\"").append(number(x)).append("\" y=\"").append(number(y))
+          .append("\" text-anchor=\"").append(anchor).append("\" font-size=\"")
+          .append(number(size)).append('"');
+        if(rotation != 0){
+            sb.append(" transform=\"rotate(").append(number(rotation)).append(' ')
+              .append(number(x)).append(' ').append(number(y)).append(")\"");
+        }
+        sb.append('>').append(escape(text)).append("</text>\n");
+        return this;
+    }
+
+    /**
+     * Defines a rectangular clip region
+     * 
+     * @return The id of the clip region
+     */
+    String clip(final double x, final double y, final double width, final double height){
+        final String id = "clip" + (clipCount++);
+        sb.append("<clipPath id=\"").append(id).append("\">");
+        sb.append("<rect x=\"").append(number(x)).append("\" y=\"").append(number(y))
+          .append("\" width=\"").append(number(width)).append("\" height=\"")
+          .append(number(height)).append("\"/></clipPath>\n");
+        return id;
+    }
+
+    SvgChart polyline(final double[] x, final double[] y, final String stroke,
+            final double strokeWidth, final String clip){
+
+        sb.append("<polyline fill=\"none\" stroke=\"").append(stroke)
+          .append("\" stroke-width=\"").append(number(strokeWidth))
+          .append("\" stroke-linejoin=\"round\"");
+        if(clip != null){
+            sb.append(" clip-path=\"url(#").append(clip).append(")\"");
+        }
+        sb.append(" points=\"");
+        for(int i=0; i<x.length; ++i){
+            if(i > 0){
+                sb.append(' ');
+            }
+            sb.append(number(x[i])).append(',').append(number(y[i]));
+        }
+        sb.append("\"/>\n");
+        return this;
+    }
+
+    /**
+     * Finishes the document
+     * 
+     * @return The SVG document as a string
+     */
+    String finish(){
+        sb.append("</svg>\n");
+        return sb.toString();
+    }
+
+    private static String number(final double value){
+        if(value == Math.rint(value)){
+            return Long.toString((long) value);
+        }
+        return String.format(Locale.ROOT, "%.2f", value);
+    }
+
+    private static String escape(final String text){
+        return text.replace("&", "&amp;").replace("<", "&lt;")
+                .replace(">", "&gt;").replace("\"", "&quot;");
+    }
+}
@@ -0,0 +1,175 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.icecrusher.ui.plot;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.function.Consumer;
+
+import com.raven.icecrusher.io.PngWriter;
+
+import javafx.application.Platform;
+import javafx.geometry.Bounds;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.Node;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.transform.Transform;
+
+/**
+ * Export of a node to a PNG file at an arbitrary scale. The scaled node is rendered
+ * in horizontal strips, each of which is assembled from offscreen snapshots of at most
+ * {@link #TILE_SIZE} pixels in each dimension. Every strip is passed to a streaming
+ * {@link PngWriter} on the shared chart worker pool before the next strip is rendered,
+ * so only one strip is held in memory at any time and the FX thread is never blocked
+ * by encoding.
+ *
+ */
+final class TiledSnapshot {
+
+    /**
+     * The maximum width and height of a single snapshot, in pixels
+     */
+    static final int TILE_SIZE = 2048;
+
+    /**
+     * The maximum number of pixels of one strip
+     */
+    private static final int MAX_STRIP_PIXELS = 8 * 1024 * 1024;
+
+    private final Node node;
+    private final File file;
+    private final double scale;
+    private final Bounds bounds;
+    private final int width;
+    private final int height;
+    private final int stripHeight;
+    private final int[] strip;
+    private final Runnable onSucceeded;
+    private final Consumer<Throwable> onFailed;
+    private PngWriter writer;
+    private int y;
+
+    private TiledSnapshot(final Node node, final File file, final double scale,
+            final Runnable onSucceeded, final Consumer<Throwable> onFailed){
+
+        this.node = node;
+        this.file = file;
+        this.scale = scale;
+        this.bounds = node.getLayoutBounds();
+        this.width = Math.max(1, (int) Math.ceil(bounds.getWidth() * scale));
+        this.height = Math.max(1, (int) Math.ceil(bounds.getHeight() * scale));
+        this.stripHeight = Math.max(1, Math.min(TILE_SIZE,
+                Math.min(height, MAX_STRIP_PIXELS / width)));
+
+        this.strip = new int[width * stripHeight];
+        this.onSucceeded = onSucceeded;
+        this.onFailed = onFailed;
+    }
+
+    /**
+     * Exports the specified node to the specified PNG file. This method must be
+     * called on the FX thread and returns immediately. Both handlers are
+     * called on the FX thread
+     * 
+     * @param node The <code>Node</code> to export
+     * @param scale The factor to scale the node by
+     * @param file The file to write to
+     * @param onSucceeded The handler to call when the file has been written
+     * @param onFailed The handler to pass the cause of a failure to
+     */
+    static void export(final Node node, final double scale, final File file,
+            final Runnable onSucceeded, final Consumer<Throwable> onFailed){
+
+        final TiledSnapshot snapshot = new TiledSnapshot(node, file, scale,
+                onSucceeded, onFailed);
+
+        ChartPreparation.execute(() -> {
+            try{
+                snapshot.writer = new PngWriter(new BufferedOutputStream(
+                        new FileOutputStream(file)), snapshot.width, snapshot.height);
+
+                Platform.runLater(snapshot::renderStrip);
+            }catch(IOException ex){
+                Platform.runLater(() -> onFailed.accept(ex));
+            }
+        });
+    }
+
+    /**
+     * Renders the next strip on the FX thread and passes it to the encoder
+     */
+    private void renderStrip(){
+        final int rows = Math.min(stripHeight, height - y);
+        try{
+            final SnapshotParameters params = new SnapshotParameters();
+            params.setTransform(Transform.scale(scale, scale));
+            for(int x=0; x<width; x+=TILE_SIZE){
+                final int columns = Math.min(TILE_SIZE, width - x);
+                for(int row=0; row<rows; row+=TILE_SIZE){
+                    final int tileRows = Math.min(TILE_SIZE, rows - row);
+                    params.setViewport(new Rectangle2D(
+                            bounds.getMinX() * scale + x,
+                            bounds.getMinY() * scale + y + row,
+                            columns, tileRows));
+
+                    final WritableImage tile = node.snapshot(params,
+                            new WritableImage(columns, tileRows));
+
+                    tile.getPixelReader().getPixels(0, 0, columns, tileRows,
+                            PixelFormat.getIntArgbInstance(),
+                            strip, row * width + x, width);
+                }
+            }
+        }catch(RuntimeException ex){
+            ChartPreparation.execute(() -> fail(ex));
+            return;
+        }
+        ChartPreparation.execute(() -> encodeStrip(rows));
+    }
+
+    /**
+     * Encodes the current strip on a worker thread and schedules the next one
+     */
+    private void encodeStrip(final int rows){
+        try{
+            writer.writeRows(strip, 0, width, rows);
+            this.y += rows;
+            if(y < height){
+                Platform.runLater(this::renderStrip);
+            }else{
+                writer.close();
+                Platform.runLater(onSucceeded);
+            }
+        }catch(IOException | RuntimeException ex){
+            fail(ex);
+        }
+    }
+
+    private void fail(final Throwable cause){
+        try{
+            writer.close();
+        }catch(IOException ex){
+            //the image is incomplete anyway
+        }
+        file.delete();
+        Platform.runLater(() -> onFailed.accept(cause));
+    }
+}
@@ -17,46 +17,42 @@
 package com.raven.icecrusher.ui.plot;
 
 import java.time.LocalDate;
-import java.time.Period;
 import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
+import java.util.function.Consumer;
+import java.util.function.IntToDoubleFunction;
+
 import com.jfoenix.controls.JFXButton;
 import com.jfoenix.controls.JFXCheckBox;
 import com.jfoenix.controls.JFXComboBox;
 import com.jfoenix.controls.JFXTextField;
-import com.raven.common.struct.ByteColumn;
 import com.raven.common.struct.Column;
-import com.raven.common.struct.DataFrame;
 import com.raven.common.struct.DataFrameException;
-import com.raven.common.struct.DefaultDataFrame;
-import com.raven.common.struct.DoubleColumn;
-import com.raven.common.struct.FloatColumn;
-import com.raven.common.struct.IntColumn;
-import com.raven.common.struct.LongColumn;
-import com.raven.common.struct.NullableByteColumn;
-import com.raven.common.struct.NullableDoubleColumn;
-import com.raven.common.struct.NullableFloatColumn;
-import com.raven.common.struct.NullableIntColumn;
-import com.raven.common.struct.NullableLongColumn;
-import com.raven.common.struct.NullableShortColumn;
-import com.raven.common.struct.ShortColumn;
 import com.raven.icecrusher.application.Cache;
 import com.raven.icecrusher.io.DataFrames;
 import com.raven.icecrusher.ui.OneShotSnackbar;
+import com.raven.icecrusher.util.ExceptionHandler;
 
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
+import javafx.geometry.Bounds;
+import javafx.geometry.Point2D;
 import javafx.scene.Node;
+import javafx.scene.chart.Axis;
 import javafx.scene.chart.NumberAxis;
 import javafx.scene.chart.XYChart;
 import javafx.scene.chart.XYChart.Data;
 import javafx.scene.chart.XYChart.Series;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
 
 import static com.raven.icecrusher.util.EditorConfiguration.*;
 import static com.raven.icecrusher.util.EditorConfiguration.Section.*;
@@ -78,8 +74,14 @@ import static com.raven.icecrusher.util.EditorConfiguration.Section.*;
  * 
  * <p>A button for adding the selected x-axis y-axis combination to the settings list.
  * 
+ * <p>Zooming along the x-axis with the mouse wheel and panning by dragging the chart.
+ * A double click resets the zoom. All series only hold a decimated view of their raw
+ * data, which is computed again from the raw data whenever the visible range of the
+ * x-axis changes. If the chart is a {@link CanvasLineChart}, large series are drawn
+ * onto its canvas instead.
+ * 
  * <p>This class also provides a method to compute a <code>XYChart.Series</code> object
- * from two given columns. Both date-number as well as number-number combinations are 
+ * from two given columns in the background. Both date-number as well as number-number combinations are 
  * supported. The date column must always be on the x-axis.
  *
  */
@@ -90,30 +92,47 @@ public abstract class XYChartController extends ChartController {
      */
     protected static final int DATE_AXIS_THRESHOLD_TICKS = 50;
 
+    /**
+     * The factor by which the visible range of the x-axis changes per zoom step
+     */
+    protected static final double ZOOM_FACTOR = 0.8;
+
+    /**
+     * The number of decimation buckets used when the chart has not been laid out yet
+     */
+    private static final int DEFAULT_PLOT_WIDTH = 1000;
+
+    /**
+     * The minimum number of raw data points of a series to be drawn
+     * onto the canvas of a CanvasLineChart
+     */
+    protected static final int CANVAS_THRESHOLD = 10000;
+
     protected static final String STYLE_PLOT_BACKGROUND_WHITE = "-fx-background-color: white";
     protected static final String STYLE_PLOTBACKGROUND_DARK = "-fx-background-color: #383838";
     protected static final String STYLE_GRID_LINES_WHITE = "-fx-stroke: derive(white, -10%)";
     protected static final String STYLE_GRID_LINES_DARK = "-fx-stroke: derive(white, -70%)";
 
-    /**
-     * The date format used internally to sort date-value mappings
-     */
-    protected static final DateTimeFormatter DATE_FORMATTER_ENCODED = 
-            DateTimeFormatter.ofPattern("yyyyMMdd", Locale.ENGLISH);
-
     /**
      * The date format of all ticks shown to the user inside the chart content
      */
     protected static final DateTimeFormatter DATE_FORMATTER_TICKS = 
             DateTimeFormatter.ofPattern("d MMM yyyy", Locale.ENGLISH);
 
+    /**
+     * The option of the date format combo box for numeric dates in epoch milliseconds
+     */
+    protected static final String OPTION_EPOCH_MILLIS = "Epoch milliseconds";
+
     /**
      * All options shown to the user in the date format combo box
      */
     protected static final ObservableList<String> OPTIONS_DATE_FORMAT = 
             FXCollections.observableArrayList(
                     "yyyy-MM-dd", "yyyyMMdd", "yyyy.MM.dd",
-                    "dd-MM-yyyy", "ddMMyyyy", "dd.MM.yyyy");
+                    "dd-MM-yyyy", "ddMMyyyy", "dd.MM.yyyy",
+                    "yyyy-MM-dd HH:mm:ss", "yyyy-MM-dd'T'HH:mm:ss",
+                    OPTION_EPOCH_MILLIS);
 
     @FXML
     protected JFXComboBox<String> cbColumnX;
@@ -158,6 +177,10 @@ public abstract class XYChartController extends ChartController {
     protected boolean xAxisIsDate;
 
     private XYChart<Number, Number> chart;
+    private CanvasLineChart canvasChart;
+    private double panAnchor = Double.NaN;
+    private double panLower;
+    private double panUpper;
 
     public XYChartController(){
         super();
@@ -195,6 +218,9 @@ public abstract class XYChartController extends ChartController {
     protected void initialize(final XYChart<Number, Number> chart){
         super.initialize(chart);
         this.chart = chart;
+        if(chart instanceof CanvasLineChart){
+            this.canvasChart = (CanvasLineChart) chart;
+        }
         this.settingsList.setAnimateResetAction(true);
         //ComboBoxes
         this.cbDateFormat.setItems(OPTIONS_DATE_FORMAT);
@@ -249,6 +275,22 @@ public abstract class XYChartController extends ChartController {
             getConfiguration().set(PLOT, CONFIG_BACKGROUND_WHITE, newValue);
         });
         this.checkWhiteBackground.setSelected(getConfiguration().booleanOf(PLOT, CONFIG_BACKGROUND_WHITE));
+        //zoom behaviour
+        chart.setOnScroll(this::zoom);
+        chart.setOnMouseClicked((event) -> {
+            if((event.getButton() == MouseButton.PRIMARY) && (event.getClickCount() == 2)){
+                resetZoom();
+            }
+        });
+        chart.setOnMousePressed((event) -> {
+            if((event.getButton() == MouseButton.PRIMARY) && !chartXAxis.isAutoRanging()){
+                panAnchor = event.getSceneX();
+                panLower = chartXAxis.getLowerBound();
+                panUpper = chartXAxis.getUpperBound();
+            }
+        });
+        chart.setOnMouseDragged(this::pan);
+        chart.setOnMouseReleased((event) -> panAnchor = Double.NaN);
     }
 
     @Override
@@ -314,11 +356,14 @@ public abstract class XYChartController extends ChartController {
      * Gets a <code>DateTimeFormatter</code> based on the selected format of the combo box
      * 
      * @return A <code>DateTimeFormatter</code> for parsing dates according to
-     *         the selected format
+     *         the selected format, or null if dates are in epoch milliseconds
      */
     protected DateTimeFormatter getDateFormatterFromSelection(){
-        return DateTimeFormatter.ofPattern(cbDateFormat
-                .getSelectionModel().getSelectedItem(), Locale.ENGLISH);
+        final String format = cbDateFormat.getSelectionModel().getSelectedItem();
+        if(OPTION_EPOCH_MILLIS.equals(format)){
+            return null;
+        }
+        return DateTimeFormatter.ofPattern(format, Locale.ENGLISH);
     }
 
     /**
@@ -335,6 +380,7 @@ public abstract class XYChartController extends ChartController {
      * This method should be called whenever any column selection changes
      */
     protected void columnSelectionChanged(){
+        preparation.cancel();
         if((cbColumnX.getSelectionModel().getSelectedIndex() != -1) 
                 && (cbColumnY.getSelectionModel().getSelectedIndex() != -1)){
 
@@ -366,6 +412,7 @@ public abstract class XYChartController extends ChartController {
      * Resets all settings to the default values and removes all chart series data
      */
     protected void reset(){
+        preparation.cancel();
         chart.getData().clear();
         settingsList.resetSettingsList();
         usedDataList.clear();
@@ -409,6 +456,247 @@ public abstract class XYChartController extends ChartController {
         }
     }
 
+    /**
+     * Replaces the data points of all specified series with a decimated view of their
+     * raw data within the current range of the x-axis. If the x-axis is auto ranging,
+     * the entire raw data of each series is decimated. The number of data points of
+     * each series is bounded by the width of the chart in pixels
+     * 
+     * @param series The series to update
+     */
+    protected void updateLevelOfDetail(final List<Series<Number, Number>> series){
+        final int buckets = plotWidth();
+        for(final Series<Number, Number> s : series){
+            final XYChartData data = dataOf(s);
+            if((data == null) || (data.getDecimator() == null)){
+                continue;
+            }
+            final Decimator decimator = data.getDecimator();
+            if((canvasChart != null) && (decimator.size() > CANVAS_THRESHOLD)){
+                //canvas series are decimated by the chart itself
+                canvasChart.setSeriesData(s, decimator,
+                        data.getYlowerBound(), data.getYupperBound());
+
+                continue;
+            }
+            final boolean auto = chartXAxis.isAutoRanging();
+            final double[][] points = decimator.decimate(
+                    (auto ? decimator.minX() : chartXAxis.getLowerBound()),
+                    (auto ? decimator.maxX() : chartXAxis.getUpperBound()),
+                    buckets);
+
+            final List<Data<Number, Number>> list = new ArrayList<>(points[0].length);
+            for(int i=0; i<points[0].length; ++i){
+                list.add(new Data<Number, Number>(points[0][i], points[1][i]));
+            }
+            s.getData().setAll(list);
+        }
+    }
+
+    /**
+     * Sets the color of the specified series if it is drawn onto a canvas
+     * 
+     * @param series The series to set the color for
+     * @param color The new color of the series
+     */
+    protected void updateCanvasColor(final Series<Number, Number> series, final String color){
+        if(canvasChart != null){
+            canvasChart.setSeriesColor(series, color);
+        }
+    }
+
+    /**
+     * Creates an SVG document of the current chart. All series are drawn as lines,
+     * taken directly from the raw data of each series. Large series are decimated
+     * to four buckets per pixel of the visible x-range, which keeps all peaks
+     * at any zoom level of the exported graphic
+     * 
+     * @return The SVG document of the chart, or null if no chart is shown
+     */
+    @Override
+    protected String exportSvg(){
+        final Node plotArea = chart.lookup(".chart-plot-background");
+        if(!plotIsShown || (plotArea == null)){
+            return null;
+        }
+        final Bounds plot = boundsInChart(plotArea);
+        final Bounds xAxis = boundsInChart(chartXAxis);
+        final Bounds yAxis = boundsInChart(chartYAxis);
+        final SvgChart svg = new SvgChart(chart.getWidth(), chart.getHeight());
+        svg.rect(0, 0, chart.getWidth(), chart.getHeight(), "white", null);
+        svg.rect(plot.getMinX(), plot.getMinY(), plot.getWidth(), plot.getHeight(),
+                "none", "#808080");
+
+        //axes
+        for(final Axis.TickMark<Number> tick : chartXAxis.getTickMarks()){
+            final double x = xAxis.getMinX() + tick.getPosition();
+            svg.line(x, plot.getMaxY(), x, plot.getMaxY() + 5, "#808080");
+            svg.text(x, plot.getMaxY() + 18, tick.getLabel(), "middle", 11, 0);
+        }
+        for(final Axis.TickMark<Number> tick : chartYAxis.getTickMarks()){
+            final double y = yAxis.getMinY() + tick.getPosition();
+            svg.line(plot.getMinX() - 5, y, plot.getMinX(), y, "#808080");
+            svg.text(plot.getMinX() - 8, y + 4, tick.getLabel(), "end", 11, 0);
+        }
+        svg.text(plot.getMinX() + plot.getWidth() / 2, xAxis.getMaxY() - 2,
+                chartXAxis.getLabel(), "middle", 13, 0);
+
+        svg.text(yAxis.getMinX() + 12, plot.getMinY() + plot.getHeight() / 2,
+                chartYAxis.getLabel(), "middle", 13, -90);
+
+        svg.text(chart.getWidth() / 2, 24, chart.getTitle(), "middle", 18, 0);
+        //series
+        final String clip = svg.clip(plot.getMinX(), plot.getMinY(),
+                plot.getWidth(), plot.getHeight());
+
+        final double lower = chartXAxis.getLowerBound();
+        final double upper = chartXAxis.getUpperBound();
+        double legendY = plot.getMinY() + 16;
+        for(final Series<Number, Number> series : chart.getData()){
+            final double[][] points = rawPointsOf(series, lower, upper, 4 * plotWidth());
+            final double[] x = new double[points[0].length];
+            final double[] y = new double[points[1].length];
+            for(int i=0; i<x.length; ++i){
+                x[i] = xAxis.getMinX() + chartXAxis.getDisplayPosition(points[0][i]);
+                y[i] = yAxis.getMinY() + chartYAxis.getDisplayPosition(points[1][i]);
+            }
+            final String color = getSettingsViewForSeries(series).getColor();
+            svg.polyline(x, y, color, 2, clip);
+            //legend entry
+            svg.line(plot.getMaxX() - 150, legendY - 4, plot.getMaxX() - 130, legendY - 4, color);
+            svg.text(plot.getMaxX() - 124, legendY, series.getName(), "start", 12, 0);
+            legendY += 16;
+        }
+        return svg.finish();
+    }
+
+    private double[][] rawPointsOf(final Series<Number, Number> series, final double lower,
+            final double upper, final int buckets){
+
+        final XYChartData data = dataOf(series);
+        if((data != null) && (data.getDecimator() != null)){
+            return data.getDecimator().decimate(lower, upper, buckets);
+        }
+        final List<Data<Number, Number>> list = series.getData();
+        final double[][] points = new double[2][list.size()];
+        for(int i=0; i<list.size(); ++i){
+            points[0][i] = list.get(i).getXValue().doubleValue();
+            points[1][i] = list.get(i).getYValue().doubleValue();
+        }
+        return points;
+    }
+
+    private Bounds boundsInChart(final Node node){
+        return chart.sceneToLocal(node.localToScene(node.getLayoutBounds()));
+    }
+
+    private XYChartData dataOf(final Series<Number, Number> series){
+        for(final XYChartData data : usedDataList){
+            if(data.getSeries() == series){
+                return data;
+            }
+        }
+        return null;
+    }
+
+    private int plotWidth(){
+        final double width = chartXAxis.getWidth();
+        return ((width > 0) ? (int) width : DEFAULT_PLOT_WIDTH);
+    }
+
+    private double[] fullXRange(){
+        double lower = Double.POSITIVE_INFINITY;
+        double upper = Double.NEGATIVE_INFINITY;
+        for(final Series<Number, Number> series : chart.getData()){
+            final XYChartData data = dataOf(series);
+            if((data != null) && (data.getDecimator() != null)
+                    && (data.getDecimator().size() > 0)){
+
+                lower = Math.min(lower, data.getDecimator().minX());
+                upper = Math.max(upper, data.getDecimator().maxX());
+            }
+        }
+        return new double[]{lower, upper};
+    }
+
+    private void zoom(final ScrollEvent event){
+        if(!plotIsShown || chart.getData().isEmpty() || (event.getDeltaY() == 0)){
+            return;
+        }
+        final double[] range = fullXRange();
+        if(!(range[0] < range[1])){
+            return;
+        }
+        final double lower = chartXAxis.getLowerBound();
+        final double upper = chartXAxis.getUpperBound();
+        final Point2D point = chartXAxis.sceneToLocal(event.getSceneX(), event.getSceneY());
+        double center = chartXAxis.getValueForDisplay(point.getX()).doubleValue();
+        if(!((center >= lower) && (center <= upper))){
+            center = (lower + upper) / 2;
+        }
+        final double factor = ((event.getDeltaY() > 0) ? ZOOM_FACTOR : (1.0 / ZOOM_FACTOR));
+        final double newLower = Math.max(range[0], center - ((center - lower) * factor));
+        final double newUpper = Math.min(range[1], center + ((upper - center) * factor));
+        if(newUpper > newLower){
+            setXRange(newLower, newUpper);
+            updateLevelOfDetail(chart.getData());
+            updateAllSymbolsColor(chart);
+        }
+        event.consume();
+    }
+
+    private void pan(final MouseEvent event){
+        if(Double.isNaN(panAnchor) || !plotIsShown || chart.getData().isEmpty()){
+            return;
+        }
+        final double[] range = fullXRange();
+        final double width = chartXAxis.getWidth();
+        if(!(range[0] < range[1]) || (width <= 0)){
+            return;
+        }
+        final double extent = (panUpper - panLower);
+        double shift = -(event.getSceneX() - panAnchor) * (extent / width);
+        //keep the visible extent within the full range
+        shift = Math.max(shift, range[0] - panLower);
+        shift = Math.min(shift, range[1] - panUpper);
+        if(extent < (range[1] - range[0])){
+            setXRange(panLower + shift, panUpper + shift);
+            updateLevelOfDetail(chart.getData());
+            updateAllSymbolsColor(chart);
+        }
+        event.consume();
+    }
+
+    private void resetZoom(){
+        if(!plotIsShown || chart.getData().isEmpty()){
+            return;
+        }
+        if(xAxisIsDate){
+            final double[] range = fullXRange();
+            if(range[0] < range[1]){
+                setXRange(range[0], range[1]);
+            }
+        }else{
+            chartXAxis.setAutoRanging(true);
+        }
+        updateLevelOfDetail(chart.getData());
+        updateAllSymbolsColor(chart);
+    }
+
+    private void setXRange(final double lower, final double upper){
+        chartXAxis.setAutoRanging(false);
+        chartXAxis.setLowerBound(lower);
+        chartXAxis.setUpperBound(upper);
+        final double timeframe = (upper - lower);
+        if(xAxisIsDate){
+            chartXAxis.setTickUnit((timeframe > DATE_AXIS_THRESHOLD_TICKS)
+                    ? Math.ceil(timeframe / DATE_AXIS_THRESHOLD_TICKS)
+                    : 1);
+        }else{
+            chartXAxis.setTickUnit(timeframe / 10);
+        }
+    }
+
     /**
      * Removes the series mapped by the given SettingsView from both the settings list
      * as well as the chart content and any internal data structures that may hold a
@@ -437,7 +725,7 @@ public abstract class XYChartController extends ChartController {
                     setDateControlsDisabled(false);
                     plotIsShown = false;
                 }else{
-                    btnPlotExport.setText("Export as PNG");
+                    btnPlotExport.setText("Export");
                 }
             }
         }
@@ -460,135 +748,127 @@ public abstract class XYChartController extends ChartController {
      * The x-axis values of the series will be taken from the column of the first argument while 
      * the y-axis values will be taken from the column of the second argument. This method will
      * distinguish between plain numerical data and time-based data. <br>
+     * The data is computed in the background. When it is ready, the x-axis is set up
+     * accordingly and the computed data is passed to the specified handler on the FX thread.
+     * Any preparation which is still running is cancelled. Data prepared earlier for the
+     * same unchanged columns is taken from the {@link PreparedDataCache}.<br>
      * If any precondition is not met, then an info message is shown to the user as a Snackbar
+     * and the handler is not called
      * 
      * @param colX The column to be used as the x-values
      * @param colY The column to be used as the y-values
-     * @return A <code>XYChartData</code> object holding a <code>XYChart.Series</code> for the 
-     *         given column data
+     * @param onPrepared The handler to pass the <code>XYChartData</code> object holding a
+     *                   <code>XYChart.Series</code> for the given column data to
      */
     @SuppressWarnings("unlikely-arg-type")
-    protected XYChartData prepareData(final Column colX, final Column colY){
+    protected void prepareData(final Column colX, final Column colY,
+            final Consumer<XYChartData> onPrepared){
+
         //do various checks
         if(!colX.isNumeric() && !DataFrames.columnUsesStrings(colX)){
             OneShotSnackbar.showFor(getRootNode(),
                     "Only numbers and strings are allowed for the x-Axis");
             
-            return null;
+            return;
         }
         if(!colY.isNumeric()){
             OneShotSnackbar.showFor(getRootNode(),
                     "Only numbers are allowed for the y-Axis");
             
-            return null;
+            return;
         }
         if(usedDataList.contains(colY)){
             OneShotSnackbar.showFor(getRootNode(),
                     "This data series has already been added");
             
-            return null;
+            return;
         }
-        XYChartData data = null;
+        final ChartPreparation.Work<XYChartData> work;
+        final String selection;
         //branches for time and numeric data
         if(xAxisIsDate){//X-AXIS IS DATE FORMAT
             if(cbDateFormat.getSelectionModel().getSelectedIndex() == -1){
                 OneShotSnackbar.showFor(getRootNode(),
                         "Please select a date format");
                 
-                return null;
-            }
-            try{
-                data = prepareTimeData(colX, colY);
-            }catch(DateFormatException ex){
-                OneShotSnackbar.showFor(getRootNode(),
-                        "Incorrectly formatted date at index "
-                        + ex.getCauseIndex());
-
-                return null;
-            }catch(DataFrameException ex){
-                OneShotSnackbar.showFor(getRootNode(),
-                        "No valid data points for selected columns");
-                
-                return null;
+                return;
             }
+            final DateTimeFormatter formatter = getDateFormatterFromSelection();
+            work = (progress) -> prepareTimeData(colX, colY, formatter, progress);
+            selection = "xy.date." + cbDateFormat.getSelectionModel().getSelectedItem();
         }else{//X-AXIS IS NUMERIC
             if(DataFrames.columnUsesStrings(colX)){
                 OneShotSnackbar.showFor(getRootNode(),
                         "Strings must represent dates");
                 
-                return null;
+                return;
             }
-            data = prepareNumericData(colX, colY);
+            work = (progress) -> prepareNumericData(colX, colY, progress);
+            selection = "xy.numeric";
         }
-        data.setYcolumn(colY);
-        this.usedDataList.add(data);
-        return data;
-    }
+        final Consumer<XYChartData> onSucceeded = (data) -> {
+            btnYAdd.setDisable(false);
+            data.getSeries().setName("Series " + (seriesNumber++));
+            data.setYcolumn(colY);
+            setUpXAxis(data);
+            this.usedDataList.add(data);
+            onPrepared.accept(data);
+        };
+        final PreparedDataCache.Key key = PreparedDataCache.keyOf(df, selection, colX, colY);
+        final XYChartData cached = PreparedDataCache.get(key, XYChartData.class);
+        if(cached != null){
+            preparation.cancel();
+            onSucceeded.accept(copyOf(cached));
+            return;
+        }
+        btnYAdd.setDisable(true);
+        preparation.submit((progress) -> {
+            final XYChartData data = work.prepare(progress);
+            //cache a copy as the series of the returned data is used by the chart
+            //raw points plus about one byte per point for the pyramid
+            PreparedDataCache.put(key, copyOf(data),
+                    17L * data.getDecimator().size() + 128);
+
+            return data;
+        }, onSucceeded, (ex) -> {
+            btnYAdd.setDisable(false);
+            if(ex instanceof DateFormatException){
+                final int index = ((DateFormatException)ex).getCauseIndex();
+                OneShotSnackbar.showFor(getRootNode(), ((index >= 0)
+                        ? ("Incorrectly formatted date at index " + index)
+                        : ex.getMessage()));
 
-    private XYChartData prepareNumericData(final Column colX, final Column colY){
-        final XYChart.Series<Number, Number> series = new XYChart.Series<>();
-        double min = Double.POSITIVE_INFINITY;
-        double max = Double.NEGATIVE_INFINITY;
-        series.setName("Series " + (seriesNumber++));
-        final ObservableList<Data<Number, Number>> data = series.getData();
-        for(int i=0; i<df.rows(); ++i){
-            final Number x = (Number) colX.getValue(i);
-            final Number y = (Number) colY.getValue(i);
-            if((x != null) && (y != null)){
-                data.add(new Data<Number, Number>(x, y));
-                if(y.doubleValue() < min){ min = y.doubleValue(); }
-                if(y.doubleValue() > max){ max = y.doubleValue(); }
+            }else if(ex instanceof DataFrameException){
+                OneShotSnackbar.showFor(getRootNode(),
+                        "No valid data points for selected columns");
+
+            }else{
+                ExceptionHandler.showDialog(ex);
             }
-        }
-        chartXAxis.setForceZeroInRange(false);
-        return new XYChartData(series, min, max);
+        });
     }
 
-    private XYChartData prepareTimeData(final Column colX, final Column colY) 
-            throws DateFormatException, DataFrameException{
+    private static XYChartData copyOf(final XYChartData data){
+        final XYChartData copy = new XYChartData(new XYChart.Series<>(),
+                data.getYlowerBound(), data.getYupperBound());
 
-        final XYChart.Series<Number, Number> series = new XYChart.Series<>();
-        double min = Double.POSITIVE_INFINITY;
-        double max = Double.NEGATIVE_INFINITY;
-        series.setName("Series " + (seriesNumber++));
-        final ObservableList<Data<Number, Number>> data = series.getData();
-
-        final DataFrame dates = buildSortedXYMapping(colX, colY);
-        if(dates.isEmpty()){
-            throw new DataFrameException();
-        }
-        //add the origin t=0
-        final Column y = dates.getColumn(1);
-        final Number yZero = (Number) y.getValue(0);
-        data.add(new Data<Number, Number>(0, yZero));
-        final LocalDate tZero = LocalDate.parse(String.valueOf(dates.getInt(0, 0)),
-                DATE_FORMATTER_ENCODED);
-        
-        min = yZero.doubleValue();
-        max = yZero.doubleValue();
+        copy.setDecimator(data.getDecimator());
+        copy.setOrigin(data.getOrigin());
+        return copy;
+    }
 
-        for(int i=1; i<dates.rows(); ++i){
-            final LocalDate d = LocalDate.parse(String.valueOf(dates.getInt(0, i)),
-                    DATE_FORMATTER_ENCODED);
-            
-            final Period p = Period.between(tZero, d);
-            final int x = ((p.getYears()*365)+(p.getMonths()*30)+p.getDays());
-            final Number yValue = (Number)y.getValue(i);
-            data.add(new Data<Number, Number>(x, yValue));
-            if(yValue.doubleValue() < min){ min = yValue.doubleValue(); }
-            if(yValue.doubleValue() > max){ max = yValue.doubleValue(); }
+    private void setUpXAxis(final XYChartData data){
+        final LocalDate tZero = data.getOrigin();
+        if(tZero == null){
+            chartXAxis.setForceZeroInRange(false);
+            return;
         }
         //format the x-axis
         chartXAxis.setTickLabelFormatter(new DateTickConverter(tZero));
         chartXAxis.setAutoRanging(false);
         chartXAxis.setLowerBound(0);//set to t=0
-        //compute the period between the first and last date in the series
-        final Period p = Period.between(tZero, 
-                LocalDate.parse(String.valueOf(dates.getInt(0, dates.rows()-1)),
-                        DATE_FORMATTER_ENCODED));
-
-        //the total number of days
-        final int timeframe = ((p.getYears()*365)+(p.getMonths()*30)+p.getDays());
+        //the total number of days between the first and last date in the series
+        final int timeframe = (int) data.getDecimator().maxX();
         chartXAxis.setUpperBound(timeframe);
         if(timeframe > DATE_AXIS_THRESHOLD_TICKS){
             chartXAxis.setTickUnit(Math.ceil(timeframe/DATE_AXIS_THRESHOLD_TICKS));
@@ -597,136 +877,54 @@ public abstract class XYChartController extends ChartController {
             chartXAxis.setTickUnit(1);
         }
         chartXAxis.setMinorTickVisible(false);
-
-        return new XYChartData(series, min, max);
     }
 
-    private DataFrame buildSortedXYMapping(final Column colX, final Column colY)
-            throws DateFormatException{
-        
-        return (df.isNullable()
-                ? buildSortedXYMappingNullable(colX, colY)
-                        : buildSortedXYMappingDefault(colX, colY));
-    }
+    private XYChartData prepareNumericData(final Column colX, final Column colY,
+            final ChartPreparation.Progress progress){
 
-    private DataFrame buildSortedXYMappingDefault(final Column colX, final Column colY) 
-            throws DateFormatException{
-
-        final int[] datesRaw = new int[df.rows()];
-        final DateTimeFormatter formatter = getDateFormatterFromSelection();
-        for(int i=0; i<df.rows(); ++i){
-            try{
-                final String xRaw = String.valueOf(colX.getValue(i));
-                final LocalDate date = LocalDate.parse(xRaw, formatter);
-                datesRaw[i] = Integer.valueOf(date.format(DATE_FORMATTER_ENCODED));
-            }catch(DateTimeParseException ex){
-                throw new DateFormatException(i);
+        final XYChart.Series<Number, Number> series = new XYChart.Series<>();
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        final int rows = df.rows();
+        final IntToDoubleFunction readerX = ColumnReaders.of(colX);
+        final IntToDoubleFunction readerY = ColumnReaders.of(colY);
+        //the decimator takes over these arrays
+        final double[] xValues = new double[rows];
+        final double[] yValues = new double[rows];
+        int n = 0;
+        for(int i=0; i<rows; ++i){
+            final double x = readerX.applyAsDouble(i);
+            final double y = readerY.applyAsDouble(i);
+            //null values are read as NaN
+            if(!Double.isNaN(x) && !Double.isNaN(y)){
+                xValues[n] = x;
+                yValues[n++] = y;
+                if(y < min){ min = y; }
+                if(y > max){ max = y; }
             }
+            progress.update(i+1, rows);
         }
-        final DataFrame dates = new DefaultDataFrame(new IntColumn(datesRaw), ((Column)colY.clone()));
-        dates.sortBy(0);
-        return dates;
-    }
+        final XYChartData data = new XYChartData(series, min, max);
+        data.setDecimator((n == rows)
+                ? new Decimator(xValues, yValues)
+                : new Decimator(Arrays.copyOf(xValues, n), Arrays.copyOf(yValues, n)));
 
-    private DataFrame buildSortedXYMappingNullable(final Column colX, final Column colY) 
-            throws DateFormatException{
-
-        final Integer[] datesRaw = new Integer[df.rows()];
-        final DateTimeFormatter formatter = getDateFormatterFromSelection();
-        int validDataPoints = 0;
-        for(int i=0; i<df.rows(); ++i){
-            final Object val = colX.getValue(i);
-            if(val != null){
-                try{
-                    final String xRaw = String.valueOf(val);
-                    final LocalDate date = LocalDate.parse(xRaw, formatter);
-                    datesRaw[i] = Integer.valueOf(date.format(DATE_FORMATTER_ENCODED));
-                }catch(DateTimeParseException ex){
-                    throw new DateFormatException(i);
-                }
-                //increment if both x- and y-value is guaranteed to be non-null
-                if(colY.getValue(i) != null){ ++validDataPoints; }
-            }
-        }
-        //copy non-null entries
-        final DataFrame dates = buildNonNullDataFrame(datesRaw, colY, validDataPoints);
-        dates.sortBy(0);
-        return dates;
+        return data;
     }
 
-    private DataFrame buildNonNullDataFrame(final Integer[] rawX,
-            final Column colY, final int validDataPoints){
-        
-        final int[] xValues = new int[validDataPoints];
-        int i = 0;
-        switch(colY.typeCode()){
-        case NullableByteColumn.TYPE_CODE:{
-            final NullableByteColumn y = (NullableByteColumn) colY;
-            final byte[] yValues = new byte[validDataPoints];
-            for(int j=0; j<df.rows(); ++j){
-                if((rawX[j] != null) && (y.get(j) != null)){
-                    xValues[i] = rawX[j];
-                    yValues[i++] = y.get(j);
-                }
-            }
-            return new DefaultDataFrame(new IntColumn(xValues), new ByteColumn(yValues));
-        }
-        case NullableShortColumn.TYPE_CODE:{
-            final NullableShortColumn y = (NullableShortColumn) colY;
-            final short[] yValues = new short[validDataPoints];
-            for(int j=0; j<df.rows(); ++j){
-                if((rawX[j] != null) && (y.get(j) != null)){
-                    xValues[i] = rawX[j];
-                    yValues[i++] = y.get(j);
-                }
-            }
-            return new DefaultDataFrame(new IntColumn(xValues), new ShortColumn(yValues));
-        }
-        case NullableIntColumn.TYPE_CODE:{
-            final NullableIntColumn y = (NullableIntColumn) colY;
-            final int[] yValues = new int[validDataPoints];
-            for(int j=0; j<df.rows(); ++j){
-                if((rawX[j] != null) && (y.get(j) != null)){
-                    xValues[i] = rawX[j];
-                    yValues[i++] = y.get(j);
-                }
-            }
-            return new DefaultDataFrame(new IntColumn(xValues), new IntColumn(yValues));
-        }
-        case NullableLongColumn.TYPE_CODE:{
-            final NullableLongColumn y = (NullableLongColumn) colY;
-            final long[] yValues = new long[validDataPoints];
-            for(int j=0; j<df.rows(); ++j){
-                if((rawX[j] != null) && (y.get(j) != null)){
-                    xValues[i] = rawX[j];
-                    yValues[i++] = y.get(j);
-                }
-            }
-            return new DefaultDataFrame(new IntColumn(xValues), new LongColumn(yValues));
-        }
-        case NullableFloatColumn.TYPE_CODE:{
-            final NullableFloatColumn y = (NullableFloatColumn) colY;
-            final float[] yValues = new float[validDataPoints];
-            for(int j=0; j<df.rows(); ++j){
-                if((rawX[j] != null) && (y.get(j) != null)){
-                    xValues[i] = rawX[j];
-                    yValues[i++] = y.get(j);
-                }
-            }
-            return new DefaultDataFrame(new IntColumn(xValues), new FloatColumn(yValues));
-        }
-        case NullableDoubleColumn.TYPE_CODE:{
-            final NullableDoubleColumn y = (NullableDoubleColumn) colY;
-            final double[] yValues = new double[validDataPoints];
-            for(int j=0; j<df.rows(); ++j){
-                if((rawX[j] != null) && (y.get(j) != null)){
-                    xValues[i] = rawX[j];
-                    yValues[i++] = y.get(j);
-                }
-            }
-            return new DefaultDataFrame(new IntColumn(xValues), new DoubleColumn(yValues));
-        }
+    private XYChartData prepareTimeData(final Column colX, final Column colY,
+            final DateTimeFormatter formatter, final ChartPreparation.Progress progress)
+                    throws DateFormatException, DataFrameException{
+
+        final DateSeries dates = DateSeries.of(colX, colY, df.rows(), formatter, progress);
+        if(dates == null){
+            throw new DataFrameException();
         }
-        return null;
+        final XYChartData data = new XYChartData(new XYChart.Series<>(),
+                dates.getMinY(), dates.getMaxY());
+
+        data.setDecimator(new Decimator(dates.getX(), dates.getY()));
+        data.setOrigin(dates.getOrigin());
+        return data;
     }
 }
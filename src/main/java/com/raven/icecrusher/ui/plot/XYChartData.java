@@ -16,20 +16,28 @@
 
 package com.raven.icecrusher.ui.plot;
 
+import java.time.LocalDate;
+
 import com.raven.common.struct.Column;
 
 import javafx.scene.chart.XYChart.Series;
 
 /**
  * Wrapper class holding a response to computations for chart data preparations.<br>
- * Objects of this class' type are returned by 
- * {@link XYChartController#prepareData(Column, Column)}
+ * The raw data points of the series are held by a {@link Decimator} while the
+ * series itself only holds the data points currently shown on the chart.<br>
+ * If the x-values represent dates, then they are the number of days since the origin
+ * date of the series.<br>
+ * Objects of this class' type are passed to the handler of 
+ * {@link XYChartController#prepareData(Column, Column, java.util.function.Consumer)}
  * 
  */
 public class XYChartData {
 
     private Series<Number, Number> series;
     private Column yColumn;
+    private Decimator decimator;
+    private LocalDate origin;
     private double yUpperBound;
     private double yLowerBound;
 
@@ -73,6 +81,22 @@ public class XYChartData {
         this.yColumn = yColumn;
     }
 
+    public Decimator getDecimator(){
+        return this.decimator;
+    }
+
+    public void setDecimator(final Decimator decimator){
+        this.decimator = decimator;
+    }
+
+    public LocalDate getOrigin(){
+        return this.origin;
+    }
+
+    public void setOrigin(final LocalDate origin){
+        this.origin = origin;
+    }
+
     @Override
     public boolean equals(Object obj){
         //check reference value of Column object
@@ -181,6 +181,22 @@ public class DataFrameView extends TableView<Integer> {
         restoreTableColumnWidths(map);
     }
 
+    /**
+     * Refreshes the displayed content after values of the specified column have
+     * been changed by a bulk operation and notifies all registered listeners by
+     * a single <code>EditEvent</code>. The structure of the DataFrame used by this
+     * view must not have been changed by the bulk operation
+     * 
+     * @param column The index of the changed column within the DataFrame
+     * @param rows The number of changed rows
+     */
+    public void bulkEdited(final int column, final int rows){
+        refresh();
+        if(listeners != null){
+            notifyListeners(new EditEvent(this, column, rows));
+        }
+    }
+
     /**
      * Gets the <code>DataFrame</code> used by this view
      * 
@@ -385,6 +401,7 @@ public class DataFrameView extends TableView<Integer> {
         private Object oldVal;
         private Object newVal;
         private boolean isRowDeletion;
+        private int affectedRows = 1;
 
         private EditEvent(DataFrameView view, int row, int column, 
                 Object oldVal, Object newVal){
@@ -399,6 +416,13 @@ public class DataFrameView extends TableView<Integer> {
             }
         }
 
+        private EditEvent(DataFrameView view, int column, int affectedRows){
+            this.view = view;
+            this.row = -1;
+            this.column = column;
+            this.affectedRows = affectedRows;
+        }
+
         public DataFrameView getView(){
             return view;
         }
@@ -423,6 +447,26 @@ public class DataFrameView extends TableView<Integer> {
             return isRowDeletion;
         }
 
+        /**
+         * Indicates whether this event was caused by a bulk operation changing
+         * the values of possibly many rows at once. The row index and the old
+         * and new values of such an event are unspecified
+         * 
+         * @return True if this event represents a bulk edit, false otherwise
+         */
+        public boolean isBulkEdit(){
+            return (row < 0) && (column >= 0);
+        }
+
+        /**
+         * Gets the number of rows affected by this event
+         * 
+         * @return The number of changed rows
+         */
+        public int getAffectedRows(){
+            return affectedRows;
+        }
+
     }
 
     /**
@@ -440,6 +484,7 @@ public class DataFrameView extends TableView<Integer> {
             RENAME,
             SORT,
             STATS,
+            DETAILS,
             CONVERT,
             DELETE;
         }
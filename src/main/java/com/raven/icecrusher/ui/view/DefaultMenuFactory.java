@@ -59,6 +59,7 @@ public class DefaultMenuFactory implements MenuFactory {
     public static final String MENU_TITLE_SORT          = "Sort";
     public static final String MENU_TITLE_DELETE        = "Delete";
     public static final String MENU_TITLE_STATS         = "Show stats";
+    public static final String MENU_TITLE_DETAILS       = "Show details";
     public static final String MENU_TITLE_CONVERT       = "Convert to";
 
     public static final String MENU_ITEM_TITLE_BYTES    = "bytes";
@@ -96,6 +97,11 @@ public class DefaultMenuFactory implements MenuFactory {
                         columnView.getText(), null);
             });
         }
+        final MenuItem item5 = new MenuItem(MENU_TITLE_DETAILS);
+        item5.setOnAction((event) -> {
+            columnView.getDataFrameView().action(ContextMenuEvent.Action.DETAILS, 
+                    columnView.getText(), null);
+        });
         final MenuItem item4 = new MenuItem(MENU_TITLE_DELETE);
         item4.setOnAction((event) -> {
             columnView.getDataFrameView().action(ContextMenuEvent.Action.DELETE, 
@@ -103,12 +109,12 @@ public class DefaultMenuFactory implements MenuFactory {
         });
         
         if(columnUsesBinary(column)){
-            return new ContextMenu(item1, item2, item4);
+            return new ContextMenu(item1, item2, item5, item4);
         }else{
             final Menu menuConvert = createConvertSubmenu(columnView, column);
             final ContextMenu menu = (showStats
-                    ? new ContextMenu(item1, item2, item3, menuConvert, item4)
-                            : new ContextMenu(item1, item2, menuConvert, item4));
+                    ? new ContextMenu(item1, item2, item3, item5, menuConvert, item4)
+                            : new ContextMenu(item1, item2, item5, menuConvert, item4));
 
             return menu;
         }
@@ -16,12 +16,46 @@
 
 package com.raven.icecrusher.util;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import com.raven.icecrusher.application.DiskCache;
+
 /**
  * Holds statistics about a numerical Column.
  *
  */
 public class ColumnStats {
 
+    /**
+     * Codec for persisting column statistics in a {@link DiskCache}
+     */
+    public static final DiskCache.Codec<ColumnStats> CODEC = new DiskCache.Codec<ColumnStats>(){
+
+        @Override
+        public void write(final DataOutput out, final ColumnStats value) throws IOException{
+            out.writeUTF(value.columnName);
+            out.writeDouble(value.min);
+            out.writeDouble(value.max);
+            out.writeDouble(value.avg);
+            out.writeDouble(value.sum);
+            out.writeBoolean(value.usesDecimals);
+        }
+
+        @Override
+        public ColumnStats read(final DataInput in) throws IOException{
+            final ColumnStats stats = new ColumnStats();
+            stats.setColumnName(in.readUTF());
+            stats.setMinimum(in.readDouble());
+            stats.setMaximum(in.readDouble());
+            stats.setAverage(in.readDouble());
+            stats.setSum(in.readDouble());
+            stats.setUsesDecimals(in.readBoolean());
+            return stats;
+        }
+    };
+
     private String columnName;
     private double min;
     private double max;
@@ -77,6 +77,7 @@ public final class Const {
     public static final String BUNDLE_KEY_HISTORY_LIST = "config.tabs.history";
     public static final String BUNDLE_KEY_DATAFRAME = "payload.DataFrame";
     public static final String BUNDLE_KEY_EDITORFILE = "payload.EditorFile";
+    public static final String BUNDLE_KEY_SOURCE_FILE = "payload.SourceFile";
 
     public static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss");
     public static final SimpleDateFormat DATE_FORMAT_ENCODED = new SimpleDateFormat("yyyyMMdd");
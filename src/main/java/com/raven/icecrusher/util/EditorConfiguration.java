@@ -62,6 +62,10 @@ public class EditorConfiguration {
     public static final String CONFIG_DIALOG_ALWAYS_HOME = "dialog.always.at_home";
     public static final String CONFIG_THEME_VIEW_DARK = "dfview.theme.dark";
     public static final String CONFIG_CACHE_SESSION_SIZE = "cache.session.size";
+    public static final String CONFIG_CACHE_DISK_SIZE = "cache.disk.size";
+    public static final String CONFIG_SCHEDULER_IO_THREADS = "scheduler.io.threads";
+    public static final String CONFIG_SCHEDULER_CPU_THREADS = "scheduler.cpu.threads";
+    public static final String CONFIG_TABS_MEMORY_BUDGET = "tabs.memory.budget";
 
     public static final String CONFIG_WINDOW_WIDTH = "width";
     public static final String CONFIG_WINDOW_HEIGHT = "height";
@@ -81,6 +85,9 @@ public class EditorConfiguration {
     public static final String CONFIG_BARCHART_MODE = "barchart.mode";
     public static final String CONFIG_PIECHART_SHOW_ABS = "piechart.show_abs";
     public static final String CONFIG_PIECHART_SHOW_PERC = "piechart.show_perc";
+    public static final String CONFIG_HISTOGRAM_BIN_RULE = "histogram.bin_rule";
+    public static final String CONFIG_HISTOGRAM_DENSITY = "histogram.show_density";
+    public static final String CONFIG_EXPORT_SCALE = "export.scale";
 
     /** Directory for user specific configuration files **/
     private static final String CONFIG_DIR = System.getProperty(Const.KEY_USER_HOME)
@@ -89,6 +96,8 @@ public class EditorConfiguration {
     private static final String TEMPLATE_FILE = Const.DIR_CONFIGS+"global_template.config";
     private static final String CONFIG_FILE = "editor.config";
     private static final String HISTORY_FILE = "recall";
+    private static final String CACHE_DIR = "cache/";
+    private static final String STARTUP_LOG_FILE = "startup.log";
 
     private static EditorConfiguration instance;
 
@@ -97,6 +106,7 @@ public class EditorConfiguration {
     private ConfigurationFile recall;
     private History history;
     private boolean configChanged;
+    private long modifications;
 
     private EditorConfiguration(){
         final File file = new File(CONFIG_DIR+CONFIG_FILE);
@@ -215,6 +225,41 @@ public class EditorConfiguration {
         }
     }
 
+    /**
+     * Returns the value of the configuration denoting a large memory size value in the specified
+     * Section with the specified value directly converted to a long in bytes. In addition to the
+     * units supported by {@link #memoryOf(Section, String)}, values may be specified in GB
+     * 
+     * @param SECTION The <code>Section</code> of the configuration to access
+     * @param CONFIGURATION The key of the configuration to access
+     * @return The value of the memory size configuration (in bytes) with the specified key.
+     *         Might return 0 (zero) if the configuration accessed is not an integer, was not
+     *         found or the entry was incorrectly formatted
+     */
+    public long largeMemoryOf(final Section SECTION, final String CONFIGURATION){
+        String val = config.getSection(SECTION.key).valueOf(CONFIGURATION);
+        if((val == null) || val.isEmpty()){
+            return 0;
+        }
+        try{
+            val = val.toUpperCase();
+            long factor = 1;
+            if(val.endsWith("KB")){
+                factor = 1000L;
+                val = val.substring(0, val.length()-2);
+            }else if(val.endsWith("MB")){
+                factor = 1000000L;
+                val = val.substring(0, val.length()-2);
+            }else if(val.endsWith("GB")){
+                factor = 1000000000L;
+                val = val.substring(0, val.length()-2);
+            }
+            return Long.valueOf(val) * factor;
+        }catch(Exception ex){
+            return 0;
+        }
+    }
+
     /**
      * Sets the value of the configuration in the specified Section with the specified key to the 
      * specified value
@@ -225,6 +270,12 @@ public class EditorConfiguration {
      */
     public void set(final Section SECTION, final String CONFIGURATION, final String value){
         configChanged = true;
+        //the window geometry changes continuously and does not affect layouts
+        if((SECTION != Section.WINDOW) && !String.valueOf(value).equals(
+                config.getSection(SECTION.key).valueOf(CONFIGURATION))){
+
+            ++modifications;
+        }
         this.config.getSection(SECTION.key).set(CONFIGURATION, value);
     }
 
@@ -237,8 +288,7 @@ public class EditorConfiguration {
      * @param value The new value of the configuration to set
      */
     public void set(final Section SECTION, final String CONFIGURATION, final boolean value){
-        configChanged = true;
-        this.config.getSection(SECTION.key).set(CONFIGURATION, String.valueOf(value));
+        set(SECTION, CONFIGURATION, String.valueOf(value));
     }
 
     /**
@@ -250,8 +300,7 @@ public class EditorConfiguration {
      * @param value The new value of the configuration to set
      */
     public void set(final Section SECTION, final String CONFIGURATION, final double value){
-        configChanged = true;
-        this.config.getSection(SECTION.key).set(CONFIGURATION, String.valueOf(value));
+        set(SECTION, CONFIGURATION, String.valueOf(value));
     }
     
     /**
@@ -263,8 +312,19 @@ public class EditorConfiguration {
      * @param value The new value of the configuration to set
      */
     public void set(final Section SECTION, final String CONFIGURATION, final int value){
-        configChanged = true;
-        this.config.getSection(SECTION.key).set(CONFIGURATION, String.valueOf(value));
+        set(SECTION, CONFIGURATION, String.valueOf(value));
+    }
+
+    /**
+     * Gets the number of modifications of configuration values since the start of
+     * the application. Changes to the window geometry are not counted.<br>
+     * Objects initialized from configuration values can compare this number with
+     * the number at the time of their initialization to find out whether they are stale
+     * 
+     * @return The number of configuration modifications
+     */
+    public long getModificationCount(){
+        return this.modifications;
     }
 
     /**
@@ -317,6 +377,24 @@ public class EditorConfiguration {
         }
     }
 
+    /**
+     * Gets the directory in which persistent cache files are stored
+     * 
+     * @return The cache directory of the user. The directory may not exist
+     */
+    public static File getCacheDirectory(){
+        return new File(CONFIG_DIR+CACHE_DIR);
+    }
+
+    /**
+     * Gets the file to which the timings of the startup phases are logged
+     * 
+     * @return The startup log file of the user. The file may not exist
+     */
+    public static File getStartupLogFile(){
+        return new File(CONFIG_DIR+STARTUP_LOG_FILE);
+    }
+
     /**
      * Persists the recall file (if set) to the local filesystem
      */
@@ -411,6 +489,7 @@ public class EditorConfiguration {
         }
         config = template;
         configChanged = true;
+        ++modifications;
         persistConfiguration();
     }
 
@@ -22,7 +22,10 @@ import org.junit.runners.Suite.SuiteClasses;
 
 @RunWith(Suite.class)
 @SuiteClasses({
-    CacheTest.class})
+    CacheTest.class,
+    DiskCacheTest.class,
+    SchedulerTest.class,
+    StartupTraceTest.class})
 public class ApplicationTests {
     
 }
@@ -18,6 +18,9 @@ package com.raven.icecrusher.application;
 
 import static org.junit.Assert.*;
 
+import java.util.HashSet;
+import java.util.Set;
+
 import org.junit.After;
 import org.junit.AfterClass;
 import org.junit.Before;
@@ -142,4 +145,89 @@ public class CacheTest {
         assertNull(value);
     }
 
+    @Test
+    public void testCacheRemoveMissingKey(){
+        final String value = cache2.remove("missing.value");
+        assertNull(value);
+        assertTrue("Size mismatch", cache2.size() == 13);
+    }
+
+    @Test
+    public void testCacheTypedValues(){
+        final int[] array = new int[]{1, 2, 3};
+        cache2.put("local.array", array);
+        assertSame("Value mismatch", array, cache2.get("local.array", int[].class));
+        assertNull("Value mismatch", cache2.get("local.array"));
+        assertNull("Value mismatch", cache2.get("local.value", int[].class));
+        assertTrue("Size mismatch", cache2.size() == 13 + 11 + Cache.DEFAULT_OBJECT_WEIGHT);
+        cache2.put("local.array", null);
+        assertNull("Value mismatch", cache2.get("local.array", int[].class));
+        assertTrue("Size mismatch", cache2.size() == 13);
+    }
+
+    @Test
+    public void testCacheEvictsWithoutClearing(){
+        final SessionCache cache = new SessionCache(100, (key, value) -> 10);
+        for(int i=0; i<10; ++i){
+            cache.put("key" + i, "value" + i);
+        }
+        assertTrue("Size mismatch", cache.size() == 100);
+        //make the first entries frequently used
+        for(int n=0; n<5; ++n){
+            for(int i=0; i<5; ++i){
+                assertNotNull("Value mismatch", cache.get("key" + i));
+            }
+        }
+        for(int i=10; i<30; ++i){
+            cache.put("key" + i, "value" + i);
+        }
+        assertTrue("Size mismatch", cache.size() == 100);
+        for(int i=0; i<5; ++i){
+            assertTrue("Value mismatch", ("value" + i).equals(cache.get("key" + i)));
+        }
+        assertTrue("Eviction count mismatch", cache.stats().evictions() == 20);
+    }
+
+    @Test
+    public void testCacheNotifiesEvictions(){
+        final Set<String> evicted = new HashSet<>();
+        final SessionCache cache = new SessionCache(100, (key, value) -> 10,
+                (key, value) -> evicted.add(key));
+
+        for(int i=0; i<10; ++i){
+            cache.put("key" + i, "value" + i);
+        }
+        cache.remove("key0");
+        cache.put("key1", null);
+        assertTrue("Removals should not be notified", evicted.isEmpty());
+        for(int i=10; i<22; ++i){
+            cache.put("key" + i, "value" + i);
+        }
+        assertTrue("Eviction count mismatch", evicted.size() == 10);
+        for(final String key : evicted){
+            assertNull("Evicted entry should be absent", cache.get(key));
+        }
+    }
+
+    @Test
+    public void testCacheRejectsOversizedEntry(){
+        cache2.set("local.large", new String(new char[600]));
+        assertNull("Value mismatch", cache2.get("local.large"));
+        assertTrue("Size mismatch", cache2.size() == 13);
+    }
+
+    @Test
+    public void testCacheStats(){
+        final SessionCache cache = new SessionCache(500);
+        cache.set("a", "1");
+        cache.get("a");
+        cache.get("a");
+        cache.get("b");
+        final Cache.Stats stats = cache.stats();
+        assertTrue("Hit count mismatch", stats.hits() == 2);
+        assertTrue("Miss count mismatch", stats.misses() == 1);
+        assertTrue("Eviction count mismatch", stats.evictions() == 0);
+        assertEquals("Hit rate mismatch", 2.0 / 3.0, stats.hitRate(), 1e-9);
+    }
+
 }
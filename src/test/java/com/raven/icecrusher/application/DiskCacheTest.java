@@ -0,0 +1,158 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.icecrusher.application;
+
+import static org.junit.Assert.*;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for the DiskCache class.
+ *
+ */
+public class DiskCacheTest {
+
+    private static final DiskCache.Codec<double[]> CODEC = new DiskCache.Codec<double[]>(){
+
+        @Override
+        public void write(final DataOutput out, final double[] value) throws IOException{
+            out.writeInt(value.length);
+            for(final double d : value){
+                out.writeDouble(d);
+            }
+        }
+
+        @Override
+        public double[] read(final DataInput in) throws IOException{
+            final double[] value = new double[in.readInt()];
+            for(int i=0; i<value.length; ++i){
+                value[i] = in.readDouble();
+            }
+            return value;
+        }
+    };
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    File directory;
+    File source;
+
+    @Before
+    public void setUp() throws IOException{
+        directory = folder.newFolder("cache");
+        source = folder.newFile("data.csv");
+        write(source, 1000, (byte) 1);
+    }
+
+    @Test
+    public void testPersistAcrossInstances(){
+        final DiskCache cache = new DiskCache(directory, 1000000);
+        cache.put(source, "stats", new double[]{1.0, 2.5}, CODEC);
+        assertTrue("Size mismatch", cache.size() > 0);
+        final DiskCache reopened = new DiskCache(directory, 1000000);
+        assertArrayEquals("Value mismatch", new double[]{1.0, 2.5},
+                reopened.get(source, "stats", CODEC), 0.0);
+
+        assertNull("Value mismatch", reopened.get(source, "other", CODEC));
+        assertEquals("Size mismatch", cache.size(), reopened.size());
+    }
+
+    @Test
+    public void testReplaceArtifact(){
+        final DiskCache cache = new DiskCache(directory, 1000000);
+        cache.put(source, "stats", new double[]{1.0}, CODEC);
+        cache.put(source, "chart", new double[]{3.0}, CODEC);
+        cache.put(source, "stats", new double[]{2.0}, CODEC);
+        assertArrayEquals("Value mismatch", new double[]{2.0},
+                cache.get(source, "stats", CODEC), 0.0);
+
+        final long size = cache.size();
+        cache.compact();
+        assertTrue("Size mismatch", cache.size() < size);
+        assertArrayEquals("Value mismatch", new double[]{2.0},
+                cache.get(source, "stats", CODEC), 0.0);
+
+        assertArrayEquals("Value mismatch", new double[]{3.0},
+                cache.get(source, "chart", CODEC), 0.0);
+    }
+
+    @Test
+    public void testChangedSourceInvalidates() throws IOException{
+        final DiskCache cache = new DiskCache(directory, 1000000);
+        cache.put(source, "stats", new double[]{1.0}, CODEC);
+        write(source, 1001, (byte) 1);
+        assertNull("Value mismatch", cache.get(source, "stats", CODEC));
+        cache.compact();
+        assertEquals("Size mismatch", 0, cache.size());
+    }
+
+    @Test
+    public void testChangedContentInvalidates() throws IOException{
+        final DiskCache cache = new DiskCache(directory, 1000000);
+        final long modified = source.lastModified();
+        cache.put(source, "stats", new double[]{1.0}, CODEC);
+        //same size and time of last modification
+        write(source, 1000, (byte) 2);
+        source.setLastModified(modified);
+        assertNull("Value mismatch", new DiskCache(directory, 1000000)
+                .get(source, "stats", CODEC));
+    }
+
+    @Test
+    public void testDeletedSourceIsCompacted(){
+        final DiskCache cache = new DiskCache(directory, 1000000);
+        cache.put(source, "stats", new double[]{1.0}, CODEC);
+        assertTrue(source.delete());
+        cache.compact();
+        assertEquals("Size mismatch", 0, cache.size());
+        assertEquals("File count mismatch", 0, directory.list().length);
+    }
+
+    @Test
+    public void testCompactionRespectsLimit() throws IOException{
+        final DiskCache cache = new DiskCache(directory, 4000);
+        for(int i=0; i<10; ++i){
+            final File file = folder.newFile("data" + i + ".csv");
+            write(file, 100, (byte) i);
+            cache.put(file, "values", new double[40], CODEC);
+        }
+        cache.compact();
+        assertTrue("Size mismatch", cache.size() <= 3000);
+        assertTrue("Size mismatch", cache.size() > 0);
+    }
+
+    private static void write(final File file, final int length, final byte value)
+            throws IOException{
+
+        final byte[] bytes = new byte[length];
+        Arrays.fill(bytes, value);
+        try(FileOutputStream out = new FileOutputStream(file)){
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.icecrusher.application;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.raven.icecrusher.application.Scheduler.Pool;
+import com.raven.icecrusher.application.Scheduler.Priority;
+
+/**
+ * Tests for the Scheduler class.
+ *
+ */
+public class SchedulerTest {
+
+    CountDownLatch started;
+    CountDownLatch release;
+
+    @Before
+    public void setUp() throws InterruptedException{
+        Scheduler.configure(1, 1);
+        started = new CountDownLatch(1);
+        release = new CountDownLatch(1);
+        //occupy the only thread so that subsequent work is queued
+        Scheduler.submit(Pool.CPU, Priority.NORMAL, () -> {
+            started.countDown();
+            try{
+                release.await();
+            }catch(InterruptedException ex){
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertTrue("Worker not started", started.await(5, TimeUnit.SECONDS));
+    }
+
+    @After
+    public void tearDown(){
+        release.countDown();
+        Scheduler.configure(0, 0);
+    }
+
+    @Test
+    public void testPriorityOrder() throws Exception{
+        final List<String> order = new CopyOnWriteArrayList<>();
+        Scheduler.submit(Pool.CPU, Priority.BACKGROUND, () -> order.add("background"));
+        Scheduler.submit(Pool.CPU, Priority.NORMAL, () -> order.add("normal1"));
+        Scheduler.submit(Pool.CPU, Priority.INTERACTIVE, () -> order.add("interactive"));
+        final Future<?> last = Scheduler.submit(
+                Pool.CPU, Priority.NORMAL, () -> order.add("normal2"));
+
+        release.countDown();
+        Scheduler.submit(Pool.CPU, Priority.BACKGROUND, () -> { }).get(5, TimeUnit.SECONDS);
+        assertTrue("Work not done", last.isDone());
+        assertArrayEquals("Order mismatch",
+                new String[]{"interactive", "normal1", "normal2", "background"},
+                order.toArray(new String[0]));
+    }
+
+    @Test
+    public void testTokenCancelsQueuedWork() throws Exception{
+        final Scheduler.Token token = new Scheduler.Token();
+        final List<String> done = new CopyOnWriteArrayList<>();
+        final Future<?> cancelled = Scheduler.submit(
+                Pool.CPU, Priority.INTERACTIVE, token, () -> done.add("cancelled"));
+
+        final Future<?> other = Scheduler.submit(
+                Pool.CPU, Priority.INTERACTIVE, () -> done.add("other"));
+
+        assertTrue("No pending work", token.hasPendingWork());
+        token.cancel();
+        assertFalse("Pending work", token.hasPendingWork());
+        release.countDown();
+        other.get(5, TimeUnit.SECONDS);
+        assertTrue("Work not cancelled", cancelled.isCancelled());
+        assertEquals("Work mismatch", 1, done.size());
+        assertEquals("Work mismatch", "other", done.get(0));
+    }
+
+    @Test
+    public void testTokenReleasesCompletedWork() throws Exception{
+        final Scheduler.Token token = new Scheduler.Token();
+        release.countDown();
+        Scheduler.submit(Pool.IO, Priority.NORMAL, token, () -> { }).get(5, TimeUnit.SECONDS);
+        //completed work is released after waiting threads have been signalled
+        for(int i=0; (i<500) && token.hasPendingWork(); ++i){
+            Thread.sleep(10);
+        }
+        assertFalse("Pending work", token.hasPendingWork());
+    }
+
+    @Test
+    public void testConfigure(){
+        assertEquals("Size mismatch", 1, Scheduler.sizeOf(Pool.IO));
+        Scheduler.configure(0, 1000);
+        assertEquals("Size mismatch", Scheduler.DEFAULT_IO_THREADS, Scheduler.sizeOf(Pool.IO));
+        assertEquals("Size mismatch", Scheduler.MAX_THREADS, Scheduler.sizeOf(Pool.CPU));
+    }
+}
@@ -0,0 +1,179 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.icecrusher.application;
+
+import static org.junit.Assert.*;
+import static com.raven.icecrusher.util.EditorConfiguration.*;
+import static com.raven.icecrusher.util.EditorConfiguration.Section.*;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.raven.icecrusher.application.StartupTrace.Phase;
+import com.raven.icecrusher.base.Activity;
+import com.raven.icecrusher.util.Const;
+import com.raven.icecrusher.util.EditorConfiguration;
+
+public class StartupTraceTest {
+
+    private static final long ORIGIN = 1000000;
+
+    @ClassRule
+    public static TemporaryFolder home = new TemporaryFolder();
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static String userHome;
+    private AtomicLong clock;
+    private StartupTrace trace;
+
+    @BeforeClass
+    public static void setUpBeforeClass(){
+        //the configuration is created in the user home on first access
+        userHome = System.getProperty(Const.KEY_USER_HOME);
+        System.setProperty(Const.KEY_USER_HOME, home.getRoot().getAbsolutePath());
+    }
+
+    @AfterClass
+    public static void tearDownAfterClass(){
+        System.setProperty(Const.KEY_USER_HOME, userHome);
+    }
+
+    @Before
+    public void setUp(){
+        clock = new AtomicLong(ORIGIN);
+        trace = new StartupTrace(ORIGIN, clock::get, null);
+    }
+
+    @After
+    public void tearDown(){
+        Scheduler.configure(0, 0);
+    }
+
+    @Test
+    public void testMarkRecordsTimeSinceOrigin(){
+        clock.set(ORIGIN + 150);
+        trace.mark(Phase.CONFIG);
+        clock.set(ORIGIN + 400);
+        trace.mark(Phase.STAGE);
+        assertEquals("Elapsed time does not match", 150, trace.elapsed(Phase.CONFIG));
+        assertEquals("Elapsed time does not match", 400, trace.elapsed(Phase.STAGE));
+        assertEquals("Unmarked phase should have no time", -1, trace.elapsed(Phase.LAYOUT));
+    }
+
+    @Test
+    public void testPhaseIsOnlyMarkedOnce(){
+        clock.set(ORIGIN + 100);
+        trace.mark(Phase.LAYOUT);
+        clock.set(ORIGIN + 900);
+        trace.mark(Phase.LAYOUT);
+        trace.skip(Phase.LAYOUT);
+        assertEquals("First mark should be kept", 100, trace.elapsed(Phase.LAYOUT));
+    }
+
+    @Test
+    public void testCompleteWhenAllPhasesMarkedOrSkipped(){
+        trace.mark(Phase.CONFIG);
+        trace.mark(Phase.STAGE);
+        trace.mark(Phase.LAYOUT);
+        trace.mark(Phase.FIRST_FRAME);
+        assertFalse("Trace should not be complete", trace.isComplete());
+        trace.skip(Phase.RECALL);
+        assertTrue("Trace should be complete", trace.isComplete());
+        assertEquals("Skipped phase should have no time", -1, trace.elapsed(Phase.RECALL));
+    }
+
+    @Test
+    public void testFirstFrameTarget(){
+        assertFalse("Target should not be met without a first frame", trace.meetsTarget());
+        clock.set(ORIGIN + StartupTrace.TARGET_FIRST_FRAME);
+        trace.mark(Phase.FIRST_FRAME);
+        assertTrue("Target should be met", trace.meetsTarget());
+
+        final StartupTrace slow = new StartupTrace(ORIGIN, clock::get, null);
+        clock.set(ORIGIN + StartupTrace.TARGET_FIRST_FRAME + 1);
+        slow.mark(Phase.FIRST_FRAME);
+        assertFalse("Target should not be met", slow.meetsTarget());
+    }
+
+    @Test
+    public void testStartupMeetsTarget() throws Exception{
+        final StartupTrace startup = new StartupTrace(
+                System.currentTimeMillis(), System::currentTimeMillis, null);
+
+        final EditorConfiguration config = getConfiguration();
+        startup.mark(Phase.CONFIG);
+        assertNotNull("Project properties should be loaded",
+                Resources.property("project.version"));
+
+        Scheduler.configure(config.integerOf(GLOBAL, CONFIG_SCHEDULER_IO_THREADS),
+                config.integerOf(GLOBAL, CONFIG_SCHEDULER_CPU_THREADS));
+
+        startup.mark(Phase.STAGE);
+        final String source = Resources.text(Const.DIR_LAYOUT, Activity.MAIN.fxml);
+        assertNotNull("Layout of main activity not found", source);
+        final Matcher matcher = Pattern.compile(
+                "fx:controller\\s*=\\s*\"([^\"]+)\"").matcher(source);
+
+        assertTrue("Layout of main activity should specify a controller", matcher.find());
+        Class.forName(matcher.group(1), true, getClass().getClassLoader());
+        startup.mark(Phase.LAYOUT);
+        startup.mark(Phase.FIRST_FRAME);
+        assertTrue("Startup exceeds the target: " + startup, startup.meetsTarget());
+    }
+
+    @Test
+    public void testLogEntry(){
+        clock.set(ORIGIN + 120);
+        trace.mark(Phase.CONFIG);
+        clock.set(ORIGIN + 480);
+        trace.mark(Phase.STAGE);
+        trace.skip(Phase.RECALL);
+        final String entry = trace.toString();
+        assertTrue("Log entry does not match: " + entry, entry.endsWith(
+                " config=120 stage=480 layout=? first_frame=? recall=-"
+                + " target=" + StartupTrace.TARGET_FIRST_FRAME + " met=false"));
+    }
+
+    @Test
+    public void testAppendKeepsLatestEntries() throws Exception{
+        final File log = new File(folder.getRoot(), "logs/startup.log");
+        for(int i=0; i<5; ++i){
+            StartupTrace.append(log, "entry" + i, 3);
+        }
+        final List<String> lines = Files.readAllLines(log.toPath(), StandardCharsets.UTF_8);
+        assertEquals("Log should be trimmed", 3, lines.size());
+        assertEquals("Oldest entry does not match", "entry2", lines.get(0));
+        assertEquals("Latest entry does not match", "entry4", lines.get(2));
+    }
+
+}
@@ -0,0 +1,174 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.icecrusher.io;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.raven.common.struct.BooleanColumn;
+import com.raven.common.struct.Column;
+import com.raven.common.struct.DataFrame;
+import com.raven.common.struct.DefaultDataFrame;
+import com.raven.common.struct.NullableIntColumn;
+import com.raven.common.struct.StringColumn;
+
+public class BulkUpdateTest {
+
+    private DataFrame df;
+
+    @BeforeClass
+    public static void setUpBeforeClass(){ }
+
+    @AfterClass
+    public static void tearDownAfterClass(){ }
+
+    @Before
+    public void setUp(){
+        df = new DefaultDataFrame(
+                Column.create("id", 1,2,3,4,5),
+                Column.create("status", "open","closed","open","open","closed"),
+                Column.create("price", 10.5,20.0,30.25,40.0,50.5));
+    }
+
+    @After
+    public void tearDown(){ }
+
+    @Test
+    public void testSetWhere(){
+        final Revision revision = BulkUpdate.set("status", "done")
+                .where("id", "[2-4]")
+                .applyTo(df);
+
+        assertEquals("Revision should record three rows", 3, revision.size());
+        final String[] truth = {"open","done","done","done","closed"};
+        for(int i=0; i<truth.length; ++i){
+            assertEquals("Value does not match", truth[i], df.getString("status", i));
+        }
+    }
+
+    @Test
+    public void testSetWithoutCondition(){
+        final Revision revision = BulkUpdate.set("id", 7).applyTo(df);
+        assertEquals("Revision should record all rows", df.rows(), revision.size());
+        for(int i=0; i<df.rows(); ++i){
+            assertEquals("Value does not match", 7, df.getInt("id", i));
+        }
+    }
+
+    @Test
+    public void testArithmeticAssignment(){
+        BulkUpdate.set("price", BulkUpdate.arithmetic('*', 2))
+                  .where("status", "open")
+                  .applyTo(df);
+
+        final double[] truth = {21.0, 20.0, 60.5, 80.0, 50.5};
+        for(int i=0; i<truth.length; ++i){
+            assertEquals("Value does not match", truth[i], df.getDouble("price", i), 0.0);
+        }
+        BulkUpdate.set("id", BulkUpdate.arithmetic('+', 10)).applyTo(df);
+        assertEquals("Value does not match", 11, df.getInt("id", 0));
+    }
+
+    @Test
+    public void testNoMatch(){
+        final Revision revision = BulkUpdate.set("status", "done")
+                .where("status", "pending")
+                .applyTo(df);
+
+        assertEquals("Revision should be empty", 0, revision.size());
+    }
+
+    @Test
+    public void testRevert(){
+        final Revision revision = BulkUpdate.set("status", "done")
+                .where("status", "open")
+                .applyTo(df);
+
+        assertArrayEquals("Column name does not match",
+                new String[]{"status"}, revision.getColumnNames());
+
+        revision.revert(df);
+        final String[] truth = {"open","closed","open","open","closed"};
+        for(int i=0; i<truth.length; ++i){
+            assertEquals("Value was not reverted", truth[i], df.getString("status", i));
+        }
+    }
+
+    @Test
+    public void testCombinedRevisionSizePerColumn(){
+        final Revision status = BulkUpdate.set("status", "done")
+                .where("status", "open")
+                .applyTo(df);
+
+        final Revision id = BulkUpdate.set("id", 7).applyTo(df);
+        final Revision revision = Revision.combine(Arrays.asList(status, id));
+        assertEquals("Size does not match", 8, revision.size());
+        assertEquals("Size does not match", 3, revision.size("status"));
+        assertEquals("Size does not match", 5, revision.size("id"));
+        assertEquals("Size does not match", 0, revision.size("price"));
+    }
+
+    @Test
+    public void testRevisionValuesTyped(){
+        final Revision.Values values = Revision.Values.of(new NullableIntColumn(0), 200);
+        for(int i=0; i<200; ++i){
+            values.set(i, ((i % 3) == 0) ? null : (Integer) i);
+        }
+        final Revision.Values compact = values.compact();
+        assertSame("Distinct values should not be compacted", values, compact);
+        for(int i=0; i<200; ++i){
+            assertEquals("Value does not match", ((i % 3) == 0) ? null : (Integer) i,
+                    compact.get(i));
+        }
+    }
+
+    @Test
+    public void testRevisionValuesBoolean(){
+        final Revision.Values values = Revision.Values.of(new BooleanColumn(0), 130);
+        for(int i=0; i<130; ++i){
+            values.set(i, ((i % 2) == 0));
+        }
+        for(int i=0; i<130; ++i){
+            assertEquals("Value does not match", ((i % 2) == 0), values.get(i));
+        }
+    }
+
+    @Test
+    public void testRevisionValuesSingle(){
+        final Revision.Values values = Revision.Values.of(new StringColumn(0), 1000);
+        for(int i=0; i<1000; ++i){
+            values.set(i, "open");
+        }
+        final Revision.Values compact = values.compact();
+        assertNotSame("Equal values should be compacted", values, compact);
+        assertEquals("Size does not match", 1000, compact.size());
+        assertEquals("Value does not match", "open", compact.get(999));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testInvalidOperator(){
+        BulkUpdate.arithmetic('%', 2);
+    }
+
+}
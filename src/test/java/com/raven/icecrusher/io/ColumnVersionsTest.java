@@ -0,0 +1,81 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.icecrusher.io;
+
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.raven.common.struct.DataFrame;
+import com.raven.common.struct.DefaultDataFrame;
+
+public class ColumnVersionsTest {
+
+    private DataFrame df;
+    private DataFrame other;
+
+    @BeforeClass
+    public static void setUpBeforeClass(){ }
+
+    @AfterClass
+    public static void tearDownAfterClass(){ }
+
+    @Before
+    public void setUp(){
+        df = new DefaultDataFrame();
+        other = new DefaultDataFrame();
+    }
+
+    @After
+    public void tearDown(){ }
+
+    @Test
+    public void testIds(){
+        final long id = ColumnVersions.idOf(df);
+        assertEquals("Id should be stable", id, ColumnVersions.idOf(df));
+        assertNotEquals("Ids should be unique", id, ColumnVersions.idOf(other));
+        assertTrue("DataFrame should be tracked", ColumnVersions.isTracked(id));
+    }
+
+    @Test
+    public void testColumnChanged(){
+        final long v0 = ColumnVersions.of(df, 0);
+        final long v1 = ColumnVersions.of(df, 1);
+        ColumnVersions.columnChanged(df, 0);
+        assertNotEquals("Changed column should have a new version", v0, ColumnVersions.of(df, 0));
+        assertEquals("Other columns should keep their version", v1, ColumnVersions.of(df, 1));
+        final long otherVersion = ColumnVersions.of(other, 0);
+        ColumnVersions.columnChanged(df, 0);
+        assertEquals("Other DataFrames should keep their versions",
+                otherVersion, ColumnVersions.of(other, 0));
+    }
+
+    @Test
+    public void testStructureChanged(){
+        ColumnVersions.columnChanged(df, 0);
+        final long v0 = ColumnVersions.of(df, 0);
+        final long v1 = ColumnVersions.of(df, 1);
+        ColumnVersions.structureChanged(df);
+        assertNotEquals("All columns should have a new version", v0, ColumnVersions.of(df, 0));
+        assertNotEquals("All columns should have a new version", v1, ColumnVersions.of(df, 1));
+    }
+
+}
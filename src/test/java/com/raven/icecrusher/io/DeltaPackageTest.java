@@ -0,0 +1,184 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.icecrusher.io;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.raven.icecrusher.io.update.DeltaPackage;
+import com.raven.icecrusher.io.update.DeltaPatch;
+
+public class DeltaPackageTest {
+
+    private File dir;
+    private File installation;
+    private File staging;
+    private byte[] base;
+    private byte[] result;
+
+    @BeforeClass
+    public static void setUpBeforeClass(){ }
+
+    @AfterClass
+    public static void tearDownAfterClass(){ }
+
+    @Before
+    public void setUp() throws IOException{
+        dir = Files.createTempDirectory("deltatest").toFile();
+        installation = new File(dir, "install");
+        staging = new File(dir, "staging");
+        staging.mkdirs();
+        base = new byte[50000];
+        for(int i=0; i<base.length; ++i){
+            base[i] = (byte)((i * 31) ^ (i >> 8));
+        }
+        //changes one block in the middle of the base
+        result = base.clone();
+        for(int i=20000; i<20100; ++i){
+            result[i] = 42;
+        }
+        write(new File(installation, "app/lib/core.jar"), base);
+        write(new File(installation, "app/icecrusher.cfg"), bytes("version=1"));
+        write(new File(installation, "app/lib/removed.jar"), bytes("removed"));
+    }
+
+    @After
+    public void tearDown(){
+        delete(dir);
+    }
+
+    @Test
+    public void testPatchRoundTrip() throws IOException, NoSuchAlgorithmException{
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] patch = patch();
+        try(RandomAccessFile in = new RandomAccessFile(
+                new File(installation, "app/lib/core.jar"), "r")){
+
+            DeltaPatch.apply(new ByteArrayInputStream(patch), in, out);
+        }
+        assertArrayEquals("Patched bytes should match", result, out.toByteArray());
+        assertTrue("Patch should be smaller than the result", patch.length < 1000);
+    }
+
+    @Test
+    public void testApply() throws IOException, NoSuchAlgorithmException{
+        final File delta = delta(sha256(base), sha256(result));
+        final String root = DeltaPackage.apply(delta, installation, staging);
+        assertEquals("Root should match", "icecrusher", root);
+        final File app = new File(staging, "icecrusher/app");
+        assertArrayEquals("Patched file should match", result,
+                Files.readAllBytes(new File(app, "lib/core.jar").toPath()));
+
+        assertArrayEquals("Copied file should match", bytes("version=1"),
+                Files.readAllBytes(new File(app, "icecrusher.cfg").toPath()));
+
+        assertArrayEquals("Added file should match", bytes("added"),
+                Files.readAllBytes(new File(app, "lib/added.jar").toPath()));
+
+        assertFalse("Unlisted file should not be staged",
+                new File(app, "lib/removed.jar").exists());
+    }
+
+    @Test(expected=IOException.class)
+    public void testBaseMismatch() throws IOException, NoSuchAlgorithmException{
+        final File delta = delta(sha256(result), sha256(result));
+        DeltaPackage.apply(delta, installation, staging);
+    }
+
+    @Test(expected=IOException.class)
+    public void testResultMismatch() throws IOException, NoSuchAlgorithmException{
+        final File delta = delta(sha256(base), sha256(base));
+        DeltaPackage.apply(delta, installation, staging);
+    }
+
+    private byte[] patch() throws IOException{
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new DeltaPatch.Writer(out)
+                .copy(0, 20000)
+                .insert(result, 20000, 100)
+                .copy(20100, base.length - 20100)
+                .finish();
+
+        return out.toByteArray();
+    }
+
+    private File delta(final String baseSha, final String resultSha)
+            throws IOException, NoSuchAlgorithmException{
+
+        final String manifest = "root icecrusher\n"
+                + "patch app/lib/core.jar " + baseSha + " " + resultSha + "\n"
+                + "copy app/icecrusher.cfg " + sha256(bytes("version=1")) + "\n"
+                + "add app/lib/added.jar " + sha256(bytes("added")) + "\n";
+
+        final File file = new File(dir, "delta.zip");
+        try(ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(file))){
+            zip.putNextEntry(new ZipEntry(DeltaPackage.MANIFEST));
+            zip.write(bytes(manifest));
+            zip.putNextEntry(new ZipEntry("patch/app/lib/core.jar"));
+            zip.write(patch());
+            zip.putNextEntry(new ZipEntry("file/app/lib/added.jar"));
+            zip.write(bytes("added"));
+        }
+        return file;
+    }
+
+    private static String sha256(final byte[] bytes) throws NoSuchAlgorithmException{
+        final StringBuilder sb = new StringBuilder();
+        for(final byte b : MessageDigest.getInstance("SHA-256").digest(bytes)){
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+
+    private static byte[] bytes(final String s){
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void write(final File file, final byte[] bytes) throws IOException{
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), bytes);
+    }
+
+    private static void delete(final File file){
+        final File[] children = file.listFiles();
+        if(children != null){
+            for(final File child : children){
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+}
@@ -0,0 +1,200 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.icecrusher.io;
+
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.raven.common.struct.BinaryColumn;
+import com.raven.common.struct.DataFrame;
+import com.raven.common.struct.DefaultDataFrame;
+import com.raven.common.struct.IntColumn;
+import com.raven.common.struct.NullableDataFrame;
+import com.raven.common.struct.NullableIntColumn;
+import com.raven.common.struct.StringColumn;
+
+public class FootprintTest {
+
+    private DataFrame df;
+
+    @BeforeClass
+    public static void setUpBeforeClass(){ }
+
+    @AfterClass
+    public static void tearDownAfterClass(){ }
+
+    @Before
+    public void setUp(){
+        //use separate string instances like a file reader would
+        df = new DefaultDataFrame(
+                new IntColumn("id", new int[]{1,2,3}),
+                new StringColumn("name", new String[]{
+                        new String("alpha"), new String("beta"), new String("gamma")}));
+    }
+
+    @After
+    public void tearDown(){ }
+
+    @Test
+    public void testSizeOf(){
+        assertEquals("Null should not occupy memory", 0, Footprint.sizeOf(null));
+        assertEquals("Size of boxed int is incorrect", 16, Footprint.sizeOf(42));
+        assertEquals("Size of boxed double is incorrect", 24, Footprint.sizeOf(4.2));
+        assertEquals("Size of string is incorrect", 24+24, Footprint.sizeOf("abcd"));
+        assertEquals("Size of byte array is incorrect", 24, Footprint.sizeOf(new byte[5]));
+    }
+
+    @Test
+    public void testFormat(){
+        assertEquals("Format is incorrect", "512 B", Footprint.format(512));
+        assertTrue("Format is incorrect", Footprint.format(1500).endsWith(" KB"));
+        assertTrue("Format is incorrect", Footprint.format(2000000000L).endsWith(" GB"));
+    }
+
+    private static void assertMatchesScan(final DataFrame df, final Footprint footprint){
+        final Footprint expected = Footprint.of(df);
+        assertEquals("Number of columns does not match", expected.columns(), footprint.columns());
+        for(int i=0; i<expected.columns(); ++i){
+            assertEquals("Footprint of column does not match",
+                    expected.ofColumn(i), footprint.ofColumn(i));
+        }
+        assertEquals("Total footprint does not match", expected.total(), footprint.total());
+    }
+
+    @Test
+    public void testOfFixedWidth(){
+        final Footprint footprint = Footprint.of(new DefaultDataFrame(
+                new IntColumn("id", new int[]{1,2,3})));
+
+        assertEquals("Footprint of int column is incorrect", 16+12+4, footprint.total());
+    }
+
+    @Test
+    public void testOfNullable(){
+        final Footprint footprint = Footprint.of(new NullableDataFrame(
+                new NullableIntColumn("id", new Integer[]{1000, null, 2000})));
+
+        assertEquals("Footprint of nullable column is incorrect", 32+16+16, footprint.total());
+    }
+
+    @Test
+    public void testOfString(){
+        final Footprint footprint = Footprint.of(new DefaultDataFrame(
+                new StringColumn("name", new String[]{"ab", "abcd"})));
+
+        assertEquals("Footprint of string column is incorrect", 24+48+48, footprint.total());
+    }
+
+    @Test
+    public void testOfBinary(){
+        final Footprint footprint = Footprint.of(new DefaultDataFrame(
+                new BinaryColumn("data", new byte[][]{new byte[5], new byte[10]})));
+
+        assertEquals("Footprint of binary column is incorrect", 24+24+32, footprint.total());
+    }
+
+    @Test
+    public void testOfEncoded(){
+        final String canonical = new String("value");
+        final Footprint encoded = Footprint.of(new DefaultDataFrame(
+                new StringColumn("name", new String[]{canonical, canonical, canonical})));
+
+        final Footprint plain = Footprint.of(new DefaultDataFrame(
+                new StringColumn("name", new String[]{
+                        new String("value"), new String("value"), new String("value")})));
+
+        assertEquals("Shared instance should be counted once", 32+56, encoded.total());
+        assertEquals("Separate instances should be counted", 32+3*56, plain.total());
+    }
+
+    @Test
+    public void testEntryChanged(){
+        final Footprint footprint = Footprint.of(df);
+        final Object oldValue = df.getColumn(1).getValue(1);
+        final String newValue = new String("a considerably longer value");
+        df.getColumn(1).setValue(1, newValue);
+        footprint.entryChanged(1, oldValue, newValue);
+        assertMatchesScan(df, footprint);
+
+        df.getColumn(0).setValue(2, 42);
+        footprint.entryChanged(0, 3, 42);
+        assertMatchesScan(df, footprint);
+    }
+
+    @Test
+    public void testRevisionApplied(){
+        final Footprint footprint = Footprint.of(df);
+        final Revision revision = BulkUpdate.set("name", (current) -> current + " (edited)")
+                .where("id", (value) -> ((Integer)value) > 1)
+                .applyTo(df);
+
+        footprint.revisionApplied(df, revision);
+        assertMatchesScan(df, footprint);
+
+        footprint.revisionReverting(df, revision);
+        revision.revert(df);
+        assertMatchesScan(df, footprint);
+    }
+
+    @Test
+    public void testRowAdded(){
+        final Footprint footprint = Footprint.of(df);
+        for(int i=0; i<10; ++i){
+            df.addRow(4+i, new String("row" + i));
+            footprint.rowAdded(df);
+            assertMatchesScan(df, footprint);
+        }
+    }
+
+    @Test
+    public void testRowRemoving(){
+        final Footprint footprint = Footprint.of(df);
+        footprint.rowRemoving(df, 1);
+        df.removeRow(1);
+        assertMatchesScan(df, footprint);
+
+        footprint.rowRemoving(df, 0);
+        df.removeRow(0);
+        assertMatchesScan(df, footprint);
+    }
+
+    @Test
+    public void testColumnChanges(){
+        final Footprint footprint = Footprint.of(df);
+        df.addColumn(new StringColumn("comment", new String[]{
+                new String("a"), new String("bb"), new String("ccc")}));
+
+        footprint.columnAdded(df, 2);
+        assertMatchesScan(df, footprint);
+
+        df.setColumn(0, new StringColumn("id", new String[]{
+                new String("1"), new String("2"), new String("3")}));
+
+        footprint.columnReplaced(df, 0);
+        assertMatchesScan(df, footprint);
+
+        df.removeColumn(1);
+        footprint.columnRemoved(1);
+        assertMatchesScan(df, footprint);
+    }
+
+}
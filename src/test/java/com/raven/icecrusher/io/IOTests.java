@@ -22,7 +22,14 @@ import org.junit.runners.Suite.SuiteClasses;
 
 @RunWith(Suite.class)
 @SuiteClasses({
-    DataFramesTest.class})
+    DataFramesTest.class,
+    BulkUpdateTest.class,
+    SearchTest.class,
+    FootprintTest.class,
+    ColumnVersionsTest.class,
+    PngWriterTest.class,
+    DeltaPackageTest.class,
+    StringDictionaryTest.class})
 public class IOTests {
     
 }
@@ -0,0 +1,91 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.icecrusher.io;
+
+import static org.junit.Assert.*;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class PngWriterTest {
+
+    private static final int WIDTH = 300;
+    private static final int HEIGHT = 250;
+
+    private int[] pixels;
+
+    @BeforeClass
+    public static void setUpBeforeClass(){ }
+
+    @AfterClass
+    public static void tearDownAfterClass(){ }
+
+    @Before
+    public void setUp(){
+        pixels = new int[WIDTH * HEIGHT];
+        for(int y=0; y<HEIGHT; ++y){
+            for(int x=0; x<WIDTH; ++x){
+                final int alpha = ((x % 7) == 0) ? 0x80 : 0xFF;
+                pixels[y * WIDTH + x] = (alpha << 24) | ((x & 0xFF) << 16)
+                        | ((y & 0xFF) << 8) | ((x * y) & 0xFF);
+
+            }
+        }
+    }
+
+    @After
+    public void tearDown(){ }
+
+    @Test
+    public void testRoundTrip() throws IOException{
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try(PngWriter writer = new PngWriter(out, WIDTH, HEIGHT)){
+            //write in strips of different heights
+            writer.writeRows(pixels, 0, WIDTH, 100);
+            writer.writeRows(pixels, 100 * WIDTH, WIDTH, 1);
+            writer.writeRows(pixels, 101 * WIDTH, WIDTH, HEIGHT - 101);
+        }
+        final BufferedImage image = ImageIO.read(new ByteArrayInputStream(out.toByteArray()));
+        assertNotNull("Image should be readable", image);
+        assertEquals("Width should match", WIDTH, image.getWidth());
+        assertEquals("Height should match", HEIGHT, image.getHeight());
+        for(int y=0; y<HEIGHT; ++y){
+            for(int x=0; x<WIDTH; ++x){
+                assertEquals("Pixel should match", pixels[y * WIDTH + x], image.getRGB(x, y));
+            }
+        }
+    }
+
+    @Test(expected=IOException.class)
+    public void testIncompleteImage() throws IOException{
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try(PngWriter writer = new PngWriter(out, WIDTH, HEIGHT)){
+            writer.writeRows(pixels, 0, WIDTH, 10);
+        }
+    }
+
+}
@@ -0,0 +1,170 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.icecrusher.io;
+
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.raven.common.struct.Column;
+import com.raven.common.struct.DataFrame;
+import com.raven.common.struct.DefaultDataFrame;
+import com.raven.common.struct.FloatColumn;
+
+public class SearchTest {
+
+    private DataFrame df;
+
+    @BeforeClass
+    public static void setUpBeforeClass(){ }
+
+    @AfterClass
+    public static void tearDownAfterClass(){ }
+
+    @Before
+    public void setUp(){
+        df = new DefaultDataFrame(
+                Column.create("id", 1,2,3,4,5),
+                Column.create("status", "open","closed","reopened","open","closed"),
+                Column.create("price", 10.5,20.0,30.25,40.0,50.5));
+    }
+
+    @After
+    public void tearDown(){ }
+
+    @Test
+    public void testLiteralMatches(){
+        final Search search = Search.of(Search.Mode.LITERAL, "open");
+        assertTrue("Value should match", search.matches("open"));
+        assertTrue("Value should match", search.matches("reopened"));
+        assertFalse("Value should not match", search.matches("closed"));
+        assertFalse("Null should never match", search.matches(null));
+    }
+
+    @Test
+    public void testRegexMatches(){
+        final Search search = Search.of(Search.Mode.REGEX, "^clo.*d$");
+        assertTrue("Value should match", search.matches("closed"));
+        assertFalse("Value should not match", search.matches("open"));
+    }
+
+    @Test
+    public void testNumericMatches(){
+        final Search search = Search.of(Search.Mode.NUMERIC, "20");
+        assertTrue("Value should match", search.matches(20.0));
+        assertTrue("Value should match", search.matches(20));
+        assertFalse("Value should not match", search.matches(2.0));
+        assertFalse("String should not match", search.matches("20"));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testInvalidRegex(){
+        Search.of(Search.Mode.REGEX, "[a-");
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testInvalidNumber(){
+        Search.of(Search.Mode.NUMERIC, "abc");
+    }
+
+    @Test
+    public void testReplaceAll(){
+        final Revision revision = Search.of(Search.Mode.LITERAL, "open")
+                .in("status")
+                .replaceAll(df, "new");
+
+        assertEquals("Revision should record three rows", 3, revision.size());
+        final String[] truth = {"new","closed","renewed","new","closed"};
+        for(int i=0; i<truth.length; ++i){
+            assertEquals("Value does not match", truth[i], df.getString("status", i));
+        }
+        revision.revert(df);
+        assertEquals("Value was not reverted", "reopened", df.getString("status", 2));
+    }
+
+    @Test
+    public void testNumericMatchesFloatColumn(){
+        final DataFrame floats = new DefaultDataFrame(
+                new FloatColumn("ratio", new float[]{0.1f, 0.2f, 0.1f}));
+
+        final Search search = Search.of(Search.Mode.NUMERIC, "0.1").in("ratio");
+        assertTrue("Float value should match", search.matches(floats.getFloat("ratio", 0)));
+        assertFalse("Float value should not match", search.matches(floats.getFloat("ratio", 1)));
+        final Revision revision = search.replaceAll(floats, "0.5");
+        assertEquals("Revision should record two rows", 2, revision.size());
+        assertEquals("Value does not match", 0.5f, floats.getFloat("ratio", 2), 0.0f);
+    }
+
+    @Test
+    public void testReplaceAllRegexGroups(){
+        final Revision revision = Search.of(Search.Mode.REGEX, "(re)?(open)")
+                .in("status")
+                .replaceAll(df, "$2ed");
+
+        assertEquals("Revision should record three rows", 3, revision.size());
+        assertEquals("Value does not match", "opened", df.getString("status", 2));
+    }
+
+    @Test
+    public void testReplaceAllInvalidGroup(){
+        final Search search = Search.of(Search.Mode.REGEX, "(open)").in("status");
+        final String[] invalid = {"$3", "x\\", "$", "${name}", "$x"};
+        for(final String replacement : invalid){
+            try{
+                search.replaceAll(df, replacement);
+                fail("Replacement should be rejected: " + replacement);
+            }catch(IllegalArgumentException ex){
+                //expected
+            }
+        }
+        assertEquals("Value should not be changed", "open", df.getString("status", 0));
+    }
+
+    @Test
+    public void testReplaceAllTextInNumericColumns(){
+        final Revision revision = Search.of(Search.Mode.LITERAL, "1").replaceAll(df, "9");
+        assertEquals("Revision should record two rows", 2, revision.size());
+        assertEquals("Value does not match", 9, df.getInt("id", 0));
+        assertEquals("Value does not match", 90.5, df.getDouble("price", 0), 0.0);
+        assertEquals("Value should not be changed", 2, df.getInt("id", 1));
+        Search.of(Search.Mode.LITERAL, "open").replaceAll(df, "new");
+        assertEquals("Value does not match", "new", df.getString("status", 0));
+    }
+
+    @Test
+    public void testReplaceAllInvalidConversion(){
+        try{
+            Search.of(Search.Mode.LITERAL, "0").replaceAll(df, "x");
+            fail("Replacement should be rejected");
+        }catch(IllegalArgumentException ex){
+            //expected
+        }
+        assertEquals("Value should not be changed", 10.5, df.getDouble("price", 0), 0.0);
+        assertEquals("Value should not be changed", 20.0, df.getDouble("price", 1), 0.0);
+    }
+
+    @Test
+    public void testReplaceAllLiteralDollar(){
+        Search.of(Search.Mode.LITERAL, "open").in("status").replaceAll(df, "$1\\");
+        assertEquals("Value does not match", "$1\\", df.getString("status", 0));
+    }
+
+}
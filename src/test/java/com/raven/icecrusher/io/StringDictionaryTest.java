@@ -0,0 +1,99 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.icecrusher.io;
+
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.raven.common.struct.Column;
+import com.raven.common.struct.StringColumn;
+
+public class StringDictionaryTest {
+
+    private static final int ROWS = 100000;
+
+    @BeforeClass
+    public static void setUpBeforeClass(){ }
+
+    @AfterClass
+    public static void tearDownAfterClass(){ }
+
+    @Before
+    public void setUp(){ }
+
+    @After
+    public void tearDown(){ }
+
+    private Column columnOf(final int distinct){
+        final Random rand = new Random(42);
+        final String[] values = new String[ROWS];
+        for(int i=0; i<ROWS; ++i){
+            //use separate instances like a file reader would
+            values[i] = new String("value" + rand.nextInt(distinct));
+        }
+        return new StringColumn("col", values);
+    }
+
+    @Test
+    public void testAcceptsLowCardinality(){
+        assertTrue("Column with few distinct values should be accepted",
+                StringDictionary.isLowCardinality(columnOf(12), ROWS));
+
+        assertTrue("Column with 10,000 distinct values should be accepted",
+                StringDictionary.isLowCardinality(columnOf(10000), ROWS));
+    }
+
+    @Test
+    public void testRejectsHighCardinality(){
+        final String[] unique = new String[ROWS];
+        for(int i=0; i<ROWS; ++i){
+            unique[i] = "value" + i;
+        }
+        assertFalse("Column with unique values should be rejected",
+                StringDictionary.isLowCardinality(new StringColumn("col", unique), ROWS));
+
+        assertFalse("Column with 200,000 distinct values should be rejected",
+                StringDictionary.isLowCardinality(columnOf(200000), ROWS));
+
+        assertFalse("Column with a single row should be rejected",
+                StringDictionary.isLowCardinality(columnOf(1), 1));
+    }
+
+    @Test
+    public void testEncodeSharesInstances(){
+        final Column col = columnOf(10000);
+        assertTrue("Column should be fully encoded", StringDictionary.encode(col, ROWS));
+        final Map<Object, Object> instances = new HashMap<>();
+        for(int i=0; i<ROWS; ++i){
+            final Object value = col.getValue(i);
+            final Object first = instances.putIfAbsent(value, value);
+            if(first != null){
+                assertSame("Equal values should share one instance", first, value);
+            }
+        }
+    }
+
+}
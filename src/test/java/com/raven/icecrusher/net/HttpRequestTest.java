@@ -0,0 +1,181 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.icecrusher.net;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.raven.icecrusher.net.NetworkResult.Status;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Tests for conditional requests of the HttpRequest class with a ResourceCache
+ * against a local HTTP server which counts the payload bytes it transfers.
+ *
+ */
+public class HttpRequestTest {
+
+    private static final String LAST_MODIFIED = "Tue, 04 May 2021 10:00:00 GMT";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private HttpServer server;
+    private ResourceCache cache;
+    private volatile String content;
+    private volatile String etag;
+    private volatile String lastModified;
+    private AtomicLong transferred;
+    private AtomicInteger requests;
+
+    @Before
+    public void setUp() throws Exception{
+        content = "<release><version>2.4.0</version></release>";
+        etag = "\"v1\"";
+        lastModified = LAST_MODIFIED;
+        transferred = new AtomicLong();
+        requests = new AtomicInteger();
+        cache = new ResourceCache(folder.newFolder("http"));
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/release.xml", this::handle);
+        server.start();
+    }
+
+    @After
+    public void tearDown(){
+        server.stop(0);
+    }
+
+    @Test
+    public void testUnmodifiedResourceIsNotTransferredAgain(){
+        final NetworkResult first = get();
+        assertEquals("Status does not match", Status.SUCCESS, first.getSatus());
+        assertEquals("Response code does not match", 200, first.getResponseCode());
+        assertFalse("First result should not be cached", first.isCached());
+        final long bytes = transferred.get();
+        assertEquals("Payload size does not match", content.length(), bytes);
+
+        final NetworkResult second = get();
+        assertEquals("Status does not match", Status.SUCCESS, second.getSatus());
+        assertEquals("Response code does not match", 304, second.getResponseCode());
+        assertTrue("Second result should be cached", second.isCached());
+        assertEquals("Payload does not match", content, second.getString());
+        assertEquals("No payload should be transferred", bytes, transferred.get());
+        assertEquals("Number of requests does not match", 2, requests.get());
+    }
+
+    @Test
+    public void testModifiedResourceReplacesCachedResponse(){
+        get();
+        content = "<release><version>2.5.0</version></release>";
+        etag = "\"v2\"";
+        final NetworkResult second = get();
+        assertEquals("Response code does not match", 200, second.getResponseCode());
+        assertFalse("Result should not be cached", second.isCached());
+        assertEquals("Payload does not match", content, second.getString());
+        final ResourceCache.Entry entry = cache.get(url());
+        assertEquals("Cached ETag does not match", "\"v2\"", entry.getETag());
+        assertEquals("Cached payload does not match", content,
+                new String(entry.getPayload(), StandardCharsets.UTF_8));
+
+        final long bytes = transferred.get();
+        assertTrue("Third result should be cached", get().isCached());
+        assertEquals("No payload should be transferred", bytes, transferred.get());
+    }
+
+    @Test
+    public void testLastModifiedIsRevalidated(){
+        etag = null;
+        get();
+        final long bytes = transferred.get();
+        final NetworkResult second = get();
+        assertTrue("Result should be cached", second.isCached());
+        assertEquals("Payload does not match", content, second.getString());
+        assertEquals("No payload should be transferred", bytes, transferred.get());
+    }
+
+    @Test
+    public void testResponseWithoutValidatorsIsNotCached(){
+        etag = null;
+        lastModified = null;
+        get();
+        assertNull("Response should not be cached", cache.get(url()));
+        final NetworkResult second = get();
+        assertFalse("Result should not be cached", second.isCached());
+        assertEquals("Payload should be transferred twice",
+                2 * content.length(), transferred.get());
+    }
+
+    @Test
+    public void testRequestWithoutCache(){
+        new HttpRequest("GET", url()).execute();
+        final NetworkResult second = new HttpRequest("GET", url()).execute();
+        assertEquals("Response code does not match", 200, second.getResponseCode());
+        assertEquals("Payload should be transferred twice",
+                2 * content.length(), transferred.get());
+    }
+
+    private NetworkResult get(){
+        return new HttpRequest("GET", url()).withCache(cache).execute();
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException{
+        requests.incrementAndGet();
+        final String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+        final String ifModifiedSince = exchange.getRequestHeaders().getFirst("If-Modified-Since");
+        if(etag != null){
+            exchange.getResponseHeaders().add("ETag", etag);
+        }
+        if(lastModified != null){
+            exchange.getResponseHeaders().add("Last-Modified", lastModified);
+        }
+        final boolean notModified = ((ifNoneMatch != null)
+                ? ifNoneMatch.equals(etag)
+                : ((ifModifiedSince != null) && ifModifiedSince.equals(lastModified)));
+
+        if(notModified){
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+        final byte[] payload = content.getBytes(StandardCharsets.UTF_8);
+        //count before writing, as the client may proceed as soon as it is written
+        transferred.addAndGet(payload.length);
+        exchange.sendResponseHeaders(200, payload.length);
+        try(final OutputStream os = exchange.getResponseBody()){
+            os.write(payload);
+        }
+    }
+
+    private String url(){
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/release.xml";
+    }
+
+}
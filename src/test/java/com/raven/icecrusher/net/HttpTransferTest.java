@@ -0,0 +1,221 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.icecrusher.net;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Tests for the HttpTransfer class against a local HTTP server.
+ *
+ */
+public class HttpTransferTest {
+
+    private static final int SIZE = 200000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private HttpServer server;
+    private byte[] resource;
+    private String checksum;
+    private boolean supportsRanges;
+    //number of responses which are cut off after half of their content
+    private AtomicInteger interruptions;
+    private List<String> ranges;
+
+    @Before
+    public void setUp() throws Exception{
+        resource = new byte[SIZE];
+        new Random(42).nextBytes(resource);
+        checksum = sha256(resource);
+        supportsRanges = true;
+        interruptions = new AtomicInteger();
+        ranges = Collections.synchronizedList(new ArrayList<>());
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/package.zip", this::handle);
+        server.createContext("/missing.zip", (exchange) -> {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @After
+    public void tearDown(){
+        server.stop(0);
+    }
+
+    @Test
+    public void testTransferWritesFileAndChecksum() throws Exception{
+        final File target = new File(folder.getRoot(), "package.part");
+        final HttpTransfer transfer = new HttpTransfer(url("/package.zip"), target);
+        assertEquals("Checksum does not match", checksum, transfer.transfer());
+        assertArrayEquals("File content does not match", resource,
+                Files.readAllBytes(target.toPath()));
+
+        assertEquals("Response code does not match", 200, transfer.getResponseCode());
+        assertEquals("No range should be requested", "-", ranges.get(0));
+    }
+
+    @Test
+    public void testInterruptedTransferIsResumed() throws Exception{
+        interruptions.set(2);
+        final File target = new File(folder.getRoot(), "package.part");
+        final HttpTransfer transfer = new HttpTransfer(url("/package.zip"), target);
+        assertEquals("Checksum does not match", checksum, transfer.transfer());
+        assertArrayEquals("File content does not match", resource,
+                Files.readAllBytes(target.toPath()));
+
+        assertEquals("Transfer should take three requests", 3, ranges.size());
+        assertEquals("Second request should resume", "bytes=" + (SIZE/2) + "-", ranges.get(1));
+        assertEquals("Response code does not match", 206, transfer.getResponseCode());
+    }
+
+    @Test
+    public void testPartialFileIsResumed() throws Exception{
+        final File target = new File(folder.getRoot(), "package.part");
+        final int offset = 12345;
+        Files.write(target.toPath(), Arrays.copyOf(resource, offset));
+        final AtomicInteger progress = new AtomicInteger();
+        final HttpTransfer transfer = new HttpTransfer(url("/package.zip"), target)
+                .withProgressListener((transferred, total) -> {
+                    assertEquals("Total size does not match", SIZE, total);
+                    progress.set((int) transferred);
+                });
+
+        assertEquals("Checksum does not match", checksum, transfer.transfer());
+        assertEquals("Only the remaining part should be requested",
+                "bytes=" + offset + "-", ranges.get(0));
+
+        assertEquals("Progress does not match", SIZE, progress.get());
+        assertArrayEquals("File content does not match", resource,
+                Files.readAllBytes(target.toPath()));
+    }
+
+    @Test
+    public void testCompleteFileIsNotTransferredAgain() throws Exception{
+        final File target = new File(folder.getRoot(), "package.part");
+        Files.write(target.toPath(), resource);
+        final HttpTransfer transfer = new HttpTransfer(url("/package.zip"), target);
+        assertEquals("Checksum does not match", checksum, transfer.transfer());
+        assertEquals("Response code does not match", 416, transfer.getResponseCode());
+        assertEquals("File size does not match", SIZE, target.length());
+    }
+
+    @Test
+    public void testServerWithoutRangeSupportRestarts() throws Exception{
+        supportsRanges = false;
+        final File target = new File(folder.getRoot(), "package.part");
+        Files.write(target.toPath(), Arrays.copyOf(resource, 5000));
+        final HttpTransfer transfer = new HttpTransfer(url("/package.zip"), target);
+        assertEquals("Checksum does not match", checksum, transfer.transfer());
+        assertArrayEquals("File content does not match", resource,
+                Files.readAllBytes(target.toPath()));
+    }
+
+    @Test
+    public void testUnexpectedStatusIsNotRetried() throws Exception{
+        final File target = new File(folder.getRoot(), "missing.part");
+        final HttpTransfer transfer = new HttpTransfer(url("/missing.zip"), target);
+        try{
+            transfer.transfer();
+            fail("Transfer should fail");
+        }catch(IOException ex){
+            assertEquals("Response code does not match", 404, transfer.getResponseCode());
+        }
+    }
+
+    @Test
+    public void testCancelledTransferKeepsPartialFile() throws Exception{
+        final File target = new File(folder.getRoot(), "package.part");
+        final HttpTransfer transfer = new HttpTransfer(url("/package.zip"), target);
+        transfer.withProgressListener((transferred, total) -> transfer.cancel());
+        assertNull("Cancelled transfer should have no checksum", transfer.transfer());
+        assertTrue("Transfer should be cancelled", transfer.isCancelled());
+        assertTrue("Partial file should be kept",
+                (target.length() > 0) && (target.length() < SIZE));
+
+        final HttpTransfer resumed = new HttpTransfer(url("/package.zip"), target);
+        assertEquals("Checksum does not match", checksum, resumed.transfer());
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException{
+        final String range = exchange.getRequestHeaders().getFirst("Range");
+        ranges.add((range != null) ? range : "-");
+        int from = 0;
+        if(supportsRanges && (range != null)){
+            from = Integer.parseInt(range.substring(6, range.indexOf('-')));
+            if(from >= SIZE){
+                exchange.getResponseHeaders().add("Content-Range", "bytes */" + SIZE);
+                exchange.sendResponseHeaders(416, -1);
+                exchange.close();
+                return;
+            }
+            exchange.getResponseHeaders().add("Content-Range",
+                    "bytes " + from + "-" + (SIZE-1) + "/" + SIZE);
+        }
+        final int length = SIZE - from;
+        exchange.sendResponseHeaders(((from > 0) ? 206 : 200), length);
+        final OutputStream os = exchange.getResponseBody();
+        try{
+            if(interruptions.getAndDecrement() > 0){
+                //cut off the response after the first half of the resource
+                os.write(resource, from, (SIZE/2) - from);
+                os.flush();
+                throw new IOException("interrupted");
+            }
+            os.write(resource, from, length);
+        }finally{
+            exchange.close();
+        }
+    }
+
+    private String url(final String path){
+        return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+    }
+
+    private static String sha256(final byte[] bytes) throws Exception{
+        final StringBuilder sb = new StringBuilder();
+        for(final byte b : MessageDigest.getInstance("SHA-256").digest(bytes)){
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+
+}
@@ -22,6 +22,8 @@ import org.junit.runners.Suite.SuiteClasses;
 
 @RunWith(Suite.class)
 @SuiteClasses({
+    HttpRequestTest.class,
+    HttpTransferTest.class,
     ParcelTest.class})
 public class NetTests {
     
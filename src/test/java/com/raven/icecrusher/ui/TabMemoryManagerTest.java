@@ -0,0 +1,111 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.icecrusher.ui;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.raven.common.struct.Column;
+import com.raven.common.struct.DataFrame;
+import com.raven.common.struct.DefaultDataFrame;
+
+public class TabMemoryManagerTest {
+
+    private Map<String, Long> footprints;
+
+    @BeforeClass
+    public static void setUpBeforeClass(){ }
+
+    @AfterClass
+    public static void tearDownAfterClass(){ }
+
+    @Before
+    public void setUp(){
+        //least recently used first
+        footprints = new LinkedHashMap<>();
+        footprints.put("a", 100L);
+        footprints.put("b", 200L);
+        footprints.put("c", 300L);
+        footprints.put("d", 400L);
+    }
+
+    @After
+    public void tearDown(){ }
+
+
+    @Test
+    public void testVictimsLeastRecentlyUsed(){
+        assertEquals("Victims do not match", Arrays.asList("a", "b", "c"),
+                TabMemoryManager.victims(footprints, 600, (tab) -> true));
+
+        assertEquals("Victims do not match", Arrays.asList("a"),
+                TabMemoryManager.victims(footprints, 900, (tab) -> true));
+    }
+
+    @Test
+    public void testVictimsSkipIneligible(){
+        assertEquals("Active tab should not be spilled", Arrays.asList("b", "c"),
+                TabMemoryManager.victims(footprints, 600, (tab) -> !tab.equals("a")));
+
+        assertEquals("Victims should exceed budget if nothing else is eligible",
+                Arrays.asList("d"),
+                TabMemoryManager.victims(footprints, 100, (tab) -> tab.equals("d")));
+    }
+
+    @Test
+    public void testVictimsWithinBudget(){
+        assertEquals("No tab should be spilled", Collections.emptyList(),
+                TabMemoryManager.victims(footprints, 1000, (tab) -> true));
+
+        assertEquals("No tab should be spilled", Collections.emptyList(),
+                TabMemoryManager.victims(new LinkedHashMap<String, Long>(), 0, (tab) -> true));
+    }
+
+    @Test
+    public void testSpillRoundTrip() throws Exception{
+        final DataFrame df = new DefaultDataFrame(
+                Column.create("id", 1,2,3),
+                Column.create("name", "a","b","c"));
+
+        //unsaved edit
+        df.getColumn("name").setValue(1, "edited");
+        df.getColumn("id").setValue(2, 42);
+        final File file = TabMemoryManager.writeSpillFile(df);
+        try{
+            assertTrue("Spill file should exist", file.exists());
+            final DataFrame restored = TabMemoryManager.readSpillFile(file);
+            assertEquals("Rows do not match", 3, restored.rows());
+            assertEquals("Edited value was lost", "edited", restored.getString("name", 1));
+            assertEquals("Edited value was lost", 42, restored.getInt("id", 2));
+            assertEquals("Value does not match", "c", restored.getString("name", 2));
+        }finally{
+            file.delete();
+        }
+    }
+
+}
@@ -0,0 +1,119 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.icecrusher.ui.plot;
+
+import static org.junit.Assert.*;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.raven.common.struct.Column;
+import com.raven.common.struct.DoubleColumn;
+import com.raven.common.struct.LongColumn;
+import com.raven.common.struct.NullableDoubleColumn;
+import com.raven.common.struct.NullableStringColumn;
+import com.raven.common.struct.StringColumn;
+
+public class DateSeriesTest {
+
+    private static final ChartPreparation.Progress NO_PROGRESS = (done, total) -> { };
+
+    private DateTimeFormatter formatter;
+
+    @BeforeClass
+    public static void setUpBeforeClass(){ }
+
+    @AfterClass
+    public static void tearDownAfterClass(){ }
+
+    @Before
+    public void setUp(){
+        formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd", Locale.ENGLISH);
+    }
+
+    @After
+    public void tearDown(){ }
+
+    @Test
+    public void testExactDayOffsets(){
+        final Column x = new StringColumn(new String[]{
+                "2020-03-01", "2020-01-31", "2021-01-31", "2020-01-31"});
+
+        final Column y = new DoubleColumn(new double[]{2.0, 1.0, 3.0, 4.0});
+        final DateSeries series = DateSeries.of(x, y, 4, formatter, NO_PROGRESS);
+        assertEquals("Origin should be the earliest date",
+                LocalDate.of(2020, 1, 31), series.getOrigin());
+
+        assertArrayEquals("Offsets should be exact and sorted",
+                new double[]{0.0, 0.0, 30.0, 366.0}, series.getX(), 0.0);
+
+        assertArrayEquals("Values should follow their dates in row order",
+                new double[]{1.0, 4.0, 2.0, 3.0}, series.getY(), 0.0);
+
+        assertEquals("Minimum should match", 1.0, series.getMinY(), 0.0);
+        assertEquals("Maximum should match", 4.0, series.getMaxY(), 0.0);
+    }
+
+    @Test
+    public void testNullValuesSkipped(){
+        final Column x = new NullableStringColumn(new String[]{
+                "2020-01-02", null, "2020-01-01", "2020-01-03"});
+
+        final Column y = new NullableDoubleColumn(new Double[]{1.0, 2.0, 3.0, null});
+        final DateSeries series = DateSeries.of(x, y, 4, formatter, NO_PROGRESS);
+        assertArrayEquals("Rows with null values should be skipped",
+                new double[]{0.0, 1.0}, series.getX(), 0.0);
+
+        assertArrayEquals("Values should match",
+                new double[]{3.0, 1.0}, series.getY(), 0.0);
+    }
+
+    @Test
+    public void testEpochMillis(){
+        final long day = 86_400_000L;
+        final Column x = new LongColumn(new long[]{10 * day + 5, -day, 3 * day});
+        final Column y = new DoubleColumn(new double[]{1.0, 2.0, 3.0});
+        final DateSeries series = DateSeries.of(x, y, 3, null, NO_PROGRESS);
+        assertEquals("Origin should be the earliest date",
+                LocalDate.ofEpochDay(-1), series.getOrigin());
+
+        assertArrayEquals("Offsets should be whole days",
+                new double[]{0.0, 4.0, 11.0}, series.getX(), 0.0);
+    }
+
+    @Test(expected=DateFormatException.class)
+    public void testInvalidDate(){
+        final Column x = new StringColumn(new String[]{"2020-01-01", "01.01.2020"});
+        final Column y = new DoubleColumn(new double[]{1.0, 2.0});
+        DateSeries.of(x, y, 2, formatter, NO_PROGRESS);
+    }
+
+    @Test
+    public void testEmpty(){
+        final Column x = new NullableStringColumn(new String[]{null});
+        final Column y = new NullableDoubleColumn(new Double[]{1.0});
+        assertNull("Series without data points should be null",
+                DateSeries.of(x, y, 1, formatter, NO_PROGRESS));
+    }
+}
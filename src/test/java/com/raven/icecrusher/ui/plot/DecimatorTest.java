@@ -0,0 +1,137 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.icecrusher.ui.plot;
+
+import static org.junit.Assert.*;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class DecimatorTest {
+
+    private double[] x;
+    private double[] y;
+
+    @BeforeClass
+    public static void setUpBeforeClass(){ }
+
+    @AfterClass
+    public static void tearDownAfterClass(){ }
+
+    @Before
+    public void setUp(){
+        x = new double[100000];
+        y = new double[100000];
+        for(int i=0; i<x.length; ++i){
+            x[i] = i;
+            y[i] = Math.sin(i / 1000.0);
+        }
+        //single spikes must survive decimation
+        y[12345] = 100.0;
+        y[67890] = -100.0;
+    }
+
+    @After
+    public void tearDown(){ }
+
+    @Test
+    public void testDecimateKeepsPeaks(){
+        final Decimator decimator = new Decimator(x, y);
+        final double[][] points = decimator.decimate(0, x.length-1, 500);
+        assertTrue("Too many points", points[0].length <= 1002);
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for(int i=0; i<points[1].length; ++i){
+            min = Math.min(min, points[1][i]);
+            max = Math.max(max, points[1][i]);
+            if(i > 0){
+                assertTrue("Points are not sorted", points[0][i] >= points[0][i-1]);
+            }
+        }
+        assertEquals("Maximum peak was lost", 100.0, max, 0.0);
+        assertEquals("Minimum peak was lost", -100.0, min, 0.0);
+    }
+
+    @Test
+    public void testDecimateRange(){
+        final Decimator decimator = new Decimator(x, y);
+        final double[][] points = decimator.decimate(1000, 2000, 100);
+        assertEquals("First point should precede range", 999.0, points[0][0], 0.0);
+        assertEquals("Last point should follow range", 2001.0,
+                points[0][points[0].length-1], 0.0);
+    }
+
+    @Test
+    public void testDecimateSmallRange(){
+        final Decimator decimator = new Decimator(x, y);
+        final double[][] points = decimator.decimate(10, 20, 100);
+        assertEquals("Small ranges should not be decimated", 13, points[0].length);
+    }
+
+    @Test
+    public void testPyramidMatchesScan(){
+        final Random random = new Random(42);
+        for(int i=0; i<y.length; ++i){
+            y[i] = random.nextGaussian();
+        }
+        final Decimator decimator = new Decimator(x, y);
+        final int buckets = 400;
+        final double lower = 1003;
+        final double upper = 91003;
+        final double[][] points = decimator.decimate(lower, upper, buckets);
+        final double width = (upper - lower) / buckets;
+        final Set<Double> values = new HashSet<>();
+        for(final double value : points[1]){
+            values.add(value);
+        }
+        for(int bucket=0; bucket<buckets; ++bucket){
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            final int from = (int) Math.ceil(lower + bucket * width);
+            final int to = ((bucket == buckets-1)
+                    ? (int) upper : ((int) Math.ceil(lower + (bucket+1) * width) - 1));
+            for(int i=from; i<=to; ++i){
+                min = Math.min(min, y[i]);
+                max = Math.max(max, y[i]);
+            }
+            assertTrue("Bucket minimum is missing", values.contains(min));
+            assertTrue("Bucket maximum is missing", values.contains(max));
+        }
+        assertTrue("Too many points", points[0].length <= 2 * buckets + 2);
+    }
+
+    @Test
+    public void testUnsortedInput(){
+        final double[] ux = {5, 3, 9, 1, 7};
+        final double[] uy = {50, 30, 90, 10, 70};
+        final Decimator decimator = new Decimator(ux, uy);
+        assertEquals("Minimum is incorrect", 1.0, decimator.minX(), 0.0);
+        assertEquals("Maximum is incorrect", 9.0, decimator.maxX(), 0.0);
+        final double[][] points = decimator.decimate(1, 9, 100);
+        for(int i=0; i<points[0].length; ++i){
+            assertEquals("Pairs were not kept together", points[0][i]*10, points[1][i], 0.0);
+        }
+    }
+
+}
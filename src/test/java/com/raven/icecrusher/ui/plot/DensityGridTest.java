@@ -0,0 +1,104 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.icecrusher.ui.plot;
+
+import static org.junit.Assert.*;
+
+import java.util.function.IntToDoubleFunction;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class DensityGridTest {
+
+    private static final ChartPreparation.Progress NO_PROGRESS = (done, total) -> { };
+
+    private double[] valuesX;
+    private double[] valuesY;
+    private IntToDoubleFunction x;
+    private IntToDoubleFunction y;
+
+    @BeforeClass
+    public static void setUpBeforeClass(){ }
+
+    @AfterClass
+    public static void tearDownAfterClass(){ }
+
+    @Before
+    public void setUp(){
+        valuesX = new double[1000];
+        valuesY = new double[1000];
+        for(int i=0; i<valuesX.length; ++i){
+            valuesX[i] = i % 10;
+            valuesY[i] = 2 * (i % 10) + 1;
+        }
+        valuesX[500] = Double.NaN;
+        x = (i) -> valuesX[i];
+        y = (i) -> valuesY[i];
+    }
+
+    @After
+    public void tearDown(){ }
+
+    @Test
+    public void testExtent(){
+        final DensityGrid.Extent extent = DensityGrid.extentOf(x, y, 1000, NO_PROGRESS);
+        assertEquals("NaN values should be ignored", 999, extent.count());
+        assertEquals("Minimum x should match", 0.0, extent.minX(), 0.0);
+        assertEquals("Maximum x should match", 9.0, extent.maxX(), 0.0);
+        assertEquals("Minimum y should match", 1.0, extent.minY(), 0.0);
+        assertEquals("Maximum y should match", 19.0, extent.maxY(), 0.0);
+        assertEquals("Points on a line should be fully correlated",
+                1.0, extent.correlation(), 1e-9);
+    }
+
+    @Test
+    public void testGridCounts(){
+        final DensityGrid grid = DensityGrid.of(x, y, 1000, 0.0, 10.0, 0.0, 20.0,
+                10, 10, 0, NO_PROGRESS);
+
+        assertEquals("All valid points should be visible", 999, grid.visible());
+        assertFalse("Grid should not hold exact points", grid.hasPoints());
+        long sum = 0;
+        for(int row=0; row<grid.height(); ++row){
+            for(int col=0; col<grid.width(); ++col){
+                sum += grid.count(col, row);
+            }
+        }
+        assertEquals("Cells should hold all visible points", 999, sum);
+        //x = 9 and y = 19 are in the right column of the top row
+        assertEquals("Top right cell should match", 100, grid.count(9, 0));
+        assertEquals("Maximum count should match", 100, grid.maxCount());
+    }
+
+    @Test
+    public void testExactPoints(){
+        final DensityGrid grid = DensityGrid.of(x, y, 1000, 0.0, 1.5, 0.0, 20.0,
+                10, 10, 1000, NO_PROGRESS);
+
+        assertEquals("Only points inside the range should be visible", 199, grid.visible());
+        assertTrue("Grid should hold exact points", grid.hasPoints());
+        assertEquals("All visible points should be collected", 199, grid.pointsX().length);
+        for(final double value : grid.pointsX()){
+            assertTrue("Collected points should be inside the range", value <= 1.5);
+        }
+    }
+
+}
@@ -0,0 +1,103 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.icecrusher.ui.plot;
+
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.raven.common.struct.Column;
+import com.raven.common.struct.DoubleColumn;
+import com.raven.common.struct.NullableIntColumn;
+import com.raven.icecrusher.ui.plot.Histogram.BinRule;
+
+public class HistogramTest {
+
+    private static final ChartPreparation.Progress NO_PROGRESS = (done, total) -> { };
+
+    private Column col;
+
+    @BeforeClass
+    public static void setUpBeforeClass(){ }
+
+    @AfterClass
+    public static void tearDownAfterClass(){ }
+
+    @Before
+    public void setUp(){
+        final double[] values = new double[100];
+        for(int i=0; i<values.length; ++i){
+            values[i] = i;
+        }
+        col = new DoubleColumn(values);
+    }
+
+    @After
+    public void tearDown(){ }
+
+    @Test
+    public void testFixedBins(){
+        final Histogram histogram = Histogram.of(col, 100, BinRule.FIXED, 10, NO_PROGRESS);
+        assertEquals("Histogram should have 10 bins", 10, histogram.bins());
+        for(int i=0; i<histogram.bins(); ++i){
+            assertEquals("Bin should hold 10 values", 10, histogram.count(i));
+        }
+        assertEquals("Lower edge should be the minimum", 0.0, histogram.lowerEdge(0), 0.0);
+        assertEquals("Upper edge should be the maximum", 99.0, histogram.lowerEdge(10), 1e-9);
+        assertEquals("Mean should match", 49.5, histogram.mean(), 1e-9);
+    }
+
+    @Test
+    public void testSturges(){
+        final Histogram histogram = Histogram.of(col, 100, BinRule.STURGES, 0, NO_PROGRESS);
+        assertEquals("Histogram should have 8 bins", 8, histogram.bins());
+        long sum = 0;
+        for(int i=0; i<histogram.bins(); ++i){
+            sum += histogram.count(i);
+        }
+        assertEquals("All values should be counted", 100, sum);
+        assertEquals("Total should match", 100, histogram.total());
+    }
+
+    @Test
+    public void testNullValuesIgnored(){
+        final Column nullable = new NullableIntColumn(new Integer[]{3, null, 3, null});
+        final Histogram histogram = Histogram.of(nullable, 4, BinRule.SQUARE_ROOT, 0, NO_PROGRESS);
+        assertEquals("Equal values should produce one bin", 1, histogram.bins());
+        assertEquals("Null values should be ignored", 2, histogram.count(0));
+        assertNull("Columns of null values should have no histogram",
+                Histogram.of(new NullableIntColumn(new Integer[]{null}),
+                        1, BinRule.STURGES, 0, NO_PROGRESS));
+    }
+
+    @Test
+    public void testOutline(){
+        final Histogram histogram = Histogram.of(col, 100, BinRule.FIXED, 4, NO_PROGRESS);
+        final double[][] outline = histogram.outline();
+        assertEquals("Outline should have two points per bin and two on the axis",
+                10, outline[0].length);
+
+        assertEquals("Outline should start on the axis", 0.0, outline[1][0], 0.0);
+        assertEquals("Outline should end on the axis", 0.0, outline[1][9], 0.0);
+        assertEquals("Outline should follow the bin counts",
+                histogram.count(0), (long) outline[1][1]);
+    }
+}
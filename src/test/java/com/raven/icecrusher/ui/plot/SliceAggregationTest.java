@@ -0,0 +1,193 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.icecrusher.ui.plot;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class SliceAggregationTest {
+
+    private static final ChartPreparation.Progress NO_PROGRESS = (done, total) -> { };
+
+    /**
+     * Spans more than two parallel chunks of the aggregation
+     */
+    private static final int LARGE_ROWS = 2 * 65536 + 12345;
+
+    private String[] keys;
+    private double[] values;
+
+    @BeforeClass
+    public static void setUpBeforeClass(){ }
+
+    @AfterClass
+    public static void tearDownAfterClass(){ }
+
+    @Before
+    public void setUp(){
+        //key 'k' occurs k+1 times
+        keys = new String[(100 * 101) / 2 + 10];
+        values = new double[keys.length];
+        int row = 0;
+        for(int k=0; k<100; ++k){
+            for(int j=0; j<=k; ++j){
+                keys[row] = String.valueOf(k);
+                values[row++] = 0.1;
+            }
+        }
+        while(row < keys.length){
+            keys[row] = null;
+            values[row++] = 1.0;
+        }
+    }
+
+    @After
+    public void tearDown(){ }
+
+    @Test
+    public void testCounts(){
+        final SliceAggregation aggregation = SliceAggregation.of(
+                (i) -> keys[i], null, keys.length, NO_PROGRESS);
+
+        assertEquals("Aggregation should have 100 keys", 100, aggregation.size());
+        assertEquals("Null keys should be counted", 10, aggregation.nulls());
+        assertEquals("Total should match", 5050.0, aggregation.total(), 0.0);
+        final Map<String, Number> map = aggregation.top(100);
+        assertEquals("All keys should be returned", 100, map.size());
+        assertEquals("Count should match", 42L, map.get("41"));
+    }
+
+    @Test
+    public void testCompensatedSums(){
+        final SliceAggregation aggregation = SliceAggregation.of(
+                (i) -> keys[i], (i) -> values[i], keys.length, NO_PROGRESS);
+
+        assertEquals("Total should be exact", 505.0, aggregation.total(), 1e-12);
+        final Map<String, Number> map = aggregation.top(100);
+        assertEquals("Sum should be exact", 10.0, map.get("99").doubleValue(), 1e-12);
+    }
+
+    @Test
+    public void testTopWithOther(){
+        final SliceAggregation aggregation = SliceAggregation.of(
+                (i) -> keys[i], null, keys.length, NO_PROGRESS);
+
+        final Map<String, Number> map = aggregation.top(5);
+        assertEquals("Map should have 5 entries", 5, map.size());
+        final Iterator<Map.Entry<String, Number>> it = map.entrySet().iterator();
+        assertEquals("Largest key should come first", "99", it.next().getKey());
+        assertEquals("Keys should be in descending order", "98", it.next().getKey());
+        assertEquals("Keys should be in descending order", "97", it.next().getKey());
+        assertEquals("Keys should be in descending order", "96", it.next().getKey());
+        final Map.Entry<String, Number> other = it.next();
+        assertEquals("Remaining keys should be grouped",
+                SliceAggregation.OTHER_LABEL, other.getKey());
+
+        assertEquals("Other should hold all remaining rows",
+                5050L - 100 - 99 - 98 - 97, other.getValue().longValue());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testNegativeValues(){
+        values[3] = -1.0;
+        SliceAggregation.of((i) -> keys[i], (i) -> values[i], keys.length, NO_PROGRESS);
+    }
+
+    private static String largeKey(final int row){
+        //every thousandth key is null and all other keys have different weights
+        return (((row % 1000) == 999) ? null : ("k" + (int) Math.sqrt(row % 10007)));
+    }
+
+    private static double largeValue(final int row){
+        //multiples of 0.25 are summed up exactly
+        return ((row % 13) * 0.25);
+    }
+
+    @Test
+    public void testMultipleChunks(){
+        final Map<String, Double> counts = new HashMap<>();
+        final Map<String, Double> sums = new HashMap<>();
+        int nulls = 0;
+        for(int i=0; i<LARGE_ROWS; ++i){
+            final String key = largeKey(i);
+            if(key == null){
+                ++nulls;
+            }else{
+                counts.merge(key, 1.0, Double::sum);
+                sums.merge(key, largeValue(i), Double::sum);
+            }
+        }
+        final SliceAggregation counted = SliceAggregation.of(
+                SliceAggregationTest::largeKey, null, LARGE_ROWS, NO_PROGRESS);
+
+        final SliceAggregation summed = SliceAggregation.of(SliceAggregationTest::largeKey,
+                SliceAggregationTest::largeValue, LARGE_ROWS, NO_PROGRESS);
+
+        assertEquals("Number of keys does not match", counts.size(), counted.size());
+        assertEquals("Number of nulls does not match", nulls, counted.nulls());
+        assertEquals("Total does not match", LARGE_ROWS - nulls, counted.total(), 0.0);
+        assertTopMatches(counts, counted.top(counts.size()), counts.size());
+        assertTopMatches(counts, counted.top(10), 10);
+
+        assertEquals("Number of keys does not match", sums.size(), summed.size());
+        assertTopMatches(sums, summed.top(sums.size()), sums.size());
+        assertTopMatches(sums, summed.top(10), 10);
+    }
+
+    private static void assertTopMatches(final Map<String, Double> expected,
+            final Map<String, Number> actual, final int n){
+
+        final List<Map.Entry<String, Double>> sorted = new ArrayList<>(expected.entrySet());
+        sorted.sort((a, b) -> Double.compare(b.getValue(), a.getValue()));
+        final int limit = ((sorted.size() > n) ? (n - 1) : sorted.size());
+        assertEquals("Number of entries does not match",
+                ((limit < sorted.size()) ? (limit + 1) : limit), actual.size());
+
+        final Iterator<Map.Entry<String, Number>> it = actual.entrySet().iterator();
+        double rest = 0.0;
+        for(int i=0; i<sorted.size(); ++i){
+            if(i < limit){
+                final Map.Entry<String, Number> entry = it.next();
+                assertEquals("Key does not match", sorted.get(i).getKey(), entry.getKey());
+                assertEquals("Weight does not match", sorted.get(i).getValue(),
+                        entry.getValue().doubleValue(), 0.0);
+            }else{
+                rest += sorted.get(i).getValue();
+            }
+        }
+        if(limit < sorted.size()){
+            final Map.Entry<String, Number> other = it.next();
+            assertEquals("Remaining keys should be grouped",
+                    SliceAggregation.OTHER_LABEL, other.getKey());
+
+            assertEquals("Other should hold all remaining weights",
+                    rest, other.getValue().doubleValue(), 0.0);
+        }
+    }
+
+}